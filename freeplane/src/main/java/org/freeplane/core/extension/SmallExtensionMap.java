@@ -19,89 +19,79 @@
  */
 package org.freeplane.core.extension;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+/**
+ * Map of few extensions keyed by their classes.
+ *
+ * Extensions are kept in insertion order, an open addressing table indexed by
+ * identity hash codes of their classes finds their positions in constant time.
+ */
 public class SmallExtensionMap implements Map<Class<? extends IExtension>, IExtension> {
-	private static final int INITIAL_CAPACITY = 5;
-	private List<IExtension> collection;
+	private static final int INITIAL_CAPACITY = 4;
+	private static final int MAXIMAL_SIZE = 255;
+
+	private IExtension[] extensions;
+	/** unsigned positions of extensions plus one at indices derived from their class hashes, 0 for empty entries */
+	private byte[] positions;
+	private int size;
 
 	public void clear() {
-		collection = null;
+		extensions = null;
+		positions = null;
+		size = 0;
 	}
 
 	public boolean containsKey(final Object key) {
-		if (collection == null) {
-			return false;
-		}
-		if (!(key instanceof Class<?>)) {
-			return false;
-		}
-		for (int i = 0; i < collection.size(); i++) {
-			final Object extension = collection.get(i);
-			if (key.equals(extension.getClass())) {
-				return true;
-			}
-		}
-		return false;
+		return key instanceof Class<?> && find((Class<?>) key) >= 0;
 	}
 
 	public boolean containsValue(final Object value) {
-		if (collection == null) {
-			return false;
-		}
 		if (!(value instanceof IExtension)) {
 			return false;
 		}
-		for (int i = 0; i < collection.size(); i++) {
-			if ( value.equals(collection.get(i))) {
+		for (int i = 0; i < size; i++) {
+			if (value.equals(extensions[i])) {
 				return true;
 			}
 		}
 		return false;
 	}
 
-	private List<IExtension> createCollection() {
-		if (collection == null) {
-			collection = new ArrayList<IExtension>(INITIAL_CAPACITY);
-		}
-		return collection;
-	}
-
 	public Set<java.util.Map.Entry<Class<? extends IExtension>, IExtension>> entrySet() {
 		throw new NoSuchMethodError();
 	}
 
-	private int find(final Class<? extends IExtension> clazz) {
-		if (collection == null) {
+	private int find(final Class<?> clazz) {
+		if (size == 0) {
 			return -1;
 		}
-		for (int i = 0; i < collection.size(); i++) {
-			if (clazz.equals(collection.get(i).getClass())) {
-				return i;
+		final int mask = positions.length - 1;
+		for (int i = hash(clazz) & mask;; i = (i + 1) & mask) {
+			final int position = (positions[i] & 0xFF) - 1;
+			if (position < 0 || extensions[position].getClass() == clazz) {
+				return position;
 			}
 		}
-		return -1;
 	}
 
-	@SuppressWarnings("unchecked")
-    public IExtension get(final Object key) {
+	public IExtension get(final Object key) {
 		if (!(key instanceof Class<?>)) {
 			return null;
 		}
-		final int index = find((Class<? extends IExtension>) key);
+		final int index = find((Class<?>) key);
 		if (index >= 0) {
-			return collection.get(index);
+			return extensions[index];
 		}
 		return null;
 	}
 
 	public boolean isEmpty() {
-		return collection == null;
+		return size == 0;
 	}
 
 	public Set<Class<? extends IExtension>> keySet() {
@@ -111,19 +101,52 @@ public class SmallExtensionMap implements Map<Class<? extends IExtension>, IExte
 	public IExtension put(final Class<? extends IExtension> key, final IExtension value) {
 		final int index = find(key);
 		if (index >= 0) {
-			final IExtension oldValue = collection.get(index);
-			collection.set(index, value);
+			final IExtension oldValue = extensions[index];
+			extensions[index] = value;
 			return oldValue;
 		}
 		else {
 			if (!key.equals(value.getClass())) {
 				throw new ClassCastException();
 			}
-			createCollection().add(value);
+			if (size == MAXIMAL_SIZE) {
+				throw new IllegalStateException("too many extensions");
+			}
+			if (extensions == null) {
+				extensions = new IExtension[INITIAL_CAPACITY];
+			}
+			else if (size == extensions.length) {
+				final IExtension[] grownExtensions = new IExtension[size * 2];
+				System.arraycopy(extensions, 0, grownExtensions, 0, size);
+				extensions = grownExtensions;
+			}
+			extensions[size++] = value;
+			if (positions == null || size * 2 > positions.length) {
+				index();
+			}
+			else {
+				addPosition(size - 1);
+			}
 			return null;
 		}
 	}
 
+	private void index() {
+		positions = new byte[Integer.highestOneBit(Math.max(size, 1) * 4 - 1)];
+		for (int i = 0; i < size; i++) {
+			addPosition(i);
+		}
+	}
+
+	private void addPosition(final int position) {
+		final int mask = positions.length - 1;
+		int i = hash(extensions[position].getClass()) & mask;
+		while (positions[i] != 0) {
+			i = (i + 1) & mask;
+		}
+		positions[i] = (byte) (position + 1);
+	}
+
 	public void putAll(final Map<? extends Class<? extends IExtension>, ? extends IExtension> source) {
 		for (final Entry<? extends Class<? extends IExtension>, ? extends IExtension> entry : source.entrySet()) {
 			final Class<? extends IExtension> key = entry.getKey();
@@ -132,32 +155,52 @@ public class SmallExtensionMap implements Map<Class<? extends IExtension>, IExte
 		}
 	}
 
-	@SuppressWarnings("unchecked")
-    public IExtension remove(final Object key) {
-		if (collection == null || !(key instanceof Class<?>)) {
+	public IExtension remove(final Object key) {
+		if (!(key instanceof Class<?>)) {
 			return null;
 		}
-		final int index = find((Class<? extends IExtension>) key);
+		final int index = find((Class<?>) key);
 		if (index == -1) {
 			return null;
 		}
-		final IExtension remove = collection.remove(index);
-		removeEmptyCollection();
+		final IExtension remove = extensions[index];
+		System.arraycopy(extensions, index + 1, extensions, index, size - index - 1);
+		extensions[--size] = null;
+		if (size == 0) {
+			clear();
+		}
+		else {
+			index();
+		}
 		return remove;
 	}
 
-	private void removeEmptyCollection() {
-		if (collection.size() == 0) {
-			collection = null;
-		}
+	private static int hash(final Class<?> clazz) {
+		final int hash = clazz.hashCode();
+		return hash ^ (hash >>> 16);
 	}
 
 	public int size() {
-		return collection == null ? 0 : collection.size();
+		return size;
 	}
 
 	public Collection<IExtension> values() {
-		final Collection<IExtension> emptyList = Collections.emptyList();
-		return collection == null ? emptyList : collection;
+		if (size == 0) {
+			return Collections.emptyList();
+		}
+		return new AbstractList<IExtension>() {
+			@Override
+			public IExtension get(int index) {
+				if (index >= size) {
+					throw new IndexOutOfBoundsException();
+				}
+				return extensions[index];
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
 	}
 }
@@ -0,0 +1,897 @@
+/*
+ *  Freeplane - mind map editor
+ *  Copyright (C) 2022 Freeplane team and others
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.core.io.xml;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
+import org.freeplane.core.io.IAttributeHandler;
+import org.freeplane.core.io.IElementContentHandler;
+import org.freeplane.core.io.IElementDOMHandler;
+import org.freeplane.core.io.IElementHandler;
+import org.freeplane.core.io.ReadManager;
+import org.freeplane.core.util.LogUtils;
+import org.freeplane.n3.nanoxml.XMLElement;
+import org.freeplane.n3.nanoxml.XMLException;
+import org.freeplane.n3.nanoxml.XMLParseException;
+
+/**
+ * Reads object trees from XML calling the handlers registered in a {@link ReadManager}
+ * exactly like {@link TreeXmlReader} does.
+ *
+ * The input is parsed directly from a reused character buffer.
+ * Element and attribute names are looked up in a symbol table without creating strings,
+ * and the handlers of each tag and attribute are resolved only once per load.
+ * DOM elements are only built where handlers can see them:
+ * for {@link IElementDOMHandler} and {@link IElementContentHandler} elements,
+ * for choosing between several handlers of the same tag
+ * and for unknown elements which are kept in the DOM of their parent.
+ *
+ * Documents with a document type declaration are passed to {@link TreeXmlReader}.
+ */
+public class StreamingTreeXmlReader {
+	private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+	private static final String SYSTEM_ID = null;
+	private static final IElementHandler[] NO_ELEMENT_HANDLERS = {};
+	private static final IAttributeHandler NO_ATTRIBUTE_HANDLER = (node, value) -> {};
+
+	private static class ElementHandlers {
+		final IElementHandler[] elementHandlers;
+		final Hashtable<String, IAttributeHandler> attributeHandlers;
+		private IAttributeHandler[] attributeHandlersByNameId = {};
+
+		ElementHandlers(IElementHandler[] elementHandlers, Hashtable<String, IAttributeHandler> attributeHandlers) {
+			this.elementHandlers = elementHandlers;
+			this.attributeHandlers = attributeHandlers;
+		}
+
+		IAttributeHandler getAttributeHandler(Name attributeName) {
+			if (attributeHandlers == null)
+				return null;
+			final int id = attributeName.id;
+			if (id >= attributeHandlersByNameId.length)
+				attributeHandlersByNameId = Arrays.copyOf(attributeHandlersByNameId,
+				    Math.max(id + 1, 2 * attributeHandlersByNameId.length));
+			IAttributeHandler handler = attributeHandlersByNameId[id];
+			if (handler == null) {
+				handler = attributeHandlers.get(attributeName.localName);
+				if (handler == null)
+					handler = NO_ATTRIBUTE_HANDLER;
+				attributeHandlersByNameId[id] = handler;
+			}
+			return handler != NO_ATTRIBUTE_HANDLER ? handler : null;
+		}
+	}
+
+	private static class Name {
+		final String fullName;
+		final String localName;
+		final String prefix;
+		final int hash;
+		final int id;
+		final boolean isNamespaceDeclaration;
+		ElementHandlers handlers;
+
+		Name(String fullName, int hash, int id) {
+			this.fullName = fullName;
+			this.hash = hash;
+			this.id = id;
+			final int colonIndex = fullName.indexOf(':');
+			if (colonIndex > 0) {
+				prefix = fullName.substring(0, colonIndex);
+				localName = fullName.substring(colonIndex + 1);
+			}
+			else {
+				prefix = null;
+				localName = fullName;
+			}
+			isNamespaceDeclaration = fullName.startsWith("xmlns");
+		}
+
+		boolean matches(char[] chars, int start, int length) {
+			if (fullName.length() != length)
+				return false;
+			for (int i = 0; i < length; i++) {
+				if (fullName.charAt(i) != chars[start + i])
+					return false;
+			}
+			return true;
+		}
+	}
+
+	private static class Frame {
+		Name name;
+		Object element;
+		IElementHandler handler;
+		XMLElement dom;
+		boolean isUnknown;
+		boolean hasRawContent;
+		String defaultNamespace;
+		Map<String, String> namespaces;
+
+		void clear() {
+			name = null;
+			element = null;
+			handler = null;
+			dom = null;
+			namespaces = null;
+			defaultNamespace = null;
+		}
+	}
+
+	final private ReadManager readManager;
+	private Reader input;
+	private char[] buffer = new char[INITIAL_BUFFER_SIZE];
+	private int position;
+	private int limit;
+	private int tokenStart;
+	private boolean keepsAllInput;
+	private boolean endOfInput;
+	private boolean lastCharWasCarriageReturn;
+	private int lineNr;
+	private int lineCountPosition;
+	private Name[] names;
+	private int nameCount;
+	private Frame[] frames = new Frame[32];
+	private int depth;
+	private Name[] attributeNames = new Name[16];
+	private String[] attributeValues = new String[16];
+	private int attributeCount;
+	private final StringBuilder text = new StringBuilder();
+
+	public StreamingTreeXmlReader(final ReadManager readManager) {
+		super();
+		this.readManager = readManager;
+	}
+
+	public void load(final Reader reader) throws XMLException {
+		load(null, reader);
+	}
+
+	public void load(final Object currentElement, final Reader reader) throws XMLException {
+		input = reader;
+		position = limit = 0;
+		tokenStart = -1;
+		keepsAllInput = true;
+		endOfInput = false;
+		lastCharWasCarriageReturn = false;
+		lineNr = 1;
+		lineCountPosition = 0;
+		names = new Name[256];
+		nameCount = 0;
+		depth = 0;
+		final Frame documentFrame = frame(0);
+		documentFrame.element = currentElement;
+		documentFrame.namespaces = Collections.emptyMap();
+		try {
+			if (!parse())
+				loadDocumentWithDocType(currentElement);
+		}
+		catch (final IOException e) {
+			throw new XMLException(SYSTEM_ID, lineNr(), e);
+		}
+		finally {
+			for (int i = 0; i <= depth; i++)
+				frames[i].clear();
+			input = null;
+		}
+	}
+
+	private void loadDocumentWithDocType(final Object currentElement) throws IOException, XMLException {
+		final int documentStart = buffer[0] == '\uFEFF' ? 1 : 0;
+		final PushbackReader reader = new PushbackReader(input, Math.max(1, limit - documentStart));
+		reader.unread(buffer, documentStart, limit - documentStart);
+		new TreeXmlReader(readManager).load(currentElement, reader);
+	}
+
+	/** @return false if the document has a document type declaration and was not read */
+	private boolean parse() throws IOException, XMLException {
+		if (fillIfNeeded() && buffer[position] == '\uFEFF')
+			position++;
+		for (;;) {
+			if (depth == 0) {
+				skipWhitespace();
+				if (!fillIfNeeded())
+					return true;
+				if (buffer[position] != '<')
+					throw new XMLParseException(SYSTEM_ID, lineNr(), "Invalid input: `" + buffer[position] + "'");
+			}
+			else if (!fillIfNeeded())
+				throw unexpectedEndOfInput();
+			else if (buffer[position] != '<') {
+				readText();
+				continue;
+			}
+			position++;
+			final char ch = next();
+			switch (ch) {
+				case '?':
+					skipProcessingInstruction();
+					break;
+				case '!':
+					if (!readSpecialTag())
+						return false;
+					break;
+				case '/':
+					if (depth == 0)
+						throw new XMLParseException(SYSTEM_ID, lineNr(), "Invalid input: `</'");
+					readEndTag(frames[depth].name);
+					endElement(null);
+					break;
+				default:
+					position--;
+					readElement();
+			}
+		}
+	}
+
+	private void readElement() throws IOException, XMLException {
+		keepsAllInput = false;
+		final Name name = readName();
+		skipWhitespace();
+		attributeCount = 0;
+		char ch;
+		for (;;) {
+			ch = next();
+			if (ch == '/' || ch == '>')
+				break;
+			position--;
+			readAttribute();
+			skipWhitespace();
+		}
+		if (ch == '/') {
+			if (next() != '>')
+				throw expected("`>'");
+			startElement(name);
+			endElement(null);
+			return;
+		}
+		startElement(name);
+		if (frames[depth].hasRawContent) {
+			final String content = readRawContent();
+			readEndTag(name);
+			endElement(content);
+		}
+	}
+
+	private void readAttribute() throws IOException, XMLException {
+		final Name name = readName();
+		skipWhitespace();
+		if (next() != '=')
+			throw expected("`='");
+		skipWhitespace();
+		final String value = readAttributeValue();
+		if (attributeCount == attributeNames.length) {
+			attributeNames = Arrays.copyOf(attributeNames, 2 * attributeCount);
+			attributeValues = Arrays.copyOf(attributeValues, 2 * attributeCount);
+		}
+		attributeNames[attributeCount] = name;
+		attributeValues[attributeCount] = value;
+		attributeCount++;
+	}
+
+	private String readAttributeValue() throws IOException, XMLException {
+		final char delimiter = next();
+		if (delimiter != '\'' && delimiter != '"')
+			throw expected("delimited string");
+		tokenStart = position;
+		for (;;) {
+			if (!fillIfNeeded())
+				throw unexpectedEndOfInput();
+			final char ch = buffer[position];
+			if (ch == delimiter) {
+				final String value = new String(buffer, tokenStart, position - tokenStart);
+				tokenStart = -1;
+				position++;
+				return value;
+			}
+			if (ch == '&' || ch == '\t' || ch == '\n')
+				break;
+			position++;
+		}
+		text.setLength(0);
+		text.append(buffer, tokenStart, position - tokenStart);
+		tokenStart = -1;
+		for (;;) {
+			final char ch = next();
+			if (ch == delimiter)
+				return text.toString();
+			if (ch == '&')
+				appendReference(text);
+			else if (ch == '\t' || ch == '\n')
+				text.append(' ');
+			else
+				text.append(ch);
+		}
+	}
+
+	private void readText() throws IOException, XMLException {
+		final Frame frame = frames[depth];
+		final StringBuilder text = frame.dom != null ? this.text : null;
+		if (text != null)
+			text.setLength(0);
+		for (;;) {
+			if (!fillIfNeeded())
+				throw unexpectedEndOfInput();
+			final char ch = buffer[position];
+			if (ch == '<')
+				return;
+			if (ch != ' ' && ch != '\t' && ch != '\n')
+				break;
+			if (text != null)
+				text.append(ch == '\n' ? '\n' : ' ');
+			position++;
+		}
+		for (;;) {
+			if (!fillIfNeeded())
+				throw unexpectedEndOfInput();
+			final int start = position;
+			char ch = 0;
+			while (position < limit) {
+				ch = buffer[position];
+				if (ch == '<' || ch == '&')
+					break;
+				position++;
+			}
+			if (text != null)
+				text.append(buffer, start, position - start);
+			if (position == limit)
+				continue;
+			if (ch == '<')
+				break;
+			position++;
+			appendReference(text);
+		}
+		if (text != null)
+			addText(frame, text.toString());
+	}
+
+	private void addText(final Frame frame, final String content) {
+		final XMLElement textElement = new XMLElement(null, SYSTEM_ID, lineNr());
+		textElement.setContent(content);
+		frame.dom.addChild(textElement);
+	}
+
+	/** appends the character referenced after &amp; or only checks the reference if text is null */
+	private void appendReference(final StringBuilder text) throws IOException, XMLException {
+		tokenStart = position;
+		while (next() != ';') {
+			// skip to the end of reference
+		}
+		final int start = tokenStart;
+		final int length = position - 1 - start;
+		tokenStart = -1;
+		if (length > 1 && buffer[start] == '#') {
+			final boolean isHex = buffer[start + 1] == 'x' || buffer[start + 1] == 'X';
+			final int codePoint;
+			try {
+				codePoint = isHex ? Integer.parseInt(new String(buffer, start + 2, length - 2), 16)
+				        : Integer.parseInt(new String(buffer, start + 1, length - 1), 10);
+			}
+			catch (final NumberFormatException e) {
+				throw invalidReference(start, length);
+			}
+			if (!Character.isValidCodePoint(codePoint))
+				throw invalidReference(start, length);
+			if (text != null)
+				text.appendCodePoint(codePoint);
+			return;
+		}
+		final char ch;
+		if (isEntity("amp", start, length))
+			ch = '&';
+		else if (isEntity("lt", start, length))
+			ch = '<';
+		else if (isEntity("gt", start, length))
+			ch = '>';
+		else if (isEntity("quot", start, length))
+			ch = '"';
+		else if (isEntity("apos", start, length))
+			ch = '\'';
+		else
+			throw invalidReference(start, length);
+		if (text != null)
+			text.append(ch);
+	}
+
+	private boolean isEntity(final String entity, final int start, final int length) {
+		if (entity.length() != length)
+			return false;
+		for (int i = 0; i < length; i++) {
+			if (entity.charAt(i) != buffer[start + i])
+				return false;
+		}
+		return true;
+	}
+
+	private XMLParseException invalidReference(final int start, final int length) {
+		return new XMLParseException(SYSTEM_ID, lineNr(), "Invalid entity: `&" + new String(buffer, start, length)
+		        + ";'");
+	}
+
+	/** reads the content of an element up to its closing tag without parsing it, like {@link XMLParser} does */
+	private String readRawContent() throws IOException, XMLException {
+		tokenStart = position;
+		boolean inComment = false;
+		int level = 1;
+		for (;;) {
+			char ch = next();
+			if (inComment) {
+				if (ch != '-')
+					continue;
+				ch = next();
+				if (ch != '-')
+					continue;
+				ch = next();
+				if (ch != '>')
+					continue;
+				inComment = false;
+				continue;
+			}
+			if (ch == '<') {
+				ch = next();
+				if (ch == '/') {
+					level--;
+					if (level == 0)
+						break;
+				}
+				else if (ch == '!') {
+					final char read1 = next();
+					final char read2 = next();
+					if (read1 != '-' || read2 != '-')
+						throw new XMLParseException(SYSTEM_ID, lineNr(), "Invalid input: <!" + read1 + read2);
+					inComment = true;
+				}
+				else
+					level++;
+			}
+			else if (ch == '/') {
+				ch = next();
+				if (ch == '>') {
+					level--;
+					if (level == 0)
+						throw new XMLParseException(SYSTEM_ID, lineNr(), "Invalid input: />");
+				}
+				else if (ch == '<')
+					position--;
+			}
+		}
+		final String content = new String(buffer, tokenStart, position - 2 - tokenStart);
+		tokenStart = -1;
+		return content;
+	}
+
+	private void readEndTag(final Name expectedName) throws IOException, XMLException {
+		skipWhitespace();
+		final Name name = readName();
+		if (name != expectedName)
+			throw new XMLParseException(SYSTEM_ID, lineNr(), "Closing tag does not match opening tag: `"
+			        + expectedName.fullName + "' != `" + name.fullName + "'");
+		skipWhitespace();
+		if (next() != '>')
+			throw new XMLParseException(SYSTEM_ID, lineNr(), "Closing tag must be empty");
+	}
+
+	/** @return false if it is a document type declaration in the prolog */
+	private boolean readSpecialTag() throws IOException, XMLException {
+		final char ch = next();
+		switch (ch) {
+			case '-':
+				if (next() != '-')
+					throw expected("<!--");
+				skipComment();
+				return true;
+			case '[':
+				if (depth == 0)
+					throw new XMLParseException(SYSTEM_ID, lineNr(), "Unexpected <![CDATA[");
+				for (final char expected : "CDATA[".toCharArray()) {
+					if (next() != expected)
+						throw expected("<![CDATA[");
+				}
+				readCData();
+				return true;
+			case 'D':
+				if (keepsAllInput)
+					return false;
+				//$FALL-THROUGH$
+			default:
+				throw new XMLParseException(SYSTEM_ID, lineNr(), "Invalid input: `<!" + ch + "'");
+		}
+	}
+
+	private void readCData() throws IOException, XMLException {
+		tokenStart = position;
+		int closingBrackets = 0;
+		for (;;) {
+			final char ch = next();
+			if (ch == '>' && closingBrackets >= 2)
+				break;
+			closingBrackets = ch == ']' ? closingBrackets + 1 : 0;
+		}
+		final int start = tokenStart;
+		tokenStart = -1;
+		final Frame frame = frames[depth];
+		if (frame.dom != null)
+			addText(frame, new String(buffer, start, position - 3 - start));
+	}
+
+	private void skipComment() throws IOException, XMLException {
+		int dashesRead = 0;
+		for (;;) {
+			final char ch = next();
+			if (ch == '-')
+				dashesRead++;
+			else if (ch == '>' && dashesRead == 2)
+				return;
+			else
+				dashesRead = 0;
+		}
+	}
+
+	private void skipProcessingInstruction() throws IOException, XMLException {
+		char previous = 0;
+		for (;;) {
+			final char ch = next();
+			if (ch == '>' && previous == '?')
+				return;
+			previous = ch;
+		}
+	}
+
+	private void startElement(final Name name) throws XMLException {
+		final Frame parent = frames[depth];
+		final Frame frame = frame(++depth);
+		frame.name = name;
+		frame.element = null;
+		frame.handler = null;
+		frame.dom = null;
+		frame.isUnknown = false;
+		frame.hasRawContent = false;
+		declareNamespaces(parent, frame);
+		if (parent.isUnknown) {
+			frame.isUnknown = true;
+			if (parent.dom != null)
+				addUnknownElement(parent, frame, createDomWithAttributes(frame));
+			return;
+		}
+		final ElementHandlers handlers = getHandlers(name);
+		final IElementHandler[] elementHandlers = handlers.elementHandlers;
+		if (elementHandlers.length == 1) {
+			final IElementHandler handler = elementHandlers[0];
+			final Object element = createElement(handler, parent.element, name.localName, null);
+			if (element != null) {
+				frame.handler = handler;
+				frame.element = element;
+				frame.hasRawContent = handler instanceof IElementContentHandler;
+				if (frame.hasRawContent || handler instanceof IElementDOMHandler)
+					frame.dom = createDom(frame);
+				for (int i = 0; i < attributeCount; i++) {
+					final Name attributeName = attributeNames[i];
+					if (attributeName.isNamespaceDeclaration)
+						continue;
+					final String value = attributeValues[i];
+					if (!setAttribute(handlers.getAttributeHandler(attributeName), element, attributeName.localName,
+					    value) && frame.dom != null)
+						addDomAttribute(frame.dom, attributeName, value);
+				}
+				return;
+			}
+		}
+		if (elementHandlers.length == 0 && parent.dom == null) {
+			frame.isUnknown = true;
+			return;
+		}
+		final XMLElement dom = createDomWithAttributes(frame);
+		frame.dom = dom;
+		for (final IElementHandler handler : elementHandlers) {
+			final Object element = createElement(handler, parent.element, name.localName, dom);
+			if (element != null) {
+				frame.handler = handler;
+				frame.element = element;
+				break;
+			}
+		}
+		if (frame.element == null) {
+			frame.isUnknown = true;
+			if (parent.dom != null)
+				addUnknownElement(parent, frame, dom);
+			else
+				frame.dom = null;
+			return;
+		}
+		final IElementHandler handler = frame.handler;
+		frame.hasRawContent = handler instanceof IElementContentHandler
+		        && ((IElementContentHandler) handler).containsXml(dom);
+		if (handlers.attributeHandlers == null)
+			return;
+		final Enumeration<String> domAttributeNames = dom.enumerateAttributeNames();
+		while (domAttributeNames.hasMoreElements()) {
+			final String attributeName = domAttributeNames.nextElement();
+			if (setAttribute(handlers.attributeHandlers.get(attributeName), frame.element, attributeName,
+			    dom.getAttribute(attributeName, null)))
+				dom.removeAttribute(attributeName);
+		}
+	}
+
+	private void endElement(final String rawContent) {
+		final Frame frame = frames[depth--];
+		final Frame parent = frames[depth];
+		final XMLElement dom = frame.dom;
+		if (dom != null && dom.getChildrenCount() == 1) {
+			final XMLElement child = dom.getChildAtIndex(0);
+			if (child.getName() == null) {
+				dom.setContent(child.getContent());
+				dom.removeChildAtIndex(0);
+			}
+		}
+		if (!frame.isUnknown) {
+			final IElementHandler handler = frame.handler;
+			final String tag = frame.name.localName;
+			try {
+				if (handler instanceof IElementContentHandler) {
+					final IElementContentHandler contentHandler = (IElementContentHandler) handler;
+					contentHandler.endElement(parent.element, tag, frame.element, dom,
+					    contentHandler.containsXml(dom) ? rawContent : dom.getContent());
+				}
+				else if (handler instanceof IElementDOMHandler)
+					((IElementDOMHandler) handler).endElement(parent.element, tag, frame.element, dom);
+			}
+			catch (final Exception e) {
+				LogUtils.severe("Can not process element" + tag, e);
+			}
+		}
+		frame.clear();
+	}
+
+	private Object createElement(final IElementHandler handler, final Object parent, final String tag,
+	                             final XMLElement attributes) {
+		try {
+			return handler.createElement(parent, tag, attributes);
+		}
+		catch (final Exception e) {
+			LogUtils.severe("Can not process element" + tag, e);
+			return null;
+		}
+	}
+
+	private boolean setAttribute(final IAttributeHandler handler, final Object element, final String name,
+	                             final String value) {
+		if (handler == null)
+			return false;
+		try {
+			handler.setAttribute(element, value);
+			return true;
+		}
+		catch (final Exception e) {
+			LogUtils.severe("Can not process attribute" + name + " = '" + value + "'", e);
+			return false;
+		}
+	}
+
+	private void addUnknownElement(final Frame parent, final Frame frame, final XMLElement dom) {
+		frame.dom = dom;
+		parent.dom.addChild(dom);
+	}
+
+	private XMLElement createDom(final Frame frame) throws XMLParseException {
+		final Name name = frame.name;
+		final String namespace = name.prefix == null ? frame.defaultNamespace : frame.namespaces.get(name.prefix);
+		return new XMLElement(name.fullName, namespace, SYSTEM_ID, lineNr());
+	}
+
+	private XMLElement createDomWithAttributes(final Frame frame) throws XMLParseException {
+		final XMLElement dom = createDom(frame);
+		for (int i = 0; i < attributeCount; i++) {
+			final Name attributeName = attributeNames[i];
+			if (!attributeName.isNamespaceDeclaration)
+				addDomAttribute(dom, attributeName, attributeValues[i]);
+		}
+		return dom;
+	}
+
+	private void addDomAttribute(final XMLElement dom, final Name attributeName, final String value)
+	        throws XMLParseException {
+		final String fullName = attributeName.fullName;
+		if (dom.hasAttribute(fullName))
+			throw new XMLParseException(SYSTEM_ID, lineNr(), "Duplicate attribute: " + attributeName.localName);
+		if (attributeName.prefix != null)
+			dom.setAttribute(fullName, frames[depth].namespaces.get(attributeName.prefix), value);
+		else
+			dom.setAttribute(fullName, value);
+	}
+
+	private void declareNamespaces(final Frame parent, final Frame frame) {
+		frame.defaultNamespace = parent.defaultNamespace;
+		frame.namespaces = parent.namespaces;
+		for (int i = 0; i < attributeCount; i++) {
+			final Name attributeName = attributeNames[i];
+			if (!attributeName.isNamespaceDeclaration)
+				continue;
+			final String fullName = attributeName.fullName;
+			if (fullName.equals("xmlns"))
+				frame.defaultNamespace = attributeValues[i];
+			else if (fullName.startsWith("xmlns:")) {
+				if (frame.namespaces == parent.namespaces)
+					frame.namespaces = new HashMap<>(parent.namespaces);
+				frame.namespaces.put(fullName.substring(6), attributeValues[i]);
+			}
+		}
+	}
+
+	private ElementHandlers getHandlers(final Name name) {
+		if (name.handlers == null) {
+			final List<IElementHandler> elementHandlers = readManager.getElementHandlers().list(name.localName);
+			name.handlers = new ElementHandlers(
+			    elementHandlers != null ? elementHandlers.toArray(NO_ELEMENT_HANDLERS) : NO_ELEMENT_HANDLERS,
+			    readManager.getAttributeHandlers().get(name.localName));
+		}
+		return name.handlers;
+	}
+
+	private Frame frame(final int index) {
+		if (index == frames.length)
+			frames = Arrays.copyOf(frames, 2 * index);
+		Frame frame = frames[index];
+		if (frame == null) {
+			frame = new Frame();
+			frames[index] = frame;
+		}
+		return frame;
+	}
+
+	private Name readName() throws IOException, XMLException {
+		tokenStart = position;
+		for (;;) {
+			if (!fillIfNeeded())
+				throw unexpectedEndOfInput();
+			final char ch = buffer[position];
+			if (!(ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z' || ch >= '0' && ch <= '9' || ch == '_'
+			        || ch == ':' || ch == '-' || ch == '.' || ch > '~'))
+				break;
+			position++;
+		}
+		final int start = tokenStart;
+		tokenStart = -1;
+		if (position == start)
+			throw new XMLParseException(SYSTEM_ID, lineNr(), "Invalid input: `" + buffer[position] + "'");
+		return name(start, position - start);
+	}
+
+	private Name name(final int start, final int length) {
+		int hash = 0;
+		for (int i = start; i < start + length; i++)
+			hash = 31 * hash + buffer[i];
+		final int mask = names.length - 1;
+		int index = (hash ^ hash >>> 16) & mask;
+		for (Name name; (name = names[index]) != null; index = (index + 1) & mask) {
+			if (name.hash == hash && name.matches(buffer, start, length))
+				return name;
+		}
+		final Name name = new Name(new String(buffer, start, length), hash, nameCount++);
+		names[index] = name;
+		if (2 * nameCount > names.length)
+			rehashNames();
+		return name;
+	}
+
+	private void rehashNames() {
+		final Name[] oldNames = names;
+		names = new Name[2 * oldNames.length];
+		final int mask = names.length - 1;
+		for (final Name name : oldNames) {
+			if (name == null)
+				continue;
+			int index = (name.hash ^ name.hash >>> 16) & mask;
+			while (names[index] != null)
+				index = (index + 1) & mask;
+			names[index] = name;
+		}
+	}
+
+	private void skipWhitespace() throws IOException {
+		for (;;) {
+			if (!fillIfNeeded())
+				return;
+			final char ch = buffer[position];
+			if (ch != ' ' && ch != '\t' && ch != '\n')
+				return;
+			position++;
+		}
+	}
+
+	private char next() throws IOException, XMLException {
+		if (!fillIfNeeded())
+			throw unexpectedEndOfInput();
+		return buffer[position++];
+	}
+
+	/** @return false at the end of input */
+	private boolean fillIfNeeded() throws IOException {
+		return position < limit || fill();
+	}
+
+	/** reads more input keeping the current token, line ends are normalized to '\n' */
+	private boolean fill() throws IOException {
+		while (!endOfInput) {
+			int keepFrom = keepsAllInput ? 0 : position;
+			if (tokenStart >= 0 && tokenStart < keepFrom)
+				keepFrom = tokenStart;
+			countLines(keepFrom);
+			if (keepFrom > 0) {
+				System.arraycopy(buffer, keepFrom, buffer, 0, limit - keepFrom);
+				limit -= keepFrom;
+				position -= keepFrom;
+				lineCountPosition -= keepFrom;
+				if (tokenStart >= 0)
+					tokenStart -= keepFrom;
+			}
+			if (limit == buffer.length)
+				buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+			final int count = input.read(buffer, limit, buffer.length - limit);
+			if (count < 0) {
+				endOfInput = true;
+				break;
+			}
+			final int end = limit + count;
+			int target = limit;
+			for (int source = limit; source < end; source++) {
+				final char ch = buffer[source];
+				if (ch == '\n' && lastCharWasCarriageReturn) {
+					lastCharWasCarriageReturn = false;
+					continue;
+				}
+				lastCharWasCarriageReturn = ch == '\r';
+				buffer[target++] = lastCharWasCarriageReturn ? '\n' : ch;
+			}
+			limit = target;
+			if (position < limit)
+				return true;
+		}
+		return false;
+	}
+
+	private void countLines(final int end) {
+		for (int i = lineCountPosition; i < end; i++) {
+			if (buffer[i] == '\n')
+				lineNr++;
+		}
+		if (end > lineCountPosition)
+			lineCountPosition = end;
+	}
+
+	private int lineNr() {
+		countLines(position);
+		return lineNr;
+	}
+
+	private XMLParseException unexpectedEndOfInput() {
+		return new XMLParseException(SYSTEM_ID, lineNr(), "Unexpected end of input");
+	}
+
+	private XMLParseException expected(final String expectedInput) {
+		return new XMLParseException(SYSTEM_ID, lineNr(), "Expected: " + expectedInput);
+	}
+}
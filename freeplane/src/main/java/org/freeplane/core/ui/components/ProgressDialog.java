@@ -0,0 +1,104 @@
+/*
+ *  Freeplane - mind map editor
+ *  Copyright (C) 2022 Freeplane team and others
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.core.ui.components;
+
+import java.awt.BorderLayout;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntSupplier;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.Timer;
+
+import org.freeplane.core.ui.LabelAndMnemonicSetter;
+import org.freeplane.core.util.TextUtils;
+
+/**
+ * Modal dialog showing the progress of a task running on another thread and allowing to cancel it.
+ * It is shown only if the task takes longer than a moment.
+ */
+public class ProgressDialog {
+	public static final int MAXIMUM_PROGRESS = 1000;
+	private static final int DIALOG_DELAY = 300;
+	private static final int UPDATE_PERIOD = 100;
+
+	/**
+	 * Waits on the event dispatch thread until the task is done.
+	 *
+	 * @param progress returns the progress between 0 and {@link #MAXIMUM_PROGRESS}
+	 * @param cancel is called if the user cancels the task, which should be done soon after
+	 */
+	public static void waitFor(final Future<?> task, final String title, final IntSupplier progress,
+	                           final Runnable cancel) {
+		try {
+			task.get(DIALOG_DELAY, TimeUnit.MILLISECONDS);
+			return;
+		}
+		catch (final TimeoutException e) {
+		}
+		catch (final InterruptedException | ExecutionException e) {
+			return;
+		}
+		final JDialog dialog = new JDialog(UITools.getCurrentFrame(), title, true);
+		dialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+		final JProgressBar progressBar = new JProgressBar(0, MAXIMUM_PROGRESS);
+		progressBar.setStringPainted(true);
+		final JButton cancelButton = new JButton();
+		LabelAndMnemonicSetter.setLabelAndMnemonic(cancelButton, TextUtils.getRawText("cancel"));
+		final Runnable cancelTask = () -> {
+			if (cancelButton.isEnabled()) {
+				cancelButton.setEnabled(false);
+				cancel.run();
+			}
+		};
+		dialog.addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosing(final WindowEvent e) {
+				cancelTask.run();
+			}
+		});
+		cancelButton.addActionListener(e -> cancelTask.run());
+		final JPanel panel = new JPanel(new BorderLayout(0, 10));
+		panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+		panel.add(progressBar, BorderLayout.CENTER);
+		panel.add(cancelButton, BorderLayout.SOUTH);
+		dialog.getContentPane().add(panel);
+		dialog.pack();
+		dialog.setLocationRelativeTo(dialog.getOwner());
+		final Timer timer = new Timer(UPDATE_PERIOD, e -> {
+			progressBar.setValue(progress.getAsInt());
+			if (task.isDone())
+				dialog.dispose();
+		});
+		timer.start();
+		try {
+			dialog.setVisible(true);
+		}
+		finally {
+			timer.stop();
+		}
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ *  Freeplane - mind map editor
+ *  Copyright (C) 2022 Freeplane team and others
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.core.ui.components.html;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.swing.JLabel;
+import javax.swing.plaf.basic.BasicHTML;
+import javax.swing.text.Document;
+import javax.swing.text.html.HTMLDocument;
+
+/**
+ * Parsed and styled html documents shared by all labels showing the same text in the same style.
+ *
+ * Labels never modify their documents, so each of them only needs its own view hierarchy
+ * while parsing happens once per text, font, color, alignment and document base.
+ * The least recently used documents are evicted, and all of them can be collected on memory shortage.
+ */
+class HTMLDocumentCache {
+	private static final int MAXIMAL_SIZE = 2000;
+	static final HTMLDocumentCache INSTANCE = new HTMLDocumentCache(MAXIMAL_SIZE);
+
+	private static class Key {
+		final String html;
+		final Font font;
+		final Color foreground;
+		final int horizontalAlignment;
+		final String base;
+		final int hashCode;
+
+		Key(final String html, final Font font, final Color foreground, final int horizontalAlignment,
+		    final String base) {
+			this.html = html;
+			this.font = font;
+			this.foreground = foreground;
+			this.horizontalAlignment = horizontalAlignment;
+			this.base = base;
+			this.hashCode = Objects.hash(html, font, foreground, horizontalAlignment, base);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			final Key other = (Key) obj;
+			return hashCode == other.hashCode
+			        && horizontalAlignment == other.horizontalAlignment
+			        && html.equals(other.html)
+			        && Objects.equals(font, other.font)
+			        && Objects.equals(foreground, other.foreground)
+			        && Objects.equals(base, other.base);
+		}
+	}
+
+	private final Map<Key, SoftReference<Document>> documents;
+
+	@SuppressWarnings("serial")
+	HTMLDocumentCache(final int maximalSize) {
+		documents = new LinkedHashMap<Key, SoftReference<Document>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Key, SoftReference<Document>> eldest) {
+				return size() > maximalSize;
+			}
+		};
+	}
+
+	Document getDocument(final ScaledEditorKit kit, final JLabel c, final String html) {
+		final Object base = c.getClientProperty(BasicHTML.documentBaseKey);
+		final Key key = new Key(html, c.getFont(), c.getForeground(), c.getHorizontalAlignment(),
+		    base instanceof URL ? ((URL) base).toExternalForm() : null);
+		synchronized (this) {
+			final SoftReference<Document> cachedDocument = documents.get(key);
+			final Document document = cachedDocument != null ? cachedDocument.get() : null;
+			if (document != null)
+				return document;
+		}
+		final Document document = createDocument(kit, c, html, base);
+		synchronized (this) {
+			documents.put(key, new SoftReference<>(document));
+		}
+		return document;
+	}
+
+	private static Document createDocument(final ScaledEditorKit kit, final JLabel c, final String html,
+	                                       final Object base) {
+		final Document doc = kit.createDefaultDocument(c);
+		if (base instanceof URL) {
+			((HTMLDocument) doc).setBase((URL) base);
+		}
+		final Reader r = new StringReader(html);
+		try {
+			kit.read(r, doc, 0);
+		}
+		catch (final Throwable e) {
+		}
+		return doc;
+	}
+
+	synchronized int size() {
+		return documents.size();
+	}
+}
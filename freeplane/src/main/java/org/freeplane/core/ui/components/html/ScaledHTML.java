@@ -23,9 +23,6 @@ import java.awt.Container;
 import java.awt.Graphics;
 import java.awt.Rectangle;
 import java.awt.Shape;
-import java.io.Reader;
-import java.io.StringReader;
-import java.net.URL;
 
 import javax.swing.JComponent;
 import javax.swing.JLabel;
@@ -37,7 +34,6 @@ import javax.swing.text.Element;
 import javax.swing.text.Position;
 import javax.swing.text.View;
 import javax.swing.text.ViewFactory;
-import javax.swing.text.html.HTMLDocument;
 
 import org.freeplane.view.swing.map.ZoomableLabel;
 
@@ -45,20 +41,11 @@ public class ScaledHTML extends BasicHTML{
 
     /**
      * Create an html renderer for the given component and
-     * string of html.
+     * string of html. Parsed documents are shared between renderers.
      */
     static Renderer createHTMLView(JLabel c, String html) {
         ScaledEditorKit kit = SynchronousScaledEditorKit.create();
-        Document doc = kit.createDefaultDocument(c);
-        Object base = c.getClientProperty(documentBaseKey);
-        if (base instanceof URL) {
-            ((HTMLDocument)doc).setBase((URL)base);
-        }
-        Reader r = new StringReader(html);
-        try {
-            kit.read(r, doc, 0);
-        } catch (Throwable e) {
-        }
+        Document doc = HTMLDocumentCache.INSTANCE.getDocument(kit, c, html);
         ViewFactory f = kit.getViewFactory();
         View hview = f.create(doc.getDefaultRootElement());
         Renderer v = new Renderer(c, f, hview);
@@ -0,0 +1,481 @@
+package org.freeplane.core.util;
+
+import java.util.regex.Pattern;
+
+/**
+ * Single pass replacement of the regular expression cascade formerly used by
+ * {@link HtmlUtils#htmlToPlain(String, boolean, boolean)}.
+ * <p>
+ * The converter emulates every replacement step of the cascade while scanning the text once,
+ * so its output is identical to the old implementation. Input which can not be split into
+ * text and tags unambiguously (a '&lt;' without matching '&gt;', '&lt;' nested inside of a tag,
+ * empty entities) is passed to {@link #convertByRegularExpressions(String, boolean)}.
+ * <p>
+ * Instances keep their work buffers between calls and are not thread safe.
+ */
+class HtmlToPlainConverter {
+	private static final int MAX_RETAINED_BUFFER_CAPACITY = 1 << 16;
+
+	private static final int NO_EATING = 0;
+	private static final int BR = 2;
+	private static final int P = 3;
+	private static final int DIV = 4;
+	private static final int TR = 5;
+	private static final int DT = 6;
+	private static final int DD = 7;
+	private static final int TD = 8;
+	private static final int LIST = 9;
+	private static final int LI = 10;
+	private static final int CLOSING = 11;
+	private static final int OTHER = 12;
+
+	private final StringBuilder structure = new StringBuilder();
+	private final StringBuilder decoded = new StringBuilder();
+
+	private int eatWhitespaceLevel;
+	private boolean eatSpaces;
+	private int spaceBarrier;
+
+	void appendPlainText(final String text, final boolean removeNewLines, final StringBuilder target) {
+		try {
+			if (convertStructure(text, removeNewLines) && decodeNumericEntities()) {
+				decodeNamedEntities(target);
+			}
+			else {
+				target.append(convertByRegularExpressions(text, removeNewLines));
+			}
+		}
+		finally {
+			releaseBuffer(structure);
+			releaseBuffer(decoded);
+		}
+	}
+
+	private void releaseBuffer(final StringBuilder buffer) {
+		buffer.setLength(0);
+		if (buffer.capacity() > MAX_RETAINED_BUFFER_CAPACITY) {
+			buffer.trimToSize();
+		}
+	}
+
+	/** Applies the tag and whitespace related steps and trims the result.
+	 * @return false if the text can not be tokenized unambiguously */
+	private boolean convertStructure(final String text, final boolean removeNewLines) {
+		eatWhitespaceLevel = NO_EATING;
+		eatSpaces = false;
+		spaceBarrier = 0;
+		structure.setLength(0);
+		structure.ensureCapacity(text.length());
+		final int length = text.length();
+		boolean afterGreaterThan = false;
+		boolean inWhitespaceRun = false;
+		for (int i = 0; i < length; i++) {
+			final char c = text.charAt(i);
+			if (c == '<') {
+				final int tagEnd = findTagEnd(text, i);
+				if (tagEnd < 0) {
+					return false;
+				}
+				processTag(classifyTag(text, i));
+				i = tagEnd;
+				afterGreaterThan = true;
+				inWhitespaceRun = false;
+				continue;
+			}
+			if (afterGreaterThan && (c == '\n' || c == '\t')) {
+				continue;
+			}
+			afterGreaterThan = c == '>';
+			if (removeNewLines && (c == ' ' || c == '\n' || c == '\t')) {
+				if (!inWhitespaceRun) {
+					inWhitespaceRun = true;
+					processTextCharacter(' ');
+				}
+				continue;
+			}
+			inWhitespaceRun = false;
+			processTextCharacter(c);
+		}
+		return true;
+	}
+
+	private int findTagEnd(final String text, final int tagStart) {
+		final int length = text.length();
+		if (tagStart + 1 >= length || text.charAt(tagStart + 1) == '>') {
+			return -1;
+		}
+		for (int i = tagStart + 1; i < length; i++) {
+			final char c = text.charAt(i);
+			if (c == '>') {
+				return i;
+			}
+			if (c == '<') {
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	private int classifyTag(final String text, final int tagStart) {
+		final char first = text.charAt(tagStart + 1);
+		if (first == '/') {
+			return CLOSING;
+		}
+		final char second = text.charAt(tagStart + 2);
+		switch (first) {
+			case 'b':
+			case 'B':
+				return isLetter(second, 'r') ? BR : OTHER;
+			case 'p':
+			case 'P':
+				return P;
+			case 'd':
+			case 'D':
+				if (isLetter(second, 'i') && isLetter(text.charAt(tagStart + 3), 'v')) {
+					return DIV;
+				}
+				if (isLetter(second, 't')) {
+					return DT;
+				}
+				if (isLetter(second, 'd')) {
+					return DD;
+				}
+				return OTHER;
+			case 't':
+			case 'T':
+				if (isLetter(second, 'r')) {
+					return TR;
+				}
+				if (isLetter(second, 'd')) {
+					return TD;
+				}
+				return OTHER;
+			case 'u':
+			case 'U':
+			case 'o':
+			case 'O':
+				return isLetter(second, 'l') ? LIST : OTHER;
+			case 'l':
+			case 'L':
+				return isLetter(second, 'i') ? LI : OTHER;
+			default:
+				return OTHER;
+		}
+	}
+
+	private static boolean isLetter(final char c, final char lowerCaseLetter) {
+		return c == lowerCaseLetter || c == Character.toUpperCase(lowerCaseLetter);
+	}
+
+	private void processTextCharacter(final char c) {
+		if (eatWhitespaceLevel != NO_EATING) {
+			if (isRegexWhitespace(c)) {
+				return;
+			}
+			eatWhitespaceLevel = NO_EATING;
+		}
+		appendReplacement(c);
+	}
+
+	private void processTag(final int tag) {
+		switch (tag) {
+			case BR:
+				if (eatWhitespaceLevel == NO_EATING) {
+					appendReplacement('\n');
+				}
+				break;
+			case P:
+			case DIV:
+			case TR:
+				if (eatWhitespaceLevel <= tag) {
+					appendReplacement('\n');
+					eatWhitespaceLevel = tag;
+				}
+				break;
+			case DT:
+			case LIST:
+				eatWhitespaceLevel = NO_EATING;
+				appendReplacement('\n');
+				break;
+			case DD:
+				eatWhitespaceLevel = NO_EATING;
+				appendReplacement('\n');
+				structure.append("   ");
+				break;
+			case TD:
+				eatWhitespaceLevel = NO_EATING;
+				appendReplacement(' ');
+				break;
+			case LI:
+				eatWhitespaceLevel = NO_EATING;
+				appendReplacement('\n');
+				structure.append("   * ");
+				break;
+			case CLOSING:
+				eatWhitespaceLevel = NO_EATING;
+				int end = structure.length();
+				while (end > spaceBarrier && structure.charAt(end - 1) == ' ') {
+					end--;
+				}
+				structure.setLength(end);
+				break;
+			default:
+				eatWhitespaceLevel = NO_EATING;
+				spaceBarrier = structure.length();
+				eatSpaces = true;
+				break;
+		}
+	}
+
+	private void appendReplacement(final char c) {
+		if (eatSpaces) {
+			if (c == ' ') {
+				return;
+			}
+			eatSpaces = false;
+		}
+		structure.append(c);
+	}
+
+	private static boolean isRegexWhitespace(final char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
+	/** Same as {@link HtmlUtils#unescapeHTMLUnicodeEntity(String)} applied to the trimmed structure.
+	 * @return false for entities the original method fails on */
+	private boolean decodeNumericEntities() {
+		int start = 0;
+		int end = structure.length();
+		while (start < end && structure.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && structure.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		decoded.setLength(0);
+		decoded.ensureCapacity(end - start);
+		for (int i = start; i < end; i++) {
+			final char c = structure.charAt(i);
+			if (c != '&') {
+				decoded.append(c);
+				continue;
+			}
+			final int entityStart = i + 1;
+			final int entityEnd = indexOf(structure, ';', entityStart, end);
+			if (entityEnd < 0) {
+				decoded.append(structure, i, end);
+				if (entityStart == end) {
+					decoded.setLength(decoded.length() - 1);
+				}
+				break;
+			}
+			if (entityEnd == entityStart) {
+				return false;
+			}
+			if (structure.charAt(entityStart) == '#') {
+				if (entityEnd == entityStart + 1) {
+					return false;
+				}
+				final long code;
+				if (structure.charAt(entityStart + 1) == 'x') {
+					code = parseInt(structure, entityStart + 2, entityEnd, 16);
+				}
+				else {
+					code = parseInt(structure, entityStart + 1, entityEnd, 10);
+				}
+				if (code == Long.MIN_VALUE) {
+					decoded.append(structure, i, entityEnd + 1);
+				}
+				else {
+					final char decodedCharacter = (char) code;
+					if (decodedCharacter >= ' ' || decodedCharacter == '\t' || decodedCharacter == '\r'
+					        || decodedCharacter == '\n') {
+						decoded.append(decodedCharacter);
+					}
+					else {
+						decoded.append(' ');
+					}
+				}
+			}
+			else {
+				decoded.append(structure, i, entityEnd + 1);
+			}
+			i = entityEnd;
+		}
+		return true;
+	}
+
+	private static int indexOf(final CharSequence text, final char c, final int from, final int to) {
+		for (int i = from; i < to; i++) {
+			if (text.charAt(i) == c) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/** Allocation free equivalent of {@link Integer#parseInt(String, int)}.
+	 * @return {@link Long#MIN_VALUE} where {@link Integer#parseInt(String, int)} throws a NumberFormatException */
+	static long parseInt(final CharSequence text, final int start, final int end, final int radix) {
+		if (start >= end) {
+			return Long.MIN_VALUE;
+		}
+		int i = start;
+		boolean negative = false;
+		final char first = text.charAt(i);
+		if (first == '-' || first == '+') {
+			negative = first == '-';
+			i++;
+			if (i == end) {
+				return Long.MIN_VALUE;
+			}
+		}
+		long result = 0;
+		for (; i < end; i++) {
+			final int digit = Character.digit(text.charAt(i), radix);
+			if (digit < 0) {
+				return Long.MIN_VALUE;
+			}
+			result = result * radix + digit;
+			if (result > 1L + Integer.MAX_VALUE) {
+				return Long.MIN_VALUE;
+			}
+		}
+		if (negative) {
+			return -result;
+		}
+		if (result > Integer.MAX_VALUE) {
+			return Long.MIN_VALUE;
+		}
+		return result;
+	}
+
+	/** Replaces the remaining named entities, removes blanks before line breaks and no-break spaces. */
+	private void decodeNamedEntities(final StringBuilder target) {
+		final int targetStart = target.length();
+		int blankBarrier = targetStart;
+		final int length = decoded.length();
+		target.ensureCapacity(targetStart + length);
+		for (int i = 0; i < length; i++) {
+			final char c = decoded.charAt(i);
+			if (c == '&') {
+				i += appendNamedEntity(i, target);
+			}
+			else if (c == '\n') {
+				int end = target.length();
+				while (end > blankBarrier && (target.charAt(end - 1) == ' ' || target.charAt(end - 1) == '\t')) {
+					end--;
+				}
+				target.setLength(end);
+				target.append('\n');
+			}
+			else if (c == '\u00a0') {
+				target.append(' ');
+				blankBarrier = target.length();
+			}
+			else {
+				target.append(c);
+			}
+		}
+	}
+
+	/** @return number of characters consumed after the ampersand */
+	private int appendNamedEntity(final int ampersandPosition, final StringBuilder target) {
+		final int nameStart = ampersandPosition + 1;
+		if (matchesIgnoreCase(decoded, nameStart, "lt;")) {
+			target.append('<');
+			return 3;
+		}
+		if (matchesIgnoreCase(decoded, nameStart, "gt;")) {
+			target.append('>');
+			return 3;
+		}
+		if (matchesIgnoreCase(decoded, nameStart, "quot;")) {
+			target.append('"');
+			return 5;
+		}
+		if (matchesIgnoreCase(decoded, nameStart, "nbsp;")) {
+			target.append(' ');
+			return 5;
+		}
+		if (matchesIgnoreCase(decoded, nameStart, "amp;")) {
+			target.append('&');
+			return 4;
+		}
+		target.append('&');
+		return 0;
+	}
+
+	private static boolean matchesIgnoreCase(final CharSequence text, final int start, final String lowerCaseName) {
+		final int nameLength = lowerCaseName.length();
+		if (start + nameLength > text.length()) {
+			return false;
+		}
+		for (int i = 0; i < nameLength; i++) {
+			final char expected = lowerCaseName.charAt(i);
+			final char c = text.charAt(start + i);
+			if (c != expected && c != Character.toUpperCase(expected)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static final Pattern[] PATTERNS = new Pattern[] {
+		Pattern.compile("(?ims)>[\n\t]+"),
+		Pattern.compile("(?ims)[\n\t ]+"),
+		Pattern.compile("(?ims)<br[^>]*>"),
+		Pattern.compile("(?ims)<p[^>]*>\\s*"),
+		Pattern.compile("(?ims)<div[^>]*>\\s*"),
+		Pattern.compile("(?ims)<tr[^>]*>\\s*"),
+		Pattern.compile("(?ims)<dt[^>]*>"),
+		Pattern.compile("(?ims)<dd[^>]*>"),
+		Pattern.compile("(?ims)<td[^>]*>"),
+		Pattern.compile("(?ims)<[uo]l[^>]*>"),
+		Pattern.compile("(?ims)<li[^>]*>"),
+		Pattern.compile("(?ims) *</[^>]*>"),
+		Pattern.compile("(?ims)<[^/][^>]*> *"),
+		Pattern.compile("^\n+"),
+		Pattern.compile("(?ims)&lt;"),
+		Pattern.compile("(?ims)&gt;"),
+		Pattern.compile("(?ims)&quot;"),
+		Pattern.compile("(?ims)&nbsp;"),
+		Pattern.compile("(?ims)&amp;"),
+		Pattern.compile("(?ims)[ \t]+\n") };
+
+	/** The original implementation, used for input which the single pass conversion does not handle. */
+	static String convertByRegularExpressions(final String text, final boolean removeNewLines) {
+		String intermediate = text;
+		int i = 0;
+		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll(">");
+		if (removeNewLines)
+			intermediate = PATTERNS[i++].matcher(intermediate).replaceAll(" ");
+		else
+			i++;
+		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
+		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
+		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
+		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
+		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
+		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n   ");
+		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll(" ");
+		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
+		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n   * ");
+		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("");
+		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("");
+		if (removeNewLines)
+			intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("");
+		else
+			i++;
+		intermediate = intermediate.trim();
+		intermediate = HtmlUtils.unescapeHTMLUnicodeEntity(intermediate);
+		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("<");
+		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll(">");
+		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\"");
+		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll(" ");
+		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("&");
+		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
+		intermediate = intermediate.replace('\u00a0', ' ');
+		return intermediate;
+	}
+}
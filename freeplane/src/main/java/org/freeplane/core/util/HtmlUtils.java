@@ -87,7 +87,12 @@ public class HtmlUtils {
 
 	private static final Pattern FIND_TAGS_PATTERN = Pattern.compile("([^<]*)(<[^>]+>)");
 	private static final Pattern HTML_PATTERN = Pattern.compile("(?s)^\\s*<\\s*html[^>]*>.*", Pattern.CASE_INSENSITIVE);
-	private static Pattern[] PATTERNS;
+	private static final ThreadLocal<HtmlToPlainConverter> HTML_TO_PLAIN_CONVERTERS = new ThreadLocal<HtmlToPlainConverter>() {
+		@Override
+		protected HtmlToPlainConverter initialValue() {
+			return new HtmlToPlainConverter();
+		}
+	};
 	private static HtmlUtils sInstance = new HtmlUtils();
 	private static final Pattern SLASHED_TAGS_PATTERN = Pattern.compile("<((" + "br|area|base|basefont|"
 	        + "bgsound|button|col|colgroup|embed|hr" + "|img|input|isindex|keygen|link|meta"
@@ -118,61 +123,21 @@ public class HtmlUtils {
 		if (strictHTMLOnly && !HtmlUtils.isHtml(text)) {
 			return text;
 		}
-		if (PATTERNS == null) {
-			PATTERNS = new Pattern[] {
-					Pattern.compile("(?ims)>[\n\t]+"),
-					Pattern.compile("(?ims)[\n\t ]+"),
-			        Pattern.compile("(?ims)<br[^>]*>"),
-			        Pattern.compile("(?ims)<p[^>]*>\\s*"),
-			        Pattern.compile("(?ims)<div[^>]*>\\s*"),
-			        Pattern.compile("(?ims)<tr[^>]*>\\s*"),
-			        Pattern.compile("(?ims)<dt[^>]*>"),
-			        Pattern.compile("(?ims)<dd[^>]*>"),
-			        Pattern.compile("(?ims)<td[^>]*>"),
-			        Pattern.compile("(?ims)<[uo]l[^>]*>"),
-			        Pattern.compile("(?ims)<li[^>]*>"),
-			        Pattern.compile("(?ims) *</[^>]*>"),
-			        Pattern.compile("(?ims)<[^/][^>]*> *"),
-			        Pattern.compile("^\n+"),
-			        Pattern.compile("(?ims)&lt;"),
-			        Pattern.compile("(?ims)&gt;"),
-			        Pattern.compile("(?ims)&quot;"),
-			        Pattern.compile("(?ims)&nbsp;"),
-			        Pattern.compile("(?ims)&amp;"),
-			        Pattern.compile("(?ims)[ \t]+\n") };
-		}
-		String intermediate = text;
-		int i = 0;
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll(">");
-		if (removeNewLines)
-			intermediate = PATTERNS[i++].matcher(intermediate).replaceAll(" ");
-		else
-			i++;
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n   ");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll(" ");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n   * ");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("");
-		if (removeNewLines)
-			intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("");
-		else
-			i++;
-		intermediate = intermediate.trim();
-		intermediate = HtmlUtils.unescapeHTMLUnicodeEntity(intermediate);
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("<");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll(">");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\"");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll(" ");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("&");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
-		intermediate = intermediate.replace('\u00a0', ' ');
-		return intermediate;
+		final StringBuilder plainText = new StringBuilder(text.length());
+		HTML_TO_PLAIN_CONVERTERS.get().appendPlainText(text, removeNewLines, plainText);
+		return plainText.toString();
+	}
+
+	/** same as {@link #htmlToPlain(String, boolean, boolean)} but appends the result to the given builder
+	 * instead of creating a new string. */
+	public static void htmlToPlain(final String text, final boolean strictHTMLOnly, final boolean removeNewLines,
+	                               final StringBuilder target) {
+		if (strictHTMLOnly && !HtmlUtils.isHtml(text)) {
+			target.append(text);
+		}
+		else {
+			HTML_TO_PLAIN_CONVERTERS.get().appendPlainText(text, removeNewLines, target);
+		}
 	}
 
 	@Deprecated
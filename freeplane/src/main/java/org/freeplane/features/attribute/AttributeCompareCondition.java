@@ -19,11 +19,15 @@
  */
 package org.freeplane.features.attribute;
 
+import java.util.Arrays;
+import java.util.function.Predicate;
+
 import org.freeplane.core.io.xml.TreeXmlReader;
 import org.freeplane.core.io.xml.TreeXmlWriter;
 import org.freeplane.core.util.TypeReference;
 import org.freeplane.features.filter.condition.ASelectableCondition;
 import org.freeplane.features.filter.condition.CompareConditionAdapter;
+import org.freeplane.features.map.MapModel;
 import org.freeplane.features.map.NodeModel;
 import org.freeplane.features.text.TextController;
 import org.freeplane.n3.nanoxml.XMLElement;
@@ -60,6 +64,7 @@ public class AttributeCompareCondition extends CompareConditionAdapter {
 	final private Object attribute;
 	final private int comparationResult;
 	final private boolean succeed;
+	final private Object candidatesKey;
 
 	/**
 	 */
@@ -70,7 +75,16 @@ public class AttributeCompareCondition extends CompareConditionAdapter {
 		this.attribute = attribute;
 		this.comparationResult = comparationResult;
 		this.succeed = succeed;
-		
+		this.candidatesKey = Arrays.asList(attribute, conditionValue(), matchCase, matchApproximately, ignoreDiacritics,
+		    comparationResult, succeed);
+	}
+
+	private AttributeCompareCondition(final AttributeCompareCondition prototype) {
+		super(prototype);
+		this.attribute = prototype.attribute;
+		this.comparationResult = prototype.comparationResult;
+		this.succeed = prototype.succeed;
+		this.candidatesKey = prototype.candidatesKey;
 	}
 	
 	public boolean isEqualityCondition()
@@ -86,6 +100,8 @@ public class AttributeCompareCondition extends CompareConditionAdapter {
 	 * .MindMapNode)
 	 */
 	public boolean checkNode(final NodeModel node) {
+		if (attribute instanceof String && !isIndexedCandidate(node))
+			return false;
 		final IAttributeTableModel attributes = NodeAttributeTableModel.getModel(node);
 		final TextController textController = TextController.getController();
 		for (int i = 0; i < attributes.getRowCount(); i++) {
@@ -105,6 +121,18 @@ public class AttributeCompareCondition extends CompareConditionAdapter {
 		return false;
 	}
 
+	private boolean isIndexedCandidate(final NodeModel node) {
+		final MapModel map = node.getMap();
+		final AttributeIndex index = map != null && node.getOrdinal() >= 0 ? AttributeIndex.of(map) : null;
+		return index == null || index.getCandidates(candidatesKey, (String) attribute, this::createValuePredicate)
+		    .get(node.getOrdinal());
+	}
+
+	/** uses a copy of this condition, so that checking values does not change the comparison state of this one. */
+	private Predicate<Object> createValuePredicate() {
+		return new AttributeCompareCondition(this)::checkContent;
+	}
+
 	private boolean checkContent(Object content) {
 		compareTo(content);
 	    return isComparisonOK() &&  succeed == (getComparisonResult() == comparationResult);
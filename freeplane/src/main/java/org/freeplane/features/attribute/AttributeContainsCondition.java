@@ -21,6 +21,7 @@ package org.freeplane.features.attribute;
 
 import org.freeplane.core.util.TextUtils;
 import org.freeplane.features.filter.StringMatchingStrategy;
+import org.freeplane.features.filter.TextIndex;
 import org.freeplane.features.filter.condition.ASelectableCondition;
 import org.freeplane.features.filter.condition.ConditionFactory;
 import org.freeplane.features.filter.condition.StringConditionAdapter;
@@ -46,6 +47,20 @@ public class AttributeContainsCondition extends StringConditionAdapter {
 		    );
 	}
 
+	private static final TextIndex.Item ATTRIBUTES_INDEX_ITEM = node -> {
+		final IAttributeTableModel attributes = NodeAttributeTableModel.getModel(node);
+		final TextController textController = TextController.getController();
+		final StringBuilder text = new StringBuilder();
+		for (int i = 0; i < attributes.getRowCount(); i++) {
+			final Object value = attributes.getValueAt(i, 1);
+			if (textController.isFormula(value) || !textController.isTransformationCacheable(node, attributes, value))
+				return null;
+			text.append(attributes.getValueAt(i, 0)).append('\n')
+			    .append(textController.getTransformedTextNoThrow(node, attributes, value)).append('\n');
+		}
+		return text.toString();
+	};
+
 	final private Object attribute;
 	final private String value;
 	final private String comparedValue;
@@ -71,6 +86,8 @@ public class AttributeContainsCondition extends StringConditionAdapter {
 	 * .MindMapNode)
 	 */
 	public boolean checkNode(final NodeModel node) {
+		if (!matchApproximately && !TextIndex.mayContain(ATTRIBUTES_INDEX_ITEM, node, normalizedValue()))
+			return false;
 		final IAttributeTableModel attributes = NodeAttributeTableModel.getModel(node);
 		final TextController textController = TextController.getController();
 		for (int i = 0; i < attributes.getRowCount(); i++) {
@@ -94,6 +94,9 @@ public class AttributeController implements IExtension {
 		final MapReader mapReader = mapController.getMapReader();
 		final AttributeBuilder attributeBuilder = new AttributeBuilder(this, mapReader);
 		attributeBuilder.registerBy(readManager, writeManager);
+		final AttributeIndex.Updater attributeIndexUpdater = new AttributeIndex.Updater();
+		mapController.addNodeChangeListener(attributeIndexUpdater);
+		mapController.addMapChangeListener(attributeIndexUpdater);
 		modeController.addAction(new SetBooleanMapPropertyAction(SHOW_ICON_FOR_ATTRIBUTES));
 		registerTooltipProvider();
 		registerStateIconProvider();
@@ -0,0 +1,383 @@
+package org.freeplane.features.attribute;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.freeplane.core.extension.IExtension;
+import org.freeplane.features.filter.Filter;
+import org.freeplane.features.map.IMapChangeListener;
+import org.freeplane.features.map.INodeChangeListener;
+import org.freeplane.features.map.MapChangeEvent;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeChangeEvent;
+import org.freeplane.features.map.NodeDeletionEvent;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeModel.NodeChangeType;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.features.text.TextController;
+
+/**
+ * Index of attribute values by attribute name.
+ *
+ * Nodes are grouped by their transformed attribute values,
+ * so that a predicate on attribute values needs to be evaluated only once for each distinct value.
+ * Numeric values are additionally kept sorted for range queries.
+ * Values of formulas depend on other nodes, nodes having them are returned as candidates for every value.
+ *
+ * Change events only mark nodes as changed, the index is updated on the main thread when it is used.
+ * Threads using the index while it is not up to date get no results and have to check all nodes.
+ */
+public class AttributeIndex implements IExtension {
+	interface ValueTransformer {
+		/** @return transformed value or null if the value can not be indexed */
+		Object transform(NodeModel node, NodeAttributeTableModel attributes, Object value);
+	}
+
+	private static final ValueTransformer TEXT_CONTROLLER_TRANSFORMER = (node, attributes, value) -> {
+		final TextController textController = TextController.getController();
+		return textController.isFormula(value) ? null
+		        : textController.getTransformedObjectNoFormattingNoThrow(node, attributes, value);
+	};
+
+	public static class Updater implements INodeChangeListener, IMapChangeListener {
+		@Override
+		public void nodeChanged(NodeChangeEvent event) {
+			final Object property = event.getProperty();
+			if (property == NodeChangeType.FOLDING || property == NodeChangeType.REFRESH)
+				return;
+			final AttributeIndex index = getIndex(event.getNode().getMap());
+			if (index != null)
+				index.nodeChanged(event.getNode());
+		}
+
+		@Override
+		public void onNodeInserted(NodeModel parent, NodeModel child, int newIndex) {
+			final AttributeIndex index = getIndex(child.getMap());
+			if (index != null)
+				index.subtreeChanged(child);
+		}
+
+		@Override
+		public void onNodeDeleted(NodeDeletionEvent nodeDeletionEvent) {
+			final AttributeIndex index = getIndex(nodeDeletionEvent.node.getMap());
+			if (index != null)
+				index.subtreeChanged(nodeDeletionEvent.node);
+		}
+
+		@Override
+		public void mapChanged(MapChangeEvent event) {
+			if (event.getProperty() == Filter.class)
+				return;
+			final AttributeIndex index = getIndex(event.getMap());
+			if (index != null)
+				index.invalidate();
+		}
+
+		private AttributeIndex getIndex(MapModel map) {
+			return map != null ? map.getExtension(AttributeIndex.class) : null;
+		}
+	}
+
+	/** @return the map's index if it can be used by the calling thread, or null */
+	public static AttributeIndex of(MapModel map) {
+		AttributeIndex index = map.getExtension(AttributeIndex.class);
+		if (!Controller.getCurrentController().getViewController().isDispatchThread())
+			return index != null && index.isUpToDate() ? index : null;
+		if (index == null) {
+			index = new AttributeIndex(map, TEXT_CONTROLLER_TRANSFORMER);
+			map.addExtension(index);
+		}
+		return index;
+	}
+
+	private static class IndexedNode {
+		final NodeModel node;
+		final String[] names;
+		final Object[] values;
+
+		IndexedNode(NodeModel node, String[] names, Object[] values) {
+			this.node = node;
+			this.names = names;
+			this.values = values;
+		}
+	}
+
+	private static class AttributeValues {
+		final BitSet nodes = new BitSet();
+		final BitSet unindexedNodes = new BitSet();
+		final Map<Object, BitSet> nodesByValue = new HashMap<>();
+		private TreeMap<Double, BitSet> nodesByNumber;
+		private Map<String, BitSet> nodesByText;
+
+		void add(int ordinal, Object value) {
+			nodes.set(ordinal);
+			if (value == null)
+				unindexedNodes.set(ordinal);
+			else
+				nodesByValue.computeIfAbsent(value, x -> new BitSet()).set(ordinal);
+			nodesByNumber = null;
+			nodesByText = null;
+		}
+
+		/** the node must be removed by {@link #removeNode(int)} after all its values were removed */
+		void remove(int ordinal, Object value) {
+			if (value == null)
+				unindexedNodes.clear(ordinal);
+			else {
+				final BitSet valueNodes = nodesByValue.get(value);
+				if (valueNodes != null) {
+					valueNodes.clear(ordinal);
+					if (valueNodes.isEmpty())
+						nodesByValue.remove(value);
+				}
+			}
+		}
+
+		void removeNode(int ordinal) {
+			nodes.clear(ordinal);
+			nodesByNumber = null;
+			nodesByText = null;
+		}
+
+		TreeMap<Double, BitSet> nodesByNumber() {
+			if (nodesByNumber == null) {
+				nodesByNumber = new TreeMap<>();
+				for (final Entry<Object, BitSet> entry : nodesByValue.entrySet()) {
+					if (entry.getKey() instanceof Number)
+						nodesByNumber.computeIfAbsent(((Number) entry.getKey()).doubleValue(), x -> new BitSet())
+						    .or(entry.getValue());
+				}
+			}
+			return nodesByNumber;
+		}
+
+		Map<String, BitSet> nodesByText() {
+			if (nodesByText == null) {
+				nodesByText = new HashMap<>();
+				for (final Entry<Object, BitSet> entry : nodesByValue.entrySet())
+					nodesByText.computeIfAbsent(entry.getKey().toString(), x -> new BitSet()).or(entry.getValue());
+			}
+			return nodesByText;
+		}
+	}
+
+	private static final int MAXIMAL_CACHED_CANDIDATES_COUNT = 32;
+
+	private final MapModel map;
+	private final ValueTransformer valueTransformer;
+	private final Map<String, AttributeValues> attributeValues = new HashMap<>();
+	private final BitSet nodesWithAttributes = new BitSet();
+	private IndexedNode[] indexedNodes = new IndexedNode[0];
+	private boolean built = false;
+	private final Set<NodeModel> changedNodes = new LinkedHashSet<>();
+	private final Set<NodeModel> changedSubtrees = new LinkedHashSet<>();
+	private final Map<Object, BitSet> cachedCandidates = new HashMap<>();
+
+	AttributeIndex(MapModel map, ValueTransformer valueTransformer) {
+		this.map = map;
+		this.valueTransformer = valueTransformer;
+	}
+
+	/** @param attribute attribute name or {@link AttributeConditionController#ANY_ATTRIBUTE_NAME_OR_VALUE_OBJECT}
+	 * @return ordinals of nodes having the attribute */
+	public synchronized BitSet getNodesWithAttribute(Object attribute) {
+		update();
+		if (attribute.equals(AttributeConditionController.ANY_ATTRIBUTE_NAME_OR_VALUE_OBJECT))
+			return (BitSet) nodesWithAttributes.clone();
+		final AttributeValues values = attributeValues.get(attribute);
+		return values != null ? (BitSet) values.nodes.clone() : new BitSet();
+	}
+
+	/** Evaluates a predicate created by the factory once for every distinct value of the attribute.
+	 * @param cacheKey results are reused for equal keys until the index changes
+	 * @return ordinals of nodes having an attribute value satisfying the predicate
+	 * together with nodes having attribute values which are not indexed and must be checked by the caller */
+	public synchronized BitSet getCandidates(Object cacheKey, String attributeName,
+	                                         Supplier<Predicate<Object>> valuePredicateFactory) {
+		update();
+		BitSet candidates = cachedCandidates.get(cacheKey);
+		if (candidates != null)
+			return candidates;
+		candidates = new BitSet();
+		final AttributeValues values = attributeValues.get(attributeName);
+		if (values != null) {
+			final Predicate<Object> valuePredicate = valuePredicateFactory.get();
+			for (final Entry<Object, BitSet> entry : values.nodesByValue.entrySet()) {
+				if (valuePredicate.test(entry.getKey()))
+					candidates.or(entry.getValue());
+			}
+			candidates.or(values.unindexedNodes);
+		}
+		if (cachedCandidates.size() >= MAXIMAL_CACHED_CANDIDATES_COUNT)
+			cachedCandidates.clear();
+		cachedCandidates.put(cacheKey, candidates);
+		return candidates;
+	}
+
+	/** @return ordinals of nodes with numeric attribute values between minimum and maximum inclusive
+	 * together with nodes having attribute values which are not indexed and must be checked by the caller */
+	public synchronized BitSet getNumericCandidates(String attributeName, double minimum, double maximum) {
+		update();
+		final BitSet candidates = new BitSet();
+		final AttributeValues values = attributeValues.get(attributeName);
+		if (values == null || minimum > maximum)
+			return candidates;
+		for (final BitSet valueNodes : values.nodesByNumber().subMap(minimum, true, maximum, true).values())
+			candidates.or(valueNodes);
+		candidates.or(values.unindexedNodes);
+		return candidates;
+	}
+
+	/** @return ordinals of nodes with attribute values equal to the given value or having the same text,
+	 * together with nodes having attribute values which are not indexed and must be checked by the caller */
+	public synchronized BitSet getEqualityCandidates(String attributeName, Object value) {
+		update();
+		final BitSet candidates = new BitSet();
+		final AttributeValues values = attributeValues.get(attributeName);
+		if (values == null)
+			return candidates;
+		final BitSet valueNodes = values.nodesByValue.get(value);
+		if (valueNodes != null)
+			candidates.or(valueNodes);
+		if (value instanceof Number) {
+			final BitSet numberNodes = values.nodesByNumber().get(((Number) value).doubleValue());
+			if (numberNodes != null)
+				candidates.or(numberNodes);
+		}
+		final BitSet textNodes = values.nodesByText().get(value.toString());
+		if (textNodes != null)
+			candidates.or(textNodes);
+		candidates.or(values.unindexedNodes);
+		return candidates;
+	}
+
+	public synchronized List<NodeModel> getNodes(BitSet ordinals) {
+		final List<NodeModel> nodes = new ArrayList<>(ordinals.cardinality());
+		for (int ordinal = ordinals.nextSetBit(0); ordinal >= 0; ordinal = ordinals.nextSetBit(ordinal + 1)) {
+			if (ordinal < indexedNodes.length && indexedNodes[ordinal] != null)
+				nodes.add(indexedNodes[ordinal].node);
+		}
+		return nodes;
+	}
+
+	synchronized boolean isUpToDate() {
+		return built && changedNodes.isEmpty() && changedSubtrees.isEmpty();
+	}
+
+	synchronized void nodeChanged(NodeModel node) {
+		changedNodes.add(node);
+		cachedCandidates.clear();
+	}
+
+	synchronized void subtreeChanged(NodeModel node) {
+		changedSubtrees.add(node);
+		cachedCandidates.clear();
+	}
+
+	synchronized void invalidate() {
+		built = false;
+		attributeValues.clear();
+		nodesWithAttributes.clear();
+		indexedNodes = new IndexedNode[0];
+		changedNodes.clear();
+		changedSubtrees.clear();
+		cachedCandidates.clear();
+	}
+
+	private void update() {
+		if (!built) {
+			addSubtree(map.getRootNode());
+			built = true;
+			changedNodes.clear();
+			changedSubtrees.clear();
+			return;
+		}
+		if (changedNodes.isEmpty() && changedSubtrees.isEmpty())
+			return;
+		for (final NodeModel node : changedSubtrees)
+			updateSubtree(node, isAttached(node));
+		for (final NodeModel node : changedNodes) {
+			remove(node);
+			if (isAttached(node))
+				add(node);
+		}
+		changedNodes.clear();
+		changedSubtrees.clear();
+		cachedCandidates.clear();
+	}
+
+	private void addSubtree(NodeModel node) {
+		add(node);
+		for (final NodeModel child : node.getChildren())
+			addSubtree(child);
+	}
+
+	private void updateSubtree(NodeModel node, boolean attached) {
+		remove(node);
+		if (attached)
+			add(node);
+		for (final NodeModel child : node.getChildren())
+			updateSubtree(child, attached);
+	}
+
+	private void add(NodeModel node) {
+		final int ordinal = node.getOrdinal();
+		final NodeAttributeTableModel attributes = NodeAttributeTableModel.getModel(node);
+		final int rowCount = attributes.getRowCount();
+		if (ordinal < 0 || rowCount == 0)
+			return;
+		final String[] names = new String[rowCount];
+		final Object[] values = new Object[rowCount];
+		for (int row = 0; row < rowCount; row++) {
+			final Attribute attribute = attributes.getAttribute(row);
+			names[row] = attribute.getName();
+			values[row] = valueTransformer.transform(node, attributes, attribute.getValue());
+			attributeValues.computeIfAbsent(names[row], x -> new AttributeValues()).add(ordinal, values[row]);
+		}
+		if (ordinal >= indexedNodes.length)
+			indexedNodes = Arrays.copyOf(indexedNodes, Math.max(ordinal + 1, indexedNodes.length * 2));
+		indexedNodes[ordinal] = new IndexedNode(node, names, values);
+		nodesWithAttributes.set(ordinal);
+	}
+
+	private void remove(NodeModel node) {
+		final int ordinal = node.getOrdinal();
+		if (ordinal < 0 || ordinal >= indexedNodes.length || indexedNodes[ordinal] == null)
+			return;
+		final IndexedNode indexedNode = indexedNodes[ordinal];
+		indexedNodes[ordinal] = null;
+		nodesWithAttributes.clear(ordinal);
+		for (int row = 0; row < indexedNode.names.length; row++) {
+			final AttributeValues values = attributeValues.get(indexedNode.names[row]);
+			if (values != null)
+				values.remove(ordinal, indexedNode.values[row]);
+		}
+		for (final String name : indexedNode.names) {
+			final AttributeValues values = attributeValues.get(name);
+			if (values != null) {
+				values.removeNode(ordinal);
+				if (values.nodes.isEmpty())
+					attributeValues.remove(name);
+			}
+		}
+	}
+
+	private boolean isAttached(NodeModel node) {
+		if (node.getMap() != map || node.getOrdinal() < 0)
+			return false;
+		NodeModel ancestor = node;
+		while (ancestor.getParentNode() != null)
+			ancestor = ancestor.getParentNode();
+		return ancestor == map.getRootNode();
+	}
+}
@@ -4,11 +4,23 @@ import org.freeplane.features.map.MapWriter;
 import org.freeplane.features.map.NodeModel;
 import org.freeplane.features.mode.Controller;
 
+import javax.xml.transform.Result;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamSource;
+
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+import java.io.Reader;
 import java.io.Writer;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 class BranchXmlWriter{
+	private static final int PIPE_SIZE = 1 << 16;
 	private final List<NodeModel> branches;
 
 	 BranchXmlWriter(List<NodeModel> branches) {
@@ -32,4 +44,50 @@ class BranchXmlWriter{
 			throw new RuntimeException(e);
 		}
 	}
+
+	/**
+	 * Transforms the xml while it is written, so that it is never kept as a whole text.
+	 * The transformer runs on its own thread, the xml is written on the calling thread.
+	 */
+	void transformXml(Transformer transformer, Result result, MapWriter.Mode mode) throws TransformerException {
+		final PipedWriter pipe = new PipedWriter();
+		final PipedReader reader;
+		try {
+			reader = new PipedReader(pipe, PIPE_SIZE);
+		} catch (IOException e) {
+			throw new TransformerException(e);
+		}
+		final FutureTask<Void> transformation = new FutureTask<>(() -> {
+			try (Reader input = reader) {
+				transformer.transform(new StreamSource(input), result);
+			}
+			return null;
+		});
+		final Thread transformationThread = new Thread(transformation, "XSLT transformation");
+		transformationThread.setDaemon(true);
+		transformationThread.start();
+		RuntimeException writingException = null;
+		try (Writer writer = new BufferedWriter(pipe, PIPE_SIZE)) {
+			writeXml(writer, mode);
+		} catch (IOException e) {
+			writingException = new RuntimeException(e);
+		} catch (RuntimeException e) {
+			writingException = e;
+		}
+		try {
+			transformation.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TransformerException(e);
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof TransformerException)
+				throw (TransformerException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			throw new TransformerException(cause);
+		}
+		if (writingException != null)
+			throw writingException;
+	}
 }
@@ -21,6 +21,8 @@ package org.freeplane.features.export.mindmapmode;
 
 import java.awt.Dimension;
 import java.awt.image.RenderedImage;
+import java.io.Closeable;
+import java.io.IOException;
 
 import org.freeplane.features.map.IMapSelection.NodePosition;
 import org.freeplane.features.map.MapModel;
@@ -54,6 +56,17 @@ class ImageCreator{
         return controller.getMapViewManager().createImage(slideSize, placedNode, placedNodePosition, imageResolutionInDpi);
 	}
 
+	/** Releases resources held by images painted on demand, call after the image is written. */
+	static void release(RenderedImage image) {
+		if (image instanceof Closeable) {
+			try {
+				((Closeable) image).close();
+			}
+			catch (IOException e) {
+			}
+		}
+	}
+
 	public int getImageResolutionDPI() {
 	    return imageResolutionInDpi;
     }
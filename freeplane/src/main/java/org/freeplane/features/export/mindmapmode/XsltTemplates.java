@@ -0,0 +1,70 @@
+package org.freeplane.features.export.mindmapmode;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+
+/**
+ * Compiled XSLT stylesheets reused by repeated exports.
+ *
+ * Stylesheet files are compiled again after they are modified,
+ * stylesheets loaded from other resources are compiled only once.
+ */
+class XsltTemplates {
+	private static class CompiledStylesheet {
+		final long lastModified;
+		final long length;
+		final Templates templates;
+
+		CompiledStylesheet(long lastModified, long length, Templates templates) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.templates = templates;
+		}
+	}
+
+	private static final Map<String, CompiledStylesheet> compiledStylesheets = new HashMap<>();
+
+	static synchronized Templates of(File xsltFile) throws TransformerConfigurationException {
+		final File file = xsltFile.getAbsoluteFile();
+		final long lastModified = file.lastModified();
+		final long length = file.length();
+		final String key = file.getPath();
+		final CompiledStylesheet compiledStylesheet = compiledStylesheets.get(key);
+		if (compiledStylesheet != null && compiledStylesheet.lastModified == lastModified
+		        && compiledStylesheet.length == length)
+			return compiledStylesheet.templates;
+		final Templates templates = TransformerFactory.newInstance().newTemplates(new StreamSource(file));
+		compiledStylesheets.put(key, new CompiledStylesheet(lastModified, length, templates));
+		return templates;
+	}
+
+	static synchronized Templates of(URL xsltUrl) throws TransformerConfigurationException, IOException {
+		if ("file".equals(xsltUrl.getProtocol())) {
+			try {
+				return of(new File(xsltUrl.toURI()));
+			}
+			catch (URISyntaxException | IllegalArgumentException e) {
+			}
+		}
+		final String key = xsltUrl.toExternalForm();
+		final CompiledStylesheet compiledStylesheet = compiledStylesheets.get(key);
+		if (compiledStylesheet != null)
+			return compiledStylesheet.templates;
+		try (InputStream xsltStream = new BufferedInputStream(xsltUrl.openStream())) {
+			final Templates templates = TransformerFactory.newInstance().newTemplates(new StreamSource(xsltStream));
+			compiledStylesheets.put(key, new CompiledStylesheet(0, 0, templates));
+			return templates;
+		}
+	}
+}
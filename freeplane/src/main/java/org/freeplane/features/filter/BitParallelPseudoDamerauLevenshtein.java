@@ -0,0 +1,204 @@
+package org.freeplane.features.filter;
+
+import java.util.Arrays;
+
+/**
+ * Computes the same restricted Damerau-Levenshtein distance ("optimal string alignment")
+ * as {@link PseudoDamerauLevenshtein} using the bit-parallel algorithm of Myers
+ * extended to transpositions by Hyyrö.
+ *
+ * Columns of the dynamic programming matrix are represented by bit vectors of vertical differences,
+ * so a comparison takes O(n) word operations for search terms up to 64 characters.
+ * Longer search terms are compared keeping three columns of the matrix.
+ * Character masks and columns are allocated once per search term and reused for all compared texts.
+ *
+ * Like {@link PseudoDamerauLevenshtein} a '-' in the search text matches any character of the search term.
+ */
+public class BitParallelPseudoDamerauLevenshtein implements EditDistanceStringMatchingStrategy {
+	private static final int MAX_BIT_PARALLEL_LENGTH = Long.SIZE;
+	private static final int ASCII_LIMIT = 128;
+
+	private String searchTerm;
+	private String searchText;
+	private Type type;
+
+	private String preparedSearchTerm;
+	private final long[] asciiMasks = new long[ASCII_LIMIT];
+	private char[] otherChars = new char[0];
+	private long[] otherMasks = new long[0];
+	private int otherCharCount;
+	private int[] previousColumn;
+	private int[] currentColumn;
+	private int[] columnBeforePrevious;
+
+	@Override
+	public void init(final String searchTerm, final String searchText, final boolean subStringMatch) {
+		if (searchTerm == null || searchText == null) {
+			throw new IllegalArgumentException("Null searchText/searchTerm!");
+		}
+		this.searchTerm = searchTerm;
+		this.searchText = searchText;
+		this.type = subStringMatch ? Type.SemiGlobal : Type.Global;
+	}
+
+	@Override
+	public boolean matches(final String searchTerm, final String searchText, final boolean subStringMatch) {
+		init(searchTerm, searchText, subStringMatch);
+		return matchProb() > StringMatchingStrategy.APPROXIMATE_MATCHING_MINPROB;
+	}
+
+	@Override
+	public float matchProb() {
+		return getMatchProb(distance());
+	}
+
+	private float getMatchProb(final int distance) {
+		if (type == Type.SemiGlobal) {
+			return 1.0F - ((float) distance / searchTerm.length());
+		}
+		else {
+			return 1.0F - ((float) distance / Math.min(searchTerm.length(), searchText.length()));
+		}
+	}
+
+	@Override
+	public int distance() {
+		final int m = searchTerm.length();
+		if (m == 0) {
+			return type == Type.Global ? searchText.length() : 0;
+		}
+		prepare();
+		if (m <= MAX_BIT_PARALLEL_LENGTH)
+			return bitParallelDistance();
+		else
+			return columnDistance();
+	}
+
+	private void prepare() {
+		if (searchTerm.equals(preparedSearchTerm))
+			return;
+		preparedSearchTerm = searchTerm;
+		final int m = searchTerm.length();
+		if (m <= MAX_BIT_PARALLEL_LENGTH) {
+			Arrays.fill(asciiMasks, 0L);
+			otherCharCount = 0;
+			for (int i = 0; i < m; i++) {
+				final char c = searchTerm.charAt(i);
+				final long bit = 1L << i;
+				if (c < ASCII_LIMIT)
+					asciiMasks[c] |= bit;
+				else
+					addOtherCharMask(c, bit);
+			}
+			previousColumn = currentColumn = columnBeforePrevious = null;
+		}
+		else {
+			previousColumn = new int[m + 1];
+			currentColumn = new int[m + 1];
+			columnBeforePrevious = new int[m + 1];
+		}
+	}
+
+	private void addOtherCharMask(final char c, final long bit) {
+		for (int i = 0; i < otherCharCount; i++) {
+			if (otherChars[i] == c) {
+				otherMasks[i] |= bit;
+				return;
+			}
+		}
+		if (otherCharCount == otherChars.length) {
+			final int newLength = Math.max(4, otherCharCount * 2);
+			otherChars = Arrays.copyOf(otherChars, newLength);
+			otherMasks = Arrays.copyOf(otherMasks, newLength);
+		}
+		otherChars[otherCharCount] = c;
+		otherMasks[otherCharCount] = bit;
+		otherCharCount++;
+	}
+
+	private long mask(final char c) {
+		if (c < ASCII_LIMIT)
+			return asciiMasks[c];
+		for (int i = 0; i < otherCharCount; i++) {
+			if (otherChars[i] == c)
+				return otherMasks[i];
+		}
+		return 0L;
+	}
+
+	/**
+	 * Bit i of the vectors describes row i + 1 of the current column j:
+	 * vp / vn are set if D[i+1][j] - D[i][j] is +1 / -1,
+	 * d0 is set if D[i+1][j] == D[i][j-1].
+	 */
+	private int bitParallelDistance() {
+		final int m = searchTerm.length();
+		final int n = searchText.length();
+		final long lastRowBit = 1L << (m - 1);
+		final long firstRowHorizontalDifference = type == Type.Global ? 1L : 0L;
+		long vp = -1L;
+		long vn = 0L;
+		long d0 = 0L;
+		long previousMask = 0L;
+		int score = m;
+		int minScore = m;
+		for (int j = 0; j < n; j++) {
+			final char c = searchText.charAt(j);
+			final long mask = mask(c);
+			final long matches = c == '-' ? -1L : mask;
+			final long transpositions = ((~d0 & mask) << 1) & previousMask;
+			final long x = matches | transpositions | vn;
+			d0 = (((x & vp) + vp) ^ vp) | x;
+			long hp = vn | ~(d0 | vp);
+			long hn = vp & d0;
+			if ((hp & lastRowBit) != 0)
+				score++;
+			else if ((hn & lastRowBit) != 0)
+				score--;
+			hp = (hp << 1) | firstRowHorizontalDifference;
+			hn = hn << 1;
+			vp = hn | ~(d0 | hp);
+			vn = hp & d0;
+			previousMask = mask;
+			if (score < minScore)
+				minScore = score;
+		}
+		return type == Type.Global ? score : minScore;
+	}
+
+	/** Computes the same matrix as {@link PseudoDamerauLevenshtein} column by column keeping three columns. */
+	private int columnDistance() {
+		final int m = searchTerm.length();
+		final int n = searchText.length();
+		int[] twoColumnsBefore = columnBeforePrevious;
+		int[] columnBefore = previousColumn;
+		int[] column = currentColumn;
+		for (int i = 0; i <= m; i++)
+			column[i] = i;
+		int minScore = column[m];
+		for (int j = 1; j <= n; j++) {
+			final int[] oldest = twoColumnsBefore;
+			twoColumnsBefore = columnBefore;
+			columnBefore = column;
+			column = oldest;
+			column[0] = type == Type.Global ? j : 0;
+			final char textChar = searchText.charAt(j - 1);
+			for (int i = 1; i <= m; i++) {
+				final char termChar = searchTerm.charAt(i - 1);
+				final int costTryMatch = columnBefore[i - 1] + (termChar == textChar || textChar == '-' ? 0 : 1);
+				final int costIns = column[i - 1] + 1;
+				final int costDel = columnBefore[i] + 1;
+				int cost = Math.min(costTryMatch, Math.min(costIns, costDel));
+				if (i >= 2 && j >= 2 && searchTerm.charAt(i - 2) == textChar
+				        && termChar == searchText.charAt(j - 2))
+					cost = Math.min(cost, twoColumnsBefore[i - 2] + 1);
+				column[i] = cost;
+			}
+			minScore = Math.min(minScore, column[m]);
+		}
+		columnBeforePrevious = twoColumnsBefore;
+		previousColumn = columnBefore;
+		currentColumn = column;
+		return type == Type.Global ? column[m] : minScore;
+	}
+}
@@ -20,7 +20,7 @@
 package org.freeplane.features.filter;
 
 import java.util.Objects;
-import java.util.WeakHashMap;
+import java.util.function.Predicate;
 
 import javax.swing.Icon;
 
@@ -43,15 +43,6 @@ public class Filter implements IExtension {
 		return new Filter(null, false, resourceController.getBooleanProperty("filter.showAncestors"), resourceController.getBooleanProperty("filter.showDescendants"), false, null);
 	}
 
-	static class FilterInfoAccessor {
-	    private final WeakHashMap<NodeModel, FilterInfo> filterInfos = new WeakHashMap<>();
-
-	    FilterInfo getFilterInfo(NodeModel node) {
-	        return filterInfos.computeIfAbsent(node, x -> new FilterInfo());
-	    }
-
-	}
-
 	static public Filter createFilter(final ICondition condition, final boolean areAncestorsShown,
             final boolean areDescendantsShown, final boolean appliesToVisibleNodesOnly, Filter baseFilter) {
 		return new Filter(condition, false, areAncestorsShown, areDescendantsShown, appliesToVisibleNodesOnly, baseFilter);
@@ -61,6 +52,7 @@ public class Filter implements IExtension {
 	final int options;
 
 	private FilterInfoAccessor accessor;
+	private MapModel filteredMap;
     private final boolean hidesMatchingNodes;
     private final boolean appliesToVisibleNodesOnly;
     private final Filter baseFilter;
@@ -85,7 +77,7 @@ public class Filter implements IExtension {
 	}
 
 	void addFilterResult(final NodeModel node, final int flag) {
-		getFilterInfo(node).add(flag);
+		accessor.add(node, flag);
 	}
 
 	protected boolean appliesToVisibleNodesOnly() {
@@ -107,24 +99,35 @@ public class Filter implements IExtension {
 	}
 
 	public void calculateFilterResults(final MapModel map) {
-	    this.accessor = new FilterInfoAccessor();
+	    this.accessor = new FilterInfoAccessor(map);
+	    this.filteredMap = map;
 		final NodeModel root = map.getRootNode();
 		resetFilter(root);
 		checkNode(root);
-		if (filterChildren(root, false, false)) {
+		if (filterChildren(createConditionCheck(root), root, false, false)) {
 			addFilterResult(root, FilterInfo.FILTER_SHOW_AS_ANCESTOR);
 		}
 	}
 
 	public void calculateFilterResults(final NodeModel root) {
-	    this.accessor = new FilterInfoAccessor();
-	    applyFilter(root, false, false, false);
+	    this.accessor = new FilterInfoAccessor(root.getMap());
+	    this.filteredMap = null;
+	    applyFilter(createConditionCheck(root), root, false, false, false);
 	}
 
-	private boolean applyFilter(final NodeModel node,
+	private Predicate<NodeModel> createConditionCheck(final NodeModel root) {
+		if (ParallelConditionCheck.canCheck(condition, root)) {
+			final ParallelConditionCheck parallelCheck = new ParallelConditionCheck(condition, root);
+			parallelCheck.run();
+			return parallelCheck::isSatisfied;
+		}
+		return node -> condition == null || condition.checkNode(node);
+	}
+
+	private boolean applyFilter(final Predicate<NodeModel> conditionCheck, final NodeModel node,
 	                            final boolean hasMatchingAncestor, final boolean hasHiddenAncestor,
 	                            boolean hasMatchingDescendant) {
-		final boolean conditionSatisfied =  (condition == null || condition.checkNode(node));
+		final boolean conditionSatisfied = conditionCheck.test(node);
 		final boolean matchesCombinedFilter;
 		if(appliesToVisibleNodesOnly()) {
 		    matchesCombinedFilter = conditionSatisfied  && baseFilter.isVisible(node);
@@ -144,7 +147,7 @@ public class Filter implements IExtension {
 			addFilterResult(node, FilterInfo.FILTER_SHOW_AS_HIDDEN);
 		}
 		boolean childrenHaveMatchingAncestor = hasMatchingAncestor || matchesCombinedFilter && ! node.isRoot();
-        if (filterChildren(node, childrenHaveMatchingAncestor, 
+        if (filterChildren(conditionCheck, node, childrenHaveMatchingAncestor, 
 		        !matchesCombinedFilter
 		        || hasHiddenAncestor)) {
 		    addFilterResult(node, FilterInfo.FILTER_SHOW_AS_ANCESTOR);
@@ -182,11 +185,11 @@ public class Filter implements IExtension {
 		return condition != null && appliesToVisibleNodesOnly() && !node.hasVisibleContent(baseFilter);
 	}
 
-	private boolean filterChildren(final NodeModel node,
+	private boolean filterChildren(final Predicate<NodeModel> conditionCheck, final NodeModel node,
 	                               final boolean hasMatchingAncestor, final boolean hasHiddenAncestor) {
 		boolean hasMatchingDescendant = false;
 		for (final NodeModel child : node.getChildren()) {
-			hasMatchingDescendant = applyFilter(child, hasMatchingAncestor, hasHiddenAncestor,
+			hasMatchingDescendant = applyFilter(conditionCheck, child, hasMatchingAncestor, hasHiddenAncestor,
 			    hasMatchingDescendant);
 		}
 		return hasMatchingDescendant;
@@ -203,8 +206,120 @@ public class Filter implements IExtension {
 
 
     public void useFilterResultsFrom(Filter oldFilter) {
-        accessor = oldFilter.accessor;
+        accessor = oldFilter.accessor.copy();
+        filteredMap = oldFilter.filteredMap;
     }
+
+	boolean canUpdateFilterResults(final NodeModel node) {
+		return condition != null && filteredMap != null && node.getMap() == filteredMap
+		        && (node.isRoot() || node.isDescendantOf(filteredMap.getRootNode()));
+	}
+
+	/**
+	 * Checks the node and the nodes whose condition depends on it again
+	 * and updates the ancestor and descendant flags on the changed paths.
+	 * @return true if filter results have changed
+	 */
+	boolean updateFilterResultsOfChangedNode(final NodeModel node) {
+		boolean resultsChanged = recheckNode(node);
+		if (condition.checksAncestors()) {
+			for (final NodeModel child : node.getChildren())
+				resultsChanged = updateFilterResultsOfChangedSubtree(child) || resultsChanged;
+		}
+		else if (condition.checksParent()) {
+			for (final NodeModel child : node.getChildren())
+				resultsChanged = recheckNode(child) || resultsChanged;
+		}
+		if (condition.checksDescendants()) {
+			for (NodeModel ancestor = node.getParentNode(); ancestor != null; ancestor = ancestor.getParentNode())
+				resultsChanged = recheckNode(ancestor) || resultsChanged;
+		}
+		else if (condition.checksChildren() && node.getParentNode() != null)
+			resultsChanged = recheckNode(node.getParentNode()) || resultsChanged;
+		return resultsChanged;
+	}
+
+	/**
+	 * Checks all nodes of an inserted or moved subtree.
+	 * @return true if filter results have changed
+	 */
+	boolean updateFilterResultsOfChangedSubtree(final NodeModel subtreeRoot) {
+		if (subtreeRoot.isRoot())
+			return false;
+		applyFilter(createConditionCheck(subtreeRoot), subtreeRoot, hasMatchingAncestor(subtreeRoot), false, false);
+		updateAncestorFlags(subtreeRoot.getParentNode());
+		return true;
+	}
+
+	/**
+	 * Updates ancestor flags after a child of the given node has been removed.
+	 * @return true if filter results have changed
+	 */
+	boolean updateFilterResultsOfChangedParent(final NodeModel parent) {
+		return updateAncestorFlags(parent);
+	}
+
+	private boolean recheckNode(final NodeModel node) {
+		if (node.isRoot())
+			return false;
+		final int info = accessor.getInfo(node);
+		final boolean matches = condition.checkNode(node)
+		        && (!appliesToVisibleNodesOnly() || baseFilter.isVisible(node));
+		final boolean wasChecked = (info & FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE) == 0;
+		if (wasChecked && matches == ((info & FilterInfo.FILTER_SHOW_AS_MATCHED) != 0))
+			return false;
+		int newInfo = info & (FilterInfo.FILTER_SHOW_AS_ANCESTOR | FilterInfo.FILTER_SHOW_AS_DESCENDANT);
+		newInfo |= matches ? FilterInfo.FILTER_SHOW_AS_MATCHED : FilterInfo.FILTER_SHOW_AS_HIDDEN;
+		if (!wasChecked && hasMatchingAncestor(node))
+			newInfo |= FilterInfo.FILTER_SHOW_AS_DESCENDANT;
+		accessor.setInfo(node, newInfo);
+		updateDescendantFlags(node);
+		updateAncestorFlags(node.getParentNode());
+		return true;
+	}
+
+	private boolean hasMatchingAncestor(final NodeModel node) {
+		final NodeModel parent = node.getParentNode();
+		return parent != null && childrenHaveMatchingAncestor(parent);
+	}
+
+	private boolean childrenHaveMatchingAncestor(final NodeModel node) {
+		final int info = accessor.getInfo(node);
+		return (info & FilterInfo.FILTER_SHOW_AS_DESCENDANT) != 0
+		        || (info & FilterInfo.FILTER_SHOW_AS_MATCHED) != 0 && !node.isRoot();
+	}
+
+	private void updateDescendantFlags(final NodeModel node) {
+		final boolean childrenHaveMatchingAncestor = childrenHaveMatchingAncestor(node);
+		for (final NodeModel child : node.getChildren()) {
+			final int info = accessor.getInfo(child);
+			if ((info & FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE) != 0
+			        || ((info & FilterInfo.FILTER_SHOW_AS_DESCENDANT) != 0) == childrenHaveMatchingAncestor)
+				continue;
+			accessor.setInfo(child, info ^ FilterInfo.FILTER_SHOW_AS_DESCENDANT);
+			if ((info & FilterInfo.FILTER_SHOW_AS_MATCHED) == 0)
+				updateDescendantFlags(child);
+		}
+	}
+
+	private boolean updateAncestorFlags(final NodeModel parent) {
+		boolean resultsChanged = false;
+		for (NodeModel node = parent; node != null; node = node.getParentNode()) {
+			boolean hasMatchingDescendant = false;
+			for (final NodeModel child : node.getChildren()) {
+				if ((accessor.getInfo(child) & (FilterInfo.FILTER_SHOW_AS_MATCHED | FilterInfo.FILTER_SHOW_AS_ANCESTOR)) != 0) {
+					hasMatchingDescendant = true;
+					break;
+				}
+			}
+			final int info = accessor.getInfo(node);
+			if (((info & FilterInfo.FILTER_SHOW_AS_ANCESTOR) != 0) == hasMatchingDescendant)
+				break;
+			accessor.setInfo(node, info ^ FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+			resultsChanged = true;
+		}
+		return resultsChanged;
+	}
     
 	/*
 	 * (non-Javadoc)
@@ -218,12 +333,25 @@ public class Filter implements IExtension {
 		if (condition == null || node.isRoot()) {
 			return true;
 		}
-		FilterInfo filterInfo = getFilterInfo(node);
-        return filterInfo.isNotChecked() || filterInfo.matches(this.options) != hidesMatchingNodes;
+		final int info = accessor.getInfo(node);
+        return (info & FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE) != 0 || ((info & options) != 0) != hidesMatchingNodes;
+	}
+
+	/**
+	 * @return true if neither the node nor any of its descendants is shown by the filter conditions.
+	 * Nodes hidden by {@link NodeVisibility} are not taken into account.
+	 */
+	public boolean hidesBranch(final NodeModel node) {
+		if (condition == null || hidesMatchingNodes || node.isRoot()) {
+			return false;
+		}
+		final int info = accessor.getInfo(node);
+		return (info & (FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE | FilterInfo.FILTER_SHOW_AS_MATCHED
+		        | FilterInfo.FILTER_SHOW_AS_ANCESTOR | FilterInfo.FILTER_SHOW_AS_DESCENDANT)) == 0;
 	}
 
 	private void resetFilter(final NodeModel node) {
-		getFilterInfo(node).reset();
+		accessor.setInfo(node, FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE);
 	}
 
 	public FilterInfo getFilterInfo(final NodeModel node) {
@@ -231,12 +359,12 @@ public class Filter implements IExtension {
 	}
 
     public void showAsMatched(NodeModel node) {
-        FilterInfo filterInfo = getFilterInfo(node);
-        if(! filterInfo.matches(FilterInfo.FILTER_SHOW_AS_MATCHED)) {
-            filterInfo.add(FilterInfo.FILTER_SHOW_AS_MATCHED);
-            if(! filterInfo.matches(FilterInfo.FILTER_SHOW_AS_ANCESTOR))
+        final int info = accessor.getInfo(node);
+        if((info & FilterInfo.FILTER_SHOW_AS_MATCHED) == 0) {
+            accessor.add(node, FilterInfo.FILTER_SHOW_AS_MATCHED);
+            if((info & FilterInfo.FILTER_SHOW_AS_ANCESTOR) == 0)
                 showAncestors(node);
-            if(! filterInfo.matches(FilterInfo.FILTER_SHOW_AS_DESCENDANT))
+            if((info & FilterInfo.FILTER_SHOW_AS_DESCENDANT) == 0)
                 showDescendants(node);
         }
     }
@@ -245,17 +373,15 @@ public class Filter implements IExtension {
         NodeModel parent = node.getParentNode();
         if(parent == null)
             return;
-        FilterInfo filterInfo = getFilterInfo(parent);
-        if(! filterInfo.matches(FilterInfo.FILTER_SHOW_AS_ANCESTOR)) {
-            filterInfo.add(FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+        if((accessor.getInfo(parent) & FilterInfo.FILTER_SHOW_AS_ANCESTOR) == 0) {
+            accessor.add(parent, FilterInfo.FILTER_SHOW_AS_ANCESTOR);
             showAncestors(parent);
         }
     }
 
     private void showDescendants(NodeModel node) {
         for (NodeModel child : node.getChildren()) {
-            FilterInfo filterInfo = getFilterInfo(child);
-            filterInfo.add(FilterInfo.FILTER_SHOW_AS_DESCENDANT);
+            accessor.add(child, FilterInfo.FILTER_SHOW_AS_DESCENDANT);
             showDescendants(child);
         }
     }
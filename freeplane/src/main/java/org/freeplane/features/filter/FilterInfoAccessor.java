@@ -0,0 +1,144 @@
+/*
+ *  Freeplane - mind map editor
+ *  Copyright (C) 2008 Dimitry Polivaev
+ *
+ *  This file author is Dimitry Polivaev
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.features.filter;
+
+import java.util.Arrays;
+import java.util.Map.Entry;
+import java.util.WeakHashMap;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+
+/**
+ * Stores filter flags of the nodes of one map in a byte array indexed by node ordinal.
+ * Nodes of other maps are kept in a weak map.
+ *
+ * Ordinals of deleted nodes are not reused because the nodes can be restored by undo.
+ * If the map has much fewer nodes than ordinals,
+ * the flags of all its nodes are kept in the weak map instead of the array.
+ */
+class FilterInfoAccessor {
+	private static final byte[] NO_INFOS = {};
+	private static final int MINIMAL_SPARSE_ORDINAL_LIMIT = 1024;
+	private static final int SPARSE_ORDINALS_PER_NODE = 4;
+
+	private MapModel map;
+	private boolean usesOrdinals;
+	private byte[] infos;
+	private WeakHashMap<NodeModel, FilterInfo> nodeInfos;
+
+	FilterInfoAccessor() {
+		this((MapModel) null);
+	}
+
+	FilterInfoAccessor(final MapModel map) {
+		this.map = map;
+		this.usesOrdinals = usesOrdinals(map);
+		this.infos = usesOrdinals ? new byte[map.getNodeOrdinalLimit()] : NO_INFOS;
+	}
+
+	private static boolean usesOrdinals(final MapModel map) {
+		if (map == null)
+			return false;
+		final int ordinalLimit = map.getNodeOrdinalLimit();
+		if (ordinalLimit < MINIMAL_SPARSE_ORDINAL_LIMIT)
+			return true;
+		final NodeModel root = map.getRootNode();
+		final int minimalNodeCount = ordinalLimit / SPARSE_ORDINALS_PER_NODE;
+		return root != null && 1 + countDescendants(root, minimalNodeCount) >= minimalNodeCount;
+	}
+
+	/** counts descendants up to the given limit */
+	private static int countDescendants(final NodeModel node, final int limit) {
+		int count = 0;
+		for (final NodeModel child : node.getChildren()) {
+			count += 1 + countDescendants(child, limit - count - 1);
+			if (count >= limit)
+				break;
+		}
+		return count;
+	}
+
+	private FilterInfoAccessor(final FilterInfoAccessor source) {
+		this.map = source.map;
+		this.usesOrdinals = source.usesOrdinals;
+		this.infos = source.infos.clone();
+		if (source.nodeInfos != null) {
+			nodeInfos = new WeakHashMap<>();
+			for (Entry<NodeModel, FilterInfo> entry : source.nodeInfos.entrySet())
+				nodeInfos.put(entry.getKey(), new FilterInfo(entry.getValue().getInfo()));
+		}
+	}
+
+	FilterInfoAccessor copy() {
+		return new FilterInfoAccessor(this);
+	}
+
+	FilterInfo getFilterInfo(final NodeModel node) {
+		return new FilterInfo() {
+			@Override
+			int getInfo() {
+				return FilterInfoAccessor.this.getInfo(node);
+			}
+
+			@Override
+			void setInfo(int info) {
+				FilterInfoAccessor.this.setInfo(node, info);
+			}
+		};
+	}
+
+	int getInfo(final NodeModel node) {
+		final int ordinal = ordinalOf(node);
+		if (ordinal >= 0) {
+			final int info = ordinal < infos.length ? infos[ordinal] : 0;
+			return info != 0 ? info : FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE;
+		}
+		final FilterInfo filterInfo = nodeInfos != null ? nodeInfos.get(node) : null;
+		return filterInfo != null ? filterInfo.getInfo() : FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE;
+	}
+
+	void setInfo(final NodeModel node, final int info) {
+		if (map == null) {
+			map = node.getMap();
+			usesOrdinals = usesOrdinals(map);
+		}
+		final int ordinal = ordinalOf(node);
+		if (ordinal >= 0) {
+			if (ordinal >= infos.length)
+				infos = Arrays.copyOf(infos, Math.max(ordinal + 1, Math.max(map.getNodeOrdinalLimit(), infos.length * 3 / 2)));
+			infos[ordinal] = (byte) info;
+		}
+		else {
+			if (nodeInfos == null)
+				nodeInfos = new WeakHashMap<>();
+			nodeInfos.computeIfAbsent(node, x -> new FilterInfo()).setInfo(info);
+		}
+	}
+
+	void add(final NodeModel node, final int flag) {
+		setInfo(node, FilterInfo.add(getInfo(node), flag));
+	}
+
+	private int ordinalOf(final NodeModel node) {
+		final MapModel nodeMap = node.getMap();
+		return usesOrdinals && nodeMap == map ? node.getOrdinal() : -1;
+	}
+}
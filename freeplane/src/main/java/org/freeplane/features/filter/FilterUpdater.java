@@ -0,0 +1,131 @@
+package org.freeplane.features.filter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.freeplane.features.map.IMapChangeListener;
+import org.freeplane.features.map.IMapSelection;
+import org.freeplane.features.map.INodeChangeListener;
+import org.freeplane.features.map.MapChangeEvent;
+import org.freeplane.features.map.MapController;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeChangeEvent;
+import org.freeplane.features.map.NodeDeletionEvent;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeModel.NodeChangeType;
+import org.freeplane.features.map.NodeMoveEvent;
+import org.freeplane.features.mode.Controller;
+
+/**
+ * Keeps results of the active filters up to date when nodes are changed, inserted, moved or deleted.
+ * Only the affected nodes are checked again, changes are collected and processed together
+ * after the current event has been handled.
+ */
+public class FilterUpdater implements INodeChangeListener, IMapChangeListener {
+	private final MapController mapController;
+	private final Set<NodeModel> changedNodes = new LinkedHashSet<>();
+	private final Set<NodeModel> changedSubtrees = new LinkedHashSet<>();
+	private final Set<NodeModel> changedParents = new LinkedHashSet<>();
+	private boolean updateScheduled = false;
+
+	public FilterUpdater(MapController mapController) {
+		this.mapController = mapController;
+	}
+
+	@Override
+	public void nodeChanged(NodeChangeEvent event) {
+		final Object property = event.getProperty();
+		if (property == NodeChangeType.FOLDING || property == NodeChangeType.REFRESH)
+			return;
+		addChange(changedNodes, event.getNode());
+	}
+
+	@Override
+	public void onNodeInserted(NodeModel parent, NodeModel child, int newIndex) {
+		addChange(changedSubtrees, child);
+	}
+
+	@Override
+	public void onNodeMoved(NodeMoveEvent nodeMoveEvent) {
+		addChange(changedSubtrees, nodeMoveEvent.child);
+		addChange(changedParents, nodeMoveEvent.oldParent);
+	}
+
+	@Override
+	public void onNodeDeleted(NodeDeletionEvent nodeDeletionEvent) {
+		addChange(changedParents, nodeDeletionEvent.parent);
+	}
+
+	private void addChange(Set<NodeModel> changes, NodeModel node) {
+		final MapModel map = node.getMap();
+		if (map == null || getActiveFilters(map).isEmpty())
+			return;
+		changes.add(node);
+		if (!updateScheduled) {
+			updateScheduled = true;
+			Controller.getCurrentController().getViewController().invokeLater(this::updateFilters);
+		}
+	}
+
+	private List<Filter> getActiveFilters(MapModel map) {
+		final List<Filter> filters = new ArrayList<>(2);
+		final Filter mapFilter = map.getExtension(Filter.class);
+		if (mapFilter != null && mapFilter.getCondition() != null)
+			filters.add(mapFilter);
+		final IMapSelection selection = Controller.getCurrentController().getSelection();
+		if (selection != null && selection.getSelected() != null && selection.getMap() == map) {
+			final Filter selectionFilter = selection.getFilter();
+			if (selectionFilter != mapFilter && selectionFilter.getCondition() != null)
+				filters.add(selectionFilter);
+		}
+		return filters;
+	}
+
+	private void updateFilters() {
+		updateScheduled = false;
+		final Set<MapModel> maps = new LinkedHashSet<>();
+		addMaps(maps, changedSubtrees);
+		addMaps(maps, changedNodes);
+		addMaps(maps, changedParents);
+		try {
+			for (MapModel map : maps)
+				updateFilters(map);
+		}
+		finally {
+			changedSubtrees.clear();
+			changedNodes.clear();
+			changedParents.clear();
+		}
+	}
+
+	private void addMaps(Set<MapModel> maps, Set<NodeModel> nodes) {
+		for (NodeModel node : nodes)
+			maps.add(node.getMap());
+	}
+
+	private void updateFilters(MapModel map) {
+		boolean resultsChanged = false;
+		for (Filter filter : getActiveFilters(map)) {
+			for (NodeModel node : changedSubtrees) {
+				if (filter.canUpdateFilterResults(node))
+					resultsChanged = filter.updateFilterResultsOfChangedSubtree(node) || resultsChanged;
+			}
+			for (NodeModel node : changedNodes) {
+				if (filter.canUpdateFilterResults(node))
+					resultsChanged = filter.updateFilterResultsOfChangedNode(node) || resultsChanged;
+			}
+			for (NodeModel node : changedParents) {
+				if (filter.canUpdateFilterResults(node))
+					resultsChanged = filter.updateFilterResultsOfChangedParent(node) || resultsChanged;
+			}
+		}
+		if (!resultsChanged)
+			return;
+		mapController.fireMapChanged(new MapChangeEvent(this, map, Filter.class, null, this, false));
+		final IMapSelection selection = Controller.getCurrentController().getSelection();
+		if (selection != null && selection.getSelected() != null && selection.getMap() == map)
+			FilterController.getCurrentFilterController().selectVisibleNodes(selection);
+	}
+}
@@ -0,0 +1,152 @@
+package org.freeplane.features.filter;
+
+import java.awt.EventQueue;
+import java.awt.GraphicsEnvironment;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.freeplane.core.ui.components.ProgressDialog;
+import org.freeplane.core.util.TextUtils;
+import org.freeplane.features.filter.condition.ICondition;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.text.PlainTextCache;
+
+/**
+ * Checks a thread safe condition for all nodes of a subtree on the fork join pool.
+ * Results are kept sorted by node ordinal and used by the sequential pass of the filter
+ * which sets the ancestor and descendant flags.
+ *
+ * Core texts compared by the condition are transformed on the calling thread before the check starts,
+ * so that the checking threads never wait for the main thread.
+ * When called on the event dispatch thread a modal progress dialog allowing to cancel the check
+ * is shown if it takes longer than a moment.
+ * Nodes not checked after cancellation are considered as not matching.
+ */
+class ParallelConditionCheck {
+	static final int MINIMAL_NODE_COUNT = 1000;
+	private static final int NODES_PER_TASK = 64;
+	private static final long NOT_CHECKED = -1;
+
+	/** Smaller subtrees are checked sequentially, so that rechecking them allocates nothing. */
+	static boolean canCheck(final ICondition condition, final NodeModel root) {
+		if (condition == null || !condition.isThreadSafe() || root.getMap() == null)
+			return false;
+		return countDescendants(root, MINIMAL_NODE_COUNT) >= MINIMAL_NODE_COUNT;
+	}
+
+	/** counts descendants up to the given limit */
+	private static int countDescendants(final NodeModel node, final int limit) {
+		int count = 0;
+		for (final NodeModel child : node.getChildren()) {
+			count += 1 + countDescendants(child, limit - count - 1);
+			if (count >= limit)
+				break;
+		}
+		return count;
+	}
+
+	private class CheckTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int from;
+		private final int to;
+
+		CheckTask(final int from, final int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > NODES_PER_TASK) {
+				final int middle = (from + to) >>> 1;
+				invokeAll(new CheckTask(from, middle), new CheckTask(middle, to));
+				return;
+			}
+			for (int i = from; i < to && !cancelled; i++) {
+				final NodeModel node = nodes.get(i);
+				results[i] = result(node.getOrdinal(), condition.checkNode(node));
+			}
+			checkedNodeCount.addAndGet(to - from);
+		}
+	}
+
+	private final ICondition condition;
+	private final NodeModel root;
+	private final List<NodeModel> nodes;
+	/** Node ordinals shifted left by one with the check result in the lowest bit. */
+	private final long[] results;
+	private final AtomicInteger checkedNodeCount;
+	private volatile boolean cancelled;
+	private boolean rootSatisfied;
+
+	ParallelConditionCheck(final ICondition condition, final NodeModel root) {
+		this.condition = condition;
+		this.root = root;
+		this.nodes = new ArrayList<>();
+		addDescendants(root);
+		this.results = new long[nodes.size()];
+		this.checkedNodeCount = new AtomicInteger();
+	}
+
+	private void addDescendants(final NodeModel node) {
+		for (final NodeModel child : node.getChildren()) {
+			nodes.add(child);
+			addDescendants(child);
+		}
+	}
+
+	private static long result(final int ordinal, final boolean satisfied) {
+		return ordinal < 0 ? NOT_CHECKED : (long) ordinal << 1 | (satisfied ? 1 : 0);
+	}
+
+	void run() {
+		// checked on the calling thread so that conditions can lazily initialize map extensions they use
+		rootSatisfied = condition.checkNode(root);
+		Arrays.fill(results, NOT_CHECKED);
+		final PlainTextCache plainTexts = condition.checksCoreText() ? PlainTextCache.of(root.getMap()) : null;
+		if (plainTexts != null) {
+			// the root is the parent of some checked nodes
+			final List<NodeModel> textNodes = new ArrayList<>(nodes.size() + 1);
+			textNodes.add(root);
+			textNodes.addAll(nodes);
+			plainTexts.prepareCoreTexts(textNodes);
+		}
+		try {
+			final CheckTask task = new CheckTask(0, nodes.size());
+			if (EventQueue.isDispatchThread() && !GraphicsEnvironment.isHeadless()) {
+				ForkJoinPool.commonPool().execute(task);
+				ProgressDialog.waitFor(task, TextUtils.getText("filter_in_progress"),
+				    () -> (int) ((long) checkedNodeCount.get() * ProgressDialog.MAXIMUM_PROGRESS
+				            / Math.max(1, nodes.size())),
+				    () -> cancelled = true);
+				task.join();
+			}
+			else
+				task.invoke();
+		}
+		finally {
+			if (plainTexts != null)
+				plainTexts.releaseCoreTexts();
+		}
+		Arrays.sort(results);
+	}
+
+	boolean isSatisfied(final NodeModel node) {
+		if (node == root)
+			return rootSatisfied;
+		final int ordinal = node.getOrdinal();
+		if (ordinal >= 0 && node.getMap() == root.getMap()) {
+			final int index = Arrays.binarySearch(results, result(ordinal, false));
+			if (index >= 0)
+				return false;
+			final int insertionPoint = -index - 1;
+			if (insertionPoint < results.length && results[insertionPoint] == result(ordinal, true))
+				return true;
+		}
+		return !cancelled && condition.checkNode(node);
+	}
+}
@@ -0,0 +1,469 @@
+package org.freeplane.features.filter;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.freeplane.core.extension.IExtension;
+import org.freeplane.core.resources.IFreeplanePropertyListener;
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.map.IMapChangeListener;
+import org.freeplane.features.map.INodeChangeListener;
+import org.freeplane.features.map.MapChangeEvent;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeChangeEvent;
+import org.freeplane.features.map.NodeDeletionEvent;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeModel.NodeChangeType;
+import org.freeplane.features.map.NodeMoveEvent;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.features.styles.MapStyleModel;
+
+/**
+ * Inverted index of node texts used by "contains" conditions to skip nodes which can not match.
+ *
+ * For each indexed {@link Item} the index maps character trigrams of the folded text to the ordinals of the nodes containing them.
+ * Texts are folded character by character to lower case without diacritics,
+ * so that a node containing a searched value for any combination of the "match case" and "ignore diacritics" options
+ * also contains all trigrams of the folded value.
+ *
+ * Change events only mark nodes as changed, the index is updated on the main thread before it is searched.
+ * Maps with conditional styles, whose formats may depend on other nodes, are indexed again after each change.
+ * Threads searching the index while it is not up to date get no candidates and have to check all nodes.
+ */
+public class TextIndex implements IExtension {
+	public static final String USE_TEXT_INDEX_PROPERTY = "use_text_index";
+
+	/** Provides texts of an indexed node item, e.g. node core text or note */
+	public interface Item {
+		/** @return text to be indexed, an empty string if the node has no such text,
+		 * or null if the text can not be indexed because it depends on other nodes */
+		String getIndexedText(NodeModel node);
+	}
+
+	public static class Updater implements INodeChangeListener, IMapChangeListener, IFreeplanePropertyListener {
+		@Override
+		public void nodeChanged(NodeChangeEvent event) {
+			final Object property = event.getProperty();
+			if (property == NodeChangeType.FOLDING || property == NodeChangeType.REFRESH)
+				return;
+			final TextIndex index = getIndex(event.getNode().getMap());
+			if (index == null)
+				return;
+			if (MapStyleModel.hasConditionalStyles(index.map))
+				index.invalidate();
+			else
+				index.nodeChanged(event.getNode());
+		}
+
+		@Override
+		public void onNodeInserted(NodeModel parent, NodeModel child, int newIndex) {
+			subtreeChanged(child);
+		}
+
+		@Override
+		public void onNodeDeleted(NodeDeletionEvent nodeDeletionEvent) {
+			subtreeChanged(nodeDeletionEvent.node);
+		}
+
+		@Override
+		public void onNodeMoved(NodeMoveEvent nodeMoveEvent) {
+			if (MapStyleModel.hasConditionalStyles(nodeMoveEvent.child.getMap()))
+				subtreeChanged(nodeMoveEvent.child);
+		}
+
+		@Override
+		public void propertyChanged(String propertyName, String newValue, String oldValue) {
+			preferenceChanges++;
+		}
+
+		/** formats assigned by conditional styles may depend on other nodes and on the node position */
+		private void subtreeChanged(NodeModel node) {
+			final TextIndex index = getIndex(node.getMap());
+			if (index == null)
+				return;
+			if (MapStyleModel.hasConditionalStyles(index.map))
+				index.invalidate();
+			else
+				index.subtreeChanged(node);
+		}
+
+		@Override
+		public void mapChanged(MapChangeEvent event) {
+			if (event.getProperty() == Filter.class)
+				return;
+			final TextIndex index = getIndex(event.getMap());
+			if (index != null)
+				index.invalidate();
+		}
+
+		private TextIndex getIndex(MapModel map) {
+			return map != null ? map.getExtension(TextIndex.class) : null;
+		}
+	}
+
+	/** texts are transformed using preferences, e.g. the standard formats */
+	private static volatile int preferenceChanges;
+	private static final int GRAM_LENGTH = 3;
+	private static final int FOLDED_CHARACTER_CACHE_SIZE = 0x800;
+	private static final String[] FOLDED_CHARACTERS = new String[FOLDED_CHARACTER_CACHE_SIZE];
+
+	/** @return false if the node does not contain the value in the given item,
+	 * true if it may contain it or the index can not tell */
+	public static boolean mayContain(Item item, NodeModel node, String value) {
+		final MapModel map = node.getMap();
+		if (map == null || node.getOrdinal() < 0
+		        || !ResourceController.getResourceController().getBooleanProperty(USE_TEXT_INDEX_PROPERTY))
+			return true;
+		final boolean mayUpdate = Controller.getCurrentController().getViewController().isDispatchThread();
+		final TextIndex index = mayUpdate ? of(map) : map.getExtension(TextIndex.class);
+		if (index == null)
+			return true;
+		final BitSet candidates = index.getCandidates(item, value, mayUpdate);
+		return candidates == null || candidates.get(node.getOrdinal());
+	}
+
+	static TextIndex of(MapModel map) {
+		TextIndex index = map.getExtension(TextIndex.class);
+		if (index == null) {
+			index = new TextIndex(map);
+			map.addExtension(index);
+		}
+		return index;
+	}
+
+	private static class PostingList {
+		private int[] ordinals = new int[4];
+		private int size;
+		private boolean sorted = true;
+
+		void add(int ordinal) {
+			if (size == ordinals.length)
+				ordinals = Arrays.copyOf(ordinals, size * 2);
+			if (size > 0 && ordinals[size - 1] > ordinal)
+				sorted = false;
+			ordinals[size++] = ordinal;
+		}
+
+		void remove(int ordinal) {
+			sort();
+			final int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+			if (index < 0)
+				return;
+			System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+			size--;
+		}
+
+		boolean contains(int ordinal) {
+			return Arrays.binarySearch(ordinals, 0, size, ordinal) >= 0;
+		}
+
+		private void sort() {
+			if (!sorted) {
+				Arrays.sort(ordinals, 0, size);
+				sorted = true;
+			}
+		}
+
+		int size() {
+			return size;
+		}
+
+		BitSet toBitSet() {
+			final BitSet bitSet = new BitSet();
+			for (int i = 0; i < size; i++)
+				bitSet.set(ordinals[i]);
+			return bitSet;
+		}
+
+		void retainIn(BitSet bitSet) {
+			sort();
+			for (int ordinal = bitSet.nextSetBit(0); ordinal >= 0; ordinal = bitSet.nextSetBit(ordinal + 1)) {
+				if (!contains(ordinal))
+					bitSet.clear(ordinal);
+			}
+		}
+	}
+
+	/** Open addressing hash table of posting lists by gram, posting lists are kept when they become empty */
+	private static class PostingLists {
+		private long[] grams = new long[1024];
+		private PostingList[] lists = new PostingList[1024];
+		private int size;
+
+		PostingList get(long gram) {
+			final int mask = grams.length - 1;
+			for (int i = slot(gram, mask);; i = (i + 1) & mask) {
+				if (lists[i] == null)
+					return null;
+				if (grams[i] == gram)
+					return lists[i];
+			}
+		}
+
+		PostingList getOrCreate(long gram) {
+			final int mask = grams.length - 1;
+			for (int i = slot(gram, mask);; i = (i + 1) & mask) {
+				if (lists[i] == null) {
+					final PostingList list = new PostingList();
+					grams[i] = gram;
+					lists[i] = list;
+					if (++size * 2 > grams.length)
+						grow();
+					return list;
+				}
+				if (grams[i] == gram)
+					return lists[i];
+			}
+		}
+
+		private void grow() {
+			final long[] oldGrams = grams;
+			final PostingList[] oldLists = lists;
+			grams = new long[oldGrams.length * 2];
+			lists = new PostingList[oldLists.length * 2];
+			final int mask = grams.length - 1;
+			for (int j = 0; j < oldLists.length; j++) {
+				if (oldLists[j] == null)
+					continue;
+				int i = slot(oldGrams[j], mask);
+				while (lists[i] != null)
+					i = (i + 1) & mask;
+				grams[i] = oldGrams[j];
+				lists[i] = oldLists[j];
+			}
+		}
+
+		private static int slot(long gram, int mask) {
+			final long hash = gram * 0x9E3779B97F4A7C15L;
+			return (int) (hash >>> 32) & mask;
+		}
+	}
+
+	private static class ItemIndex {
+		private final Item item;
+		private String[] foldedTexts = new String[0];
+		private final BitSet unindexedOrdinals = new BitSet();
+		private final PostingLists postingLists = new PostingLists();
+		private String lastValue;
+		private BitSet lastCandidates;
+
+		ItemIndex(Item item) {
+			this.item = item;
+		}
+
+		void add(NodeModel node) {
+			final int ordinal = node.getOrdinal();
+			final String text = item.getIndexedText(node);
+			if (text == null) {
+				unindexedOrdinals.set(ordinal);
+				return;
+			}
+			final String foldedText = fold(text);
+			if (ordinal >= foldedTexts.length)
+				foldedTexts = Arrays.copyOf(foldedTexts, Math.max(ordinal + 1, foldedTexts.length * 2));
+			foldedTexts[ordinal] = foldedText;
+			for (final long gram : distinctGrams(foldedText))
+				postingLists.getOrCreate(gram).add(ordinal);
+		}
+
+		void remove(NodeModel node) {
+			final int ordinal = node.getOrdinal();
+			if (ordinal < 0)
+				return;
+			unindexedOrdinals.clear(ordinal);
+			if (ordinal >= foldedTexts.length || foldedTexts[ordinal] == null)
+				return;
+			for (final long gram : distinctGrams(foldedTexts[ordinal])) {
+				final PostingList postingList = postingLists.get(gram);
+				if (postingList != null)
+					postingList.remove(ordinal);
+			}
+			foldedTexts[ordinal] = null;
+		}
+
+		BitSet getCandidates(String value) {
+			if (lastCandidates != null && value.equals(lastValue))
+				return lastCandidates;
+			final String foldedValue = fold(value);
+			if (foldedValue.length() < GRAM_LENGTH)
+				return null;
+			final long[] grams = distinctGrams(foldedValue);
+			final PostingList[] lists = new PostingList[grams.length];
+			BitSet candidates = null;
+			for (int i = 0; i < grams.length; i++) {
+				lists[i] = postingLists.get(grams[i]);
+				if (lists[i] == null || lists[i].size() == 0) {
+					candidates = new BitSet();
+					break;
+				}
+			}
+			if (candidates == null) {
+				Arrays.sort(lists, Comparator.comparingInt(PostingList::size));
+				candidates = lists[0].toBitSet();
+				for (int i = 1; i < lists.length && !candidates.isEmpty(); i++)
+					lists[i].retainIn(candidates);
+			}
+			candidates.or(unindexedOrdinals);
+			lastValue = value;
+			lastCandidates = candidates;
+			return candidates;
+		}
+
+		void forgetCandidates() {
+			lastValue = null;
+			lastCandidates = null;
+		}
+	}
+
+	private final MapModel map;
+	private final Map<Item, ItemIndex> itemIndices = new HashMap<>();
+	private final Set<NodeModel> changedNodes = new LinkedHashSet<>();
+	private final Set<NodeModel> changedSubtrees = new LinkedHashSet<>();
+	private int indexedPreferenceChanges;
+
+	TextIndex(MapModel map) {
+		this.map = map;
+		this.indexedPreferenceChanges = preferenceChanges;
+	}
+
+	/** @return ordinals of nodes which may contain the value or null if all nodes have to be checked */
+	synchronized BitSet getCandidates(Item item, String value, boolean mayUpdate) {
+		if (indexedPreferenceChanges != preferenceChanges) {
+			if (!mayUpdate)
+				return null;
+			invalidate();
+			indexedPreferenceChanges = preferenceChanges;
+		}
+		ItemIndex itemIndex = itemIndices.get(item);
+		final boolean upToDate = changedNodes.isEmpty() && changedSubtrees.isEmpty();
+		if (!mayUpdate && (itemIndex == null || !upToDate))
+			return null;
+		if (!upToDate)
+			update();
+		if (itemIndex == null) {
+			itemIndex = new ItemIndex(item);
+			addSubtree(itemIndex, map.getRootNode());
+			itemIndices.put(item, itemIndex);
+		}
+		return itemIndex.getCandidates(value);
+	}
+
+	synchronized void nodeChanged(NodeModel node) {
+		changedNodes.add(node);
+		forgetCandidates();
+	}
+
+	synchronized void subtreeChanged(NodeModel node) {
+		changedSubtrees.add(node);
+		forgetCandidates();
+	}
+
+	synchronized void invalidate() {
+		itemIndices.clear();
+		changedNodes.clear();
+		changedSubtrees.clear();
+	}
+
+	private void forgetCandidates() {
+		for (final ItemIndex itemIndex : itemIndices.values())
+			itemIndex.forgetCandidates();
+	}
+
+	private void update() {
+		for (final ItemIndex itemIndex : itemIndices.values()) {
+			for (final NodeModel node : changedSubtrees)
+				updateSubtree(itemIndex, node, isAttached(node));
+			for (final NodeModel node : changedNodes) {
+				itemIndex.remove(node);
+				if (isAttached(node))
+					itemIndex.add(node);
+			}
+		}
+		changedNodes.clear();
+		changedSubtrees.clear();
+	}
+
+	private void addSubtree(ItemIndex itemIndex, NodeModel node) {
+		itemIndex.add(node);
+		for (final NodeModel child : node.getChildren())
+			addSubtree(itemIndex, child);
+	}
+
+	private void updateSubtree(ItemIndex itemIndex, NodeModel node, boolean attached) {
+		if (node.getOrdinal() < 0)
+			return;
+		itemIndex.remove(node);
+		if (attached)
+			itemIndex.add(node);
+		for (final NodeModel child : node.getChildren())
+			updateSubtree(itemIndex, child, attached);
+	}
+
+	private boolean isAttached(NodeModel node) {
+		if (node.getMap() != map || node.getOrdinal() < 0)
+			return false;
+		NodeModel ancestor = node;
+		while (ancestor.getParentNode() != null)
+			ancestor = ancestor.getParentNode();
+		return ancestor == map.getRootNode();
+	}
+
+	private static long[] distinctGrams(String foldedText) {
+		final int gramCount = foldedText.length() - GRAM_LENGTH + 1;
+		if (gramCount <= 0)
+			return new long[0];
+		final long[] grams = new long[gramCount];
+		for (int i = 0; i < gramCount; i++)
+			grams[i] = (long) foldedText.charAt(i) << 32 | (long) foldedText.charAt(i + 1) << 16 | foldedText.charAt(i + 2);
+		Arrays.sort(grams);
+		int distinctCount = 1;
+		for (int i = 1; i < gramCount; i++) {
+			if (grams[i] != grams[distinctCount - 1])
+				grams[distinctCount++] = grams[i];
+		}
+		return distinctCount == gramCount ? grams : Arrays.copyOf(grams, distinctCount);
+	}
+
+	/** Folds each character separately, so that the folded text of a string contains the folded text of its substrings,
+	 * and folding any text transformed by {@link org.freeplane.features.filter.condition.StringTransformer} gives the same result
+	 * as folding the original text. */
+	static String fold(String text) {
+		final StringBuilder foldedText = new StringBuilder(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			if (c < 0x80)
+				foldedText.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+			else
+				foldedText.append(foldNonAscii(c));
+		}
+		return foldedText.toString();
+	}
+
+	private static String foldNonAscii(char c) {
+		if (c >= FOLDED_CHARACTER_CACHE_SIZE)
+			return foldCharacter(c);
+		String folded = FOLDED_CHARACTERS[c];
+		if (folded == null) {
+			folded = foldCharacter(c);
+			FOLDED_CHARACTERS[c] = folded;
+		}
+		return folded;
+	}
+
+	private static String foldCharacter(char c) {
+		final String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+		final StringBuilder folded = new StringBuilder(decomposed.length());
+		for (int i = 0; i < decomposed.length(); i++) {
+			final char d = decomposed.charAt(i);
+			if (Character.getType(d) != Character.NON_SPACING_MARK)
+				folded.append(Character.toLowerCase(Character.toUpperCase(d)));
+		}
+		return folded.toString();
+	}
+}
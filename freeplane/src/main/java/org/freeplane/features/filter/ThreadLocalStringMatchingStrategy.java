@@ -0,0 +1,20 @@
+package org.freeplane.features.filter;
+
+import java.util.function.Supplier;
+
+/**
+ * Delegates to a separate instance of a stateful strategy in each thread
+ * so that conditions using it can be checked concurrently.
+ */
+class ThreadLocalStringMatchingStrategy implements StringMatchingStrategy {
+	private final ThreadLocal<StringMatchingStrategy> strategies;
+
+	ThreadLocalStringMatchingStrategy(Supplier<? extends StringMatchingStrategy> factory) {
+		strategies = ThreadLocal.withInitial(factory);
+	}
+
+	@Override
+	public boolean matches(String searchTerm, String searchText, boolean subStringMatch) {
+		return strategies.get().matches(searchTerm, searchText, subStringMatch);
+	}
+}
@@ -81,6 +81,13 @@ abstract public class CompareConditionAdapter extends StringConditionAdapter {
 		
 	}
 
+	/** creates a condition comparing to the same value with its own comparison state. */
+	protected CompareConditionAdapter(final CompareConditionAdapter prototype) {
+		super(prototype.matchCase, prototype.matchApproximately, prototype.ignoreDiacritics);
+		conditionValue = prototype.conditionValue;
+		stringMatchingStrategy = prototype.stringMatchingStrategy;
+	}
+
 	protected CompareConditionAdapter(final Double value) {
 		super(false, false, false);
 		conditionValue = value;
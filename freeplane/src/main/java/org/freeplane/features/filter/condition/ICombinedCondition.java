@@ -25,4 +25,14 @@ public interface ICombinedCondition extends ICondition{
         return split().stream().anyMatch(ICondition::checksDescendants);
     }
 
+	@Override
+	default boolean isThreadSafe() {
+        return split().stream().allMatch(ICondition::isThreadSafe);
+    }
+
+	@Override
+	default boolean checksCoreText() {
+        return split().stream().anyMatch(ICondition::checksCoreText);
+    }
+
 }
@@ -39,4 +39,20 @@ public interface ICondition {
     default boolean checksDescendants() {
         return false;
     }
+
+    /**
+     * Conditions returning true may be checked for different nodes in parallel threads.
+     * They must only read node data which is safe to access outside of the main thread.
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
+    /**
+     * Thread safe conditions returning true compare transformed node core texts,
+     * which are prepared on the main thread before the condition is checked in parallel threads.
+     */
+    default boolean checksCoreText() {
+        return false;
+    }
 }
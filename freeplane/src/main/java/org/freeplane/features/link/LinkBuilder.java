@@ -52,12 +52,13 @@ public class LinkBuilder implements IElementDOMHandler, IReadCompletionListener{
 	private static final int FREEPLANE_VERSION_WITH_CURVED_LOOPED_CONNECTORS = 3;
 	private static final String FORMAT_AS_HYPERLINK = "FORMAT_AS_HYPERLINK";
 	private static final String LINK = "LINK";
-	final private HashSet<NodeLinkModel> processedLinks;
+	/** Maps can be read by several threads at once, each of them collects its own links. */
+	final private ThreadLocal<HashSet<NodeLinkModel>> processedLinks;
 	private final LinkController linkController;
 
 	public LinkBuilder(final LinkController linkController) {
 		this.linkController = linkController;
-		processedLinks = new HashSet<NodeLinkModel>();
+		processedLinks = ThreadLocal.withInitial(HashSet::new);
 	}
 
 	private NodeLinkModel createArrowLink(final NodeModel source, final String targetID) {
@@ -79,7 +80,7 @@ public class LinkBuilder implements IElementDOMHandler, IReadCompletionListener{
 	 */
 	@Override
 	public void readingCompleted(final NodeModel topNode, final Map<String, String> newIds) {
-		final Iterator<NodeLinkModel> iterator = processedLinks.iterator();
+		final Iterator<NodeLinkModel> iterator = processedLinks.get().iterator();
 		while (iterator.hasNext()) {
 			final NodeLinkModel arrowLink = iterator.next();
 			final String id = arrowLink.getTargetID();
@@ -93,7 +94,7 @@ public class LinkBuilder implements IElementDOMHandler, IReadCompletionListener{
 			final NodeModel source = arrowLink.getSource();
 			NodeLinks.createLinkExtension(source).addArrowlink(arrowLink);
 		}
-		processedLinks.clear();
+		processedLinks.remove();
 	}
 
 	private void registerAttributeHandlers(final ReadManager reader) {
@@ -103,7 +104,7 @@ public class LinkBuilder implements IElementDOMHandler, IReadCompletionListener{
 				final NodeModel node = (NodeModel) userObject;
 				linkController.loadLink(node, value);
 				final Collection<NodeLinkModel> links = NodeLinks.getLinks(node);
-				processedLinks.addAll(links);
+				processedLinks.get().addAll(links);
 			}
 		});
 
@@ -149,7 +150,7 @@ public class LinkBuilder implements IElementDOMHandler, IReadCompletionListener{
 			public void setAttribute(final Object userObject, final String value) {
 				final ConnectorModel arrowLink = (ConnectorModel) userObject;
 				arrowLink.setTargetID(value);
-				processedLinks.add(arrowLink);
+				processedLinks.get().add(arrowLink);
 			}
 		});
 		reader.addAttributeHandler("arrowlink", "SOURCE_LABEL", new IAttributeHandler() {
@@ -269,7 +270,7 @@ public class LinkBuilder implements IElementDOMHandler, IReadCompletionListener{
 			connector.setShape(Optional.of(ConnectorShape.LINE));
 	}
 
-	void registerBy(final ReadManager reader) {
+	public void registerBy(final ReadManager reader) {
 		reader.addElementHandler("arrowlink", this);
 		registerAttributeHandlers(reader);
 		reader.addReadCompletionListener(this);
@@ -378,12 +379,12 @@ public class LinkBuilder implements IElementDOMHandler, IReadCompletionListener{
 			while (iterator.hasNext()) {
 				final NodeLinkModel linkModel = iterator.next();
 				if (linkModel instanceof ConnectorModel) {
-					final boolean linkNotWrittenBefore = ! processedLinks.contains(linkModel);
+					final boolean linkNotWrittenBefore = ! processedLinks.get().contains(linkModel);
 					if(linkNotWrittenBefore) {
 						final ConnectorModel arrowLinkModel = (ConnectorModel) linkModel.cloneForSource(node);
 						if(arrowLinkModel != null) {
 							save(writer, arrowLinkModel);
-							processedLinks.add(linkModel);
+							processedLinks.get().add(linkModel);
 						}
 					}
 				}
@@ -65,4 +65,10 @@ public class LinkTransformer extends AbstractContentTransformer {
 		else
 			return content;
     }
+
+	/** links to other nodes show their texts. */
+	@Override
+	public boolean isCacheable(NodeModel node, Object nodeProperty, Object content) {
+		return !(content instanceof Hyperlink || content instanceof URI) || !content.toString().startsWith("#");
+	}
 }
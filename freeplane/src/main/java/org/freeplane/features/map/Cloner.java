@@ -19,8 +19,6 @@
  */
 package org.freeplane.features.map;
 
-import java.util.List;
-
 import org.freeplane.features.map.NodeModel.CloneType;
 
 /**
@@ -44,11 +42,10 @@ class Cloner {
 		if(node.containsExtension(EncryptionModel.class))
 			throw new CloneEncryptedNodeException();
 		final NodeModel clone = node.cloneNode(CloneType.TREE);
-		final List<NodeModel> cloneChildren = clone.getChildrenInternal();
 		for (NodeModel childNode : node.getChildrenInternal()){
 			final NodeModel childClone = cloneStructure(childNode);
 			childClone.setParent(clone);
-			cloneChildren.add(childClone);
+			clone.getModifiableChildrenInternal().add(childClone);
 		}
 		return clone;
     }
@@ -39,7 +39,11 @@ public class DetachedNodeList implements Clones {
     }
 	
 	public DetachedNodeList forClone(NodeModel node){
-		return new DetachedNodeList(node, clone == clonedNode ? node : clonedNode, cloneType);
+		return new DetachedNodeList(node, isNotCloned() ? node : clonedNode, cloneType);
+	}
+
+	boolean isNotCloned() {
+		return clone == clonedNode;
 	}
 
 	public DetachedNodeList(NodeModel clone, NodeModel clonedNode, CloneType cloneType) {
@@ -57,7 +61,7 @@ public class DetachedNodeList implements Clones {
 	}
 
 	public void attach() {
-		if(clonedNode == clone)
+		if(isNotCloned())
 			clone.setClones(new SingleNodeList(clone, cloneType));
 		else if (! clonedNode.isAttached()){
 			clone.setClones(new SingleNodeList(clone, cloneType));
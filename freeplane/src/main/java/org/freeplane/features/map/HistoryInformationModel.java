@@ -46,6 +46,11 @@ public class HistoryInformationModel {
 		this.lastModifiedAt = lastModifiedAt.getTime();
 	}
 
+	HistoryInformationModel(final long createdAt, final long lastModifiedAt) {
+		this.createdAt = createdAt;
+		this.lastModifiedAt = lastModifiedAt;
+	}
+
 	public Date getCreatedAt() {
 		return new Date(createdAt);
 	}
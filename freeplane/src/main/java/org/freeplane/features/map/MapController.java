@@ -57,6 +57,8 @@ import org.freeplane.features.explorer.MapExplorerController;
 import org.freeplane.features.filter.Filter;
 import org.freeplane.features.filter.FilterController;
 import org.freeplane.features.filter.FilterInfo;
+import org.freeplane.features.filter.FilterUpdater;
+import org.freeplane.features.filter.TextIndex;
 import org.freeplane.features.filter.condition.ConditionFactory;
 import org.freeplane.features.map.MapWriter.Mode;
 import org.freeplane.features.map.NodeModel.NodeChangeType;
@@ -355,6 +357,13 @@ implements IExtension, NodeChangeAnnouncer{
 		addNodeSelectionListener(actionSelectorOnChange);
 		addUINodeChangeListener(actionSelectorOnChange);
 		addUIMapChangeListener(actionSelectorOnChange);
+		final FilterUpdater filterUpdater = new FilterUpdater(this);
+		addNodeChangeListener(filterUpdater);
+		addMapChangeListener(filterUpdater);
+		final TextIndex.Updater textIndexUpdater = new TextIndex.Updater();
+		addNodeChangeListener(textIndexUpdater);
+		addMapChangeListener(textIndexUpdater);
+		ResourceController.getResourceController().addPropertyChangeListener(textIndexUpdater);
 		final MapClipboardController mapClipboardController = createMapClipboardController();
 		modeController.addExtension(MapClipboardController.class, mapClipboardController);
 		createActions(modeController);
@@ -884,36 +893,34 @@ implements IExtension, NodeChangeAnnouncer{
 			setSaved(map, false);
 		if (nodeChangeEvent.updatesModificationTime() && !map.isUndoActionRunning()) {
 			final HistoryInformationModel historyInformation = node.getHistoryInformation();
-			if (historyInformation != null) {
-				final IActor historyActor = new IActor() {
-					private final Date lastModifiedAt = historyInformation.getLastModifiedAt();
-					private final Date now = new Date();
+			final IActor historyActor = new IActor() {
+				private final Date lastModifiedAt = historyInformation.getLastModifiedAt();
+				private final Date now = new Date();
 
-					@Override
-					public void undo() {
-						setDate(historyInformation, lastModifiedAt);
-					}
+				@Override
+				public void undo() {
+					setDate(historyInformation, lastModifiedAt);
+				}
 
-					private void setDate(final HistoryInformationModel historyInformation, final Date lastModifiedAt) {
-						final Date oldLastModifiedAt = historyInformation.getLastModifiedAt();
-						historyInformation.setLastModifiedAt(lastModifiedAt);
-						final NodeChangeEvent nodeChangeEvent = new NodeChangeEvent(node,
-						    HistoryInformationModel.class, oldLastModifiedAt, lastModifiedAt, false, false);
-						fireNodeChanged(node, nodeChangeEvent);
-					}
+				private void setDate(final HistoryInformationModel historyInformation, final Date lastModifiedAt) {
+					final Date oldLastModifiedAt = historyInformation.getLastModifiedAt();
+					historyInformation.setLastModifiedAt(lastModifiedAt);
+					final NodeChangeEvent nodeChangeEvent = new NodeChangeEvent(node,
+					    HistoryInformationModel.class, oldLastModifiedAt, lastModifiedAt, false, false);
+					fireNodeChanged(node, nodeChangeEvent);
+				}
 
-					@Override
-					public String getDescription() {
-						return null;
-					}
+				@Override
+				public String getDescription() {
+					return null;
+				}
 
-					@Override
-					public void act() {
-						setDate(historyInformation, now);
-					}
-				};
-				Controller.getCurrentModeController().execute(historyActor, map);
-			}
+				@Override
+				public void act() {
+					setDate(historyInformation, now);
+				}
+			};
+			Controller.getCurrentModeController().execute(historyActor, map);
 		}
 		fireNodeChanged(node, nodeChangeEvent);
 	}
@@ -27,6 +27,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.freeplane.core.extension.ExtensionContainer;
 import org.freeplane.core.extension.IExtension;
@@ -53,6 +54,7 @@ public class MapModel {
 	private URL url;
 	private NodeChangeAnnouncer nodeChangeAnnouncer;
     private final INodeDuplicator nodeDuplicator;
+	private final AtomicInteger nodeOrdinals = new AtomicInteger();
 
 	public MapModel(INodeDuplicator nodeDuplicator, IconRegistry iconRegistry, NodeChangeAnnouncer nodeChangeAnnouncer) {
 		this.nodeDuplicator = nodeDuplicator;
@@ -210,6 +212,18 @@ public class MapModel {
 		return id;
 	}
 
+	/**
+	 * Node ordinals are never reused and stay unchanged while the node belongs to this map.
+	 * They are dense unless many nodes have been deleted.
+	 */
+	int nextNodeOrdinal() {
+		return nodeOrdinals.getAndIncrement();
+	}
+
+	public int getNodeOrdinalLimit() {
+		return nodeOrdinals.get();
+	}
+
 	public void registryNodeRecursive(final NodeModel nodeModel) {
 		registryNodeRecursive(nodeModel, 0);
 	}
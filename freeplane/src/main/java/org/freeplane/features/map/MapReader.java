@@ -27,7 +27,7 @@ import java.util.Map;
 import org.freeplane.core.io.IElementDOMHandler;
 import org.freeplane.core.io.ReadManager;
 import org.freeplane.core.io.UnknownElements;
-import org.freeplane.core.io.xml.TreeXmlReader;
+import org.freeplane.core.io.xml.StreamingTreeXmlReader;
 import org.freeplane.features.map.MapWriter.Hint;
 import org.freeplane.features.map.MapWriter.Mode;
 import org.freeplane.n3.nanoxml.XMLElement;
@@ -55,17 +55,17 @@ public class MapReader implements IElementDOMHandler {
         }
 
 		public NodeModel create(final Reader pReader) throws XMLException {
-			final NodeTreeCreator oldNodeTreeCreator = nodeTreeCreator;
-			final TreeXmlReader reader = new TreeXmlReader(readManager);
+			final NodeTreeCreator oldNodeTreeCreator = currentNodeTreeCreator.get();
+			final StreamingTreeXmlReader reader = new StreamingTreeXmlReader(readManager);
 			try {
-				nodeTreeCreator = this;
+				currentNodeTreeCreator.set(this);
 				reader.load(createdMap, pReader);
 				final NodeModel node = nodeBuilder.getMapChild();
 				return node;
 			}
 			finally {
 				nodeBuilder.reset();
-				nodeTreeCreator = oldNodeTreeCreator;
+				currentNodeTreeCreator.set(oldNodeTreeCreator);
 			}
 		}
 
@@ -82,15 +82,15 @@ public class MapReader implements IElementDOMHandler {
 		}
 
 		public void finish(final NodeModel node) {
-			final NodeTreeCreator oldNodeTreeCreator = nodeTreeCreator;
+			final NodeTreeCreator oldNodeTreeCreator = currentNodeTreeCreator.get();
 			try {
-				nodeTreeCreator = this;
+				currentNodeTreeCreator.set(this);
 				readManager.readingCompleted(node, newIds);
 				newIds.clear();
 				createdMap = null;
 			}
 			finally {
-				nodeTreeCreator = oldNodeTreeCreator;
+				currentNodeTreeCreator.set(oldNodeTreeCreator);
 			}
 		}
 
@@ -139,10 +139,11 @@ public class MapReader implements IElementDOMHandler {
 
 	private final NodeBuilder nodeBuilder;
 	final private ReadManager readManager;
-	private NodeTreeCreator nodeTreeCreator;
+	/** Maps can be read by several threads at once, each of them uses its own creator. */
+	private final ThreadLocal<NodeTreeCreator> currentNodeTreeCreator = new ThreadLocal<>();
 
 	public NodeTreeCreator getCurrentNodeTreeCreator() {
-		return nodeTreeCreator;
+		return currentNodeTreeCreator.get();
 	}
 
 	public MapReader(final ReadManager readManager) {
@@ -153,7 +154,7 @@ public class MapReader implements IElementDOMHandler {
 
 	@Override
 	public Object createElement(final Object parent, final String tag, final XMLElement attributes) {
-		return nodeTreeCreator.getCreatedMap();
+		return currentNodeTreeCreator.get().getCreatedMap();
 	}
 
 	public NodeModel createNodeTreeFromXml(final MapModel map, final Reader pReader, final Mode mode)
@@ -164,14 +165,15 @@ public class MapReader implements IElementDOMHandler {
 	}
 	public NodeModel createNodeTreeFromXml(final MapModel map, final Reader pReader, final Map<Object, Object> hints)
 	        throws IOException, XMLException {
-		final NodeTreeCreator oldNodeTreeCreator = nodeTreeCreator;
+		final NodeTreeCreator oldNodeTreeCreator = currentNodeTreeCreator.get();
 		try {
-			nodeTreeCreator = new NodeTreeCreator(hints);
+			final NodeTreeCreator nodeTreeCreator = new NodeTreeCreator(hints);
+			currentNodeTreeCreator.set(nodeTreeCreator);
 			final NodeModel topNode = nodeTreeCreator.createNodeTreeFromXml(map, pReader);
 			return topNode;
 		}
 		finally {
-			nodeTreeCreator = oldNodeTreeCreator;
+			currentNodeTreeCreator.set(oldNodeTreeCreator);
 		}
 	}
 
@@ -184,7 +186,7 @@ public class MapReader implements IElementDOMHandler {
 	}
 
 	public boolean isMapLoadingInProcess() {
-		return nodeTreeCreator != null;
+		return currentNodeTreeCreator.get() != null;
 	}
 
 	public NodeTreeCreator nodeTreeCreator(final MapModel map) {
@@ -143,10 +143,7 @@ public class NodeBuilder implements IElementDOMHandler {
 			    @Override
 				public void setAttribute(final Object userObject, final String value) {
 				    final NodeModel node = (NodeModel) userObject;
-				    if (node.getHistoryInformation() == null) {
-					    node.setHistoryInformation(new HistoryInformationModel());
-				    }
-				    node.getHistoryInformation().setCreatedAt(TreeXmlReader.xmlToDate(value));
+				    node.setCreatedAt(TreeXmlReader.xmlToDate(value).getTime());
 			    }
 		    });
 		reader.addAttributeHandler(NodeBuilder.XML_NODE, NodeBuilder.XML_NODE_HISTORY_LAST_MODIFIED_AT,
@@ -154,10 +151,7 @@ public class NodeBuilder implements IElementDOMHandler {
 			    @Override
 				public void setAttribute(final Object userObject, final String value) {
 				    final NodeModel node = (NodeModel) userObject;
-				    if (node.getHistoryInformation() == null) {
-					    node.setHistoryInformation(new HistoryInformationModel());
-				    }
-				    node.getHistoryInformation().setLastModifiedAt(TreeXmlReader.xmlToDate(value));
+				    node.setLastModifiedAt(TreeXmlReader.xmlToDate(value).getTime());
 			    }
 		    });
 		reader.addAttributeHandler(NodeBuilder.XML_STYLENODE, "FOLDED", new IAttributeHandler() {
@@ -55,10 +55,9 @@ public class NodeModel{
 	public enum NodeProperty{UNKNOWN_PROPERTY};
 
 	public enum CloneType{TREE, CONTENT}
-	final static int TREE_CLONE_INDEX = CloneType.TREE.ordinal();
-	final static int CONTENT_CLONE_INDEX = CloneType.CONTENT.ordinal();
 
 	private static final boolean ALLOWSCHILDREN = true;
+	private static final List<NodeModel> NO_CHILDREN = Collections.unmodifiableList(new ArrayList<NodeModel>(0));
 	public final static int LEFT_POSITION = -1;
 	public static final String NODE_TEXT = "node_text";
 	public static final String NOTE_TEXT = "note_text";
@@ -73,15 +72,21 @@ public class NodeModel{
 	private NodeModel parent;
 	private String id;
 	private MapModel map = null;
+	private int ordinal;
 	private int position = NodeModel.UNKNOWN_POSITION;
 	private NodeModel preferredChild;
 	private Collection<INodeView> views = null;
 
 	private SharedNodeData sharedData;
-	private Clones[] clones;
+	private Clones treeClones;
+	private Clones contentClones;
 
 	void setClones(Clones clones) {
-		this.clones[clones.getCloneType().ordinal()] = clones;
+		final Clones compactClones = NotCloned.compact(this, clones);
+		if(clones.getCloneType() == TREE)
+			treeClones = compactClones;
+		else
+			contentClones = compactClones;
 		for(NodeModel clone : clones)
 			clone.fireNodeChanged(new NodeChangeEvent(this, NodeModel.UNKNOWN_PROPERTY, null, null, false, false));
 	}
@@ -96,22 +101,36 @@ public class NodeModel{
 
 	public NodeModel(final Object userObject, final MapModel map) {
 		this.map = map;
-		children = new ArrayList<NodeModel>();
+		this.ordinal = nextOrdinal(map);
+		children = NO_CHILDREN;
 		sharedData = new SharedNodeData();
 		init(userObject);
-		clones = new Clones[]{new DetachedNodeList(this, TREE), new DetachedNodeList(this, CONTENT)};
+		treeClones = NotCloned.DETACHED_TREE;
+		contentClones = NotCloned.DETACHED_CONTENT;
 	}
 
 	private NodeModel(NodeModel toBeCloned, CloneType cloneType){
 		this.map = toBeCloned.map;
+		this.ordinal = nextOrdinal(map);
 		this.sharedData = toBeCloned.sharedData;
-		children = new ArrayList<NodeModel>();
-		clones = new Clones[]{new DetachedNodeList(this, cloneType == TREE ? toBeCloned : this, TREE), new DetachedNodeList(this, toBeCloned, CONTENT)};
+		children = NO_CHILDREN;
+		treeClones = cloneType == TREE ? new DetachedNodeList(this, toBeCloned, TREE) : NotCloned.DETACHED_TREE;
+		contentClones = new DetachedNodeList(this, toBeCloned, CONTENT);
+	}
+
+	private static int nextOrdinal(final MapModel map) {
+		return map != null ? map.nextNodeOrdinal() : -1;
+	}
+
+	/** @return index of this node unique within its map, or -1 if the node belongs to no map */
+	public int getOrdinal() {
+		return ordinal;
 	}
 
 	protected void init(final Object userObject) {
 	    setUserObject(userObject);
-		setHistoryInformation(new HistoryInformationModel());
+		final long now = System.currentTimeMillis();
+		sharedData.setHistoryInformation(now, now);
     }
 
 	public void acceptViewVisitor(final INodeViewVisitor visitor) {
@@ -159,6 +178,13 @@ public class NodeModel{
 	    return children;
     }
 
+	/** allocates the child list of nodes which had no children so far */
+	protected final List<NodeModel> getModifiableChildrenInternal() {
+		if (children == NO_CHILDREN)
+			children = new ArrayList<NodeModel>();
+		return children;
+	}
+
 	protected void setChildrenInternal(List<NodeModel> chidren) {
 	    this.children = chidren;
     }
@@ -236,12 +262,9 @@ public class NodeModel{
 	}
 
 	public List<NodeModel> getChildren() {
-		List<NodeModel> childrenList;
-		if (getChildrenInternal() != null) {
-			childrenList = getChildrenInternal();
-		}
-		else {
-			childrenList = Collections.emptyList();
+		final List<NodeModel> childrenList = getChildrenInternal();
+		if (childrenList == null || childrenList.isEmpty()) {
+			return Collections.emptyList();
 		}
 		return Collections.unmodifiableList(childrenList);
 	}
@@ -258,6 +281,24 @@ public class NodeModel{
 		return sharedData.getHistoryInformation();
 	}
 
+	/** @return creation time in milliseconds */
+	public long getCreatedAt() {
+		return sharedData.getCreatedAt();
+	}
+
+	public void setCreatedAt(long createdAt) {
+		sharedData.setCreatedAt(createdAt);
+	}
+
+	/** @return last modification time in milliseconds */
+	public long getLastModifiedAt() {
+		return sharedData.getLastModifiedAt();
+	}
+
+	public void setLastModifiedAt(long lastModifiedAt) {
+		sharedData.setLastModifiedAt(lastModifiedAt);
+	}
+
 	public NamedIcon getIcon(final int position) {
 		return getIconModel().getIcon(position);
 	}
@@ -349,10 +390,10 @@ public class NodeModel{
 		final NodeModel childNode = child;
 		if (index < 0) {
 			index = getChildCount();
-			children.add(index, child);
+			getModifiableChildrenInternal().add(index, child);
 		}
 		else {
-			children.add(index, child);
+			getModifiableChildrenInternal().add(index, child);
 			preferredChild = childNode;
 		}
 		child.setParent(this);
@@ -510,7 +551,10 @@ public class NodeModel{
 	/**
 	 */
 	public void setMap(final MapModel map) {
-		this.map = map;
+		if(this.map != map) {
+			this.map = map;
+			this.ordinal = nextOrdinal(map);
+		}
 		for (final NodeModel child : children) {
 			child.setMap(map);
 		}
@@ -532,8 +576,8 @@ public class NodeModel{
     }
 
 	private void attachClones() {
-		for(Clones clonesGroup : clones)
-			clonesGroup.attach();
+		for(CloneType cloneType : CloneType.values())
+			clones(cloneType).attach();
 	}
 
 	private void detach() {
@@ -543,13 +587,13 @@ public class NodeModel{
     }
 
 	private void detachClones() {
-		for(Clones clonesGroup : clones)
-			clonesGroup.detach(this);
+		for(CloneType cloneType : CloneType.values())
+			clones(cloneType).detach(this);
 	}
 
 
 	boolean isAttached() {
-	    return clones[0].size() != 0;
+	    return treeClones.size() != 0;
     }
 
 	public final void setText(final String text) {
@@ -598,7 +642,7 @@ public class NodeModel{
     }
 
 	void fireNodeChanged(INodeChangeListener[] nodeChangeListeners, final NodeChangeEvent nodeChangeEvent) {
-		for(NodeModel node : clones[CONTENT.ordinal()]){
+		for(NodeModel node : clones(CONTENT)){
 			final NodeChangeEvent cloneEvent = nodeChangeEvent.forNode(node);
 			node.fireSingleNodeChanged(nodeChangeListeners, cloneEvent);
 		}
@@ -638,8 +682,8 @@ public class NodeModel{
 	public void convertToClone(NodeModel node, CloneType cloneType) {
 		sharedData = node.sharedData;
 		if(cloneType == TREE)
-			this.clones[TREE.ordinal()] = new DetachedNodeList(this, node, TREE);
-		this.clones[CONTENT.ordinal()] = new DetachedNodeList(this, node, CONTENT);
+			this.treeClones = new DetachedNodeList(this, node, TREE);
+		this.contentClones = new DetachedNodeList(this, node, CONTENT);
     }
 
 	public  Clones subtreeClones() {
@@ -651,7 +695,8 @@ public class NodeModel{
     }
 
 	Clones clones(final CloneType cloneType) {
-		return clones[cloneType.ordinal()];
+		final Clones clones = cloneType == TREE ? treeClones : contentClones;
+		return clones instanceof NotCloned ? ((NotCloned) clones).expand(this) : clones;
 	}
 
 	public boolean subtreeContainsCloneOf(NodeModel node) {
@@ -681,12 +726,12 @@ public class NodeModel{
     }
 
 	public boolean isCloneTreeRoot(){
-		return parent != null && parent.clones[TREE_CLONE_INDEX].size() < clones[TREE_CLONE_INDEX].size()
-				|| clones[TREE_CLONE_INDEX].size() == 1 && clones[CONTENT_CLONE_INDEX].size() > 1;
+		return parent != null && parent.treeClones.size() < treeClones.size()
+				|| treeClones.size() == 1 && contentClones.size() > 1;
 	}
 
 	public boolean isCloneTreeNode(){
-		return parent != null && clones[TREE_CLONE_INDEX].size() > 1 && parent.clones[TREE_CLONE_INDEX].size() == clones[TREE_CLONE_INDEX].size();
+		return parent != null && treeClones.size() > 1 && parent.treeClones.size() == treeClones.size();
 	}
 
 	public int nextNodeIndex(int index, final boolean leftSide) {
@@ -722,13 +767,16 @@ public class NodeModel{
 		SharedNodeData sharedDataSwap = sharedData;
 		this.sharedData = duplicate.sharedData;
 		duplicate.sharedData = sharedDataSwap;
-		Clones[] clonesSwap = clones;
-		this.clones = duplicate.clones;
-		duplicate.clones = clonesSwap;
-		for(CloneType cloneType : CloneType.values()) {
-			final DetachedNodeList detachedClone = (DetachedNodeList) clones[cloneType.ordinal()];
-			clones[cloneType.ordinal()] = detachedClone.forClone(this);
-		}
+		Clones treeClonesSwap = treeClones;
+		this.treeClones = duplicate.treeClones;
+		duplicate.treeClones = treeClonesSwap;
+		Clones contentClonesSwap = contentClones;
+		this.contentClones = duplicate.contentClones;
+		duplicate.contentClones = contentClonesSwap;
+		if(treeClones instanceof DetachedNodeList)
+			treeClones = ((DetachedNodeList) treeClones).forClone(this);
+		if(contentClones instanceof DetachedNodeList)
+			contentClones = ((DetachedNodeList) contentClones).forClone(this);
 
 		this.attachClones();
 	}
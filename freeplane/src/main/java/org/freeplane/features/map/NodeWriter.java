@@ -29,7 +29,6 @@ import org.freeplane.core.io.IAttributeWriter;
 import org.freeplane.core.io.IElementWriter;
 import org.freeplane.core.io.ITreeWriter;
 import org.freeplane.core.io.WriteManager;
-import org.freeplane.core.io.xml.TreeXmlWriter;
 import org.freeplane.core.resources.ResourceController;
 import org.freeplane.features.filter.FilterController;
 import org.freeplane.features.icon.IconController;
@@ -134,13 +133,11 @@ public class NodeWriter implements IElementWriter, IAttributeWriter {
 		}
 		if(! isNodeAlreadyWritten){
 			if (!mode.equals(Mode.STYLE)
-					&& node.getHistoryInformation() != null
 					&& ResourceController.getResourceController().getBooleanProperty(
 						NodeBuilder.RESOURCES_SAVE_MODIFICATION_TIMES)) {
-				writer.addAttribute(NodeBuilder.XML_NODE_HISTORY_CREATED_AT, TreeXmlWriter.dateToString(node
-					.getHistoryInformation().getCreatedAt()));
-				writer.addAttribute(NodeBuilder.XML_NODE_HISTORY_LAST_MODIFIED_AT, TreeXmlWriter.dateToString(node
-					.getHistoryInformation().getLastModifiedAt()));
+				writer.addAttribute(NodeBuilder.XML_NODE_HISTORY_CREATED_AT, Long.toString(node.getCreatedAt()));
+				writer.addAttribute(NodeBuilder.XML_NODE_HISTORY_LAST_MODIFIED_AT,
+				    Long.toString(node.getLastModifiedAt()));
 			}
 		}
 		if(! isNodeAlreadyWritten || Mode.EXPORT.equals(mode)) {
@@ -0,0 +1,97 @@
+/*
+ *  Freeplane - mind map editor
+ *  Copyright (C) 2022 Freeplane team and others
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.features.map;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+import org.freeplane.features.map.NodeModel.CloneType;
+
+/**
+ * Shared placeholders stored by nodes which have no clones instead of own
+ * DetachedNodeList and SingleNodeList instances.
+ * NodeModel expands them to the lists they stand for before using them.
+ */
+enum NotCloned implements Clones {
+	DETACHED_TREE(CloneType.TREE, false),
+	DETACHED_CONTENT(CloneType.CONTENT, false),
+	ATTACHED_TREE(CloneType.TREE, true),
+	ATTACHED_CONTENT(CloneType.CONTENT, true);
+
+	static Clones compact(NodeModel node, Clones clones) {
+		final boolean attached;
+		if (clones instanceof SingleNodeList && clones.head() == node)
+			attached = true;
+		else if (clones instanceof DetachedNodeList && ((DetachedNodeList) clones).isNotCloned())
+			attached = false;
+		else
+			return clones;
+		if (clones.getCloneType() == CloneType.TREE)
+			return attached ? ATTACHED_TREE : DETACHED_TREE;
+		else
+			return attached ? ATTACHED_CONTENT : DETACHED_CONTENT;
+	}
+
+	private final CloneType cloneType;
+	private final boolean attached;
+
+	private NotCloned(CloneType cloneType, boolean attached) {
+		this.cloneType = cloneType;
+		this.attached = attached;
+	}
+
+	Clones expand(NodeModel node) {
+		return attached ? new SingleNodeList(node, cloneType) : new DetachedNodeList(node, cloneType);
+	}
+
+	public int size() {
+		return attached ? 1 : 0;
+	}
+
+	public CloneType getCloneType() {
+		return cloneType;
+	}
+
+	public Iterator<NodeModel> iterator() {
+		throw new IllegalStateException();
+	}
+
+	public void attach() {
+		throw new IllegalStateException();
+	}
+
+	public void detach(NodeModel nodeModel) {
+		throw new IllegalStateException();
+	}
+
+	public Clones add(NodeModel clone) {
+		throw new IllegalStateException();
+	}
+
+	public Collection<NodeModel> toCollection() {
+		throw new IllegalStateException();
+	}
+
+	public boolean contains(NodeModel node) {
+		throw new IllegalStateException();
+	}
+
+	public NodeModel head() {
+		throw new IllegalStateException();
+	}
+}
@@ -19,6 +19,8 @@
  */
 package org.freeplane.features.map;
 
+import java.util.Date;
+
 import org.freeplane.core.extension.ExtensionContainer;
 import org.freeplane.core.extension.SmallExtensionMap;
 import org.freeplane.core.util.HtmlUtils;
@@ -29,7 +31,8 @@ import org.freeplane.core.util.XmlUtils;
  */
 public class SharedNodeData {
 	final private ExtensionContainer extensionContainer;
-	private HistoryInformationModel historyInformation;
+	private long createdAt;
+	private long lastModifiedAt;
 	final private NodeIconSetModel icons;
 	private Object userObject;
 	private String xmlText;
@@ -45,12 +48,64 @@ public class SharedNodeData {
 		return extensionContainer;
 	}
 
+	long getCreatedAt() {
+		return createdAt;
+	}
+
+	void setCreatedAt(long createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	long getLastModifiedAt() {
+		return lastModifiedAt;
+	}
+
+	void setLastModifiedAt(long lastModifiedAt) {
+		this.lastModifiedAt = lastModifiedAt;
+	}
+
+	/** @return a view of the creation and modification times stored in this object,
+	 * use {@link NodeModel#getCreatedAt()} and {@link NodeModel#getLastModifiedAt()} where nodes are iterated */
 	public HistoryInformationModel getHistoryInformation() {
-		return historyInformation;
+		return new HistoryInformationModel(0, 0) {
+			@Override
+			public Date getCreatedAt() {
+				return new Date(SharedNodeData.this.createdAt);
+			}
+
+			@Override
+			public Date getLastModifiedAt() {
+				return new Date(SharedNodeData.this.lastModifiedAt);
+			}
+
+			@Override
+			public void setCreatedAt(Date createdAt) {
+				SharedNodeData.this.createdAt = createdAt.getTime();
+			}
+
+			@Override
+			public void setLastModifiedAt(Date lastModifiedAt) {
+				SharedNodeData.this.lastModifiedAt = lastModifiedAt.getTime();
+			}
+
+			@Override
+			public boolean isSet() {
+				return SharedNodeData.this.createdAt != 0 || SharedNodeData.this.lastModifiedAt != 0;
+			}
+		};
 	}
 
 	public void setHistoryInformation(HistoryInformationModel historyInformation) {
-		this.historyInformation = historyInformation;
+		if (historyInformation != null)
+			setHistoryInformation(historyInformation.getCreatedAt().getTime(),
+			    historyInformation.getLastModifiedAt().getTime());
+		else
+			setHistoryInformation(0, 0);
+	}
+
+	void setHistoryInformation(long createdAt, long lastModifiedAt) {
+		this.createdAt = createdAt;
+		this.lastModifiedAt = lastModifiedAt;
 	}
 
 	public NodeIconSetModel getIcons() {
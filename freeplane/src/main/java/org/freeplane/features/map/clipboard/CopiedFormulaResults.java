@@ -0,0 +1,107 @@
+/*
+ *  Freeplane - mind map editor
+ *  Copyright (C) 2022 Freeplane team and others
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.features.map.clipboard;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.note.NoteModel;
+import org.freeplane.features.text.DetailModel;
+import org.freeplane.features.text.RichTextModel;
+import org.freeplane.features.text.TextController;
+
+/**
+ * Texts of formulas in copied branches, evaluated when the nodes are copied.
+ * Nodes read from the copied xml into a separate map get them in place of their formulas,
+ * because the formulas can reference nodes which are not copied or which have changed since.
+ */
+class CopiedFormulaResults {
+	private static class Results {
+		String core;
+		String details;
+		String note;
+	}
+
+	private final Map<NodeModel, Results> resultsByNode;
+
+	CopiedFormulaResults(final Collection<NodeModel> nodes, final TextController textController) {
+		resultsByNode = new IdentityHashMap<>();
+		for (final NodeModel node : nodes)
+			evaluate(node, textController);
+	}
+
+	private void evaluate(final NodeModel node, final TextController textController) {
+		final Object userObject = node.getUserObject();
+		final DetailModel details = DetailModel.getDetail(node);
+		final NoteModel note = NoteModel.getNote(node);
+		Results results = null;
+		if (textController.isFormula(userObject)) {
+			results = new Results();
+			results.core = textController.getTransformedTextForClipboard(node, node, userObject);
+		}
+		if (details != null && textController.isFormula(details.getText())) {
+			if (results == null)
+				results = new Results();
+			results.details = textController.getTransformedTextForClipboard(node, details, details.getText());
+		}
+		if (note != null && textController.isFormula(note.getText())) {
+			if (results == null)
+				results = new Results();
+			results.note = textController.getTransformedTextForClipboard(node, note, note.getText());
+		}
+		if (results != null)
+			resultsByNode.put(node, results);
+		for (final NodeModel child : node.getChildren())
+			evaluate(child, textController);
+	}
+
+	/** Replaces formulas of the read nodes by results of the copied nodes they have been read from. */
+	void replaceFormulas(final Collection<NodeModel> copiedNodes, final Collection<NodeModel> readNodes) {
+		final Iterator<NodeModel> readNodeIterator = readNodes.iterator();
+		for (final NodeModel copiedNode : copiedNodes) {
+			if (!readNodeIterator.hasNext())
+				return;
+			replaceFormulas(copiedNode, readNodeIterator.next());
+		}
+	}
+
+	private void replaceFormulas(final NodeModel copiedNode, final NodeModel readNode) {
+		final Results results = resultsByNode.get(copiedNode);
+		if (results != null) {
+			if (results.core != null)
+				readNode.setUserObject(results.core);
+			replaceText(DetailModel.getDetail(readNode), results.details);
+			replaceText(NoteModel.getNote(readNode), results.note);
+		}
+		final List<NodeModel> copiedChildren = copiedNode.getChildren();
+		final List<NodeModel> readChildren = readNode.getChildren();
+		if (copiedChildren.size() != readChildren.size())
+			return;
+		for (int i = 0; i < copiedChildren.size(); i++)
+			replaceFormulas(copiedChildren.get(i), readChildren.get(i));
+	}
+
+	private static void replaceText(final RichTextModel model, final String text) {
+		if (model != null && text != null)
+			model.setText(text);
+	}
+}
@@ -29,12 +29,15 @@ import java.io.OutputStreamWriter;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Vector;
+import java.util.function.Supplier;
 
 import org.freeplane.core.extension.IExtension;
 import org.freeplane.core.resources.ResourceController;
@@ -44,17 +47,24 @@ import org.freeplane.features.clipboard.ClipboardAccessor;
 import org.freeplane.features.clipboard.ClipboardController;
 import org.freeplane.features.filter.FilterController;
 import org.freeplane.features.link.NodeLinks;
+import org.freeplane.features.map.IMapChangeListener;
 import org.freeplane.features.map.IMapSelection;
 import org.freeplane.features.map.INodeDuplicator;
+import org.freeplane.features.map.MapChangeEvent;
+import org.freeplane.features.map.MapController;
 import org.freeplane.features.map.MapModel;
 import org.freeplane.features.map.MapWriter.Mode;
+import org.freeplane.features.map.NodeDeletionEvent;
 import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeMoveEvent;
 import org.freeplane.features.mode.Controller;
 import org.freeplane.features.mode.ModeController;
 import org.freeplane.features.note.NoteModel;
 import org.freeplane.features.styles.IStyle;
+import org.freeplane.features.styles.MapStyleModel;
 import org.freeplane.features.text.DetailModel;
 import org.freeplane.features.text.TextController;
+import org.freeplane.features.ui.ViewController;
 
 /**
  * @author Dimitry Polivaev
@@ -70,7 +80,59 @@ public class MapClipboardController implements IExtension, ClipboardController,
 		Controller.getCurrentModeController().addExtension(MapClipboardController.class, clipboardController);
 	}
 
+	/**
+	 * Copied nodes plain text and html are rendered from: the nodes themselves while no map is changed,
+	 * afterwards nodes read from the xml written on copying into a separate map.
+	 * Formulas of the read nodes are replaced by their results evaluated on copying.
+	 */
+	private class CopiedNodes {
+		private final Collection<NodeModel> nodes;
+		private final String xml;
+		private final CopiedFormulaResults formulaResults;
+		private final int copiedModificationCount;
+		private Collection<NodeModel> readNodes;
+
+		CopiedNodes(Collection<NodeModel> nodes, String xml) {
+			this.nodes = nodes;
+			this.xml = xml;
+			this.formulaResults = new CopiedFormulaResults(nodes, TextController.getController(modeController));
+			this.copiedModificationCount = modificationCount;
+		}
+
+		Collection<NodeModel> get() {
+			if (copiedModificationCount == modificationCount || nodes.isEmpty())
+				return nodes;
+			if (readNodes == null) {
+				try {
+					final MapModel scratchMap = createScratchMap(nodes.iterator().next().getMap());
+					final List<NodeModel> nodesFromXml = new ArrayList<>(nodes.size());
+					for (String nodeXml : xml.split(NODESEPARATOR))
+						nodesFromXml.add(modeController.getMapController().getMapReader()
+						    .createNodeTreeFromXml(scratchMap, new StringReader(nodeXml), Mode.CLIPBOARD));
+					formulaResults.replaceFormulas(nodes, nodesFromXml);
+					readNodes = nodesFromXml;
+				}
+				catch (final Exception e) {
+					LogUtils.severe(e);
+					readNodes = nodes;
+				}
+			}
+			return readNodes;
+		}
+
+		/** Nodes read into the copied map would be registered there and initialize its caches,
+		 * so they are read into a map of their own using the styles of the copied map. */
+		private MapModel createScratchMap(final MapModel map) {
+			final MapModel scratchMap = new MapModel(map.getNodeDuplicator());
+			scratchMap.addExtension(MapStyleModel.class, MapStyleModel.getExtension(map));
+			scratchMap.createNewRoot();
+			return scratchMap;
+		}
+	}
+
 	private final ModeController modeController;
+	private int modificationCount;
+	private boolean countsModifications;
 	public MapClipboardController(ModeController modeController) {
 		super();
         this.modeController = modeController;
@@ -81,12 +143,15 @@ public class MapClipboardController implements IExtension, ClipboardController,
 	    ClipboardAccessor.getInstance().setClipboardContents(transferable);
 	}
 
+	/** Node xml is written immediately, plain text and html only when they are requested. */
 	public MindMapNodesSelection copy(final Collection<NodeModel> selectedNodes) {
 		try {
+			countModifications();
 			final String forNodesFlavor = createForNodesFlavor(selectedNodes);
-			final String plainText = getAsPlainText(selectedNodes);
-			return new MindMapNodesSelection(forNodesFlavor, plainText,
-			    getAsHTML(selectedNodes));
+			final CopiedNodes copiedNodes = new CopiedNodes(new ArrayList<>(selectedNodes), forNodesFlavor);
+			return new MindMapNodesSelection(forNodesFlavor,
+			    onDispatchThread(() -> getAsPlainText(copiedNodes.get())),
+			    onDispatchThread(() -> getAsHTML(copiedNodes.get())));
 		}
 		catch (final UnsupportedFlavorException ex) {
 			LogUtils.severe(ex);
@@ -97,6 +162,55 @@ public class MapClipboardController implements IExtension, ClipboardController,
 		return null;
 	}
 
+	private void countModifications() {
+		if (countsModifications)
+			return;
+		countsModifications = true;
+		final MapController mapController = modeController.getMapController();
+		mapController.addNodeChangeListener(event -> modificationCount++);
+		mapController.addMapChangeListener(new IMapChangeListener() {
+			@Override
+			public void mapChanged(MapChangeEvent event) {
+				modificationCount++;
+			}
+
+			@Override
+			public void onNodeDeleted(NodeDeletionEvent nodeDeletionEvent) {
+				modificationCount++;
+			}
+
+			@Override
+			public void onNodeInserted(NodeModel parent, NodeModel child, int newIndex) {
+				modificationCount++;
+			}
+
+			@Override
+			public void onNodeMoved(NodeMoveEvent nodeMoveEvent) {
+				modificationCount++;
+			}
+		});
+	}
+
+	/** Clipboard contents can be requested by the system from other threads. */
+	private Supplier<String> onDispatchThread(final Supplier<String> renderer) {
+		final ViewController viewController = Controller.getCurrentController().getViewController();
+		return () -> {
+			if (viewController.isDispatchThread())
+				return renderer.get();
+			final String[] text = new String[1];
+			try {
+				viewController.invokeAndWait(() -> text[0] = renderer.get());
+			}
+			catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			catch (final InvocationTargetException e) {
+				LogUtils.severe(e.getCause());
+			}
+			return text[0];
+		};
+	}
+
 	public Transferable copy(final IMapSelection selection) {
 		return copy(selection.getSortedSelection(true));
 	}
@@ -139,18 +253,19 @@ public class MapClipboardController implements IExtension, ClipboardController,
 
 	public String createForNodesFlavor(final Collection<NodeModel> selectedNodes)
 	        throws UnsupportedFlavorException, IOException {
-		String forNodesFlavor = "";
+		final StringWriter forNodesFlavor = new StringWriter();
 		boolean firstLoop = true;
 		for (final NodeModel tmpNode : selectedNodes) {
 			if (firstLoop) {
 				firstLoop = false;
 			}
 			else {
-				forNodesFlavor += "<nodeseparator>";
+				forNodesFlavor.write(NODESEPARATOR);
 			}
-			forNodesFlavor += copy(tmpNode).getTransferData(MindMapNodesSelection.mindMapNodesFlavor);
+			Controller.getCurrentModeController().getMapController().getMapWriter().writeNodeAsXml(forNodesFlavor,
+			    tmpNode, Mode.CLIPBOARD, true, true, false);
 		}
-		return forNodesFlavor;
+		return forNodesFlavor.toString();
 	}
 
 	public String getAsHTML(final Collection<NodeModel> selectedNodes) {
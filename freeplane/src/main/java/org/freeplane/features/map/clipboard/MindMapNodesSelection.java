@@ -25,6 +25,7 @@ import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.Transferable;
 import java.awt.datatransfer.UnsupportedFlavorException;
 import java.util.Collection;
+import java.util.function.Supplier;
 
 import org.freeplane.core.util.LogUtils;
 import org.freeplane.features.map.NodeModel;
@@ -49,28 +50,53 @@ public class MindMapNodesSelection implements Transferable, ClipboardOwner {
 			LogUtils.severe(e);
 		}
 	}
-	final private String htmlContent;
+	/** Content rendered when it is requested for the first time. */
+	private static class LazyContent {
+		private Supplier<String> renderer;
+		private String content;
+
+		LazyContent(Supplier<String> renderer) {
+			this.renderer = renderer;
+		}
+
+		synchronized String get() {
+			if (renderer != null) {
+				content = renderer.get();
+				renderer = null;
+			}
+			return content;
+		}
+	}
+
+	final private LazyContent htmlContent;
 	final private String nodesContent;
-	final private String stringContent;
+	final private LazyContent stringContent;
 	private String dropActionContent;
 	private Collection<NodeModel> nodes;
 	private boolean selectionContainsSingleNodes;
 
 	public MindMapNodesSelection(final String nodesContent, final String stringContent,
 	                             final String htmlContent) {
+		this(nodesContent, stringContent != null ? () -> stringContent : null,
+		    htmlContent != null ? () -> htmlContent : null);
+	}
+
+	/** Plain text and html are rendered by the given suppliers only if they are requested. */
+	public MindMapNodesSelection(final String nodesContent, final Supplier<String> stringRenderer,
+	                             final Supplier<String> htmlRenderer) {
 		this.nodesContent = nodesContent;
-		this.stringContent = stringContent;
-		this.htmlContent = htmlContent;
+		this.stringContent = stringRenderer != null ? new LazyContent(stringRenderer) : null;
+		this.htmlContent = htmlRenderer != null ? new LazyContent(htmlRenderer) : null;
 		this.dropActionContent = null;
 	}
 
 	public MindMapNodesSelection(final String nodesContent) {
-	    this(nodesContent, null, null);
+	    this(nodesContent, (Supplier<String>) null, null);
     }
 
 	public Object getTransferData(final DataFlavor flavor) throws UnsupportedFlavorException {
 		if (flavor.equals(DataFlavor.stringFlavor)) {
-			return stringContent;
+			return stringContent != null ? stringContent.get() : null;
 		}
 		if (flavor.equals(MindMapNodesSelection.mindMapNodesFlavor)) {
 			return nodesContent;
@@ -79,7 +105,7 @@ public class MindMapNodesSelection implements Transferable, ClipboardOwner {
 			return dropActionContent;
 		}
 		if (flavor.equals(MindMapNodesSelection.htmlFlavor) && htmlContent != null) {
-			return htmlContent;
+			return htmlContent.get();
 		}
 		if (containsObjectsFor(flavor)) {
 			return nodes;
@@ -74,7 +74,7 @@ class FNodeModel extends NodeModel {
 							final FNodeModel fileNodeModel = new FNodeModel(childFile, getMap());
 							NodeLinks.createLinkExtension(fileNodeModel).setHyperLink(new Hyperlink(childFile.toURI()));
 							fileNodeModel.setLeft(isRoot() ?  (childCount % 2 == 1) : isLeft());
-							super.getChildrenInternal().add(childCount, fileNodeModel);
+							getModifiableChildrenInternal().add(childCount, fileNodeModel);
 							childCount++;
 							fileNodeModel.setParent(this);
 						}
@@ -0,0 +1,55 @@
+/*
+ *  Freeplane - mind map editor
+ *  Copyright (C) 2022 Freeplane team and others
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.features.mode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.freeplane.core.extension.IExtension;
+import org.freeplane.features.map.MapModel;
+
+/**
+ * Map extension collecting activations of node hooks which need the event dispatch thread
+ * while the map is read on a background thread.
+ * They are performed when the map is opened.
+ *
+ * @see PersistentNodeHook#activatesOnEventDispatchThread()
+ */
+public class DeferredHookActivations implements IExtension {
+	private final List<Runnable> activations = new ArrayList<>();
+
+	/** @return false if the map is not read on a background thread, so the hook should be activated at once */
+	static boolean defer(final MapModel map, final Runnable activation) {
+		final DeferredHookActivations deferredActivations = map != null
+		        ? map.getExtension(DeferredHookActivations.class) : null;
+		if (deferredActivations == null)
+			return false;
+		deferredActivations.activations.add(activation);
+		return true;
+	}
+
+	/** Performs the activations deferred for the map on the event dispatch thread. */
+	public static void activate(final MapModel map) {
+		final DeferredHookActivations deferredActivations = (DeferredHookActivations) map
+		    .removeExtension(DeferredHookActivations.class);
+		if (deferredActivations == null)
+			return;
+		for (final Runnable activation : deferredActivations.activations)
+			activation.run();
+	}
+}
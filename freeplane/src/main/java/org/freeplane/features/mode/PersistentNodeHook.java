@@ -142,10 +142,18 @@ public abstract class PersistentNodeHook {
 				}
 			}
 			final NodeModel node = (NodeModel) userObject;
+			if (activatesOnEventDispatchThread()
+			        && DeferredHookActivations.defer(node.getMap(), () -> activate(node, lastBuiltElement))) {
+				return;
+			}
+			activate(node, lastBuiltElement);
+		}
+
+		private void activate(final NodeModel node, final XMLElement element) {
 			if (node.getExtension(getExtensionClass()) != null) {
 				return;
 			}
-			final IExtension extension = createExtension(node, lastBuiltElement);
+			final IExtension extension = createExtension(node, element);
 			if (extension == null) {
 				return;
 			}
@@ -210,6 +218,15 @@ public abstract class PersistentNodeHook {
 		}
 	}
 
+	/**
+	 * Hooks which start timers, register listeners or fire node changes when they are read return true.
+	 * Reading them on a background thread defers their activation until the map is opened.
+	 * @see DeferredHookActivations
+	 */
+	protected boolean activatesOnEventDispatchThread() {
+		return false;
+	}
+
 	protected void add(final NodeModel node, final IExtension extension) {
 		assert (getExtensionClass().equals(extension.getClass()));
 		node.addExtension(extension);
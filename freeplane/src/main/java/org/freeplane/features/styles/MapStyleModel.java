@@ -123,6 +123,15 @@ public class MapStyleModel implements IExtension {
 		return Objects.requireNonNull(model);
 	}
 
+	/** @return true if the map has conditional styles, whose conditions may depend on any node of the map */
+	public static boolean hasConditionalStyles(final MapModel map) {
+		final NodeModel rootNode = map.getRootNode();
+		MapStyleModel model = rootNode != null ? rootNode.getExtension(MapStyleModel.class) : null;
+		if(model == null)
+			model = map.getExtension(MapStyleModel.class);
+		return model != null && model.getConditionalStyleModel().getStyleCount() > 0;
+	}
+
 	public MapModel getStyleMap() {
 		return styleMap;
 	}
@@ -26,6 +26,12 @@ class FormatContentTransformer extends AbstractContentTransformer {
 		return expandFormat(obj, node, format, nodeNumbering);
 	}
 
+	/** node numbers depend on the siblings. */
+	@Override
+	public boolean isCacheable(NodeModel node, Object nodeProperty, Object content) {
+		return node != nodeProperty || !textController.getNodeNumbering(node);
+	}
+
 	private Object expandFormat(Object obj, final NodeModel node, final String format, boolean nodeNumbering) {
 		final boolean hasFormat = format != null && format.length() != 0 && ! (obj instanceof Icon)
 				&& !PatternFormat.IDENTITY_PATTERN.equals(format) && !PatternFormat.STANDARD_FORMAT_PATTERN.equals(format);
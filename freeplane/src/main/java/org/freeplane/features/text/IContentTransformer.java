@@ -14,4 +14,10 @@ public interface IContentTransformer extends Comparable<IContentTransformer> {
 	int getPriority();
 	
 	boolean markTransformation();
+
+	/** @return false if the transformed content depends on anything but the content, the node with its styles
+	 * and the preferences, so that {@link TextController} must transform it again on every request. */
+	default boolean isCacheable(NodeModel node, Object nodeProperty, Object content) {
+		return true;
+	}
 }
@@ -61,22 +61,31 @@ public class NodeContainsCondition extends StringConditionAdapter implements Nod
 	}
 
 	public boolean checkNode(final NodeModel node) {
-		final Object content[] = NodeTextConditionController.getItemsForComparison(nodeItem, node);
+		if (!matchApproximately && !NodeTextConditionController.mayContain(nodeItem, node, normalizedValue()))
+			return false;
+		final String content[] = NodeTextConditionController.getNormalizedItemsForComparison(nodeItem, node,
+		    !matchCase, ignoreDiacritics);
 		return checkText(content);
 	}
 
-	private boolean checkText(Object content[]) {
-		for(Object o : content){
-			if(checkText(o))
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
+	@Override
+	public boolean checksCoreText() {
+		return NodeTextConditionController.comparesCoreText(nodeItem);
+	}
+
+	private boolean checkText(String content[]) {
+		for(String text : content){
+			if(text != null && stringMatchingStrategy.matches(normalizedValue(), text, true))
 				return true;
 		}
 		return false;
 	}
 
-	private boolean checkText(final Object o) {
-		return o != null && stringMatchingStrategy.matches(normalizedValue(), normalize(o), true);
-	}
-
 	@Override
 	protected String createDescription() {
 		final String nodeCondition = TextUtils.getText(nodeItem);
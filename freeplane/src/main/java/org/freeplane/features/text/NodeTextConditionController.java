@@ -34,9 +34,12 @@ import org.freeplane.core.ui.components.TypedListCellRenderer;
 import org.freeplane.core.ui.components.UITools;
 import org.freeplane.core.util.HtmlUtils;
 import org.freeplane.core.util.TextUtils;
+import org.freeplane.features.filter.TextIndex;
 import org.freeplane.features.filter.condition.ASelectableCondition;
 import org.freeplane.features.filter.condition.ConditionFactory;
 import org.freeplane.features.filter.condition.IElementaryConditionController;
+import org.freeplane.features.filter.condition.StringTransformer;
+import org.freeplane.features.map.MapModel;
 import org.freeplane.features.map.NodeModel;
 import org.freeplane.features.note.NoteModel;
 import org.freeplane.features.ui.FrameController;
@@ -176,47 +179,88 @@ class NodeTextConditionController implements IElementaryConditionController {
 		return null;
 	}
 
-	public static Object[] getItemsForComparison(Object nodeItem, final NodeModel node) {
+	private static final TextIndex.Item CORE_TEXT_INDEX_ITEM = node ->
+		PlainTextCache.of(node.getMap()).isCoreTextCacheable(node) ? indexedText(node, TextController.FILTER_NODE) : null;
+	private static final TextIndex.Item DETAILS_INDEX_ITEM = node -> indexedText(node, TextController.FILTER_DETAILS);
+	private static final TextIndex.Item NOTE_INDEX_ITEM = node -> indexedText(node, TextController.FILTER_NOTE);
+
+	private static String indexedText(NodeModel node, String nodeItem) {
+		final String text = PlainTextCache.of(node.getMap()).getPlainText(node, nodeItem);
+		return text != null ? text : "";
+	}
+
+	/** uses the map's {@link TextIndex} to find out whether the compared texts may contain the value
+	 * @return false if none of them contains the value for sure */
+	static boolean mayContain(Object nodeItem, final NodeModel node, String value) {
 		if (nodeItem.equals(TextController.FILTER_ANYTEXT)) {
-			return new Object[] { 
-					getItemForComparison(TextController.FILTER_NODE, node), 
-					getItemForComparison(TextController.FILTER_DETAILS, node),
-			        getItemForComparison(TextController.FILTER_NOTE, node) };
+			return TextIndex.mayContain(CORE_TEXT_INDEX_ITEM, node, value)
+					|| TextIndex.mayContain(DETAILS_INDEX_ITEM, node, value)
+					|| TextIndex.mayContain(NOTE_INDEX_ITEM, node, value);
 		}
+		else if (nodeItem.equals(TextController.FILTER_NODE))
+			return TextIndex.mayContain(CORE_TEXT_INDEX_ITEM, node, value);
+		else if (nodeItem.equals(TextController.FILTER_DETAILS))
+			return TextIndex.mayContain(DETAILS_INDEX_ITEM, node, value);
+		else if (nodeItem.equals(TextController.FILTER_NOTE))
+			return TextIndex.mayContain(NOTE_INDEX_ITEM, node, value);
 		else
-			return new Object[] { getItemForComparison(nodeItem, node) };
+			return true;
 	}
-	
-	private static Object getItemForComparison(Object nodeItem, final NodeModel node) {
-		final Object result;
-		if(nodeItem.equals(TextController.FILTER_NODE)){
-			result = transformedObject(node);
-		}
-		else if(nodeItem.equals(TextController.FILTER_PARENT_TEXT)){
-			final NodeModel parentNode = node.getParentNode();
-			if(parentNode == null)
-				result = null;
-			else
-				result = transformedObject(parentNode);
+
+	static boolean comparesCoreText(Object nodeItem) {
+		return nodeItem.equals(TextController.FILTER_NODE) || nodeItem.equals(TextController.FILTER_ANYTEXT)
+				|| nodeItem.equals(TextController.FILTER_PARENT_TEXT);
+	}
+
+	public static Object[] getItemsForComparison(Object nodeItem, final NodeModel node) {
+		return getNormalizedItemsForComparison(nodeItem, node, false, false);
+	}
+
+	/** returns the compared plain texts transformed like {@link StringTransformer#transform(String, boolean, boolean)}
+	 * using the map's {@link PlainTextCache} */
+	public static String[] getNormalizedItemsForComparison(Object nodeItem, final NodeModel node,
+	                                                       boolean toLowerCase, boolean removeAccents) {
+		if (nodeItem.equals(TextController.FILTER_ANYTEXT)) {
+			return new String[] {
+					getItemForComparison(TextController.FILTER_NODE, node, toLowerCase, removeAccents),
+					getItemForComparison(TextController.FILTER_DETAILS, node, toLowerCase, removeAccents),
+			        getItemForComparison(TextController.FILTER_NOTE, node, toLowerCase, removeAccents) };
 		}
-		else if(nodeItem.equals(TextController.FILTER_DETAILS)){
-			result = DetailModel.getDetailText(node);
+		else
+			return new String[] { getItemForComparison(nodeItem, node, toLowerCase, removeAccents) };
+	}
+
+	private static String getItemForComparison(Object nodeItem, final NodeModel node,
+	                                           boolean toLowerCase, boolean removeAccents) {
+		final NodeModel itemNode;
+		final String cachedItem;
+		if(nodeItem.equals(TextController.FILTER_PARENT_TEXT)){
+			itemNode = node.getParentNode();
+			cachedItem = TextController.FILTER_NODE;
 		}
-		else if(nodeItem.equals(TextController.FILTER_NOTE)){
-			result = NoteModel.getNoteText(node);
+		else if(nodeItem.equals(TextController.FILTER_NODE)
+				|| nodeItem.equals(TextController.FILTER_DETAILS)
+				|| nodeItem.equals(TextController.FILTER_NOTE)){
+			itemNode = node;
+			cachedItem = (String) nodeItem;
 		}
 		else
-			result = null;
-		if(result instanceof String)
-			return HtmlUtils.htmlToPlain((String)result);
-		return result;
+			return null;
+		if(itemNode == null)
+			return null;
+		final MapModel map = itemNode.getMap();
+		if(map != null)
+			return PlainTextCache.of(map).getNormalizedText(itemNode, cachedItem, toLowerCase, removeAccents);
+		final String text;
+		if(cachedItem.equals(TextController.FILTER_NODE))
+			text = PlainTextCache.getPlainCoreText(itemNode);
+		else if(cachedItem.equals(TextController.FILTER_DETAILS))
+			text = DetailModel.getDetailText(itemNode);
+		else
+			text = NoteModel.getNoteText(itemNode);
+		return text != null ? StringTransformer.transform(HtmlUtils.htmlToPlain(text), toLowerCase, removeAccents) : null;
     }
 
-	private static Object transformedObject(final NodeModel node) {
-		final Object userObject = node.getUserObject();
-		return TextController.getController().getPlainTransformedTextWithoutNodeNumber(node);
-	}
-
 	public ListCellRenderer getValueRenderer(Object selectedProperty, TranslatedObject selectedCondition) {
         if(selectedCondition.objectEquals(ConditionFactory.FILTER_CONTAINS) 
                 || selectedCondition.objectEquals(ConditionFactory.FILTER_REGEXP) )
@@ -19,14 +19,12 @@
  */
 package org.freeplane.features.text;
 
-import org.freeplane.core.util.HtmlUtils;
 import org.freeplane.core.util.TextUtils;
 import org.freeplane.features.filter.StringMatchingStrategy;
 import org.freeplane.features.filter.condition.ASelectableCondition;
 import org.freeplane.features.filter.condition.ConditionFactory;
 import org.freeplane.features.filter.condition.StringConditionAdapter;
 import org.freeplane.features.map.NodeModel;
-import org.freeplane.features.note.NoteModel;
 import org.freeplane.n3.nanoxml.XMLElement;
 
 public class NoteContainsCondition extends StringConditionAdapter {
@@ -57,11 +55,19 @@ public class NoteContainsCondition extends StringConditionAdapter {
 	}
 
 	public boolean checkNode(final NodeModel node) {
-		final String text = getText(node);
+		if (!matchApproximately && !NodeTextConditionController.mayContain(TextController.FILTER_NOTE, node, normalizedValue()))
+			return false;
+		final String text = NodeTextConditionController.getNormalizedItemsForComparison(TextController.FILTER_NOTE,
+		    node, !matchCase, ignoreDiacritics)[0];
 		if (text == null) {
 			return false;
 		}
-		return stringMatchingStrategy.matches(normalizedValue(), normalize(text), true);
+		return stringMatchingStrategy.matches(normalizedValue(), text, true);
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
 	}
 
 	@Override
@@ -75,11 +81,6 @@ public class NoteContainsCondition extends StringConditionAdapter {
 		return createDescription(nodeCondition, simpleCondition, value);
 	}
 
-	protected String getText(final NodeModel node) {
-		final String noteText = NoteModel.getNoteText(node);
-		return noteText == null ? null : HtmlUtils.htmlToPlain(noteText);
-	}
-
 	public void fillXML(final XMLElement child) {
 		super.fillXML(child);
 		child.setAttribute(NoteContainsCondition.VALUE, value);
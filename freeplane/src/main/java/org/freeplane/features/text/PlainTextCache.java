@@ -0,0 +1,288 @@
+package org.freeplane.features.text;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+
+import org.freeplane.core.extension.IExtension;
+import org.freeplane.core.util.HtmlUtils;
+import org.freeplane.features.filter.Filter;
+import org.freeplane.features.filter.condition.StringTransformer;
+import org.freeplane.features.map.IMapChangeListener;
+import org.freeplane.features.map.INodeChangeListener;
+import org.freeplane.features.map.MapChangeEvent;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeChangeEvent;
+import org.freeplane.features.map.NodeDeletionEvent;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeMoveEvent;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.features.note.NoteModel;
+import org.freeplane.features.styles.MapStyleModel;
+import org.freeplane.features.ui.ViewController;
+
+/**
+ * Plain text of node core, details and notes as compared by text conditions,
+ * together with its lower case and diacritics free variants.
+ *
+ * Core texts containing formulas and other contents declared not cacheable by a {@link IContentTransformer}
+ * are not cached because their value depends on other nodes.
+ * In maps with conditional styles any change may change the formats of all nodes, so that all core texts are invalidated.
+ * Plain texts can be requested from any thread, core texts are always transformed on the main thread.
+ */
+public class PlainTextCache implements IExtension {
+	private static class PlainText {
+		final Object source;
+		final String text;
+		final boolean isCacheable;
+		final int transformerVersion;
+		private String lowerCase;
+		private String withoutAccents;
+		private String lowerCaseWithoutAccents;
+
+		PlainText(Object source, String text, boolean isCacheable, int transformerVersion) {
+			this.source = source;
+			this.text = text;
+			this.isCacheable = isCacheable;
+			this.transformerVersion = transformerVersion;
+		}
+
+		String normalized(boolean toLowerCase, boolean removeAccents) {
+			if(toLowerCase && removeAccents) {
+				if(lowerCaseWithoutAccents == null)
+					lowerCaseWithoutAccents = StringTransformer.transform(text, true, true);
+				return lowerCaseWithoutAccents;
+			}
+			if(toLowerCase) {
+				if(lowerCase == null)
+					lowerCase = StringTransformer.transform(text, true, false);
+				return lowerCase;
+			}
+			if(removeAccents) {
+				if(withoutAccents == null)
+					withoutAccents = StringTransformer.transform(text, false, true);
+				return withoutAccents;
+			}
+			return text;
+		}
+	}
+
+	private static final int CORE = 0;
+	private static final int DETAILS = 1;
+	private static final int NOTE = 2;
+
+	static class Updater implements INodeChangeListener, IMapChangeListener {
+		@Override
+		public void nodeChanged(NodeChangeEvent event) {
+			final NodeModel node = event.getNode();
+			final MapModel map = node.getMap();
+			final PlainTextCache cache = map != null ? map.getExtension(PlainTextCache.class) : null;
+			if(cache == null)
+				return;
+			if(MapStyleModel.hasConditionalStyles(map))
+				cache.invalidateCoreTexts();
+			cache.invalidate(node, event.getProperty());
+		}
+
+		@Override
+		public void mapChanged(MapChangeEvent event) {
+			if(event.getProperty() == Filter.class)
+				return;
+			invalidateCoreTexts(event.getMap());
+		}
+
+		@Override
+		public void onNodeDeleted(NodeDeletionEvent nodeDeletionEvent) {
+			invalidateStyledCoreTexts(nodeDeletionEvent.parent.getMap());
+		}
+
+		@Override
+		public void onNodeInserted(NodeModel parent, NodeModel child, int newIndex) {
+			invalidateStyledCoreTexts(parent.getMap());
+		}
+
+		@Override
+		public void onNodeMoved(NodeMoveEvent nodeMoveEvent) {
+			invalidateStyledCoreTexts(nodeMoveEvent.child.getMap());
+		}
+
+		/** conditions of conditional styles may depend on the node position */
+		private void invalidateStyledCoreTexts(MapModel map) {
+			if(map != null && MapStyleModel.hasConditionalStyles(map))
+				invalidateCoreTexts(map);
+		}
+
+		private void invalidateCoreTexts(MapModel map) {
+			final PlainTextCache cache = map != null ? map.getExtension(PlainTextCache.class) : null;
+			if(cache != null)
+				cache.invalidateCoreTexts();
+		}
+	}
+
+	public static PlainTextCache of(MapModel map) {
+		PlainTextCache cache = map.getExtension(PlainTextCache.class);
+		if(cache == null) {
+			cache = new PlainTextCache();
+			map.addExtension(cache);
+		}
+		return cache;
+	}
+
+	private final Map<NodeModel, PlainText[]> texts = new WeakHashMap<>();
+	private Map<NodeModel, PlainText> preparedCoreTexts = Collections.emptyMap();
+	private int invalidations;
+
+	private PlainTextCache() {
+	}
+
+	/** @param nodeItem one of {@link TextController#FILTER_NODE}, {@link TextController#FILTER_DETAILS}
+	 * and {@link TextController#FILTER_NOTE}
+	 * @return plain text or null if the node has no such text */
+	public String getPlainText(NodeModel node, String nodeItem) {
+		return getNormalizedText(node, nodeItem, false, false);
+	}
+
+	public String getNormalizedText(NodeModel node, String nodeItem, boolean toLowerCase,
+	                                boolean removeAccents) {
+		final PlainText plainText;
+		if(nodeItem.equals(TextController.FILTER_NODE))
+			plainText = getCoreText(node);
+		else if(nodeItem.equals(TextController.FILTER_DETAILS))
+			plainText = getHtmlText(node, DETAILS, DetailModel.getDetailText(node));
+		else if(nodeItem.equals(TextController.FILTER_NOTE))
+			plainText = getHtmlText(node, NOTE, NoteModel.getNoteText(node));
+		else
+			throw new IllegalArgumentException(nodeItem);
+		return plainText != null ? plainText.normalized(toLowerCase, removeAccents) : null;
+	}
+
+	private PlainText getCoreText(NodeModel node) {
+		final Object userObject = node.getUserObject();
+		final int transformerVersion = TextController.getController().getTransformerVersion();
+		final int validTexts;
+		synchronized (this) {
+			final PlainText preparedText = preparedCoreTexts.get(node);
+			if(preparedText != null && preparedText.source == userObject)
+				return preparedText;
+			final PlainText cachedText = getCachedText(node, CORE);
+			if(cachedText != null && cachedText.source == userObject && cachedText.transformerVersion == transformerVersion)
+				return cachedText;
+			validTexts = invalidations;
+		}
+		final PlainText coreText = computeCoreText(node);
+		if(coreText.isCacheable)
+			cache(node, CORE, coreText, validTexts);
+		return coreText;
+	}
+
+	/** Transforms the core texts of the given nodes on the main thread and keeps them until {@link #releaseCoreTexts()}
+	 * even if they are not cacheable, so that other threads can read them without waiting for the main thread. */
+	public void prepareCoreTexts(Collection<NodeModel> nodes) {
+		final Map<NodeModel, PlainText> coreTexts = new IdentityHashMap<>(nodes.size());
+		for(NodeModel node : nodes)
+			coreTexts.put(node, getCoreText(node));
+		synchronized (this) {
+			preparedCoreTexts = coreTexts;
+		}
+	}
+
+	public synchronized void releaseCoreTexts() {
+		preparedCoreTexts = Collections.emptyMap();
+	}
+
+	private PlainText getHtmlText(NodeModel node, int item, String html) {
+		if(html == null)
+			return null;
+		final int validTexts;
+		synchronized (this) {
+			final PlainText cachedText = getCachedText(node, item);
+			if(cachedText != null && cachedText.source == html)
+				return cachedText;
+			validTexts = invalidations;
+		}
+		final PlainText plainText = new PlainText(html, HtmlUtils.htmlToPlain(html), true, 0);
+		cache(node, item, plainText, validTexts);
+		return plainText;
+	}
+
+	private PlainText computeCoreText(NodeModel node) {
+		final ViewController viewController = Controller.getCurrentController().getViewController();
+		if(viewController.isDispatchThread())
+			return createCoreText(node);
+		final PlainText[] text = new PlainText[1];
+		try {
+			viewController.invokeAndWait(() -> text[0] = createCoreText(node));
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException();
+		}
+		catch (InvocationTargetException e) {
+			final Throwable cause = e.getCause();
+			if(cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			throw new RuntimeException(cause);
+		}
+		return text[0];
+	}
+
+	private static PlainText createCoreText(NodeModel node) {
+		final TextController textController = TextController.getController();
+		return textController.withNodeNumbering(false, () -> {
+			final Object userObject = node.getUserObject();
+			final int transformerVersion = textController.getTransformerVersion();
+			final boolean isCacheable = !textController.isFormula(userObject)
+					&& textController.isTransformationCacheable(node, node, userObject);
+			return new PlainText(userObject, getPlainCoreText(node), isCacheable, transformerVersion);
+		});
+	}
+
+	/** must be called on the main thread
+	 * @return true if the plain core text of the node is cached until the node or the map changes */
+	public boolean isCoreTextCacheable(NodeModel node) {
+		return getCoreText(node).isCacheable;
+	}
+
+	static String getPlainCoreText(NodeModel node) {
+		return HtmlUtils.htmlToPlain(TextController.getController().getPlainTransformedTextWithoutNodeNumber(node));
+	}
+
+	private PlainText getCachedText(NodeModel node, int item) {
+		final PlainText[] nodeTexts = texts.get(node);
+		return nodeTexts != null ? nodeTexts[item] : null;
+	}
+
+	private synchronized void cache(NodeModel node, int item, PlainText plainText, int validTexts) {
+		if(validTexts != invalidations)
+			return;
+		PlainText[] nodeTexts = texts.get(node);
+		if(nodeTexts == null) {
+			nodeTexts = new PlainText[3];
+			texts.put(node, nodeTexts);
+		}
+		nodeTexts[item] = plainText;
+	}
+
+	synchronized void invalidate(NodeModel node, Object property) {
+		invalidations++;
+		final PlainText[] nodeTexts = texts.get(node);
+		if(nodeTexts == null)
+			return;
+		if(NodeModel.NOTE_TEXT.equals(property))
+			nodeTexts[NOTE] = null;
+		else if(DetailModel.class.equals(property))
+			nodeTexts[DETAILS] = null;
+		else
+			nodeTexts[CORE] = null;
+	}
+
+	synchronized void invalidateCoreTexts() {
+		invalidations++;
+		for(PlainText[] nodeTexts : texts.values())
+			nodeTexts[CORE] = null;
+	}
+}
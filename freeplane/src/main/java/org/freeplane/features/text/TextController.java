@@ -76,6 +76,7 @@ public class TextController implements IExtension {
 	private static final Integer DETAILS_TOOLTIP = 2;
 	public static final String MARK_TRANSFORMED_TEXT = "highlight_formulas";
 	private final List<IContentTransformer> textTransformers;
+	private volatile int transformerVersion;
 	protected final ModeController modeController;
 	private boolean nodeNumberingEnabled = true;
 
@@ -112,6 +113,15 @@ public class TextController implements IExtension {
 		textBuilder.registerBy(readManager, writeManager);
 		writeManager.addExtensionElementWriter(DetailModel.class, textBuilder);
 		writeManager.addExtensionAttributeWriter(ShortenedTextModel.class, textBuilder);
+		final PlainTextCache.Updater plainTextCacheUpdater = new PlainTextCache.Updater();
+		mapController.addNodeChangeListener(plainTextCacheUpdater);
+		mapController.addMapChangeListener(plainTextCacheUpdater);
+		final TransformedContentCache.Updater transformedContentCacheUpdater = new TransformedContentCache.Updater();
+		mapController.addNodeChangeListener(transformedContentCacheUpdater);
+		mapController.addMapChangeListener(transformedContentCacheUpdater);
+		// transformers may depend on preferences
+		ResourceController.getResourceController().addPropertyChangeListener(
+		    (propertyName, newValue, oldValue) -> transformerVersion++);
 		modeController.addAction(new ToggleDetailsAction());
 		modeController.addAction(new SetShortenerStateAction());
 		//		modeController.addAction(new ToggleNodeNumberingAction());
@@ -125,6 +135,7 @@ public class TextController implements IExtension {
     public void addTextTransformer(IContentTransformer textTransformer) {
 		textTransformers.add(textTransformer);
 		Collections.sort(textTransformers);
+		transformerVersion++;
 	}
 
 	public List<IContentTransformer> getTextTransformers() {
@@ -133,6 +144,7 @@ public class TextController implements IExtension {
 
 	public void removeTextTransformer(IContentTransformer textTransformer) {
 		textTransformers.remove(textTransformer);
+		transformerVersion++;
 	}
 
 	public String getText(NodeModel nodeModel) {
@@ -155,10 +167,31 @@ public class TextController implements IExtension {
 					return string.substring(1);
 			}
 		}
+		final TransformedContentCache cache = node != null && node.getMap() != null
+				? TransformedContentCache.of(node.getMap()) : null;
+		if (cache == null)
+			return transform(node, nodeProperty, content, mode, null);
+		final int version = transformerVersion;
+		final boolean nodeNumbering = nodeNumberingEnabled;
+		final int validContents = cache.getInvalidationCount();
+		final Object cachedContent = cache.get(node, nodeProperty, mode, content, version, nodeNumbering);
+		if (cachedContent != null)
+			return cachedContent;
+		final boolean[] isCacheable = {true};
+		final Object transformedContent = transform(node, nodeProperty, content, mode, isCacheable);
+		if (isCacheable[0])
+			cache.put(node, nodeProperty, mode, content, version, nodeNumbering, transformedContent, validContents);
+		return transformedContent;
+	}
+
+	private Object transform(final NodeModel node, Object nodeProperty, Object content, Mode mode,
+	                         boolean[] isCacheable) throws TransformationException {
 		boolean markTransformation = false;
 		for (IContentTransformer textTransformer : getTextTransformers()) {
 			try {
 				Object in = content;
+				if (isCacheable != null && isCacheable[0])
+					isCacheable[0] = textTransformer.isCacheable(node, nodeProperty, in);
 				content = textTransformer.transformContent(node, nodeProperty, in, this, mode);
 				markTransformation = markTransformation || textTransformer.markTransformation() && !in.equals(content);
 			}
@@ -172,6 +205,21 @@ public class TextController implements IExtension {
 			return content;
 	}
 
+	/** @return a number changed whenever transformers or preferences change */
+	int getTransformerVersion() {
+		return transformerVersion;
+	}
+
+	/** @return true if all transformers declare the content cacheable, see {@link IContentTransformer#isCacheable}.
+	 * Each transformer is asked about the untransformed content. */
+	public boolean isTransformationCacheable(NodeModel node, Object nodeProperty, Object content) {
+		for (IContentTransformer textTransformer : getTextTransformers()) {
+			if (!textTransformer.isCacheable(node, nodeProperty, content))
+				return false;
+		}
+		return true;
+	}
+
 	public boolean isFormula(Object content) {
 		if (content instanceof String) {
 			String string = (String) content;
@@ -0,0 +1,162 @@
+package org.freeplane.features.text;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.freeplane.core.extension.IExtension;
+import org.freeplane.features.filter.Filter;
+import org.freeplane.features.map.IMapChangeListener;
+import org.freeplane.features.map.INodeChangeListener;
+import org.freeplane.features.map.MapChangeEvent;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeChangeEvent;
+import org.freeplane.features.map.NodeDeletionEvent;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeMoveEvent;
+import org.freeplane.features.styles.MapStyleModel;
+import org.freeplane.features.text.IContentTransformer.Mode;
+
+/**
+ * Contents transformed by the {@link TextController} transformer chain, per node, node property and mode.
+ *
+ * A cached content is reused as long as the same content object is transformed by the same transformer chain
+ * and neither the node nor the map has changed since.
+ * Transformers whose results depend on other nodes either decline caching
+ * or invalidate the affected nodes themselves, like formulas do when their dependencies change.
+ */
+public class TransformedContentCache implements IExtension {
+	private static final int MAXIMUM_NODE_CONTENT_COUNT = 8;
+
+	private static class TransformedContent {
+		final Object nodeProperty;
+		final Mode mode;
+		final Object content;
+		final int transformerVersion;
+		final boolean nodeNumbering;
+		final Object transformedContent;
+
+		TransformedContent(Object nodeProperty, Mode mode, Object content, int transformerVersion,
+		                   boolean nodeNumbering, Object transformedContent) {
+			this.nodeProperty = nodeProperty;
+			this.mode = mode;
+			this.content = content;
+			this.transformerVersion = transformerVersion;
+			this.nodeNumbering = nodeNumbering;
+			this.transformedContent = transformedContent;
+		}
+
+		boolean transforms(Object nodeProperty, Mode mode, Object content, int transformerVersion,
+		                   boolean nodeNumbering) {
+			return this.content == content && this.nodeProperty == nodeProperty && this.mode == mode
+					&& this.transformerVersion == transformerVersion && this.nodeNumbering == nodeNumbering;
+		}
+	}
+
+	static class Updater implements INodeChangeListener, IMapChangeListener {
+		@Override
+		public void nodeChanged(NodeChangeEvent event) {
+			final NodeModel node = event.getNode();
+			final TransformedContentCache cache = getExistingCache(node.getMap());
+			if(cache == null)
+				return;
+			// formats assigned by conditional styles may depend on other nodes
+			if(MapStyleModel.hasConditionalStyles(node.getMap()))
+				cache.invalidateAll();
+			else
+				cache.invalidate(node);
+		}
+
+		@Override
+		public void mapChanged(MapChangeEvent event) {
+			if(event.getProperty() != Filter.class)
+				invalidateAll(event.getMap());
+		}
+
+		@Override
+		public void onNodeDeleted(NodeDeletionEvent nodeDeletionEvent) {
+			invalidateAll(nodeDeletionEvent.parent.getMap());
+		}
+
+		@Override
+		public void onNodeInserted(NodeModel parent, NodeModel child, int newIndex) {
+			invalidateAll(parent.getMap());
+		}
+
+		@Override
+		public void onNodeMoved(NodeMoveEvent nodeMoveEvent) {
+			invalidateAll(nodeMoveEvent.child.getMap());
+		}
+
+		private void invalidateAll(MapModel map) {
+			final TransformedContentCache cache = getExistingCache(map);
+			if(cache != null)
+				cache.invalidateAll();
+		}
+	}
+
+	private static TransformedContentCache getExistingCache(MapModel map) {
+		return map != null ? map.getExtension(TransformedContentCache.class) : null;
+	}
+
+	public static synchronized TransformedContentCache of(MapModel map) {
+		TransformedContentCache cache = map.getExtension(TransformedContentCache.class);
+		if(cache == null) {
+			cache = new TransformedContentCache();
+			map.addExtension(cache);
+		}
+		return cache;
+	}
+
+	private final Map<NodeModel, List<TransformedContent>> contents = new WeakHashMap<>();
+	private int invalidations;
+
+	private TransformedContentCache() {
+	}
+
+	/** @return the number of invalidations so far, which must be passed to {@link #put}
+	 * to detect invalidations happening while the content is transformed. */
+	synchronized int getInvalidationCount() {
+		return invalidations;
+	}
+
+	/** @param nodeNumbering tells whether node numbers are enabled, see {@link TextController#withNodeNumbering}
+	 * @return the cached transformed content or null if there is none. */
+	synchronized Object get(NodeModel node, Object nodeProperty, Mode mode, Object content, int transformerVersion,
+	                        boolean nodeNumbering) {
+		final List<TransformedContent> nodeContents = contents.get(node);
+		if(nodeContents == null)
+			return null;
+		for(TransformedContent transformedContent : nodeContents) {
+			if(transformedContent.transforms(nodeProperty, mode, content, transformerVersion, nodeNumbering))
+				return transformedContent.transformedContent;
+		}
+		return null;
+	}
+
+	synchronized void put(NodeModel node, Object nodeProperty, Mode mode, Object content, int transformerVersion,
+	                      boolean nodeNumbering, Object transformedContent, int validContents) {
+		if(validContents != invalidations || transformedContent == null)
+			return;
+		List<TransformedContent> nodeContents = contents.get(node);
+		if(nodeContents == null) {
+			nodeContents = new ArrayList<>(2);
+			contents.put(node, nodeContents);
+		}
+		else if(nodeContents.size() >= MAXIMUM_NODE_CONTENT_COUNT)
+			nodeContents.remove(0);
+		nodeContents.add(new TransformedContent(nodeProperty, mode, content, transformerVersion, nodeNumbering,
+		    transformedContent));
+	}
+
+	public synchronized void invalidate(NodeModel node) {
+		invalidations++;
+		contents.remove(node);
+	}
+
+	public synchronized void invalidateAll() {
+		invalidations++;
+		contents.clear();
+	}
+}
@@ -79,6 +79,11 @@ public class ConditionalContentTransformer implements IContentTransformer, IEdit
 				return false;
 	}
 
+	@Override
+	public boolean isCacheable(NodeModel node, Object nodeProperty, Object content) {
+		return !isTransformationActive() || target.isCacheable(node, nodeProperty, content);
+	}
+
 	@Override
 	public int getPriority() {
 		return target.getPriority();
@@ -38,9 +38,9 @@ public class TimeConditionModifiedBefore extends TimeCondition {
 	}
 
 	public boolean checkNode(final NodeModel node) {
-		final Date lastModifiedAt = node.getHistoryInformation().getLastModifiedAt();
+		final long lastModifiedAt = node.getLastModifiedAt();
 		final Date filterDate = getDate();
-		final boolean before = lastModifiedAt.getTime() < filterDate.getTime();
+		final boolean before = lastModifiedAt < filterDate.getTime();
 		return before;
 	}
 
@@ -21,22 +21,52 @@ package org.freeplane.features.url.mindmapmode;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URL;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
 
-import javax.swing.Timer;
+import javax.swing.SwingUtilities;
 
 import org.freeplane.core.util.LogUtils;
 import org.freeplane.core.util.TextUtils;
 import org.freeplane.features.map.MapModel;
-import org.freeplane.features.map.mindmapmode.MMapModel;
+import org.freeplane.features.map.MapWriter.Mode;
 import org.freeplane.features.mode.Controller;
 import org.freeplane.features.mode.ModeController;
 import org.freeplane.features.mode.mindmapmode.MModeController;
 import org.freeplane.features.url.UrlManager;
 
+/**
+ * Autosaves a map without blocking the event dispatch thread for the disk access.
+ * The map is serialized into UTF-8 encoded bytes in memory on the event dispatch thread,
+ * which gives a consistent snapshot.
+ * Rotating the autosave files and writing them happen on a single background thread.
+ */
 public class DoAutomaticSave implements ActionListener {
     static final String AUTOSAVE_EXTENSION = "autosave";
+    private static final long NO_FINGERPRINT = -1;
+    private static final int INITIAL_SNAPSHOT_SIZE = 64 * 1024;
+    private static final ExecutorService autosaveExecutor = Executors.newSingleThreadExecutor(r -> {
+        final Thread thread = Executors.defaultThreadFactory().newThread(r);
+        thread.setName("Autosave");
+        thread.setDaemon(true);
+        return thread;
+    });
     /**
      * This value is compared with the result of
      * getNumberOfChangesSinceLastSave(). If the values coincide, no further
@@ -46,6 +76,23 @@ public class DoAutomaticSave implements ActionListener {
     final private boolean filesShouldBeDeletedAfterShutdown;
     final private MapModel model;
     final private int numberOfFiles;
+    final private AtomicBoolean isWriting = new AtomicBoolean(false);
+    /** Serialized map, its buffer is written without copying. */
+    static class Snapshot extends ByteArrayOutputStream {
+        Snapshot() {
+            super(INITIAL_SNAPSHOT_SIZE);
+        }
+
+        /** @return length and checksum of the content */
+        long fingerprint() {
+            final CRC32 checksum = new CRC32();
+            checksum.update(buf, 0, count);
+            return (long) count << 32 | checksum.getValue();
+        }
+    }
+
+    /** Length and checksum of the last written snapshot, accessed by the autosave thread only. */
+    private long writtenFingerprint = NO_FINGERPRINT;
 
     public DoAutomaticSave(final MapModel model, final int numberOfTempFiles,
             final boolean filesShouldBeDeletedAfterShutdown) {
@@ -57,6 +104,10 @@ public class DoAutomaticSave implements ActionListener {
 
     @Override
     public void actionPerformed(ActionEvent e) {
+        /* Previous snapshot is still being written? Try again on the next tick. */
+        if (isWriting.get()) {
+            return;
+        }
         /* Map is dirty enough? */
         if (model.getNumberOfChangesSinceLastSave() == changeState) {
             return;
@@ -66,36 +117,102 @@ public class DoAutomaticSave implements ActionListener {
             /* map was recently saved. */
             return;
         }
-        Timer timer =  (Timer) e.getSource();
-        timer.stop();
         try {
             final ModeController currentModeController = Controller.getCurrentModeController();
             if(!(currentModeController instanceof MModeController))
                 return;
-            MModeController modeController = ((MModeController) currentModeController);
             final URL url = model.getURL();
             final File file = new File(url != null ? url.getFile() //
                     : model.getTitle() + UrlManager.FREEPLANE_FILE_EXTENSION);
-            final File pathToStore = MFileManager.backupDir(url != null ? file : null);
-            pathToStore.mkdirs();
-            final File tempFile = MFileManager.renameBackupFiles(pathToStore, file, numberOfFiles,
-                    AUTOSAVE_EXTENSION);
-            if (tempFile == null) {
+            if(! file.canWrite())
                 return;
-            }
-            if (filesShouldBeDeletedAfterShutdown) {
-                tempFile.deleteOnExit();
-            }
-            if(file.canWrite()) {
-                ((MFileManager) UrlManager.getController())
-                .saveInternal((MMapModel) model, tempFile, true /*=internal call*/);
-                modeController.getController().getViewController()
-                .out(TextUtils.format("automatically_save_message", tempFile));
-            }
+            final File pathToStore = MFileManager.backupDir(url != null ? file : null);
+            final Snapshot snapshot = new Snapshot();
+            final Writer writer = new BufferedWriter(new OutputStreamWriter(snapshot, StandardCharsets.UTF_8));
+            currentModeController.getMapController().getMapWriter()
+                .writeMapAsXml(model, writer, Mode.FILE, true, false);
+            writer.flush();
+            isWriting.set(true);
+            autosaveExecutor.execute(() -> writeInBackground(snapshot, pathToStore, file));
         }
         catch (final Exception ex) {
             LogUtils.severe("Error in automatic MapModel.save(): ", ex);
         }
     }
 
+    private void writeInBackground(final Snapshot snapshot, final File pathToStore, final File file) {
+        try {
+            final File autosaveFile = write(snapshot, () -> {
+                pathToStore.mkdirs();
+                return MFileManager.renameBackupFiles(pathToStore, file, numberOfFiles, AUTOSAVE_EXTENSION);
+            });
+            if (autosaveFile != null)
+                showMessage(TextUtils.format("automatically_save_message", autosaveFile));
+        }
+        catch (final IOException ex) {
+            showMessage(TextUtils.format("save_failed", file.getName()));
+        }
+        catch (final Exception ex) {
+            LogUtils.severe("Error in automatic MapModel.save(): ", ex);
+        }
+        finally {
+            isWriting.set(false);
+        }
+    }
+
+    /**
+     * Writes the snapshot into the next autosave file unless it equals the previously written one.
+     * The snapshot is written into a locked temporary file in the same directory like files saved by {@link MFileManager},
+     * which then atomically replaces the autosave file, so that it is never left incomplete.
+     * @param nextAutosaveFile rotates the existing autosave files and returns the file to write or null
+     * @return the written autosave file or null if nothing was written
+     */
+    File write(final Snapshot snapshot, final Supplier<File> nextAutosaveFile) throws IOException {
+        final long fingerprint = snapshot.fingerprint();
+        if (fingerprint == writtenFingerprint) {
+            return null;
+        }
+        final File autosaveFile = nextAutosaveFile.get();
+        if (autosaveFile == null) {
+            return null;
+        }
+        final File directory = autosaveFile.getAbsoluteFile().getParentFile();
+        final Path temporaryFile = Files.createTempFile(directory.toPath(), autosaveFile.getName(), ".tmp");
+        try {
+            FileLock lock = null;
+            try (final FileOutputStream out = new FileOutputStream(temporaryFile.toFile())) {
+                boolean lockedByOtherApplication = false;
+                try {
+                    lock = out.getChannel().tryLock();
+                    lockedByOtherApplication = lock == null;
+                }
+                catch (final Exception ex) {
+                    LogUtils.warn(ex.getMessage(), ex);
+                }
+                if (lockedByOtherApplication) {
+                    throw new IOException("can not obtain file lock for " + temporaryFile);
+                }
+                snapshot.writeTo(out);
+                out.getFD().sync();
+            }
+            finally {
+                if (lock != null && lock.isValid())
+                    lock.release();
+            }
+            Files.move(temporaryFile, autosaveFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+        if (filesShouldBeDeletedAfterShutdown) {
+            autosaveFile.deleteOnExit();
+        }
+        writtenFingerprint = fingerprint;
+        return autosaveFile;
+    }
+
+    private void showMessage(final String message) {
+        SwingUtilities.invokeLater(() -> Controller.getCurrentController().getViewController().out(message));
+    }
 }
@@ -25,7 +25,6 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.BufferedInputStream;
 import java.io.BufferedWriter;
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -35,7 +34,6 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
-import java.io.SequenceInputStream;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -46,6 +44,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.Set;
@@ -260,8 +259,27 @@ public class MFileManager extends UrlManager implements IMapViewChangeListener {
 		return MFileManager.createBackupFile(backupDir, file, backupFileNumber, extension);
 	}
 
+	private final MapPreloader mapPreloader;
+
 	public MFileManager() {
 		super(new File(getDefaultSaveDirFromPrefs()));
+		mapPreloader = new MapPreloader(this);
+	}
+
+	/**
+	 * Starts reading the given map files in the background, so that opening them later takes less time.
+	 * Maps which have not been opened should be discarded afterwards.
+	 */
+	public void preloadMaps(final Collection<File> files) {
+		mapPreloader.preload(files);
+	}
+
+	public void discardPreloadedMaps() {
+		mapPreloader.discard();
+	}
+
+	MMapModel takePreloadedMap(final File file) {
+		return mapPreloader.take(file);
 	}
 
 	private static String getDefaultSaveDirFromPrefs() {
@@ -544,27 +562,39 @@ public class MFileManager extends UrlManager implements IMapViewChangeListener {
 
 	private NodeModel loadTreeImpl(final MapModel map, final File f) throws FileNotFoundException, IOException,
 	        XMLException {
+		return loadTreeImpl(map, f, new FileInputStream(f), true);
+	}
+
+	/**
+	 * Reads the map from the given stream of file f.
+	 * Unless interactive it does not show any dialogs and can be called from any thread,
+	 * it returns null without reading if the user should be asked about maps of other versions or applications.
+	 */
+	NodeModel loadTreeImpl(final MapModel map, final File f, final InputStream input, final boolean isInteractive)
+	        throws FileNotFoundException, IOException, XMLException {
 		int versionInfoLength = 1000;
 		final byte[] buffer = new byte[versionInfoLength];
-        try (final BufferedInputStream file = new BufferedInputStream(new FileInputStream(f))) {
-            final int readCount = file.read(buffer);
+        try (final BufferedInputStream file = new BufferedInputStream(input)) {
+            file.mark(versionInfoLength);
+            file.read(buffer);
+            file.reset();
             final String mapStart = new String(buffer, StandardCharsets.UTF_8.name());
-            final ByteArrayInputStream readBytes = new ByteArrayInputStream(buffer, 0, readCount);
             MapVersionInterpreter versionInterpreter = MapVersionInterpreter.getVersionInterpreter(mapStart);
+            if (!isInteractive && (versionInterpreter.anotherDialect || versionInterpreter.needsConversion))
+                return null;
             map.addExtension(versionInterpreter);
             if (versionInterpreter.anotherDialect) {
                 String message = versionInterpreter.getDialectInfo(f.getAbsolutePath());
                 UITools.showMessage(message, JOptionPane.WARNING_MESSAGE);
             }
-            try (final InputStream sequencedInput = new SequenceInputStream(readBytes, file);
-                    Reader reader = openInputStream(f, sequencedInput, versionInterpreter)) {
+            try (Reader reader = openInputStream(f, file, versionInterpreter)) {
                 return Controller.getCurrentModeController().getMapController().getMapReader()
                     .createNodeTreeFromXml(map, reader, Mode.FILE);
             }
         }
 	}
 
-    private Reader openInputStream(final File file, final InputStream sequencedInput,
+    private Reader openInputStream(final File file, final InputStream input,
             MapVersionInterpreter versionInterpreter) throws IOException, FileNotFoundException {
         Reader reader;
         if (versionInterpreter.needsConversion) {
@@ -573,14 +603,14 @@ public class MFileManager extends UrlManager implements IMapViewChangeListener {
 			    MessageType.ONLY_OK_SELECTION_IS_STORED);
 			IMapInputStreamConverter isConverter = versionInterpreter.getMapInputStreamConverter();
 			if (showResult != JOptionPane.OK_OPTION || isConverter == null) {
-				reader = new InputStreamReader(sequencedInput, StandardCharsets.UTF_8);
+				reader = new InputStreamReader(input, StandardCharsets.UTF_8);
 			}
 			else {
 				reader = isConverter.getConvertedStream(file);
 			}
 		}
 		else {
-			reader = new InputStreamReader(sequencedInput, StandardCharsets.UTF_8);
+			reader = new InputStreamReader(input, StandardCharsets.UTF_8);
 		}
         return reader;
     }
@@ -612,16 +642,23 @@ public class MFileManager extends UrlManager implements IMapViewChangeListener {
 		}
 		File[] selectedFiles;
 		selectedFiles = chooser.getSelectedFiles();
-		for (int i = 0; i < selectedFiles.length; i++) {
-			final File theFile = selectedFiles[i];
-			try {
-				Controller.getCurrentModeController().getMapController().openMap(Compat.fileToUrl(theFile));
-			}
-			catch (final Exception ex) {
-				handleLoadingException(ex);
-				break;
+		if (selectedFiles.length > 1)
+			preloadMaps(Arrays.asList(selectedFiles));
+		try {
+			for (int i = 0; i < selectedFiles.length; i++) {
+				final File theFile = selectedFiles[i];
+				try {
+					Controller.getCurrentModeController().getMapController().openMap(Compat.fileToUrl(theFile));
+				}
+				catch (final Exception ex) {
+					handleLoadingException(ex);
+					break;
+				}
 			}
 		}
+		finally {
+			discardPreloadedMaps();
+		}
 		Controller.getCurrentController().getMapViewManager().setMapTitles();
 	}
 
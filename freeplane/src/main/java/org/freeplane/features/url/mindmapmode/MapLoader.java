@@ -14,6 +14,7 @@ import java.nio.file.Paths;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.concurrent.CancellationException;
 
 import org.freeplane.core.resources.TranslatedObject;
 import org.freeplane.core.undo.IUndoHandler;
@@ -219,22 +220,31 @@ public class MapLoader{
 		final URL actualSourceLocation = inputStream != null ? null : asDocumentation ? sourceLocation : alternativeSourceLocation();
 		if(actualSourceLocation == null)
 		    return null;
-		final MMapModel map = createMindMap();
-		AccessController.doPrivileged(new PrivilegedExceptionAction<Void>() {
-
-			@Override
-			public Void run() throws FileNotFoundException, XMLException, URISyntaxException, IOException {
-				if(inputStream != null) {
-					loadMapContent(map);
-				}
-				else {
-					if(actualSourceLocation != null) {
-						loadMap(map, actualSourceLocation);
+		final MMapModel preloadedMap;
+		try {
+			preloadedMap = takePreloadedMap(actualSourceLocation);
+		}
+		catch (CancellationException e) {
+			return null;
+		}
+		final MMapModel map = preloadedMap != null ? preloadedMap : createMindMap();
+		if(preloadedMap == null) {
+			AccessController.doPrivileged(new PrivilegedExceptionAction<Void>() {
+
+				@Override
+				public Void run() throws FileNotFoundException, XMLException, URISyntaxException, IOException {
+					if(inputStream != null) {
+						loadMapContent(map);
 					}
+					else {
+						if(actualSourceLocation != null) {
+							loadMap(map, actualSourceLocation);
+						}
+					}
+					return null;
 				}
-				return null;
-			}
-		});
+			});
+		}
 
 		if (map.getRootNode() == null)
 			map.createNewRoot();
@@ -300,6 +310,13 @@ public class MapLoader{
 		}
 	}
 
+	private MMapModel takePreloadedMap(URL sourceLocation) {
+		if(asDocumentation || inputStream != null)
+			return null;
+		final File file = Compat.urlToFile(sourceLocation);
+		return file != null ? fileManager().takePreloadedMap(file) : null;
+	}
+
 	private MMapModel createMindMap() {
 		final MMapModel map = new MMapModel(mapController().duplicator());
 		if(asDocumentation) {
@@ -0,0 +1,258 @@
+/*
+ *  Freeplane - mind map editor
+ *  Copyright (C) 2022 Freeplane team and others
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.features.url.mindmapmode;
+
+import java.awt.EventQueue;
+import java.awt.GraphicsEnvironment;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.freeplane.core.ui.components.ProgressDialog;
+import org.freeplane.core.util.LogUtils;
+import org.freeplane.core.util.TextUtils;
+import org.freeplane.features.map.MapController;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.mindmapmode.MMapController;
+import org.freeplane.features.map.mindmapmode.MMapModel;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.features.mode.DeferredHookActivations;
+import org.freeplane.features.mode.mindmapmode.MModeController;
+
+/**
+ * Reads map files which are going to be opened soon on background threads, several of them in parallel.
+ * MapLoader takes the read maps on the event dispatch thread, which only creates their views.
+ *
+ * If a map is taken before it is read, a modal progress dialog allowing to cancel loading of all preloaded maps
+ * is shown if it takes longer than a moment.
+ * Maps which can not be read without asking the user, which fail to load or whose files change meanwhile
+ * are not taken and loaded by MapLoader on the event dispatch thread as usual.
+ *
+ * Maps which are not taken are released through the map life cycle.
+ *
+ * Several maps are read at once by the read handlers registered with the mode's ReadManager.
+ * MapReader keeps its current tree creator and LinkBuilder its connectors per thread.
+ * NodeBuilder, NodeTextBuilder, NoteBuilder, AttributeBuilder, NodeStyleBuilder, EdgeBuilder, CloudBuilder,
+ * IconBuilder, LocationBuilder, the style handlers of LogicalStyleController and MapStyle,
+ * MapExplorerController, NodeEnumerationAttributeHandler and PresentationBuilder
+ * keep their state in the objects created for each element or in the map read.
+ * PersistentNodeHook readers keep no state, but some hooks start timers, register listeners or fire node changes
+ * when they are activated. Their activation is deferred until the map is taken on the event dispatch thread.
+ * Handlers added later must do the same, MapReaderShould reads maps in parallel with some of them.
+ */
+class MapPreloader {
+	private static final ExecutorService executor = Executors.newFixedThreadPool(
+	    Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)), r -> {
+		    final Thread thread = Executors.defaultThreadFactory().newThread(r);
+		    thread.setName("Map loading " + thread.getName());
+		    thread.setDaemon(true);
+		    return thread;
+	    });
+
+	private class PreloadedMap {
+		final File file;
+		final long length;
+		final long lastModified;
+		final MMapModel map;
+		final MapController mapController;
+		final AtomicLong readBytes;
+		volatile boolean cancelled;
+		Future<NodeModel> root;
+		/** guarded by this */
+		private boolean isRead;
+		/** guarded by this */
+		private boolean isDiscarded;
+
+		PreloadedMap(final File file, final MMapModel map, final MapController mapController) {
+			this.file = file;
+			this.length = file.length();
+			this.lastModified = file.lastModified();
+			this.map = map;
+			this.mapController = mapController;
+			this.readBytes = new AtomicLong();
+		}
+
+		NodeModel read() throws Exception {
+			try {
+				return readTree();
+			}
+			finally {
+				synchronized (this) {
+					isRead = true;
+					if (isDiscarded)
+						release();
+				}
+			}
+		}
+
+		/** Cancels reading and releases the map through the map life cycle once it is read. */
+		synchronized void discard() {
+			cancelled = true;
+			if (!isDiscarded) {
+				isDiscarded = true;
+				if (isRead)
+					release();
+			}
+		}
+
+		private void release() {
+			EventQueue.invokeLater(() -> mapController.closeWithoutSaving(map));
+		}
+
+		private NodeModel readTree() throws Exception {
+			final InputStream input = new FilterInputStream(new FileInputStream(file)) {
+				@Override
+				public int read() throws IOException {
+					checkCancelled();
+					final int c = super.read();
+					if (c >= 0)
+						readBytes.incrementAndGet();
+					return c;
+				}
+
+				@Override
+				public int read(final byte[] b, final int off, final int len) throws IOException {
+					checkCancelled();
+					final int count = super.read(b, off, len);
+					if (count > 0)
+						readBytes.addAndGet(count);
+					return count;
+				}
+
+				private void checkCancelled() throws InterruptedIOException {
+					if (cancelled)
+						throw new InterruptedIOException("loading of " + file + " cancelled");
+				}
+			};
+			return fileManager.loadTreeImpl(map, file, input, false);
+		}
+
+		boolean isFileChanged() {
+			return file.length() != length || file.lastModified() != lastModified;
+		}
+	}
+
+	private final MFileManager fileManager;
+	/** accessed on the event dispatch thread only */
+	private final Map<File, PreloadedMap> preloadedMaps;
+
+	MapPreloader(final MFileManager fileManager) {
+		this.fileManager = fileManager;
+		this.preloadedMaps = new HashMap<>();
+	}
+
+	void preload(final Collection<File> files) {
+		if (GraphicsEnvironment.isHeadless() || !EventQueue.isDispatchThread())
+			return;
+		final MModeController modeController = (MModeController) Controller.getCurrentController()
+		    .getModeController(MModeController.MODENAME);
+		if (modeController == null)
+			return;
+		final MMapController mapController = (MMapController) modeController.getMapController();
+		for (final File file : files) {
+			final File canonicalFile = canonicalFile(file);
+			if (canonicalFile == null || preloadedMaps.containsKey(canonicalFile) || !canonicalFile.canRead()
+			        || canonicalFile.length() == 0)
+				continue;
+			final MMapModel map = new MMapModel(mapController.duplicator());
+			fileManager.setFile(map, canonicalFile);
+			map.addExtension(new DeferredHookActivations());
+			final PreloadedMap preloadedMap = new PreloadedMap(canonicalFile, map, mapController);
+			preloadedMap.root = executor.submit(preloadedMap::read);
+			preloadedMaps.put(canonicalFile, preloadedMap);
+		}
+	}
+
+	/**
+	 * Returns the preloaded map of the given file waiting until it is read,
+	 * or null if the map should be loaded as usual.
+	 *
+	 * @throws CancellationException if the user has cancelled loading
+	 */
+	MMapModel take(final File file) {
+		if (preloadedMaps.isEmpty())
+			return null;
+		final PreloadedMap preloadedMap = preloadedMaps.remove(canonicalFile(file));
+		if (preloadedMap == null)
+			return null;
+		if (!preloadedMap.cancelled)
+			waitShowingProgress(preloadedMap);
+		if (preloadedMap.cancelled) {
+			preloadedMap.discard();
+			throw new CancellationException();
+		}
+		try {
+			final NodeModel root = preloadedMap.root.get();
+			if (root == null || preloadedMap.isFileChanged()) {
+				preloadedMap.discard();
+				return null;
+			}
+			DeferredHookActivations.activate(preloadedMap.map);
+			return preloadedMap.map;
+		}
+		catch (final InterruptedException | ExecutionException e) {
+			LogUtils.warn("map preloading failed, loading again: " + file, e.getCause());
+			preloadedMap.discard();
+			return null;
+		}
+	}
+
+	/** Cancels reading of preloaded maps which have not been taken and releases them. */
+	void discard() {
+		for (final PreloadedMap preloadedMap : preloadedMaps.values())
+			preloadedMap.discard();
+		preloadedMaps.clear();
+	}
+
+	private void cancelAll() {
+		for (final PreloadedMap preloadedMap : preloadedMaps.values())
+			preloadedMap.cancelled = true;
+	}
+
+	private void waitShowingProgress(final PreloadedMap preloadedMap) {
+		ProgressDialog.waitFor(preloadedMap.root,
+		    TextUtils.format("map_loading_in_progress", preloadedMap.file.getName()),
+		    () -> (int) (preloadedMap.readBytes.get() * ProgressDialog.MAXIMUM_PROGRESS
+		            / Math.max(1, preloadedMap.length)),
+		    () -> {
+			    preloadedMap.cancelled = true;
+			    cancelAll();
+		    });
+	}
+
+	private static File canonicalFile(final File file) {
+		try {
+			return file.getCanonicalFile();
+		}
+		catch (final IOException e) {
+			return null;
+		}
+	}
+}
@@ -28,9 +28,12 @@ import java.awt.Window;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
+import java.io.File;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 
 import javax.swing.JFrame;
@@ -77,6 +80,7 @@ import org.freeplane.features.styles.MapViewLayout;
 import org.freeplane.features.text.TextController;
 import org.freeplane.features.time.TimeController;
 import org.freeplane.features.ui.FrameController;
+import org.freeplane.features.url.UrlManager;
 import org.freeplane.features.url.mindmapmode.ExternalMapChangeMonitor;
 import org.freeplane.features.url.mindmapmode.MFileManager;
 import org.freeplane.main.addons.AddOnsController;
@@ -440,10 +444,25 @@ public class FreeplaneGUIStarter implements FreeplaneStarter {
 
     private void loadMaps(final Controller controller, final String[] args) {
 		controller.selectMode(MModeController.MODENAME);
-		for (int i = 0; i < args.length; i++) {
-			loadMap(args[i]);
+		final MFileManager fileManager = MFileManager.getController(controller.getModeController());
+		final List<String> fileArguments = new ArrayList<>(Arrays.asList(args));
+		fileArguments.addAll(MacOptions.macFilesToOpen);
+		final List<File> mapFiles = new ArrayList<>();
+		for (String fileArgument : fileArguments) {
+			final File file = new File(fileArgument);
+			if (file.isFile() && file.getName().endsWith(UrlManager.FREEPLANE_FILE_EXTENSION))
+				mapFiles.add(file);
+		}
+		fileManager.preloadMaps(mapFiles);
+		try {
+			for (int i = 0; i < args.length; i++) {
+				loadMap(args[i]);
+			}
+			MacOptions.macFilesToOpen.forEach(this::loadMap);
+		}
+		finally {
+			fileManager.discardPreloadedMaps();
 		}
-		MacOptions.macFilesToOpen.forEach(this::loadMap);
     }
 
     private void loadMap(String fileArgument) {
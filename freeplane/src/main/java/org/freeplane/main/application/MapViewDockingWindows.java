@@ -32,6 +32,7 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -55,11 +56,16 @@ import org.apache.commons.codec.binary.Base64;
 import org.freeplane.core.resources.ResourceController;
 import org.freeplane.core.ui.FileOpener;
 import org.freeplane.core.ui.components.UITools;
+import org.freeplane.core.util.ConfigurationUtils;
 import org.freeplane.core.util.LogUtils;
+import org.freeplane.features.map.DocuMapAttribute;
 import org.freeplane.features.mode.Controller;
+import org.freeplane.features.mode.ModeController;
+import org.freeplane.features.mode.mindmapmode.MModeController;
 import org.freeplane.features.ui.FrameController;
 import org.freeplane.features.ui.IMapViewChangeListener;
 import org.freeplane.features.url.mindmapmode.DroppedMindMapOpener;
+import org.freeplane.features.url.mindmapmode.MFileManager;
 import org.freeplane.view.swing.map.MapView;
 import org.freeplane.view.swing.map.NodeView;
 import org.freeplane.view.swing.ui.DefaultMapMouseListener;
@@ -92,6 +98,7 @@ class MapViewDockingWindows implements IMapViewChangeListener {
 
 	// // 	final private Controller controller;
 	private static final String OPENED_NOW = "openedNow_1.3.04";
+	private static final String OPENED_NOW_FILES = "openedNowFiles_1.9.12";
 	private RootWindow rootWindow = null;
 	final private Vector<Component> mapViews;
 	private boolean mPaneSelectionUpdate = true;
@@ -352,6 +359,8 @@ class MapViewDockingWindows implements IMapViewChangeListener {
 			objectStream.close();
 			String encodedBytes = Base64.encodeBase64String(byteStream.toByteArray());
 			ResourceController.getResourceController().setProperty(OPENED_NOW, encodedBytes);
+			ResourceController.getResourceController().setProperty(OPENED_NOW_FILES,
+			    ConfigurationUtils.encodeListValue(getOpenedMindMapFiles(), true));
         }
         catch (IOException e) {
 	        e.printStackTrace();
@@ -363,8 +372,11 @@ class MapViewDockingWindows implements IMapViewChangeListener {
 		if(encodedBytes != null){
 			byte[] bytes = Base64.decodeBase64(encodedBytes);
 			ByteArrayInputStream byteStream = new ByteArrayInputStream(bytes);
+			final MFileManager fileManager = getMindMapFileManager();
 			try {
 				loadingLayoutFromObjectInpusStream = true;
+				if (fileManager != null)
+					fileManager.preloadMaps(getFilesOpenedBefore());
 				rootWindow.read(new ObjectInputStream(byteStream));
 			}
 			catch (Exception e) {
@@ -376,6 +388,8 @@ class MapViewDockingWindows implements IMapViewChangeListener {
                 }
 			}
 			finally{
+				if (fileManager != null)
+					fileManager.discardPreloadedMaps();
 				viewSerializer.removeDummyViews();
 				loadingLayoutFromObjectInpusStream = false;
 			}
@@ -383,6 +397,33 @@ class MapViewDockingWindows implements IMapViewChangeListener {
 		}
 	}
 
+	private List<String> getOpenedMindMapFiles() {
+		final List<String> files = new ArrayList<String>();
+		for (Component component : mapViews) {
+			if (component instanceof MapView) {
+				final MapView mapView = (MapView) component;
+				final File file = mapView.getModel().getFile();
+				if (file != null && mapView.getModeController().getModeName().equals(MModeController.MODENAME)
+				        && !mapView.getModel().containsExtension(DocuMapAttribute.class))
+					files.add(file.getPath());
+			}
+		}
+		return files;
+	}
+
+	private List<File> getFilesOpenedBefore() {
+		final String openedFiles = ResourceController.getResourceController().getProperty(OPENED_NOW_FILES, "");
+		final List<File> files = new ArrayList<File>();
+		for (String path : ConfigurationUtils.decodeListValue(openedFiles, true))
+			files.add(new File(path));
+		return files;
+	}
+
+	private MFileManager getMindMapFileManager() {
+		final ModeController modeController = Controller.getCurrentController().getModeController(MModeController.MODENAME);
+		return modeController != null ? MFileManager.getController(modeController) : null;
+	}
+
 	public void focusMapViewLater(final MapView mapView) {
 		Timer timer = new Timer(40, new ActionListener() {
 			int retryCount = 5;
@@ -167,6 +167,11 @@ public class BlinkingNodeHook extends PersistentNodeHook {
 		super();
 	}
 
+	@Override
+	protected boolean activatesOnEventDispatchThread() {
+		return true;
+	}
+
 	@Override
 	protected IExtension createExtension(final NodeModel node, final XMLElement element) {
 		return new TimerColorChanger(node);
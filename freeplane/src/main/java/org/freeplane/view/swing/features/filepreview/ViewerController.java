@@ -492,6 +492,11 @@ public class ViewerController extends PersistentNodeHook implements INodeViewLif
 		modeController.execute(actor, map);
 	}
 
+	@Override
+	protected boolean activatesOnEventDispatchThread() {
+		return true;
+	}
+
 	@Override
 	protected void add(final NodeModel node, final IExtension extension) {
 		final ExternalResource preview = (ExternalResource) extension;
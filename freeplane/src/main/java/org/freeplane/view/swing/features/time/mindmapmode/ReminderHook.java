@@ -237,6 +237,11 @@ public class ReminderHook extends PersistentNodeHook implements IExtension {
 		tabs.add(TextUtils.getText("calendar_panel"), timeScrollPane);
     }
 
+	@Override
+	protected boolean activatesOnEventDispatchThread() {
+		return true;
+	}
+
 	@Override
 	public void add(final NodeModel node, final IExtension extension) {
 		final ReminderExtension reminder = (ReminderExtension) extension;
@@ -779,16 +779,16 @@ class NodeList {
 				new TextHolder(new DetailTextAccessor(node)) ,
 				new TextHolder(new NoteTextAccessor(node)),
 				date,
-				node.getHistoryInformation().getCreatedAt(),
-				node.getHistoryInformation().getLastModifiedAt()} :
+				new Date(node.getCreatedAt()),
+				new Date(node.getLastModifiedAt())} :
 					new Object[] {
 							new TextHolder(new CoreTextAccessor(node)),
 							new IconsHolder(node),
 							new TextHolder(new DetailTextAccessor(node)) ,
 							new TextHolder(new NoteTextAccessor(node)),
 				date,
-				node.getHistoryInformation().getCreatedAt(),
-				node.getHistoryInformation().getLastModifiedAt()};
+				new Date(node.getCreatedAt()),
+				new Date(node.getLastModifiedAt())};
 		return row;
 	}
 	static private HashSet<Object> changeableProperties = new HashSet<Object>(
@@ -0,0 +1,177 @@
+/*
+ *  Freeplane - mind map editor
+ *  Copyright (C) 2022 Freeplane team and others
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.view.swing.map;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.freeplane.view.swing.map.link.ILinkView;
+
+/**
+ * Keeps painted connector views in a grid of square cells covering their bounds,
+ * so that only connectors near a point or crossing an area need to be examined.
+ *
+ * Views without known bounds, like edge like connectors, and views spanning too many cells
+ * are kept apart and returned for every point and area.
+ * The index contains the connectors of the nodes in its covered area, which is unlimited by default.
+ */
+class ConnectorViewIndex {
+	static final int CELL_SIZE = 256;
+	/** collision detection accepts points within this distance from the connector */
+	static final int COLLISION_DISTANCE = 10;
+	private static final int MAXIMAL_CELL_COUNT = 64;
+
+	private static class Entry {
+		final ILinkView view;
+		final Rectangle bounds;
+		final int order;
+
+		Entry(final ILinkView view, final Rectangle bounds, final int order) {
+			this.view = view;
+			this.bounds = bounds;
+			this.order = order;
+		}
+	}
+
+	private final List<Entry> entries = new ArrayList<>();
+	private final Map<Long, List<Entry>> cells = new HashMap<>();
+	private final List<Entry> unindexedEntries = new ArrayList<>();
+	private final Rectangle coveredArea;
+
+	ConnectorViewIndex() {
+		this(null);
+	}
+
+	/** @param coveredArea area whose node connectors are added, or null for the whole map */
+	ConnectorViewIndex(final Rectangle coveredArea) {
+		this.coveredArea = coveredArea;
+	}
+
+	/** Returns true if the connectors of all nodes in the given area are added. */
+	boolean covers(final Rectangle area) {
+		return coveredArea == null || coveredArea.contains(area);
+	}
+
+	/** Adds the given painted view using the bounds it has been painted in. */
+	void add(final ILinkView view) {
+		final Rectangle bounds = new Rectangle(0, 0, -1, -1);
+		view.increaseBounds(bounds);
+		add(view, bounds.isEmpty() ? null : bounds);
+	}
+
+	void add(final ILinkView view, final Rectangle bounds) {
+		final Entry entry = new Entry(view, bounds, entries.size());
+		entries.add(entry);
+		if (bounds == null) {
+			unindexedEntries.add(entry);
+			return;
+		}
+		final int minColumn = cell(bounds.x - COLLISION_DISTANCE);
+		final int maxColumn = cell(bounds.x + bounds.width + COLLISION_DISTANCE);
+		final int minRow = cell(bounds.y - COLLISION_DISTANCE);
+		final int maxRow = cell(bounds.y + bounds.height + COLLISION_DISTANCE);
+		if ((long) (maxColumn - minColumn + 1) * (maxRow - minRow + 1) > MAXIMAL_CELL_COUNT) {
+			unindexedEntries.add(entry);
+			return;
+		}
+		for (int column = minColumn; column <= maxColumn; column++)
+			for (int row = minRow; row <= maxRow; row++)
+				cells.computeIfAbsent(key(column, row), k -> new ArrayList<>(2)).add(entry);
+	}
+
+	/** Returns all views in the order they have been added. */
+	List<ILinkView> getViews() {
+		return new AbstractList<ILinkView>() {
+			@Override
+			public ILinkView get(final int index) {
+				return entries.get(index).view;
+			}
+
+			@Override
+			public int size() {
+				return entries.size();
+			}
+		};
+	}
+
+	/** Returns views which may collide with the given point in the order they have been added. */
+	List<ILinkView> getViewsAt(final Point p) {
+		final List<Entry> cellEntries = cells.getOrDefault(key(cell(p.x), cell(p.y)), Collections.emptyList());
+		final List<Entry> candidates = new ArrayList<>(cellEntries.size() + unindexedEntries.size());
+		for (final Entry entry : cellEntries) {
+			if (entry.bounds.x - COLLISION_DISTANCE <= p.x
+			        && p.x <= entry.bounds.x + entry.bounds.width + COLLISION_DISTANCE
+			        && entry.bounds.y - COLLISION_DISTANCE <= p.y
+			        && p.y <= entry.bounds.y + entry.bounds.height + COLLISION_DISTANCE)
+				candidates.add(entry);
+		}
+		candidates.addAll(unindexedEntries);
+		if (!cellEntries.isEmpty() && !unindexedEntries.isEmpty())
+			candidates.sort((e1, e2) -> Integer.compare(e1.order, e2.order));
+		final List<ILinkView> views = new ArrayList<>(candidates.size());
+		for (final Entry entry : candidates)
+			views.add(entry.view);
+		return views;
+	}
+
+	/** Returns views which may cross the given area in the order they have been added. */
+	List<ILinkView> getViewsIn(final Rectangle area) {
+		final int minColumn = cell(area.x);
+		final int maxColumn = cell(area.x + area.width);
+		final int minRow = cell(area.y);
+		final int maxRow = cell(area.y + area.height);
+		final List<Entry> candidates = new ArrayList<>();
+		if ((long) (maxColumn - minColumn + 1) * (maxRow - minRow + 1) > cells.size()) {
+			for (final Entry entry : entries) {
+				if (entry.bounds == null || entry.bounds.intersects(area))
+					candidates.add(entry);
+			}
+		}
+		else {
+			final Set<Entry> foundEntries = Collections.newSetFromMap(new IdentityHashMap<>());
+			for (int column = minColumn; column <= maxColumn; column++)
+				for (int row = minRow; row <= maxRow; row++)
+					for (final Entry entry : cells.getOrDefault(key(column, row), Collections.emptyList())) {
+						if (entry.bounds.intersects(area) && foundEntries.add(entry))
+							candidates.add(entry);
+					}
+			candidates.addAll(unindexedEntries);
+			candidates.sort((e1, e2) -> Integer.compare(e1.order, e2.order));
+		}
+		final List<ILinkView> views = new ArrayList<>(candidates.size());
+		for (final Entry entry : candidates)
+			views.add(entry.view);
+		return views;
+	}
+
+	private static int cell(final int coordinate) {
+		return Math.floorDiv(coordinate, CELL_SIZE);
+	}
+
+	private static Long key(final int column, final int row) {
+		return ((long) column << 32) | (row & 0xFFFFFFFFL);
+	}
+}
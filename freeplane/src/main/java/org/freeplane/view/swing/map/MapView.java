@@ -58,7 +58,6 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.Vector;
 import java.util.stream.Stream;
 
 import javax.swing.JComponent;
@@ -547,6 +546,8 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	}
 
 	private static final int margin = 20;
+	/** covers arrow heads painted around connector curves */
+	private static final int CONNECTOR_ARROW_MARGIN = 12;
 	static boolean printOnWhiteBackground;
 	static private IFreeplanePropertyListener propertyChangeListener;
 	public static final String RESOURCES_SELECTED_NODE_COLOR = "standardselectednodecolor";
@@ -577,7 +578,11 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	static private boolean drawsRectangleForSelection;
 	static private Color selectionRectangleColor;
 	/** Used to identify a right click onto a link curve. */
-	private Vector<ILinkView> arrowLinkViews;
+	private ConnectorViewIndex connectorViews;
+	/** Painted connector views can be kept while neither layout nor connectors change. */
+	private boolean areConnectorViewsReusable;
+	private String indexedShowConnectors;
+	private boolean indexedHideSingleEndConnectors;
 	private Color background = null;
 	private JComponent backgroundComponent;
 	private Rectangle boundingRectangle = null;
@@ -683,8 +688,10 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 			@Override
 			public void nodeChanged(final NodeChangeEvent event) {
 				if(NodeLinks.CONNECTOR.equals(event.getProperty()) &&
-						event.getNode().getMap().equals(getModel()))
+						event.getNode().getMap().equals(getModel())) {
+					areConnectorViewsReusable = false;
 					repaint();
+				}
 			}
 		};
 		addPropertyChangeListener(SPOTLIGHT_ENABLED, repaintOnClientPropertyChangeListener);
@@ -835,9 +842,10 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	}
 
     public Object detectView(final Point p) {
-        if (arrowLinkViews == null) {
+        if (connectorViews == null) {
             return null;
         }
+        final List<ILinkView> arrowLinkViews = connectorViews.getViewsAt(p);
         for (int i = 0; i < arrowLinkViews.size(); ++i) {
             final ILinkView arrowView = arrowLinkViews.get(i);
             if (arrowView.detectCollision(p, true)) {
@@ -900,9 +908,8 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	public Rectangle getInnerBounds() {
 		final Rectangle innerBounds = rootView.getBounds();
 		final Rectangle maxBounds = new Rectangle(0, 0, getWidth(), getHeight());
-		if(arrowLinkViews != null)
-			for (int i = 0; i < arrowLinkViews.size(); ++i) {
-				final ILinkView arrowView = arrowLinkViews.get(i);
+		if(connectorViews != null)
+			for (final ILinkView arrowView : connectorViews.getViews()) {
 				arrowView.increaseBounds(innerBounds);
 			}
 		return innerBounds.intersection(maxBounds);
@@ -1282,6 +1289,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 
 	@Override
 	public void mapChanged(final MapChangeEvent event) {
+		areConnectorViewsReusable = false;
 		final Object property = event.getProperty();
 		if (property.equals(MapStyle.RESOURCES_BACKGROUND_COLOR)) {
 			setBackground(requiredBackground());
@@ -1396,6 +1404,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
    @Override
    public void setBackground(Color background) {
        super.setBackground(background);
+       areConnectorViewsReusable = false;
        updateBackground();
    }
 
@@ -1757,17 +1766,18 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 							|| targetView != null && targetView.isSelected());
 					if(showConnector) {
 						LinkController linkController = LinkController.getController(getModeController());
-                        if (areBothNodesVisible
+                        final boolean isEdgeLike = areBothNodesVisible
                                 && (
                                 ConnectorShape.EDGE_LIKE.equals(linkController.getShape(ref)) && ! ref.isSelfLink()
-                                || sourceView.getMap().getLayoutType() == MapViewLayout.OUTLINE))
+                                || sourceView.getMap().getLayoutType() == MapViewLayout.OUTLINE);
+						if(! isEdgeLike && ! areBothNodesVisible && hideSingleEndConnectors)
+							break;
+						if (isEdgeLike)
 							arrowLink = new EdgeLinkView(ref, getModeController(), sourceView, targetView);
-						else if(areBothNodesVisible || ! hideSingleEndConnectors)
-							arrowLink = new ConnectorView(ref, sourceView, targetView, getBackground());
 						else
-							break;
+							arrowLink = new ConnectorView(ref, sourceView, targetView, getBackground());
 						arrowLink.paint(graphics);
-						arrowLinkViews.add(arrowLink);
+						addConnectorView(arrowLink, ref);
 					}
 				}
 			}
@@ -1777,16 +1787,59 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 		}
 	}
 
+	/**
+	 * Connector views are kept in an index while neither the layout nor the connectors change.
+	 * Then only the views crossing the clip are painted again, without traversing the nodes.
+	 */
 	private void paintConnectors(final Graphics2D graphics) {
-		arrowLinkViews = new Vector<ILinkView>();
 		final Object renderingHint = getModeController().getController().getMapViewManager().setEdgesRenderingHint(
 		    graphics);
-		if(hasNodeLinks())
-			paintConnectors(rootView, graphics, new HashSet<ConnectorModel>());
+		final Rectangle clip = graphics.getClipBounds();
+		if (areConnectorViewsReusable && ! isPrinting && clip != null && connectorViews.covers(clip)
+				&& indexedShowConnectors == showConnectors && indexedHideSingleEndConnectors == hideSingleEndConnectors) {
+			final Font font = graphics.getFont();
+			for (final ILinkView connectorView : connectorViews.getViewsIn(clip))
+				connectorView.paint(graphics);
+			graphics.setFont(font);
+		}
+		else {
+			final Rectangle connectorArea = isPrinting ? null : getConnectorArea();
+			connectorViews = new ConnectorViewIndex(connectorArea);
+			if(hasNodeLinks())
+				paintConnectors(rootView, graphics, new HashSet<ConnectorModel>(), connectorArea);
+			// views shown for the selection would change with it
+			areConnectorViewsReusable = ! isPrinting && SHOW_CONNECTORS_FOR_SELECTION != showConnectors;
+			indexedShowConnectors = showConnectors;
+			indexedHideSingleEndConnectors = hideSingleEndConnectors;
+		}
 		graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, renderingHint);
 	}
 
-	private void paintConnectors(final NodeView source, final Graphics2D graphics, final HashSet<ConnectorModel> alreadyPaintedConnectors) {
+	/** Returns the area around the viewport whose node connectors are painted. */
+	private Rectangle getConnectorArea() {
+		final JViewport vp = (JViewport) getParent();
+		final Rectangle viewRect = vp.getViewRect();
+		viewRect.x -= viewRect.width;
+		viewRect.y -= viewRect.height;
+		viewRect.width *= 3;
+		viewRect.height *= 3;
+		return viewRect;
+	}
+
+	private void addConnectorView(final ILinkView connectorView, final ConnectorModel connector) {
+		final Rectangle bounds = new Rectangle(0, 0, -1, -1);
+		connectorView.increaseBounds(bounds);
+		if (bounds.isEmpty()) {
+			connectorViews.add(connectorView, null);
+			return;
+		}
+		final int margin = getZoomed(CONNECTOR_ARROW_MARGIN) + LinkController.getController(getModeController()).getWidth(connector);
+		bounds.grow(margin, margin);
+		connectorViews.add(connectorView, bounds);
+	}
+
+	private void paintConnectors(final NodeView source, final Graphics2D graphics, final HashSet<ConnectorModel> alreadyPaintedConnectors,
+	                             final Rectangle connectorArea) {
 		final NodeModel node = source.getModel();
 		final Collection<? extends NodeLinkModel> outLinks = getLinksFrom(node);
 		paintConnectors(outLinks, graphics, alreadyPaintedConnectors);
@@ -1799,21 +1852,15 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 				continue;
 			}
 			final NodeView child = (NodeView) component;
-			if (!isPrinting) {
+			if (connectorArea != null) {
 				if(!child.isSubtreeVisible())
 					continue;
 				final Rectangle bounds = SwingUtilities.convertRectangle(source, child.getBounds(), this);
-				final JViewport vp = (JViewport) getParent();
-				final Rectangle viewRect = vp.getViewRect();
-				viewRect.x -= viewRect.width;
-				viewRect.y -= viewRect.height;
-				viewRect.width *= 3;
-				viewRect.height *= 3;
-				if (!viewRect.intersects(bounds)) {
+				if (!connectorArea.intersects(bounds)) {
 					continue;
 				}
 			}
-			paintConnectors(child, graphics, alreadyPaintedConnectors);
+			paintConnectors(child, graphics, alreadyPaintedConnectors, connectorArea);
 		}
 	}
 
@@ -2235,6 +2282,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	 */
 	@Override
 	protected void validateTree() {
+		areConnectorViewsReusable = false;
 		if(isDisplayable()) {
 			validateSelecteds();
 			getRoot().validateTree();
@@ -2253,6 +2301,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 
 	@Override
 	public void propertyChanged(final String propertyName, final String newValue, final String oldValue) {
+		areConnectorViewsReusable = false;
 		if(propertyName.equals(TextController.MARK_TRANSFORMED_TEXT))
 			UITools.repaintAll(getRoot());
 	}
@@ -135,7 +135,14 @@ public class NodeView extends JComponent implements INodeView {
 	private int topOverlap;
 	private int bottomOverlap;
 	private boolean isFolded;
+	/** set if the node is unfolded but its child views are not created because the filter hides its whole branch */
+	private boolean areChildViewsOmitted;
 	private DashVariant edgeDash = DashVariant.DEFAULT;
+	/** set if the layout must be calculated again even if no child view layout has changed */
+	private boolean isLayoutInvalid = true;
+	/** set if the layout has been calculated since the last layout of the parent view and may have changed */
+	private boolean hasLayoutChanged = true;
+	private boolean isInvalidatedByChildView = false;
 
 	public static final int DETAIL_VIEWER_POSITION = 2;
 
@@ -807,7 +814,8 @@ public class NodeView extends JComponent implements INodeView {
 	}
 
 	void addChildViews() {
-		if(isFolded)
+		areChildViewsOmitted = ! isFolded && map.getFilter().hidesBranch(model);
+		if(isFolded || areChildViewsOmitted)
 			return;
 		int index = 0;
 		for (NodeModel child : getModel().getChildren()) {
@@ -994,7 +1002,7 @@ public class NodeView extends JComponent implements INodeView {
 	@Override
 	public void onNodeInserted(final NodeModel parent, final NodeModel child, final int index) {
 		assert parent == model;
-		if (isFolded) {
+		if (isFolded || areChildViewsOmitted) {
 			return;
 		}
 		addChildView(child, index);
@@ -1114,6 +1122,8 @@ public class NodeView extends JComponent implements INodeView {
     private void paintEdges(final Graphics2D g, NodeView source) {
     	SummaryEdgePainter summaryEdgePainter = new SummaryEdgePainter(this, isRoot() ? true : isLeft());
     	SummaryEdgePainter rightSummaryEdgePainter =  isRoot() ? new SummaryEdgePainter(this, false) : null;
+        final Rectangle clip = g.getClipBounds();
+        final Rectangle sourceContentBounds = clip != null ? source.getContent().getBounds() : null;
         final int start;
         final int end;
         final int step;
@@ -1151,6 +1161,8 @@ public class NodeView extends JComponent implements INodeView {
         			continue;
         		}
             }
+        	if (clip != null && ! isEdgeAreaVisible(clip, sourceContentBounds, source, nodeView))
+        		continue;
         	if (nodeView.isContentVisible()) {
         		final EdgeView edge = EdgeViewFactory.getInstance().getEdge(source, nodeView, source);
         		edge.paint(g);
@@ -1162,6 +1174,16 @@ public class NodeView extends JComponent implements INodeView {
     }
 
 
+	/** Edges from source to the child view or to its descendants lie between the source content and the child view. */
+	private boolean isEdgeAreaVisible(final Rectangle clip, final Rectangle sourceContentBounds, final NodeView source,
+	                                  final NodeView child) {
+		final Rectangle edgeArea = SwingUtilities.convertRectangle(this, child.getBounds(), source);
+		edgeArea.add(sourceContentBounds);
+		final int spaceAround = getSpaceAround();
+		edgeArea.grow(spaceAround, spaceAround);
+		return edgeArea.intersects(clip);
+	}
+
 	int getSpaceAround() {
 		return getZoomed(NodeView.SPACE_AROUND);
 	}
@@ -1567,6 +1589,10 @@ public class NodeView extends JComponent implements INodeView {
 	public void updateAll() {
 		update();
 		invalidate();
+		if (areChildViewsOmitted && ! map.getFilter().hidesBranch(model)) {
+			treeStructureChanged();
+			return;
+		}
 		for (final NodeView child : getChildrenViews()) {
 			child.updateAll();
 		}
@@ -1594,6 +1620,60 @@ public class NodeView extends JComponent implements INodeView {
 		super.validateTree();
 	}
 
+	/**
+	 * Invalidation propagated from child views does not invalidate the layout calculated for this view,
+	 * it is calculated again only if some child view layout changes.
+	 */
+	@Override
+	public void invalidate() {
+		if (isInvalidatedByChildView)
+			isInvalidatedByChildView = false;
+		else
+			isLayoutInvalid = true;
+		final Container parent = getParent();
+		final boolean invalidatesParentView = parent instanceof NodeView && parent.isValid();
+		if (invalidatesParentView)
+			((NodeView) parent).isInvalidatedByChildView = true;
+		super.invalidate();
+		if (invalidatesParentView)
+			((NodeView) parent).isInvalidatedByChildView = false;
+	}
+
+	@Override
+	protected void addImpl(Component comp, Object constraints, int index) {
+		super.addImpl(comp, constraints, index);
+		isLayoutInvalid = true;
+	}
+
+	@Override
+	public void remove(int index) {
+		super.remove(index);
+		isLayoutInvalid = true;
+	}
+
+	@Override
+	public void removeAll() {
+		super.removeAll();
+		isLayoutInvalid = true;
+	}
+
+	boolean isLayoutInvalid() {
+		return isLayoutInvalid || ! getContent().isValid();
+	}
+
+	boolean hasLayoutChanged() {
+		return hasLayoutChanged;
+	}
+
+	void setLayoutCalculated(boolean hasLayoutChanged) {
+		this.isLayoutInvalid = false;
+		this.hasLayoutChanged = hasLayoutChanged;
+	}
+
+	void setLayoutUsedByParent() {
+		this.hasLayoutChanged = false;
+	}
+
 	public void addContent(JComponent component, int pos) {
 		component.putClientProperty("NODE_VIEW_CONTENT_POSITION", pos);
 		final Container contentPane = getContentPane();
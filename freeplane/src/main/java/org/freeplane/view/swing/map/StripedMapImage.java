@@ -0,0 +1,236 @@
+/*
+ *  Freeplane - mind map editor
+ *  Copyright (C) 2022 Freeplane team and others
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.view.swing.map;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.SystemColor;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.io.Closeable;
+import java.util.Vector;
+
+import org.freeplane.core.ui.svgicons.GraphicsHints;
+
+/**
+ * Image of a printed map area painted in horizontal strips when they are requested,
+ * so that image writers reading it row by row like the png writer need memory for one strip only.
+ *
+ * The map view stays prepared for printing until the image is closed.
+ */
+class StripedMapImage implements RenderedImage, Closeable {
+	static final int MAXIMAL_STRIP_PIXEL_COUNT = 1 << 22;
+
+	private final MapView view;
+	private final Rectangle printedArea;
+	private final double scaleFactor;
+	private final int width;
+	private final int height;
+	private final int stripHeight;
+	private final ColorModel colorModel;
+	private final SampleModel sampleModel;
+	private BufferedImage strip;
+	private int stripIndex;
+	private boolean isClosed;
+
+	StripedMapImage(final MapView view, final Rectangle printedArea, final double scaleFactor) {
+		this(view, printedArea, scaleFactor, MAXIMAL_STRIP_PIXEL_COUNT);
+	}
+
+	StripedMapImage(final MapView view, final Rectangle printedArea, final double scaleFactor,
+	                final int maximalStripPixelCount) {
+		this.view = view;
+		this.printedArea = printedArea;
+		this.scaleFactor = scaleFactor;
+		this.width = imageSize(printedArea.width, scaleFactor);
+		this.height = imageSize(printedArea.height, scaleFactor);
+		this.stripHeight = Math.max(1, Math.min(height, maximalStripPixelCount / Math.max(1, width)));
+		final BufferedImage prototype = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+		this.colorModel = prototype.getColorModel();
+		this.sampleModel = prototype.getSampleModel().createCompatibleSampleModel(width, stripHeight);
+		this.stripIndex = -1;
+		this.isClosed = false;
+	}
+
+	static int imageSize(final int printedSize, final double scaleFactor) {
+		return (int) Math.ceil(printedSize * scaleFactor);
+	}
+
+	static void print(final MapView view, final Rectangle printedArea, final double scaleFactor,
+	                  final BufferedImage image, final int y) {
+		final Graphics2D g = (Graphics2D) image.getGraphics();
+		try {
+			Color background = view.getBackground();
+			if (background == null) {
+				background = SystemColor.window;
+			}
+			g.setBackground(background);
+			g.clearRect(0, 0, image.getWidth(), image.getHeight());
+			g.translate(0, -y);
+			g.scale(scaleFactor, scaleFactor);
+			g.translate(-printedArea.x, -printedArea.y);
+			g.setRenderingHint(GraphicsHints.CACHE_ICONS, Boolean.TRUE);
+			view.print(g);
+		}
+		finally {
+			g.dispose();
+		}
+	}
+
+	@Override
+	public synchronized Raster getTile(final int tileX, final int tileY) {
+		if (tileX != 0 || tileY < 0 || tileY >= getNumYTiles())
+			throw new IllegalArgumentException("no tile " + tileX + ", " + tileY);
+		if (stripIndex != tileY) {
+			if (isClosed)
+				throw new IllegalStateException("image closed");
+			final int y = tileY * stripHeight;
+			final int currentStripHeight = Math.min(stripHeight, height - y);
+			if (strip == null || strip.getHeight() != currentStripHeight)
+				strip = new BufferedImage(width, currentStripHeight, BufferedImage.TYPE_INT_RGB);
+			print(view, printedArea, scaleFactor, strip, y);
+			stripIndex = tileY;
+		}
+		return strip.getRaster().createTranslatedChild(0, tileY * stripHeight);
+	}
+
+	@Override
+	public synchronized void close() {
+		if (!isClosed) {
+			isClosed = true;
+			view.endPrinting();
+		}
+	}
+
+	@Override
+	public Raster getData() {
+		return getData(new Rectangle(0, 0, width, height));
+	}
+
+	@Override
+	public Raster getData(final Rectangle rect) {
+		final WritableRaster raster = Raster.createWritableRaster(
+		    sampleModel.createCompatibleSampleModel(rect.width, rect.height), new Point(rect.x, rect.y));
+		return copyData(raster);
+	}
+
+	@Override
+	public synchronized WritableRaster copyData(final WritableRaster raster) {
+		final WritableRaster target = raster != null ? raster : colorModel.createCompatibleWritableRaster(width, height);
+		final Rectangle bounds = target.getBounds().intersection(new Rectangle(0, 0, width, height));
+		if (bounds.isEmpty())
+			return target;
+		final int minTileY = bounds.y / stripHeight;
+		final int maxTileY = (bounds.y + bounds.height - 1) / stripHeight;
+		for (int tileY = minTileY; tileY <= maxTileY; tileY++)
+			target.setRect(getTile(0, tileY));
+		return target;
+	}
+
+	@Override
+	public Vector<RenderedImage> getSources() {
+		return null;
+	}
+
+	@Override
+	public Object getProperty(final String name) {
+		return Image.UndefinedProperty;
+	}
+
+	@Override
+	public String[] getPropertyNames() {
+		return null;
+	}
+
+	@Override
+	public ColorModel getColorModel() {
+		return colorModel;
+	}
+
+	@Override
+	public SampleModel getSampleModel() {
+		return sampleModel;
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	@Override
+	public int getMinX() {
+		return 0;
+	}
+
+	@Override
+	public int getMinY() {
+		return 0;
+	}
+
+	@Override
+	public int getNumXTiles() {
+		return 1;
+	}
+
+	@Override
+	public int getNumYTiles() {
+		return (height + stripHeight - 1) / stripHeight;
+	}
+
+	@Override
+	public int getMinTileX() {
+		return 0;
+	}
+
+	@Override
+	public int getMinTileY() {
+		return 0;
+	}
+
+	@Override
+	public int getTileWidth() {
+		return width;
+	}
+
+	@Override
+	public int getTileHeight() {
+		return stripHeight;
+	}
+
+	@Override
+	public int getTileGridXOffset() {
+		return 0;
+	}
+
+	@Override
+	public int getTileGridYOffset() {
+		return 0;
+	}
+}
@@ -22,6 +22,7 @@ package org.freeplane.view.swing.map;
 
 import java.awt.Component;
 import java.awt.Dimension;
+import java.awt.Rectangle;
 import java.util.Arrays;
 
 import javax.swing.JComponent;
@@ -90,6 +91,8 @@ class VerticalNodeViewLayoutStrategy {
 		}
 	}
 	public void calculateLayoutData() {
+		if (! isLayoutRequired())
+			return;
 		final NodeModel node = view.getModel();
 		Filter filter = view.getMap().getFilter();
 		viewLevels = view.isFolded() ? SummaryLevels.ignoringChildNodes(node, filter) : SummaryLevels.of(node, filter);
@@ -98,6 +101,16 @@ class VerticalNodeViewLayoutStrategy {
 		applyLayoutToChildComponents();
 	}
 	
+	private boolean isLayoutRequired() {
+		if (view.isLayoutInvalid())
+			return true;
+		for (int i = 0; i < childViewCount; i++) {
+			if (((NodeView) view.getComponent(i)).hasLayoutChanged())
+				return true;
+		}
+		return false;
+	}
+
 	private void calculateLayoutData(final boolean isLeft) {
 		setFreeChildNodes(isLeft);
 		calculateLayoutY(isLeft);
@@ -340,6 +353,11 @@ class VerticalNodeViewLayoutStrategy {
 
 	private void applyLayoutToChildComponents() {
 		JComponent content = view.getContent();
+		final boolean wasLayoutInvalid = view.isLayoutInvalid();
+		final Rectangle oldContentBounds = content.getBounds();
+		final Dimension oldSize = view.getSize();
+		final int oldTopOverlap = view.getTopOverlap();
+		final int oldBottomOverlap = view.getBottomOverlap();
 		int spaceAround = view.getSpaceAround();
 		final int contentX = Math.max(spaceAround, -this.left);
 		int cloudHeight = CloudHeightCalculator.INSTANCE
@@ -384,6 +402,7 @@ class VerticalNodeViewLayoutStrategy {
 			}
 			final int x = contentX + this.xCoordinates[i];
 			child.setLocation(x, y);
+			child.setLayoutUsedByParent();
 			width = Math.max(width, child.getX() + child.getWidth());
 			height = Math.max(height, y + child.getHeight() + cloudHeight / 2);
 		}
@@ -391,6 +410,11 @@ class VerticalNodeViewLayoutStrategy {
 		view.setSize(width, height);
 		view.setTopOverlap(topOverlap);
 		view.setBottomOverlap(height - heigthWithoutOverlap);
+		view.setLayoutCalculated(wasLayoutInvalid
+				|| ! content.getBounds().equals(oldContentBounds)
+				|| ! view.getSize().equals(oldSize)
+				|| view.getTopOverlap() != oldTopOverlap
+				|| view.getBottomOverlap() != oldBottomOverlap);
 	}
 
 }
\ No newline at end of file
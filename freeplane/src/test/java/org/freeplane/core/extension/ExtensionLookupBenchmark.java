@@ -0,0 +1,81 @@
+package org.freeplane.core.extension;
+
+import java.util.Arrays;
+
+/**
+ * Measures time needed to look up extensions in containers of nodes
+ * with 0, 3 and 12 extensions. Run manually, it is not a unit test.
+ */
+public class ExtensionLookupBenchmark {
+	private static final int CONTAINER_COUNT = 1000;
+	private static final int LOOKUPS_PER_CONTAINER = 10000;
+	private static final int ROUNDS = 10;
+	private static final int[] EXTENSION_COUNTS = { 0, 3, 12 };
+
+	static class E0 implements IExtension {/**/}
+	static class E1 implements IExtension {/**/}
+	static class E2 implements IExtension {/**/}
+	static class E3 implements IExtension {/**/}
+	static class E4 implements IExtension {/**/}
+	static class E5 implements IExtension {/**/}
+	static class E6 implements IExtension {/**/}
+	static class E7 implements IExtension {/**/}
+	static class E8 implements IExtension {/**/}
+	static class E9 implements IExtension {/**/}
+	static class E10 implements IExtension {/**/}
+	static class E11 implements IExtension {/**/}
+
+	static final IExtension[] EXTENSIONS = { new E0(), new E1(), new E2(), new E3(), new E4(), new E5(),
+	        new E6(), new E7(), new E8(), new E9(), new E10(), new E11() };
+
+	/** classes looked up, half of them contained in containers with 3 extensions */
+	private static final Class<?>[] LOOKED_UP_CLASSES = { E0.class, E11.class, E2.class, E5.class, E7.class,
+	        E1.class };
+
+	public static void main(String... argv) {
+		final double[] bestTimes = new double[EXTENSION_COUNTS.length];
+		Arrays.fill(bestTimes, Double.MAX_VALUE);
+		for (int round = 0; round < ROUNDS; round++) {
+			for (int i = 0; i < EXTENSION_COUNTS.length; i++)
+				bestTimes[i] = Math.min(bestTimes[i], measure(EXTENSION_COUNTS[i]));
+		}
+		for (int i = 0; i < EXTENSION_COUNTS.length; i++)
+			System.out.format("%2d extensions: %6.2f ns per lookup%n", EXTENSION_COUNTS[i], bestTimes[i]);
+	}
+
+	/** @return time per lookup in nanoseconds */
+	@SuppressWarnings("unchecked")
+	private static double measure(int extensionCount) {
+		final ExtensionContainer[] containers = new ExtensionContainer[CONTAINER_COUNT];
+		for (int i = 0; i < containers.length; i++) {
+			containers[i] = new ExtensionContainer(new SmallExtensionMap());
+			for (int e = 0; e < extensionCount; e++)
+				containers[i].addExtension(EXTENSIONS[e]);
+		}
+		final long start = System.nanoTime();
+		int found = 0;
+		for (int lookup = 0; lookup < LOOKUPS_PER_CONTAINER; lookup++) {
+			final Class<? extends IExtension> clazz = (Class<? extends IExtension>) LOOKED_UP_CLASSES[lookup
+			        % LOOKED_UP_CLASSES.length];
+			for (ExtensionContainer container : containers) {
+				if (container.containsExtension(clazz) && container.getExtension(clazz) != null)
+					found++;
+			}
+		}
+		final long time = System.nanoTime() - start;
+		if (found != expectedFoundCount(extensionCount))
+			throw new AssertionError();
+		return time / (2.0 * CONTAINER_COUNT * LOOKUPS_PER_CONTAINER);
+	}
+
+	private static int expectedFoundCount(int extensionCount) {
+		int found = 0;
+		for (int lookup = 0; lookup < LOOKUPS_PER_CONTAINER; lookup++) {
+			for (int e = 0; e < extensionCount; e++) {
+				if (LOOKED_UP_CLASSES[lookup % LOOKED_UP_CLASSES.length] == EXTENSIONS[e].getClass())
+					found += CONTAINER_COUNT;
+			}
+		}
+		return found;
+	}
+}
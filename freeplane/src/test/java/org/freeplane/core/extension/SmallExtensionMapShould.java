@@ -0,0 +1,73 @@
+package org.freeplane.core.extension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.freeplane.core.extension.ExtensionLookupBenchmark.E0;
+import org.freeplane.core.extension.ExtensionLookupBenchmark.E1;
+import org.freeplane.core.extension.ExtensionLookupBenchmark.E11;
+import org.freeplane.core.extension.ExtensionLookupBenchmark.E2;
+import org.junit.Test;
+
+public class SmallExtensionMapShould {
+	private static final IExtension[] EXTENSIONS = ExtensionLookupBenchmark.EXTENSIONS;
+
+	private final SmallExtensionMap uut = new SmallExtensionMap();
+
+	private void putAll() {
+		for (IExtension extension : EXTENSIONS)
+			uut.put(extension.getClass(), extension);
+	}
+
+	@Test
+	public void findNothingInEmptyMap() throws Exception {
+		assertThat(uut.isEmpty()).isTrue();
+		assertThat(uut.get(E0.class)).isNull();
+		assertThat(uut.containsKey(E0.class)).isFalse();
+		assertThat(uut.values()).isEmpty();
+	}
+
+	@Test
+	public void findAllPutExtensions() throws Exception {
+		putAll();
+		assertThat(uut.size()).isEqualTo(EXTENSIONS.length);
+		for (IExtension extension : EXTENSIONS) {
+			assertThat(uut.get(extension.getClass())).isSameAs(extension);
+			assertThat(uut.containsKey(extension.getClass())).isTrue();
+		}
+		assertThat(uut.get(IExtension.class)).isNull();
+	}
+
+	@Test
+	public void keepInsertionOrder() throws Exception {
+		putAll();
+		assertThat(uut.values()).containsExactly(EXTENSIONS);
+	}
+
+	@Test
+	public void replaceExtensionOfSameClass() throws Exception {
+		putAll();
+		final E2 replacement = new E2();
+		assertThat(uut.put(E2.class, replacement)).isSameAs(EXTENSIONS[2]);
+		assertThat(uut.get(E2.class)).isSameAs(replacement);
+		assertThat(uut.size()).isEqualTo(EXTENSIONS.length);
+	}
+
+	@Test
+	public void removeExtensions() throws Exception {
+		putAll();
+		assertThat(uut.remove(E1.class)).isSameAs(EXTENSIONS[1]);
+		assertThat(uut.remove(E1.class)).isNull();
+		assertThat(uut.get(E1.class)).isNull();
+		assertThat(uut.get(E11.class)).isSameAs(EXTENSIONS[11]);
+		assertThat(uut.values()).hasSize(EXTENSIONS.length - 1).doesNotContain(EXTENSIONS[1]);
+		for (IExtension extension : EXTENSIONS)
+			uut.remove(extension.getClass());
+		assertThat(uut.isEmpty()).isTrue();
+		assertThat(uut.get(E0.class)).isNull();
+	}
+
+	@Test(expected = ClassCastException.class)
+	public void rejectExtensionsOfOtherClasses() throws Exception {
+		uut.put(E0.class, new E1());
+	}
+}
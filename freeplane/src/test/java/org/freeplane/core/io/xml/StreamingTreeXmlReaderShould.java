@@ -0,0 +1,276 @@
+package org.freeplane.core.io.xml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+
+import org.freeplane.core.io.IElementContentHandler;
+import org.freeplane.core.io.IElementDOMHandler;
+import org.freeplane.core.io.ReadManager;
+import org.freeplane.n3.nanoxml.XMLElement;
+import org.junit.Test;
+
+public class StreamingTreeXmlReaderShould {
+	private static class RecordingHandlers {
+		final List<String> events = new ArrayList<>();
+		final ReadManager readManager = new ReadManager();
+		private int elementCount = 0;
+
+		RecordingHandlers() {
+			readManager.addElementHandler("map", domHandler());
+			readManager.addElementHandler("node", domHandler());
+			readManager.addElementHandler("icon", (parent, tag, attributes) -> element(parent, tag, attributes));
+			readManager.addElementHandler("richcontent", contentHandler("NODE"));
+			readManager.addElementHandler("richcontent", contentHandler("NOTE"));
+			readManager.addElementHandler("hook", new IElementDOMHandler() {
+				@Override
+				public Object createElement(Object parent, String tag, XMLElement attributes) {
+					return attributes != null && attributes.hasAttribute("NAME") ? element(parent, tag, attributes)
+					        : null;
+				}
+
+				@Override
+				public void endElement(Object parent, String tag, Object element, XMLElement dom) {
+					events.add("end " + tag + " " + parent + " " + element + " " + serialize(dom));
+				}
+			});
+			readManager.addElementHandler("raw", new IElementContentHandler() {
+				@Override
+				public Object createElement(Object parent, String tag, XMLElement attributes) {
+					return element(parent, tag, attributes);
+				}
+
+				@Override
+				public boolean containsXml(XMLElement element) {
+					return true;
+				}
+
+				@Override
+				public void endElement(Object parent, String tag, Object node, XMLElement element, String content) {
+					events.add("end " + tag + " " + parent + " " + node + " " + serialize(element) + " [" + content
+					        + "]");
+				}
+			});
+			for (String tag : new String[] { "node", "icon", "richcontent", "hook", "raw" }) {
+				for (String attribute : new String[] { "TEXT", "ID", "BUILTIN", "NAME", "VALUE" })
+					readManager.addAttributeHandler(tag, attribute,
+					    (element, value) -> events.add("attribute " + tag + "." + attribute + "=[" + value + "] on "
+					            + element));
+			}
+		}
+
+		private String element(Object parent, String tag, XMLElement attributes) {
+			final String element = tag + (++elementCount);
+			events.add("create " + element + " in " + parent + " " + serialize(attributes));
+			return element;
+		}
+
+		private IElementDOMHandler domHandler() {
+			return new IElementDOMHandler() {
+				@Override
+				public Object createElement(Object parent, String tag, XMLElement attributes) {
+					return element(parent, tag, attributes);
+				}
+
+				@Override
+				public void endElement(Object parent, String tag, Object element, XMLElement dom) {
+					events.add("end " + tag + " " + parent + " " + element + " " + serialize(dom));
+				}
+			};
+		}
+
+		private IElementContentHandler contentHandler(String type) {
+			return new IElementContentHandler() {
+				@Override
+				public Object createElement(Object parent, String tag, XMLElement attributes) {
+					return attributes != null && type.equals(attributes.getAttribute("TYPE", null))
+					        ? element(parent, tag, attributes) : null;
+				}
+
+				@Override
+				public boolean containsXml(XMLElement element) {
+					return !"plain".equals(element.getAttribute("CONTENT-TYPE", null));
+				}
+
+				@Override
+				public void endElement(Object parent, String tag, Object node, XMLElement element, String content) {
+					events.add("end " + tag + " " + parent + " " + node + " " + serialize(element) + " [" + content
+					        + "]");
+				}
+			};
+		}
+	}
+
+	private static String serialize(XMLElement element) {
+		if (element == null)
+			return "null";
+		final StringBuilder result = new StringBuilder();
+		serialize(element, result);
+		return result.toString();
+	}
+
+	private static void serialize(XMLElement element, StringBuilder result) {
+		result.append('{').append(element.getFullName()).append(' ').append(element.getNamespace());
+		for (final Enumeration<String> attributes = element.enumerateAttributeNames(); attributes.hasMoreElements();) {
+			final String attribute = attributes.nextElement();
+			result.append(' ').append(attribute).append('@').append(element.getAttributeNamespace(attribute))
+			    .append("=[").append(element.getAttribute(attribute, null)).append(']');
+		}
+		result.append(" content=[").append(element.getContent()).append(']');
+		for (final Enumeration<XMLElement> children = element.enumerateChildren(); children.hasMoreElements();)
+			serialize(children.nextElement(), result);
+		result.append('}');
+	}
+
+	private static List<String> readWithTreeXmlReader(String xml) throws Exception {
+		final RecordingHandlers handlers = new RecordingHandlers();
+		new TreeXmlReader(handlers.readManager).load("root", new StringReader(xml));
+		return handlers.events;
+	}
+
+	private static List<String> readWithStreamingTreeXmlReader(String xml) throws Exception {
+		final RecordingHandlers handlers = new RecordingHandlers();
+		new StreamingTreeXmlReader(handlers.readManager).load("root", new StringReader(xml));
+		return handlers.events;
+	}
+
+	private interface XmlReading {
+		List<String> read(String xml) throws Exception;
+	}
+
+	private static List<String> eventsOrFailure(XmlReading reading, String xml) {
+		try {
+			return reading.read(xml);
+		}
+		catch (Exception e) {
+			return Collections.singletonList("failed");
+		}
+	}
+
+	private static void assertSameEvents(String xml) throws Exception {
+		assertThat(eventsOrFailure(StreamingTreeXmlReaderShould::readWithStreamingTreeXmlReader, xml)).as(xml)
+		    .isEqualTo(eventsOrFailure(StreamingTreeXmlReaderShould::readWithTreeXmlReader, xml));
+	}
+
+	@Test
+	public void callHandlersForKnownElementsAndAttributes() throws Exception {
+		assertThat(readWithStreamingTreeXmlReader("<map><node TEXT='a'><icon BUILTIN='yes'/></node></map>"))
+		    .containsExactly(
+		        "create map1 in root null",
+		        "create node2 in map1 null",
+		        "attribute node.TEXT=[a] on node2",
+		        "create icon3 in node2 null",
+		        "attribute icon.BUILTIN=[yes] on icon3",
+		        "end node map1 node2 {node null content=[null]}",
+		        "end map root map1 {map null content=[null]}");
+	}
+
+	@Test
+	public void keepUnknownElementsAndAttributesInDom() throws Exception {
+		assertThat(readWithStreamingTreeXmlReader("<node TEXT='a' OTHER='b'><unknown X='1'>text</unknown></node>"))
+		    .containsExactly(
+		        "create node1 in root null",
+		        "attribute node.TEXT=[a] on node1",
+		        "end node root node1 {node null OTHER@null=[b] content=[null]{unknown null X@null=[1] content=[text]}}");
+	}
+
+	@Test
+	public void passUnparsedContentToContentHandlers() throws Exception {
+		assertThat(readWithStreamingTreeXmlReader("<raw a='1'><html><!-- <b> --><p>&amp;</p></html></raw>"))
+		    .containsExactly(
+		        "create raw1 in root null",
+		        "end raw root raw1 {raw null a@null=[1] content=[null]} [<html><!-- <b> --><p>&amp;</p></html>]");
+	}
+
+	@Test
+	public void readSameEventsAsTreeXmlReaderForSpecialCases() throws Exception {
+		assertSameEvents("<?xml version='1.0' encoding='UTF-8'?>\r\n<!-- comment -->\n<map version='1'>\r\n"
+		        + "<node TEXT='a&amp;b&#9;c\td\r\ne&lt;&#x41;' ID='&quot;&apos;&gt;'>\n"
+		        + "\t <unknown>  \t lead&amp;ing\ttabs <![CDATA[<cdata>]]> after<!-- c --> comment </unknown>\n"
+		        + "text before <icon BUILTIN='x' OTHER='y'><unknown/></icon> text after\n"
+		        + "<richcontent TYPE='NODE'><html><body><p>x</p></body></html></richcontent>\n"
+		        + "<richcontent TYPE='NOTE' CONTENT-TYPE='plain'><text>plain &amp; text</text></richcontent>\n"
+		        + "<richcontent TYPE='OTHER'><html/></richcontent>\n"
+		        + "<hook NAME='h' VALUE='v' OTHER='o'><child x = \"1\" /></hook><hook/>\n"
+		        + "<raw><a/><b>/</b><!-- --- --></raw><raw/>\n"
+		        + "<x:unknown xmlns:x='urn:x' x:a='1' b='2' xmlns='urn:default'><inner x:c='3'/></x:unknown>\n"
+		        + "<?pi data?></node></map>\n");
+	}
+
+	@Test
+	public void readDocumentsWithDocumentTypeDeclaration() throws Exception {
+		assertSameEvents("<?xml version='1.0'?><!DOCTYPE map [<!ENTITY e 'entity'>]><map><node TEXT='&e;'/></map>");
+	}
+
+	@Test
+	public void readSameEventsAsTreeXmlReaderForRandomDocuments() throws Exception {
+		final Random random = new Random(1);
+		for (int i = 0; i < 300; i++) {
+			final StringBuilder xml = new StringBuilder();
+			if (random.nextBoolean())
+				xml.append("<?xml version='1.0'?>\n");
+			appendRandomElement(random, xml, 0);
+			assertSameEvents(xml.toString());
+		}
+	}
+
+	private static final String[] TAGS = { "node", "node", "icon", "richcontent", "hook", "raw", "unknown", "u:x" };
+	private static final String[] ATTRIBUTES = { "TEXT", "ID", "BUILTIN", "NAME", "VALUE", "TYPE", "CONTENT-TYPE",
+	        "OTHER", "p:other" };
+	private static final String[] TEXTS = { "a", " ", "\t", "\n", "\r\n", "\r", "&amp;", "&lt;", "&#9;", "&#x20;",
+	        "\"", "'", "ä", ">" };
+
+	private static void appendRandomElement(Random random, StringBuilder xml, int level) {
+		final String tag = level == 0 ? "map" : TAGS[random.nextInt(TAGS.length)];
+		xml.append('<').append(tag);
+		for (String attribute : ATTRIBUTES) {
+			if (random.nextInt(4) != 0)
+				continue;
+			xml.append(random.nextBoolean() ? " " : "\n\t").append(attribute).append("=\"");
+			if (attribute.equals("TYPE"))
+				xml.append(random.nextBoolean() ? "NODE" : "NOTE");
+			else if (attribute.equals("CONTENT-TYPE"))
+				xml.append(random.nextBoolean() ? "xml" : "plain");
+			else
+				appendRandomText(random, xml);
+			xml.append('"');
+		}
+		if (random.nextInt(5) == 0) {
+			xml.append("/>");
+			return;
+		}
+		xml.append('>');
+		final int childCount = level < 4 ? random.nextInt(5) : 0;
+		for (int i = 0; i < childCount; i++) {
+			switch (random.nextInt(6)) {
+				case 0:
+					appendRandomText(random, xml);
+					break;
+				case 1:
+					xml.append("<!--");
+					appendRandomText(random, xml);
+					xml.append("-->");
+					break;
+				case 2:
+					xml.append("<![CDATA[<&");
+					appendRandomText(random, xml);
+					xml.append("]]>");
+					break;
+				default:
+					appendRandomElement(random, xml, level + 1);
+			}
+		}
+		xml.append("</").append(tag).append(random.nextBoolean() ? ">" : " >");
+	}
+
+	private static void appendRandomText(Random random, StringBuilder xml) {
+		final int length = random.nextInt(6);
+		for (int i = 0; i < length; i++)
+			xml.append(TEXTS[random.nextInt(TEXTS.length)]);
+	}
+}
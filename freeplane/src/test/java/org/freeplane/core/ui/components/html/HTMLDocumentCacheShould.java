@@ -0,0 +1,52 @@
+package org.freeplane.core.ui.components.html;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Color;
+import java.awt.Font;
+
+import javax.swing.JLabel;
+import javax.swing.text.Document;
+
+import org.junit.Test;
+
+public class HTMLDocumentCacheShould {
+	private static final String HTML = "<html><body><p>text</p></body></html>";
+	private final ScaledEditorKit kit = SynchronousScaledEditorKit.create();
+	private final HTMLDocumentCache uut = new HTMLDocumentCache(2);
+
+	private static JLabel label(Font font, Color foreground) {
+		final JLabel label = new JLabel();
+		label.setFont(font);
+		label.setForeground(foreground);
+		return label;
+	}
+
+	@Test
+	public void shareDocumentsOfSameTextAndStyle() throws Exception {
+		final Font font = new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+		final Document document = uut.getDocument(kit, label(font, Color.BLACK), HTML);
+		assertThat(document.getText(0, document.getLength())).contains("text");
+		assertThat(uut.getDocument(kit, label(font, Color.BLACK), new String(HTML))).isSameAs(document);
+	}
+
+	@Test
+	public void parseDocumentsOfDifferentTextOrStyleSeparately() throws Exception {
+		final Font font = new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+		final Document document = uut.getDocument(kit, label(font, Color.BLACK), HTML);
+		assertThat(uut.getDocument(kit, label(font, Color.RED), HTML)).isNotSameAs(document);
+		assertThat(uut.getDocument(kit, label(font.deriveFont(14f), Color.BLACK), HTML)).isNotSameAs(document);
+		assertThat(uut.getDocument(kit, label(font, Color.BLACK), "<html>other</html>")).isNotSameAs(document);
+	}
+
+	@Test
+	public void evictLeastRecentlyUsedDocuments() throws Exception {
+		final JLabel label = label(new Font(Font.SANS_SERIF, Font.PLAIN, 12), Color.BLACK);
+		final Document first = uut.getDocument(kit, label, "<html>1</html>");
+		uut.getDocument(kit, label, "<html>2</html>");
+		uut.getDocument(kit, label, "<html>1</html>");
+		uut.getDocument(kit, label, "<html>3</html>");
+		assertThat(uut.size()).isEqualTo(2);
+		assertThat(uut.getDocument(kit, label, "<html>1</html>")).isSameAs(first);
+	}
+}
@@ -0,0 +1,60 @@
+package org.freeplane.core.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares time needed by the regular expression cascade and the single pass converter
+ * to convert the rich node contents of a map to plain text. Run manually, it is not a unit test.
+ *
+ * The map file can be passed as argument, the user guide is used by default.
+ */
+public class HtmlToPlainBenchmark {
+	private static final int ROUNDS = 5;
+	private static final int REPETITIONS = 20;
+	private static final Pattern HTML = Pattern.compile("(?is)<html>.*?</html>");
+
+	public static void main(String... argv) throws IOException {
+		final String file = argv.length > 0 ? argv[0] : "doc/freeplaneUserGuide.mm";
+		final String[] texts = htmlContents(new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8));
+		System.out.format("%d rich contents from %s%n", texts.length, file);
+		final HtmlToPlainConverter converter = new HtmlToPlainConverter();
+		final StringBuilder target = new StringBuilder();
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			long length = 0;
+			for (int i = 0; i < REPETITIONS; i++)
+				for (String text : texts)
+					length += HtmlToPlainConverter.convertByRegularExpressions(text, true).length();
+			report("regular expression cascade", start, length);
+			start = System.nanoTime();
+			length = 0;
+			for (int i = 0; i < REPETITIONS; i++)
+				for (String text : texts) {
+					target.setLength(0);
+					converter.appendPlainText(text, true, target);
+					length += target.length();
+				}
+			report("single pass converter", start, length);
+		}
+	}
+
+	private static void report(String name, long start, long length) {
+		final long time = System.nanoTime() - start;
+		System.out.format("%-40s %8.2f ms (plain text length %d)%n", name, time / 1e6, length);
+	}
+
+	private static String[] htmlContents(String map) {
+		final List<String> texts = new ArrayList<>();
+		final Matcher matcher = HTML.matcher(map);
+		while (matcher.find())
+			texts.add(matcher.group());
+		return texts.toArray(new String[0]);
+	}
+}
@@ -0,0 +1,85 @@
+package org.freeplane.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class HtmlToPlainConverterShould {
+	private static final String[] FRAGMENTS = { "<html>", "</html>", "<head>", "</head>", "<body>", "</body>",
+	        "<p>", "<P class=\"x\">", "</p>", "<br>", "<BR/>", "<div>", "</div>", "<tr>", "<td>", "</td>", "<dt>", "<dd>",
+	        "<ul>", "<ol>", "</ul>", "<li>", "</li>", "<b>", "</b>", "<i>", "<pre>", "<span style=\"a\">", "</>",
+	        "<!-- c -->", "< x >", "<d>", "<t>", "<u>", "<l>", "<br", "<>", "a<b", ">", "<", "&", "&;", "&#;",
+	        "&lt;", "&GT;", "&quot;", "&nbsp;", "&amp;", "&amp;lt;", "&#38;lt;", "&#65;", "&#x41;", "&#X41;",
+	        "&#-65;", "&#+66;", "&#10;", "&#9;", "&#7;", "&#99999999999;", "&copy;", "&a b;", " ",
+	        " ", "  ", "\n", "\t", "\r", "\f", " \n ", "x", "Text", "ä" };
+
+	private final HtmlToPlainConverter uut = new HtmlToPlainConverter();
+
+	private String convert(final String text, final boolean removeNewLines) {
+		final StringBuilder target = new StringBuilder();
+		uut.appendPlainText(text, removeNewLines, target);
+		return target.toString();
+	}
+
+	private void assertSameAsRegularExpressions(final String text) {
+		for (final boolean removeNewLines : new boolean[] { true, false }) {
+			String expected;
+			try {
+				expected = HtmlToPlainConverter.convertByRegularExpressions(text, removeNewLines);
+			}
+			catch (final RuntimeException e) {
+				expected = e.getClass().getName();
+			}
+			String actual;
+			try {
+				actual = convert(text, removeNewLines);
+			}
+			catch (final RuntimeException e) {
+				actual = e.getClass().getName();
+			}
+			assertThat(actual).as("%s, removeNewLines=%s", text, removeNewLines).isEqualTo(expected);
+		}
+	}
+
+	@Test
+	public void convertListsAndParagraphs() throws Exception {
+		assertThat(convert("<html><body><p>first</p><ul><li>one</li><li>two</li></ul></body></html>", true))
+		    .isEqualTo("first\n\n   * one\n   * two");
+	}
+
+	@Test
+	public void decodeEntities() throws Exception {
+		assertThat(convert("<html><body>a &lt;b&gt; &amp;lt; &#65;&nbsp;</body></html>", true))
+		    .isEqualTo("a <b> &lt; A ");
+	}
+
+	@Test
+	public void appendToExistingContent() throws Exception {
+		final StringBuilder target = new StringBuilder("prefix \t");
+		uut.appendPlainText("<html><body><p>\n</p></body></html>", true, target);
+		assertThat(target.toString()).isEqualTo("prefix \t");
+	}
+
+	@Test
+	public void produceSameResultsAsRegularExpressionsForTypicalNodeContent() throws Exception {
+		assertSameAsRegularExpressions("<html>\n  <head>\n    \n  </head>\n  <body>\n    <p>\n      Line 1\n"
+		        + "    </p>\n    <p>\n      <b>bold</b> and <i>italic</i>&#160;text\n    </p>\n"
+		        + "    <table><tr><td>a</td><td>b</td></tr></table>\n    <dl><dt>term</dt><dd>value</dd></dl>\n"
+		        + "  </body>\n</html>\n");
+	}
+
+	@Test
+	public void produceSameResultsAsRegularExpressionsForRandomFragments() throws Exception {
+		final Random random = new Random(1);
+		for (int i = 0; i < 20000; i++) {
+			final StringBuilder text = new StringBuilder();
+			final int fragmentCount = random.nextInt(12);
+			for (int j = 0; j < fragmentCount; j++) {
+				text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+			}
+			assertSameAsRegularExpressions(text.toString());
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package org.freeplane.features.attribute;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.BitSet;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AttributeIndexShould {
+	private static final AttributeIndex.ValueTransformer NUMBER_PARSER = (node, attributes, value) -> {
+		final String text = value.toString();
+		if (text.startsWith("="))
+			return null;
+		try {
+			return Long.valueOf(text);
+		}
+		catch (NumberFormatException e) {
+			return text;
+		}
+	};
+
+	private MapModel map;
+	private NodeModel root;
+	private AttributeIndex uut;
+
+	@Before
+	public void setup() {
+		map = new MapModel(null, null, null);
+		root = new NodeModel("root", map);
+		map.setRoot(root);
+		uut = new AttributeIndex(map, NUMBER_PARSER);
+	}
+
+	private NodeModel addChild(String... nameValuePairs) {
+		final NodeModel child = new NodeModel("child", map);
+		final NodeAttributeTableModel attributes = new NodeAttributeTableModel();
+		for (int i = 0; i < nameValuePairs.length; i += 2)
+			attributes.getAttributes().add(new Attribute(nameValuePairs[i], nameValuePairs[i + 1]));
+		child.addExtension(attributes);
+		root.insert(child);
+		return child;
+	}
+
+	private static BitSet ordinals(NodeModel... nodes) {
+		final BitSet ordinals = new BitSet();
+		for (NodeModel node : nodes)
+			ordinals.set(node.getOrdinal());
+		return ordinals;
+	}
+
+	@Test
+	public void findNodesWithAttribute() throws Exception {
+		final NodeModel first = addChild("a", "1", "b", "x");
+		final NodeModel second = addChild("b", "y");
+		addChild();
+		assertThat(uut.getNodesWithAttribute("a")).isEqualTo(ordinals(first));
+		assertThat(uut.getNodesWithAttribute("b")).isEqualTo(ordinals(first, second));
+		assertThat(uut.getNodesWithAttribute(AttributeConditionController.ANY_ATTRIBUTE_NAME_OR_VALUE_OBJECT))
+		    .isEqualTo(ordinals(first, second));
+		assertThat(uut.getNodes(ordinals(first, second))).containsExactly(first, second);
+	}
+
+	@Test
+	public void evaluatePredicateOncePerDistinctValue() throws Exception {
+		final NodeModel first = addChild("a", "x");
+		final NodeModel second = addChild("a", "x");
+		addChild("a", "y");
+		final int[] evaluationCount = { 0 };
+		final BitSet candidates = uut.getCandidates(this, "a", () -> value -> {
+			evaluationCount[0]++;
+			return value.equals("x");
+		});
+		assertThat(candidates).isEqualTo(ordinals(first, second));
+		assertThat(evaluationCount[0]).isEqualTo(2);
+		uut.getCandidates(this, "a", () -> value -> true);
+		assertThat(evaluationCount[0]).isEqualTo(2);
+	}
+
+	@Test
+	public void findNumericValuesInRange() throws Exception {
+		addChild("a", "1");
+		final NodeModel two = addChild("a", "2");
+		final NodeModel three = addChild("a", "3");
+		addChild("a", "4");
+		addChild("a", "text");
+		assertThat(uut.getNumericCandidates("a", 2, 3)).isEqualTo(ordinals(two, three));
+		assertThat(uut.getNumericCandidates("a", 3, 2).isEmpty()).isTrue();
+	}
+
+	@Test
+	public void findEqualNumbersAndTexts() throws Exception {
+		final NodeModel number = addChild("a", "2020");
+		final NodeModel text = addChild("a", "text");
+		assertThat(uut.getEqualityCandidates("a", 2020.0)).isEqualTo(ordinals(number));
+		assertThat(uut.getEqualityCandidates("a", "2020")).isEqualTo(ordinals(number));
+		assertThat(uut.getEqualityCandidates("a", "text")).isEqualTo(ordinals(text));
+		assertThat(uut.getEqualityCandidates("b", "text").isEmpty()).isTrue();
+	}
+
+	@Test
+	public void alwaysReturnNodesWithUnindexedValues() throws Exception {
+		final NodeModel formula = addChild("a", "=1+1");
+		assertThat(uut.getNumericCandidates("a", 5, 6)).isEqualTo(ordinals(formula));
+		assertThat(uut.getEqualityCandidates("a", "x")).isEqualTo(ordinals(formula));
+		assertThat(uut.getCandidates(this, "a", () -> value -> false)).isEqualTo(ordinals(formula));
+	}
+
+	@Test
+	public void returnNoIndexFromOtherThreadsUntilUpdated() throws Exception {
+		final NodeModel node = addChild("a", "1");
+		assertThat(uut.isUpToDate()).isFalse();
+		uut.getNodesWithAttribute("a");
+		assertThat(uut.isUpToDate()).isTrue();
+		uut.nodeChanged(node);
+		assertThat(uut.isUpToDate()).isFalse();
+	}
+
+	@Test
+	public void updateChangedNodes() throws Exception {
+		final NodeModel node = addChild("a", "1");
+		assertThat(uut.getCandidates(this, "a", () -> value -> value.equals(1L))).isEqualTo(ordinals(node));
+		NodeAttributeTableModel.getModel(node).getAttribute(0).setValue("2");
+		uut.nodeChanged(node);
+		assertThat(uut.getCandidates(this, "a", () -> value -> value.equals(1L)).isEmpty()).isTrue();
+		assertThat(uut.getEqualityCandidates("a", 2L)).isEqualTo(ordinals(node));
+	}
+
+	@Test
+	public void updateInsertedAndDeletedSubtrees() throws Exception {
+		final NodeModel parent = addChild();
+		uut.getNodesWithAttribute("a");
+		final NodeModel child = addChild("a", "1");
+		root.remove(root.getIndex(child));
+		parent.insert(child);
+		uut.subtreeChanged(child);
+		assertThat(uut.getNodesWithAttribute("a")).isEqualTo(ordinals(child));
+		parent.remove(parent.getIndex(child));
+		uut.subtreeChanged(child);
+		assertThat(uut.getNodesWithAttribute("a").isEmpty()).isTrue();
+		assertThat(uut.getNumericCandidates("a", 0, 2).isEmpty()).isTrue();
+	}
+}
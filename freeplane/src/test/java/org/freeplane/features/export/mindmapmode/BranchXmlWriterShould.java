@@ -0,0 +1,91 @@
+package org.freeplane.features.export.mindmapmode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+
+import org.freeplane.features.map.MapWriter.Mode;
+import org.junit.Test;
+
+public class BranchXmlWriterShould {
+	private static final String STYLESHEET = "<xsl:stylesheet version='1.0' xmlns:xsl='http://www.w3.org/1999/XSL/Transform'>"
+	        + "<xsl:output method='text'/>"
+	        + "<xsl:template match='/'>%s<xsl:value-of select='count(//node)'/></xsl:template>"
+	        + "</xsl:stylesheet>";
+
+	private static class FixedBranchXmlWriter extends BranchXmlWriter {
+		private final int nodeCount;
+
+		FixedBranchXmlWriter(int nodeCount) {
+			super(Collections.emptyList());
+			this.nodeCount = nodeCount;
+		}
+
+		@Override
+		void writeXml(Writer writer, Mode mode) {
+			try {
+				writer.write("<map>");
+				for (int i = 0; i < nodeCount; i++)
+					writer.write("<node TEXT='node " + i + "'/>");
+				writer.write("</map>");
+			}
+			catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	private static File stylesheet(String prefix) throws IOException {
+		final File file = File.createTempFile("stylesheet", ".xsl");
+		file.deleteOnExit();
+		Files.write(file.toPath(), String.format(STYLESHEET, prefix).getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	@Test
+	public void transformXmlLargerThanPipe() throws Exception {
+		final StringWriter result = new StringWriter();
+		new FixedBranchXmlWriter(100000).transformXml(XsltTemplates.of(stylesheet("count ")).newTransformer(),
+		    new StreamResult(result), Mode.EXPORT);
+		assertThat(result.toString()).isEqualTo("count 100000");
+	}
+
+	@Test
+	public void reportTransformationErrors() throws Exception {
+		final StringWriter result = new StringWriter();
+		assertThatThrownBy(() -> new FixedBranchXmlWriter(100000) {
+			@Override
+			void writeXml(Writer writer, Mode mode) {
+				super.writeXml(writer, mode);
+				try {
+					writer.write("<unclosed>");
+				}
+				catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		}.transformXml(TransformerFactory.newInstance().newTransformer(), new StreamResult(result), Mode.EXPORT))
+		    .isInstanceOf(TransformerException.class);
+	}
+
+	@Test
+	public void reuseCompiledStylesheetsUntilModified() throws Exception {
+		final File file = stylesheet("a");
+		final Templates templates = XsltTemplates.of(file);
+		assertThat(XsltTemplates.of(file)).isSameAs(templates);
+		Files.write(file.toPath(), String.format(STYLESHEET, "changed").getBytes(StandardCharsets.UTF_8));
+		assertThat(XsltTemplates.of(file)).isNotSameAs(templates);
+	}
+}
@@ -0,0 +1,43 @@
+package org.freeplane.features.filter;
+
+import java.util.Random;
+
+/**
+ * Compares time needed by approximate matching strategies to check a search term
+ * against texts of typical node length. Run manually, it is not a unit test.
+ */
+public class ApproximateMatchingBenchmark {
+	private static final int TEXT_COUNT = 20000;
+	private static final int ROUNDS = 5;
+
+	public static void main(String... argv) {
+		final Random random = new Random(1);
+		final String[] texts = new String[TEXT_COUNT];
+		for (int i = 0; i < texts.length; i++)
+			texts[i] = randomText(random, 20 + random.nextInt(200));
+		final String searchTerm = argv.length > 0 ? argv[0] : "approximate serach";
+		for (int round = 0; round < ROUNDS; round++) {
+			measure("PseudoDamerauLevenshtein", new PseudoDamerauLevenshtein(), searchTerm, texts);
+			measure("BitParallelPseudoDamerauLevenshtein", new BitParallelPseudoDamerauLevenshtein(), searchTerm, texts);
+		}
+	}
+
+	private static void measure(String name, EditDistanceStringMatchingStrategy strategy, String searchTerm, String[] texts) {
+		final long start = System.nanoTime();
+		int distanceSum = 0;
+		for (String text : texts) {
+			strategy.init(searchTerm, text, true);
+			distanceSum += strategy.distance();
+		}
+		final long time = System.nanoTime() - start;
+		System.out.format("%-40s %8.2f ms (distance sum %d)%n", name, time / 1e6, distanceSum);
+	}
+
+	private static String randomText(Random random, int length) {
+		final String alphabet = "abcdefghijklmnopqrstuvwxyz    ";
+		final StringBuilder text = new StringBuilder(length);
+		for (int i = 0; i < length; i++)
+			text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		return text.toString();
+	}
+}
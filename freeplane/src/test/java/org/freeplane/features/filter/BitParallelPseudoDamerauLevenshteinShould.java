@@ -0,0 +1,80 @@
+package org.freeplane.features.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BitParallelPseudoDamerauLevenshteinShould {
+	private static final String ALPHABET = "abc-äß";
+
+	private final BitParallelPseudoDamerauLevenshtein uut = new BitParallelPseudoDamerauLevenshtein();
+	private final PseudoDamerauLevenshtein reference = new PseudoDamerauLevenshtein();
+
+	private void assertSameAsReference(final String searchTerm, final String searchText) {
+		for (final boolean subStringMatch : new boolean[] { true, false }) {
+			reference.init(searchTerm, searchText, subStringMatch);
+			uut.init(searchTerm, searchText, subStringMatch);
+			final String description = String.format("'%s' in '%s', subStringMatch=%s", searchTerm, searchText,
+			    subStringMatch);
+			assertThat(uut.distance()).as(description).isEqualTo(reference.distance());
+			assertThat(Float.valueOf(uut.matchProb())).as(description).isEqualTo(Float.valueOf(reference.matchProb()));
+		}
+	}
+
+	private static String randomString(final Random random, final int maxLength) {
+		final int length = random.nextInt(maxLength + 1);
+		final StringBuilder text = new StringBuilder(length);
+		for (int i = 0; i < length; i++)
+			text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+		return text.toString();
+	}
+
+	@Test
+	public void countTranspositionAsSingleEdit() throws Exception {
+		uut.init("file", "flie", false);
+		assertThat(uut.distance()).isEqualTo(1);
+	}
+
+	@Test
+	public void ignoreSearchTermShiftForSubStringMatch() throws Exception {
+		uut.init("file", "a file is", true);
+		assertThat(uut.distance()).isEqualTo(0);
+	}
+
+	@Test
+	public void matchAnyCharacterByDashInSearchText() throws Exception {
+		uut.init("file", "f-le", false);
+		assertThat(uut.distance()).isEqualTo(0);
+	}
+
+	@Test
+	public void produceSameResultsAsReferenceForShortTerms() throws Exception {
+		final Random random = new Random(1);
+		for (int i = 0; i < 50000; i++) {
+			assertSameAsReference(randomString(random, 10), randomString(random, 14));
+		}
+	}
+
+	@Test
+	public void produceSameResultsAsReferenceForTermsOfWordLengthAndLonger() throws Exception {
+		final Random random = new Random(2);
+		for (int i = 0; i < 2000; i++) {
+			final String searchTerm = randomString(random, 90);
+			for (int j = 0; j < 3; j++)
+				assertSameAsReference(searchTerm, randomString(random, 120));
+		}
+	}
+
+	@Test
+	public void produceSameResultsAsReferenceForWordLengthTerms() throws Exception {
+		final Random random = new Random(3);
+		for (int i = 0; i < 2000; i++) {
+			final StringBuilder searchTerm = new StringBuilder();
+			while (searchTerm.length() < 64)
+				searchTerm.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+			assertSameAsReference(searchTerm.toString(), randomString(random, 100));
+		}
+	}
+}
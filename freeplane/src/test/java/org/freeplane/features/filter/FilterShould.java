@@ -0,0 +1,208 @@
+package org.freeplane.features.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.freeplane.features.filter.condition.ICondition;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FilterShould {
+	private static final ICondition MATCHES_TEXT_MATCH = node -> "match".equals(node.getUserObject());
+
+	private MapModel map;
+	private NodeModel root;
+	private NodeModel parent;
+	private NodeModel matchingChild;
+	private NodeModel otherChild;
+
+	@Before
+	public void setup() {
+		map = new MapModel(null, null, null);
+		root = new NodeModel("root", map);
+		map.setRoot(root);
+		parent = new NodeModel("parent", map);
+		root.insert(parent);
+		matchingChild = new NodeModel("match", map);
+		parent.insert(matchingChild);
+		otherChild = new NodeModel("other", map);
+		parent.insert(otherChild);
+	}
+
+	private Filter createFilter(final boolean hidesMatchingNodes) {
+		return new Filter(MATCHES_TEXT_MATCH, hidesMatchingNodes, true, false, false, null);
+	}
+
+	@Test
+	public void showMatchingNodesAndTheirAncestors() throws Exception {
+		final Filter filter = createFilter(false);
+		filter.calculateFilterResults(map);
+		assertThat(filter.isVisible(parent)).isTrue();
+		assertThat(filter.isVisible(matchingChild)).isTrue();
+		assertThat(filter.isVisible(otherChild)).isFalse();
+		assertThat(filter.getFilterInfo(matchingChild).isMatched()).isTrue();
+		assertThat(filter.getFilterInfo(parent).canBeAncestor()).isTrue();
+	}
+
+	@Test
+	public void hideMatchingNodes() throws Exception {
+		final Filter filter = createFilter(true);
+		filter.calculateFilterResults(map);
+		assertThat(filter.isVisible(matchingChild)).isFalse();
+		assertThat(filter.isVisible(otherChild)).isTrue();
+	}
+
+	@Test
+	public void hideOnlyBranchesWithoutShownNodes() throws Exception {
+		final NodeModel hiddenGrandchild = new NodeModel("other", map);
+		otherChild.insert(hiddenGrandchild);
+		final Filter filter = createFilter(false);
+		filter.calculateFilterResults(map);
+		assertThat(filter.hidesBranch(root)).isFalse();
+		assertThat(filter.hidesBranch(parent)).isFalse();
+		assertThat(filter.hidesBranch(matchingChild)).isFalse();
+		assertThat(filter.hidesBranch(otherChild)).isTrue();
+		hiddenGrandchild.setUserObject("match");
+		filter.updateFilterResultsOfChangedNode(hiddenGrandchild);
+		assertThat(filter.hidesBranch(otherChild)).isFalse();
+	}
+
+	@Test
+	public void hideNoBranchesIfMatchingNodesAreHidden() throws Exception {
+		final Filter filter = createFilter(true);
+		filter.calculateFilterResults(map);
+		assertThat(filter.hidesBranch(matchingChild)).isFalse();
+		assertThat(filter.hidesBranch(otherChild)).isFalse();
+	}
+
+	@Test
+	public void treatNodesAddedAfterCalculationAsNotChecked() throws Exception {
+		final Filter filter = createFilter(false);
+		filter.calculateFilterResults(map);
+		final NodeModel newNode = new NodeModel("new", map);
+		parent.insert(newNode);
+		assertThat(filter.isVisible(newNode)).isTrue();
+		filter.showAsMatched(newNode);
+		assertThat(filter.getFilterInfo(newNode).isMatched()).isTrue();
+	}
+
+	@Test
+	public void resetFilterInfoReturnedToCallers() throws Exception {
+		final Filter filter = createFilter(false);
+		filter.calculateFilterResults(map);
+		filter.getFilterInfo(otherChild).reset();
+		assertThat(filter.isVisible(otherChild)).isTrue();
+	}
+
+	@Test
+	public void keepResultsOfReusedFilterIndependent() throws Exception {
+		final Filter oldFilter = createFilter(false);
+		oldFilter.calculateFilterResults(map);
+		final Filter newFilter = createFilter(false);
+		newFilter.useFilterResultsFrom(oldFilter);
+		newFilter.showAsMatched(otherChild);
+		assertThat(newFilter.isVisible(otherChild)).isTrue();
+		assertThat(oldFilter.isVisible(otherChild)).isFalse();
+	}
+
+	@Test
+	public void keepResultsOfNodesFromOtherMaps() throws Exception {
+		final Filter filter = createFilter(false);
+		filter.calculateFilterResults(map);
+		final MapModel otherMap = new MapModel(null, null, null);
+		final NodeModel otherRoot = new NodeModel("root", otherMap);
+		otherMap.setRoot(otherRoot);
+		otherRoot.insert(new NodeModel("", otherMap));
+		final NodeModel nodeWithSameOrdinal = new NodeModel("other", otherMap);
+		otherRoot.insert(nodeWithSameOrdinal);
+		assertThat(nodeWithSameOrdinal.getOrdinal()).isEqualTo(matchingChild.getOrdinal());
+		assertThat(filter.isVisible(nodeWithSameOrdinal)).isTrue();
+		filter.addFilterResult(nodeWithSameOrdinal, FilterInfo.FILTER_SHOW_AS_HIDDEN);
+		assertThat(filter.isVisible(nodeWithSameOrdinal)).isFalse();
+		assertThat(filter.isVisible(matchingChild)).isTrue();
+	}
+
+	@Test
+	public void keepResultsOfMapsWithManyDeletedNodes() throws Exception {
+		for (int i = 0; i < 10000; i++) {
+			final NodeModel deletedNode = new NodeModel("match", map);
+			parent.insert(deletedNode);
+			parent.remove(parent.getIndex(deletedNode));
+		}
+		final NodeModel newMatchingChild = new NodeModel("match", map);
+		parent.insert(newMatchingChild);
+		final Filter filter = createFilter(false);
+		filter.calculateFilterResults(map);
+		assertThat(filter.isVisible(matchingChild)).isTrue();
+		assertThat(filter.isVisible(newMatchingChild)).isTrue();
+		assertThat(filter.isVisible(otherChild)).isFalse();
+		assertThat(filter.getFilterInfo(parent).canBeAncestor()).isTrue();
+	}
+
+	@Test
+	public void showNodeStartingToMatchAfterChange() throws Exception {
+		final Filter filter = createFilter(false);
+		filter.calculateFilterResults(map);
+		otherChild.setUserObject("match");
+		assertThat(filter.updateFilterResultsOfChangedNode(otherChild)).isTrue();
+		assertThat(filter.isVisible(otherChild)).isTrue();
+	}
+
+	@Test
+	public void hideNodeAndItsAncestorsNotMatchingAfterChange() throws Exception {
+		final Filter filter = createFilter(false);
+		filter.calculateFilterResults(map);
+		matchingChild.setUserObject("other");
+		assertThat(filter.updateFilterResultsOfChangedNode(matchingChild)).isTrue();
+		assertThat(filter.isVisible(matchingChild)).isFalse();
+		assertThat(filter.isVisible(parent)).isFalse();
+	}
+
+	@Test
+	public void ignoreChangesNotAffectingResults() throws Exception {
+		final Filter filter = createFilter(false);
+		filter.calculateFilterResults(map);
+		otherChild.setUserObject("still other");
+		assertThat(filter.updateFilterResultsOfChangedNode(otherChild)).isFalse();
+	}
+
+	@Test
+	public void showAncestorsOfInsertedMatchingNode() throws Exception {
+		final Filter filter = createFilter(false);
+		filter.calculateFilterResults(map);
+		final NodeModel insertedNode = new NodeModel("match", map);
+		otherChild.insert(insertedNode);
+		filter.updateFilterResultsOfChangedSubtree(insertedNode);
+		assertThat(filter.isVisible(insertedNode)).isTrue();
+		assertThat(filter.isVisible(otherChild)).isTrue();
+	}
+
+	@Test
+	public void hideAncestorsAfterMatchingNodeIsRemoved() throws Exception {
+		final Filter filter = createFilter(false);
+		filter.calculateFilterResults(map);
+		parent.remove(parent.getIndex(matchingChild));
+		assertThat(filter.updateFilterResultsOfChangedParent(parent)).isTrue();
+		assertThat(filter.isVisible(parent)).isFalse();
+	}
+
+	@Test
+	public void updateDescendantsOfNodeStartingToMatch() throws Exception {
+		final Filter filter = new Filter(MATCHES_TEXT_MATCH, false, false, true, false, null);
+		filter.calculateFilterResults(map);
+		assertThat(filter.isVisible(otherChild)).isFalse();
+		parent.setUserObject("match");
+		filter.updateFilterResultsOfChangedNode(parent);
+		assertThat(filter.isVisible(otherChild)).isTrue();
+	}
+
+	@Test
+	public void updateOnlyNodesOfFilteredMap() throws Exception {
+		final Filter filter = createFilter(false);
+		assertThat(filter.canUpdateFilterResults(otherChild)).isFalse();
+		filter.calculateFilterResults(map);
+		assertThat(filter.canUpdateFilterResults(otherChild)).isTrue();
+		assertThat(filter.canUpdateFilterResults(new NodeModel("detached", map))).isFalse();
+	}
+}
@@ -0,0 +1,58 @@
+package org.freeplane.features.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.freeplane.features.filter.condition.ICondition;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Test;
+
+public class ParallelConditionCheckShould {
+	private static final ICondition CONTAINS_7 = new ICondition() {
+		@Override
+		public boolean checkNode(NodeModel node) {
+			return node.getUserObject().toString().contains("7");
+		}
+
+		@Override
+		public boolean isThreadSafe() {
+			return true;
+		}
+	};
+	private final MapModel map = new MapModel(null, null, null);
+	private final NodeModel root = new NodeModel("root", map);
+	private final List<NodeModel> nodes = new ArrayList<>();
+
+	private void createNodes(int count) {
+		map.setRoot(root);
+		NodeModel parent = root;
+		for (int i = 0; i < count; i++) {
+			final NodeModel node = new NodeModel(Integer.toString(i), map);
+			parent.insert(node);
+			nodes.add(node);
+			if (i % 10 == 0)
+				parent = node;
+		}
+	}
+
+	@Test
+	public void produceSameResultsAsSequentialCheck() throws Exception {
+		createNodes(3000);
+		final ParallelConditionCheck uut = new ParallelConditionCheck(CONTAINS_7, root);
+		uut.run();
+		for (final NodeModel node : nodes)
+			assertThat(uut.isSatisfied(node)).as(node.toString()).isEqualTo(CONTAINS_7.checkNode(node));
+	}
+
+	@Test
+	public void checkOnlySubtreesWithManyNodesInParallel() throws Exception {
+		createNodes(3000);
+
+		assertThat(ParallelConditionCheck.canCheck(CONTAINS_7, root)).isTrue();
+		assertThat(ParallelConditionCheck.canCheck(CONTAINS_7, nodes.get(2000))).isFalse();
+		assertThat(ParallelConditionCheck.canCheck(node -> true, root)).isFalse();
+	}
+}
@@ -0,0 +1,141 @@
+package org.freeplane.features.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.freeplane.features.filter.condition.StringTransformer;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TextIndexShould {
+	private static final String ALPHABET = "abAB ÄäaͤΣσςİıIiéeÉ́ÅÅKßẞ";
+	private static final TextIndex.Item USER_OBJECT = node -> {
+		final Object userObject = node.getUserObject();
+		return "formula".equals(userObject) ? null : userObject.toString();
+	};
+
+	private MapModel map;
+	private NodeModel root;
+	private TextIndex uut;
+
+	@Before
+	public void setup() {
+		map = new MapModel(null, null, null);
+		root = new NodeModel("root", map);
+		map.setRoot(root);
+		uut = new TextIndex(map);
+	}
+
+	private NodeModel addChild(NodeModel parent, String text) {
+		final NodeModel child = new NodeModel(text, map);
+		parent.insert(child);
+		return child;
+	}
+
+	private boolean isCandidate(NodeModel node, String value) {
+		final BitSet candidates = uut.getCandidates(USER_OBJECT, value, true);
+		return candidates == null || candidates.get(node.getOrdinal());
+	}
+
+	private static String randomString(Random random, int maxLength) {
+		final int length = random.nextInt(maxLength + 1);
+		final StringBuilder text = new StringBuilder(length);
+		for (int i = 0; i < length; i++)
+			text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+		return text.toString();
+	}
+
+	@Test
+	public void findNodesContainingValue() throws Exception {
+		final NodeModel matching = addChild(root, "Quick Brown Fox");
+		final NodeModel other = addChild(root, "lazy dog");
+		assertThat(isCandidate(matching, "brown")).isTrue();
+		assertThat(isCandidate(other, "brown")).isFalse();
+	}
+
+	@Test
+	public void returnAllNodesForShortValues() throws Exception {
+		addChild(root, "lazy dog");
+		assertThat(uut.getCandidates(USER_OBJECT, "xy", true)).isNull();
+	}
+
+	@Test
+	public void alwaysReturnNodesWithUnindexedTexts() throws Exception {
+		final NodeModel formula = addChild(root, "formula");
+		assertThat(isCandidate(formula, "brown")).isTrue();
+	}
+
+	@Test
+	public void returnNoCandidatesFromOtherThreadsUntilUpdated() throws Exception {
+		final NodeModel node = addChild(root, "lazy dog");
+		assertThat(uut.getCandidates(USER_OBJECT, "brown", false)).isNull();
+		uut.getCandidates(USER_OBJECT, "brown", true);
+		assertThat(uut.getCandidates(USER_OBJECT, "brown", false).isEmpty()).isTrue();
+		uut.nodeChanged(node);
+		assertThat(uut.getCandidates(USER_OBJECT, "brown", false)).isNull();
+	}
+
+	@Test
+	public void updateChangedNodes() throws Exception {
+		final NodeModel node = addChild(root, "lazy dog");
+		assertThat(isCandidate(node, "brown")).isFalse();
+		node.setUserObject("brown dog");
+		uut.nodeChanged(node);
+		assertThat(isCandidate(node, "brown")).isTrue();
+		assertThat(isCandidate(node, "lazy")).isFalse();
+	}
+
+	@Test
+	public void indexAgainAfterPreferenceChanges() throws Exception {
+		final NodeModel node = addChild(root, "lazy dog");
+		assertThat(isCandidate(node, "brown")).isFalse();
+		node.setUserObject("brown dog");
+		new TextIndex.Updater().propertyChanged("standard_number_format", "#0.00", "#0.0");
+		assertThat(uut.getCandidates(USER_OBJECT, "brown", false)).isNull();
+		assertThat(isCandidate(node, "brown")).isTrue();
+	}
+
+	@Test
+	public void updateInsertedAndDeletedSubtrees() throws Exception {
+		final NodeModel parent = addChild(root, "parent");
+		uut.getCandidates(USER_OBJECT, "brown", true);
+		final NodeModel child = new NodeModel("brown", map);
+		final NodeModel grandchild = new NodeModel("brown", map);
+		child.insert(grandchild);
+		parent.insert(child);
+		uut.subtreeChanged(child);
+		assertThat(isCandidate(grandchild, "brown")).isTrue();
+		parent.remove(parent.getIndex(child));
+		uut.subtreeChanged(child);
+		assertThat(isCandidate(child, "brown")).isFalse();
+		assertThat(isCandidate(grandchild, "brown")).isFalse();
+	}
+
+	@Test
+	public void returnAllNodesContainingValueForAnyTransformation() throws Exception {
+		final Random random = new Random(1);
+		final List<NodeModel> nodes = new ArrayList<>();
+		for (int i = 0; i < 300; i++)
+			nodes.add(addChild(root, randomString(random, 12)));
+		for (int i = 0; i < 2000; i++) {
+			final String value = randomString(random, 5);
+			for (final NodeModel node : nodes) {
+				final String text = node.getUserObject().toString();
+				for (int transformation = 0; transformation < 4; transformation++) {
+					final boolean toLowerCase = (transformation & 1) != 0;
+					final boolean removeAccents = (transformation & 2) != 0;
+					if (StringTransformer.transform(text, toLowerCase, removeAccents)
+					    .contains(StringTransformer.transform(value, toLowerCase, removeAccents)))
+						assertThat(isCandidate(node, StringTransformer.transform(value, toLowerCase, removeAccents)))
+						    .as("'%s' in '%s', transformation %d", value, text, transformation).isTrue();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,251 @@
+package org.freeplane.features.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.freeplane.core.extension.IExtension;
+import org.freeplane.core.io.ReadManager;
+import org.freeplane.core.io.WriteManager;
+import org.freeplane.core.resources.ResourceBundles;
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.link.LinkBuilder;
+import org.freeplane.features.link.LinkController;
+import org.freeplane.features.link.NodeLinkModel;
+import org.freeplane.features.link.NodeLinks;
+import org.freeplane.features.map.MapWriter.Mode;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.features.mode.DeferredHookActivations;
+import org.freeplane.features.mode.ModeController;
+import org.freeplane.features.mode.NodeHookDescriptor;
+import org.freeplane.features.mode.PersistentNodeHook;
+import org.freeplane.features.text.DetailModel;
+import org.freeplane.features.text.NodeTextBuilder;
+import org.freeplane.n3.nanoxml.XMLElement;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class MapReaderShould {
+	@NodeHookDescriptor(hookName = "EventDispatchThreadHook", onceForMap = false)
+	public static class EventDispatchThreadHook extends PersistentNodeHook implements IExtension {
+		final Set<Thread> activatingThreads = ConcurrentHashMap.newKeySet();
+
+		@Override
+		protected boolean activatesOnEventDispatchThread() {
+			return true;
+		}
+
+		@Override
+		protected IExtension createExtension(NodeModel node, XMLElement element) {
+			activatingThreads.add(Thread.currentThread());
+			return this;
+		}
+	}
+
+	private static Controller controller;
+	private final ReadManager readManager = new ReadManager();
+	private final MapReader uut = new MapReader(readManager);
+
+	@BeforeClass
+	public static void setupController() {
+		controller = mock(Controller.class);
+		final ResourceController resourceController = mock(ResourceController.class);
+		when(controller.getResourceController()).thenReturn(resourceController);
+		when(resourceController.getResources()).thenReturn(mock(ResourceBundles.class));
+		Controller.setCurrentController(controller);
+	}
+
+	@Before
+	public void setup() {
+		readManager.addElementHandler("map", uut);
+	}
+
+	private static String map(int number, int childCount) {
+		final StringBuilder xml = new StringBuilder("<map><node ID='ID_" + number + "'>");
+		for (int i = 0; i < childCount; i++)
+			xml.append("<node ID='ID_").append(number).append('_').append(i)
+			    .append("'/>");
+		return xml.append("</node></map>").toString();
+	}
+
+	private NodeModel read(int number, int childCount) throws Exception {
+		return read(map(number, childCount));
+	}
+
+	private NodeModel read(String xml) throws Exception {
+		return read(new MapModel(null, null, null), xml);
+	}
+
+	private NodeModel read(MapModel map, String xml) throws Exception {
+		return uut.createNodeTreeFromXml(map, new StringReader(xml), Mode.CLIPBOARD);
+	}
+
+	/** registers the handlers which mind map mode uses for node texts, details and connectors */
+	private void registerModeHandlers() {
+		final WriteManager writeManager = new WriteManager();
+		new NodeTextBuilder().registerBy(readManager, writeManager);
+		new LinkBuilder(mock(LinkController.class)).registerBy(readManager);
+	}
+
+	/** registers the readers of node hooks, which are created by the mode controller */
+	private EventDispatchThreadHook registerHooks() {
+		final ModeController modeController = mock(ModeController.class);
+		final MapController mapController = mock(MapController.class);
+		when(controller.getModeController()).thenReturn(modeController);
+		when(modeController.getMapController()).thenReturn(mapController);
+		when(mapController.getReadManager()).thenReturn(readManager);
+		when(mapController.getWriteManager()).thenReturn(new WriteManager());
+		FreeNode.install();
+		SummaryNode.install();
+		return new EventDispatchThreadHook();
+	}
+
+	private static String mapWithHooks(int number, int childCount) {
+		final StringBuilder xml = new StringBuilder("<map><node ID='ID_" + number + "'>");
+		for (int i = 0; i < childCount; i++) {
+			final String hookName = i % 3 == 0 ? "FreeNode" : i % 3 == 1 ? "SummaryNode" : "EventDispatchThreadHook";
+			xml.append("<node ID='ID_").append(number).append('_').append(i).append("'><hook NAME='")
+			    .append(hookName).append("'/></node>");
+		}
+		return xml.append("</node></map>").toString();
+	}
+
+	private static String detailedMap(int number, int childCount) {
+		final StringBuilder xml = new StringBuilder("<map><node ID='ID_" + number + "' TEXT='root " + number + "'>");
+		for (int i = 0; i < childCount; i++) {
+			final String id = "ID_" + number + '_' + i;
+			xml.append("<node ID='").append(id).append("' TEXT='").append(id).append("'>")
+			    .append("<richcontent TYPE='DETAILS' CONTENT-TYPE='plain/'><text>details ").append(id)
+			    .append("</text></richcontent>");
+			if (i > 0)
+				xml.append("<arrowlink DESTINATION='ID_").append(number).append('_').append(i - 1).append("'/>");
+			xml.append("</node>");
+		}
+		return xml.append("</node></map>").toString();
+	}
+
+	@Test
+	public void readMapsOnSeveralThreadsAtOnce() throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final List<Future<NodeModel>> roots = new ArrayList<>();
+			for (int i = 0; i < 40; i++) {
+				final int number = i;
+				roots.add(executor.submit(() -> read(number, 200)));
+			}
+			for (int i = 0; i < roots.size(); i++) {
+				final NodeModel root = roots.get(i).get();
+				assertThat(root.getID()).isEqualTo("ID_" + i);
+				assertThat(root.getMap().getRootNode()).isSameAs(root);
+				assertThat(root.getChildCount()).isEqualTo(200);
+				assertThat(root.getMap().getNodeForID("ID_" + i + "_199").getParentNode()).isSameAs(root);
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertThat(uut.isMapLoadingInProcess()).isFalse();
+	}
+
+	@Test
+	public void readMapsOnSeveralThreadsAtOnceUsingModeHandlers() throws Exception {
+		registerModeHandlers();
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final List<Future<NodeModel>> roots = new ArrayList<>();
+			for (int i = 0; i < 40; i++) {
+				final String xml = detailedMap(i, 100);
+				roots.add(executor.submit(() -> read(xml)));
+			}
+			for (int i = 0; i < roots.size(); i++) {
+				final NodeModel root = roots.get(i).get();
+				assertThat(root.getText()).isEqualTo("root " + i);
+				assertThat(root.getChildCount()).isEqualTo(100);
+				for (int j = 0; j < 100; j++) {
+					final NodeModel child = root.getChildAt(j);
+					final String id = "ID_" + i + '_' + j;
+					assertThat(child.getText()).isEqualTo(id);
+					assertThat(DetailModel.getDetailText(child)).isEqualTo("details " + id);
+					final NodeLinks links = NodeLinks.getLinkExtension(child);
+					if (j == 0)
+						assertThat(links).isNull();
+					else {
+						final NodeLinkModel link = links.getLinks().get(0);
+						assertThat(link.getTarget()).isSameAs(root.getChildAt(j - 1));
+					}
+				}
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void readMapsWithHooksOnSeveralThreadsAtOnce() throws Exception {
+		final EventDispatchThreadHook eventDispatchThreadHook = registerHooks();
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final List<Future<NodeModel>> roots = new ArrayList<>();
+			for (int i = 0; i < 40; i++) {
+				final String xml = mapWithHooks(i, 90);
+				roots.add(executor.submit(() -> read(xml)));
+			}
+			for (Future<NodeModel> root : roots) {
+				for (int j = 0; j < 90; j++) {
+					final NodeModel child = root.get().getChildAt(j);
+					assertThat(child.containsExtension(FreeNode.class)).isEqualTo(j % 3 == 0);
+					assertThat(child.containsExtension(SummaryNodeFlag.class)).isEqualTo(j % 3 == 1);
+					assertThat(child.containsExtension(EventDispatchThreadHook.class)).isEqualTo(j % 3 == 2);
+				}
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertThat(eventDispatchThreadHook.activatingThreads).doesNotContain(Thread.currentThread());
+	}
+
+	@Test
+	public void activateHooksNeedingEventDispatchThreadWhenMapReadInBackgroundIsOpened() throws Exception {
+		final EventDispatchThreadHook eventDispatchThreadHook = registerHooks();
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		final List<MapModel> maps = new ArrayList<>();
+		final List<Future<NodeModel>> roots = new ArrayList<>();
+		try {
+			for (int i = 0; i < 10; i++) {
+				final MapModel map = new MapModel(null, null, null);
+				map.addExtension(new DeferredHookActivations());
+				maps.add(map);
+				final String xml = mapWithHooks(i, 30);
+				roots.add(executor.submit(() -> read(map, xml)));
+			}
+			for (Future<NodeModel> root : roots)
+				root.get();
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertThat(eventDispatchThreadHook.activatingThreads).isEmpty();
+		for (int i = 0; i < maps.size(); i++) {
+			final NodeModel root = roots.get(i).get();
+			assertThat(root.getChildAt(0).containsExtension(FreeNode.class)).isTrue();
+			assertThat(root.getChildAt(2).containsExtension(EventDispatchThreadHook.class)).isFalse();
+			DeferredHookActivations.activate(maps.get(i));
+			for (int j = 2; j < 30; j += 3)
+				assertThat(root.getChildAt(j).containsExtension(EventDispatchThreadHook.class)).isTrue();
+			assertThat(maps.get(i).containsExtension(DeferredHookActivations.class)).isFalse();
+		}
+		assertThat(eventDispatchThreadHook.activatingThreads).containsExactly(Thread.currentThread());
+	}
+}
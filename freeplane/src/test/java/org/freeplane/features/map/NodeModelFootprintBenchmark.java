@@ -0,0 +1,78 @@
+package org.freeplane.features.map;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import org.freeplane.core.io.ReadManager;
+import org.freeplane.features.map.MapWriter.Mode;
+
+/**
+ * Loads a synthetic map and reports the retained heap per node.
+ * Run manually with a fixed heap size, e.g. -Xms2g -Xmx2g, it is not a unit test.
+ */
+public class NodeModelFootprintBenchmark {
+	private static final int DEFAULT_NODE_COUNT = 500000;
+	private static final int CHILDREN_PER_NODE = 8;
+
+	public static void main(String... argv) throws Exception {
+		final int nodeCount = argv.length > 0 ? Integer.parseInt(argv[0]) : DEFAULT_NODE_COUNT;
+		final File file = File.createTempFile("footprint", ".mm");
+		file.deleteOnExit();
+		writeMap(file, nodeCount);
+		final ReadManager readManager = new ReadManager();
+		final MapReader mapReader = new MapReader(readManager);
+		readManager.addElementHandler("map", mapReader);
+		final long usedBefore = usedMemory();
+		final MapModel map = new MapModel(null, null, null);
+		final long start = System.nanoTime();
+		final NodeModel root;
+		try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+			root = mapReader.createNodeTreeFromXml(map, reader, Mode.CLIPBOARD);
+		}
+		final long time = System.nanoTime() - start;
+		final long usedAfter = usedMemory();
+		final int loadedNodeCount = countNodes(root);
+		System.out.format("%d nodes loaded in %.0f ms, %.1f bytes per node%n", loadedNodeCount, time / 1e6,
+		    (double) (usedAfter - usedBefore) / loadedNodeCount);
+	}
+
+	private static void writeMap(File file, int nodeCount) throws IOException {
+		try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+			writer.write("<map version=\"freeplane 1.9.0\">\n");
+			writeNode(writer, 0, nodeCount);
+			writer.write("</map>\n");
+		}
+	}
+
+	/** writes node with given number and its subtree of nodes with numbers below given limit in breadth first order */
+	private static void writeNode(Writer writer, int number, int nodeCount) throws IOException {
+		writer.write("<node TEXT=\"node " + number + "\" ID=\"ID_" + number
+		        + "\" CREATED=\"1600000000000\" MODIFIED=\"1600000000000\">\n");
+		for (int child = number * CHILDREN_PER_NODE + 1; child <= number * CHILDREN_PER_NODE + CHILDREN_PER_NODE
+		        && child < nodeCount; child++)
+			writeNode(writer, child, nodeCount);
+		writer.write("</node>\n");
+	}
+
+	private static int countNodes(NodeModel node) {
+		int count = 1;
+		for (NodeModel child : node.getChildren())
+			count += countNodes(child);
+		return count;
+	}
+
+	private static long usedMemory() {
+		final Runtime runtime = Runtime.getRuntime();
+		long used = Long.MAX_VALUE;
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+		}
+		return used;
+	}
+}
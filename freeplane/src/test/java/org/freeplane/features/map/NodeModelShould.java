@@ -0,0 +1,57 @@
+package org.freeplane.features.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+
+import org.junit.Test;
+
+public class NodeModelShould {
+	private final MapModel map = new MapModel(null, null, null);
+
+	@Test
+	public void insertAndRemoveChildrenOfNodeCreatedWithoutChildren() throws Exception {
+		final NodeModel parent = new NodeModel("parent", map);
+		final NodeModel child = new NodeModel("child", map);
+		assertThat(parent.getChildren()).isEmpty();
+		parent.insert(child);
+		assertThat(parent.getChildren()).containsExactly(child);
+		assertThat(parent.getIndex(child)).isEqualTo(0);
+		parent.remove(0);
+		assertThat(parent.getChildren()).isEmpty();
+		assertThat(child.getParentNode()).isNull();
+	}
+
+	@Test
+	public void cloneTreeWithChildren() throws Exception {
+		final NodeModel parent = new NodeModel("parent", map);
+		final NodeModel child = new NodeModel("child", map);
+		parent.insert(child);
+		final NodeModel clone = parent.cloneTree();
+		assertThat(clone.getChildCount()).isEqualTo(1);
+		assertThat(clone.getChildAt(0).getParentNode()).isSameAs(clone);
+		assertThat(clone.getChildAt(0).getChildren()).isEmpty();
+	}
+
+	@Test
+	public void storeHistoryChangesMadeThroughHistoryInformation() throws Exception {
+		final NodeModel node = new NodeModel("node", map);
+		final HistoryInformationModel historyInformation = node.getHistoryInformation();
+		assertThat(historyInformation.isSet()).isTrue();
+		historyInformation.setCreatedAt(new Date(1000));
+		historyInformation.setLastModifiedAt(new Date(2000));
+		assertThat(node.getHistoryInformation().getCreatedAt()).isEqualTo(new Date(1000));
+		assertThat(node.getHistoryInformation().getLastModifiedAt()).isEqualTo(new Date(2000));
+		assertThat(node.getCreatedAt()).isEqualTo(1000);
+		assertThat(node.getLastModifiedAt()).isEqualTo(2000);
+	}
+
+	@Test
+	public void shareHistoryWithContentClones() throws Exception {
+		final NodeModel node = new NodeModel("node", map);
+		final NodeModel clone = node.cloneContent();
+		node.setHistoryInformation(new HistoryInformationModel(new Date(1000), new Date(2000)));
+		assertThat(clone.getHistoryInformation().getCreatedAt()).isEqualTo(new Date(1000));
+		assertThat(clone.getHistoryInformation().getLastModifiedAt()).isEqualTo(new Date(2000));
+	}
+}
@@ -0,0 +1,79 @@
+package org.freeplane.features.map.clipboard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.note.NoteModel;
+import org.freeplane.features.text.DetailModel;
+import org.freeplane.features.text.TextController;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CopiedFormulaResultsShould {
+	private final TextController textController = mock(TextController.class);
+	private final MapModel map = new MapModel(null, null, null);
+	private final MapModel scratchMap = new MapModel(null, null, null);
+	private String referencedValue;
+
+	@Before
+	public void setup() {
+		when(textController.isFormula(any())).then(
+		    invocation -> String.valueOf(invocation.<Object>getArgument(0)).startsWith("="));
+		when(textController.getTransformedTextForClipboard(any(), any(), any())).then(invocation -> {
+			final Object content = invocation.getArgument(2);
+			return content.equals("=ID_referenced") ? referencedValue : String.valueOf(content);
+		});
+	}
+
+	private NodeModel branch(MapModel map) {
+		final NodeModel root = new NodeModel("=ID_referenced", map);
+		final NodeModel child = new NodeModel("plain", map);
+		root.insert(child);
+		DetailModel.createDetailText(child).setText("=ID_referenced");
+		final NodeModel grandchild = new NodeModel("grandchild", map);
+		child.insert(grandchild);
+		final NoteModel note = new NoteModel();
+		note.setText("=ID_referenced");
+		grandchild.addExtension(note);
+		return root;
+	}
+
+	@Test
+	public void keepFormulaResultsOfCopyTimeForPasteAfterMapChange() throws Exception {
+		referencedValue = "copied value";
+		final NodeModel copiedNode = branch(map);
+		final CopiedFormulaResults uut = new CopiedFormulaResults(Collections.singletonList(copiedNode), textController);
+
+		referencedValue = "changed value";
+		final NodeModel readNode = branch(scratchMap);
+		uut.replaceFormulas(Collections.singletonList(copiedNode), Collections.singletonList(readNode));
+
+		assertThat(readNode.getUserObject()).isEqualTo("copied value");
+		final NodeModel readChild = readNode.getChildAt(0);
+		assertThat(readChild.getUserObject()).isEqualTo("plain");
+		assertThat(DetailModel.getDetailText(readChild)).isEqualTo("copied value");
+		assertThat(NoteModel.getNoteText(readChild.getChildAt(0))).isEqualTo("copied value");
+		assertThat(copiedNode.getUserObject()).isEqualTo("=ID_referenced");
+	}
+
+	@Test
+	public void leaveNodesWithoutCorrespondingCopiedNodeUnchanged() throws Exception {
+		referencedValue = "copied value";
+		final NodeModel copiedNode = branch(map);
+		final CopiedFormulaResults uut = new CopiedFormulaResults(Collections.singletonList(copiedNode), textController);
+
+		final NodeModel readNode = branch(scratchMap);
+		final NodeModel otherReadNode = branch(scratchMap);
+		uut.replaceFormulas(Collections.singletonList(copiedNode), Arrays.asList(readNode, otherReadNode));
+
+		assertThat(readNode.getUserObject()).isEqualTo("copied value");
+		assertThat(otherReadNode.getUserObject()).isEqualTo("=ID_referenced");
+	}
+}
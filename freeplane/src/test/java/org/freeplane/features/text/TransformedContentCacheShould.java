@@ -0,0 +1,65 @@
+package org.freeplane.features.text;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.text.IContentTransformer.Mode;
+import org.junit.Test;
+
+public class TransformedContentCacheShould {
+	private static final int VERSION = 1;
+	private final MapModel map = new MapModel(null, null, null);
+	private final TransformedContentCache uut = TransformedContentCache.of(map);
+	private final NodeModel node = new NodeModel("node", map);
+	private final String content = "content";
+
+	private void put(NodeModel node, Object nodeProperty, Object content, Object transformedContent) {
+		uut.put(node, nodeProperty, Mode.VIEW, content, VERSION, true, transformedContent, uut.getInvalidationCount());
+	}
+
+	@Test
+	public void reuseContentTransformedFromSameContentObject() throws Exception {
+		put(node, node, content, "transformed");
+
+		assertThat(uut.get(node, node, Mode.VIEW, content, VERSION, true)).isEqualTo("transformed");
+		assertThat(uut.get(node, node, Mode.VIEW, new String(content), VERSION, true)).isNull();
+		assertThat(uut.get(node, node, Mode.TEXT, content, VERSION, true)).isNull();
+		assertThat(uut.get(node, node, Mode.VIEW, content, VERSION + 1, true)).isNull();
+		assertThat(uut.get(node, node, Mode.VIEW, content, VERSION, false)).isNull();
+	}
+
+	@Test
+	public void keepContentsOfSeveralNodeProperties() throws Exception {
+		final Object details = new Object();
+		final String detailsContent = "details";
+		put(node, node, content, "transformed");
+		put(node, details, detailsContent, "transformed details");
+
+		assertThat(uut.get(node, node, Mode.VIEW, content, VERSION, true)).isEqualTo("transformed");
+		assertThat(uut.get(node, details, Mode.VIEW, detailsContent, VERSION, true)).isEqualTo("transformed details");
+	}
+
+	@Test
+	public void forgetContentsOfInvalidatedNodes() throws Exception {
+		final NodeModel otherNode = new NodeModel("other", map);
+		put(node, node, content, "transformed");
+		put(otherNode, otherNode, content, "other transformed");
+		uut.invalidate(node);
+
+		assertThat(uut.get(node, node, Mode.VIEW, content, VERSION, true)).isNull();
+		assertThat(uut.get(otherNode, otherNode, Mode.VIEW, content, VERSION, true)).isEqualTo("other transformed");
+
+		uut.invalidateAll();
+		assertThat(uut.get(otherNode, otherNode, Mode.VIEW, content, VERSION, true)).isNull();
+	}
+
+	@Test
+	public void discardContentsTransformedDuringInvalidation() throws Exception {
+		final int validContents = uut.getInvalidationCount();
+		uut.invalidate(node);
+		uut.put(node, node, Mode.VIEW, content, VERSION, true, "outdated", validContents);
+
+		assertThat(uut.get(node, node, Mode.VIEW, content, VERSION, true)).isNull();
+	}
+}
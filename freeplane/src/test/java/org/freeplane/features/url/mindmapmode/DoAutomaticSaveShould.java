@@ -0,0 +1,82 @@
+package org.freeplane.features.url.mindmapmode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.freeplane.features.map.MapModel;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DoAutomaticSaveShould {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final DoAutomaticSave uut = new DoAutomaticSave(new MapModel(null, null, null), 1, false);
+
+	private static DoAutomaticSave.Snapshot snapshot(String content) throws Exception {
+		final DoAutomaticSave.Snapshot snapshot = new DoAutomaticSave.Snapshot();
+		snapshot.write(content.getBytes(StandardCharsets.UTF_8));
+		return snapshot;
+	}
+
+	private static String content(File file) throws Exception {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void writeSnapshotIntoAutosaveFile() throws Exception {
+		final File autosaveFile = new File(folder.getRoot(), "map.mm.1.autosave");
+		assertThat(uut.write(snapshot("<map>ä</map>"), () -> autosaveFile)).isEqualTo(autosaveFile);
+		assertThat(content(autosaveFile)).isEqualTo("<map>ä</map>");
+		assertThat(folder.getRoot().list()).containsExactly("map.mm.1.autosave");
+	}
+
+	@Test
+	public void replaceExistingAutosaveFile() throws Exception {
+		final File autosaveFile = folder.newFile("map.mm.1.autosave");
+		Files.write(autosaveFile.toPath(), "<map>old content</map>".getBytes(StandardCharsets.UTF_8));
+		uut.write(snapshot("<map/>"), () -> autosaveFile);
+		assertThat(content(autosaveFile)).isEqualTo("<map/>");
+		assertThat(folder.getRoot().list()).containsExactly("map.mm.1.autosave");
+	}
+
+	@Test
+	public void skipUnchangedSnapshots() throws Exception {
+		final File autosaveFile = new File(folder.getRoot(), "map.mm.1.autosave");
+		uut.write(snapshot("<map/>"), () -> autosaveFile);
+		assertThat(uut.write(snapshot("<map/>"), () -> {
+			throw new AssertionError("no rotation expected");
+		})).isNull();
+		assertThat(uut.write(snapshot("<map>changed</map>"), () -> autosaveFile)).isEqualTo(autosaveFile);
+		assertThat(content(autosaveFile)).isEqualTo("<map>changed</map>");
+	}
+
+	@Test
+	public void writeNothingWithoutAutosaveFile() throws Exception {
+		assertThat(uut.write(snapshot("<map/>"), () -> null)).isNull();
+		assertThat(folder.getRoot().list()).isEmpty();
+	}
+
+	@Test
+	public void keepPreviousAutosaveFileIfWritingFails() throws Exception {
+		final File autosaveFile = folder.newFile("map.mm.1.autosave");
+		Files.write(autosaveFile.toPath(), "<map>old content</map>".getBytes(StandardCharsets.UTF_8));
+		final DoAutomaticSave.Snapshot failingSnapshot = new DoAutomaticSave.Snapshot() {
+			@Override
+			public synchronized void writeTo(OutputStream out) throws IOException {
+				out.write("<map>inc".getBytes(StandardCharsets.UTF_8));
+				throw new IOException("disk full");
+			}
+		};
+		assertThatThrownBy(() -> uut.write(failingSnapshot, () -> autosaveFile)).isInstanceOf(IOException.class);
+		assertThat(content(autosaveFile)).isEqualTo("<map>old content</map>");
+		assertThat(folder.getRoot().list()).containsExactly("map.mm.1.autosave");
+	}
+}
@@ -0,0 +1,100 @@
+package org.freeplane.view.swing.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
+
+import org.freeplane.features.link.ConnectorModel;
+import org.freeplane.view.swing.map.link.ILinkView;
+import org.junit.Test;
+
+public class ConnectorViewIndexShould {
+	private static class TestLinkView implements ILinkView {
+		private final Rectangle bounds;
+
+		TestLinkView(final Rectangle bounds) {
+			this.bounds = bounds;
+		}
+
+		@Override
+		public boolean detectCollision(final Point p, final boolean selectedOnly) {
+			return false;
+		}
+
+		@Override
+		public ConnectorModel getModel() {
+			return null;
+		}
+
+		@Override
+		public void paint(final Graphics graphics) {
+		}
+
+		@Override
+		public void increaseBounds(final Rectangle innerBounds) {
+			if (bounds != null)
+				innerBounds.add(bounds);
+		}
+	}
+
+	private final ConnectorViewIndex uut = new ConnectorViewIndex();
+
+	@Test
+	public void findViewsNearPoint() throws Exception {
+		final TestLinkView near = new TestLinkView(new Rectangle(100, 100, 50, 50));
+		final TestLinkView far = new TestLinkView(new Rectangle(2000, 2000, 50, 50));
+		uut.add(near);
+		uut.add(far);
+		assertThat(uut.getViewsAt(new Point(120, 120))).containsExactly(near);
+		assertThat(uut.getViewsAt(new Point(155, 95))).containsExactly(near);
+		assertThat(uut.getViewsAt(new Point(200, 120))).isEmpty();
+		assertThat(uut.getViewsAt(new Point(2010, 2010))).containsExactly(far);
+	}
+
+	@Test
+	public void findViewsAtNegativeCoordinates() throws Exception {
+		final TestLinkView view = new TestLinkView(new Rectangle(-300, -300, 50, 50));
+		uut.add(view);
+		assertThat(uut.getViewsAt(new Point(-280, -280))).containsExactly(view);
+		assertThat(uut.getViewsAt(new Point(280, 280))).isEmpty();
+	}
+
+	@Test
+	public void returnViewsWithoutBoundsAndHugeViewsForEveryPointInAddingOrder() throws Exception {
+		final TestLinkView huge = new TestLinkView(new Rectangle(0, 0, 100000, 100000));
+		final TestLinkView small = new TestLinkView(new Rectangle(500, 500, 10, 10));
+		final TestLinkView unbounded = new TestLinkView(null);
+		uut.add(huge);
+		uut.add(small);
+		uut.add(unbounded);
+		assertThat(uut.getViewsAt(new Point(505, 505))).containsExactly(huge, small, unbounded);
+		assertThat(uut.getViewsAt(new Point(-5000, 5000))).containsExactly(huge, unbounded);
+		assertThat(uut.getViews()).containsExactly(huge, small, unbounded);
+	}
+
+	@Test
+	public void findViewsCrossingAreaInAddingOrder() throws Exception {
+		final TestLinkView unbounded = new TestLinkView(null);
+		final TestLinkView crossing = new TestLinkView(new Rectangle(100, 100, 1000, 10));
+		final TestLinkView far = new TestLinkView(new Rectangle(2000, 2000, 50, 50));
+		final TestLinkView inside = new TestLinkView(new Rectangle(600, 50, 10, 100));
+		uut.add(unbounded);
+		uut.add(crossing);
+		uut.add(far);
+		uut.add(inside);
+		assertThat(uut.getViewsIn(new Rectangle(500, 0, 300, 300))).containsExactly(unbounded, crossing, inside);
+		assertThat(uut.getViewsIn(new Rectangle(-100000, -100000, 200000, 200000)))
+		    .containsExactly(unbounded, crossing, far, inside);
+		assertThat(uut.getViewsIn(new Rectangle(3000, 3000, 10, 10))).containsExactly(unbounded);
+	}
+
+	@Test
+	public void coverOnlyAreaItWasCreatedFor() throws Exception {
+		final ConnectorViewIndex limitedIndex = new ConnectorViewIndex(new Rectangle(0, 0, 1000, 1000));
+		assertThat(limitedIndex.covers(new Rectangle(100, 100, 800, 800))).isTrue();
+		assertThat(limitedIndex.covers(new Rectangle(900, 900, 200, 200))).isFalse();
+		assertThat(uut.covers(new Rectangle(-100000, -100000, 200000, 200000))).isTrue();
+	}
+}
@@ -0,0 +1,115 @@
+package org.freeplane.view.swing.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.mode.Controller;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class StripedMapImageShould {
+	private static final Rectangle PRINTED_AREA = new Rectangle(-20, 10, 37, 53);
+	private static final double SCALE_FACTOR = 1.5;
+	private final MapView view = mock(MapView.class);
+	private int width;
+	private int height;
+
+	@BeforeClass
+	public static void setupController() {
+		final Controller controller = mock(Controller.class);
+		final ResourceController resourceController = mock(ResourceController.class);
+		when(controller.getResourceController()).thenReturn(resourceController);
+		when(resourceController.getProperty(anyString())).thenReturn("false");
+		Controller.setCurrentController(controller);
+	}
+
+	@Before
+	public void setup() {
+		width = StripedMapImage.imageSize(PRINTED_AREA.width, SCALE_FACTOR);
+		height = StripedMapImage.imageSize(PRINTED_AREA.height, SCALE_FACTOR);
+		when(view.getBackground()).thenReturn(Color.WHITE);
+		doAnswer(invocation -> {
+			final Graphics2D g = invocation.getArgument(0);
+			for (int y = PRINTED_AREA.y; y < PRINTED_AREA.y + PRINTED_AREA.height; y += 3) {
+				g.setColor(new Color(y * 4 % 256, (y * 7 + 50) % 256, (y * 13 + 100) % 256));
+				g.fillRect(PRINTED_AREA.x + y % 11, y, 7, 2);
+			}
+			g.setColor(Color.BLACK);
+			g.drawLine(PRINTED_AREA.x, PRINTED_AREA.y, PRINTED_AREA.x + PRINTED_AREA.width,
+			    PRINTED_AREA.y + PRINTED_AREA.height);
+			return null;
+		}).when(view).print(any(Graphics.class));
+	}
+
+	private StripedMapImage stripedImage(int stripHeight) {
+		return new StripedMapImage(view, PRINTED_AREA, SCALE_FACTOR, width * stripHeight);
+	}
+
+	private BufferedImage fullImage() {
+		final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		StripedMapImage.print(view, PRINTED_AREA, SCALE_FACTOR, image, 0);
+		return image;
+	}
+
+	private static int[] pixels(Raster raster, Rectangle area) {
+		return raster.getPixels(area.x, area.y, area.width, area.height, (int[]) null);
+	}
+
+	@Test
+	public void useStripsNotDividingImageHeight() {
+		final StripedMapImage uut = stripedImage(7);
+
+		assertThat(height % uut.getTileHeight()).isNotZero();
+		assertThat(uut.getNumYTiles()).isEqualTo((height + 6) / 7);
+		assertThat(uut.getTile(0, uut.getNumYTiles() - 1).getBounds())
+		    .isEqualTo(new Rectangle(0, (uut.getNumYTiles() - 1) * 7, width, height % 7));
+	}
+
+	@Test
+	public void returnSamePixelsAsSingleFullPrint() {
+		final BufferedImage expected = fullImage();
+		final Rectangle imageArea = new Rectangle(0, 0, width, height);
+		final StripedMapImage uut = stripedImage(7);
+
+		assertThat(pixels(uut.getData(), imageArea)).containsExactly(pixels(expected.getRaster(), imageArea));
+	}
+
+	@Test
+	public void returnSamePixelsAsSingleFullPrintForAreasCrossingStrips() {
+		final BufferedImage expected = fullImage();
+		final Rectangle area = new Rectangle(3, 5, width - 5, 17);
+		final StripedMapImage uut = stripedImage(7);
+
+		assertThat(pixels(uut.getData(area), area)).containsExactly(pixels(expected.getRaster(), area));
+		final WritableRaster copy = uut.copyData(null);
+		final Rectangle imageArea = new Rectangle(0, 0, width, height);
+		assertThat(pixels(copy, imageArea)).containsExactly(pixels(expected.getRaster(), imageArea));
+	}
+
+	@Test
+	public void endPrintingOnceWhenClosed() {
+		final StripedMapImage uut = stripedImage(7);
+		uut.getData();
+
+		uut.close();
+		uut.close();
+
+		verify(view, times(1)).endPrinting();
+	}
+}
@@ -2,6 +2,7 @@ package org.freeplane.api;
 
 import java.awt.Color;
 import java.io.File;
+import java.util.List;
 
 /** The map a node belongs to: <code>node.map</code> - read-only. 
  * 
@@ -35,4 +36,22 @@ public interface MindMapRO {
     /** returns HTML color spec like #ff0000 (red) or #222222 (darkgray).
      *  @since 1.2 */
     String getBackgroundColorCode();
+
+	/** returns all nodes having an attribute with the given name, in no particular order.
+	 * Uses an attribute index maintained by the map, so it is much faster than
+	 * <code>root.find{ it.attributes.containsKey(name) }</code> for big maps.
+	 * @since 1.9.12 */
+	List<? extends Node> findByAttribute(String name);
+
+	/** returns all nodes having an attribute with the given name and value, in no particular order.
+	 * Values are compared after formula evaluation. Numbers are equal if they have the same value,
+	 * other values are equal if they are equal or have equal texts, so that
+	 * <code>map.findByAttribute('year', 2020)</code> also finds nodes with text value <code>'2020'</code>.
+	 * @since 1.9.12 */
+	List<? extends Node> findByAttribute(String name, Object value);
+
+	/** returns all nodes having an attribute with the given name and a numeric value
+	 * between minimum and maximum inclusive, in no particular order.
+	 * @since 1.9.12 */
+	List<? extends Node> findByAttributeRange(String name, Number minimum, Number maximum);
 }
\ No newline at end of file
@@ -71,6 +71,12 @@ class FormulaTextTransformer extends AbstractContentTransformer implements IEdit
     	return true;
     }
 
+    /** formula results are only stable while they are cached. */
+    @Override
+    public boolean isCacheable(NodeModel node, Object nodeProperty, Object content) {
+        return FormulaUtils.isCacheEnabled() || !isFormula(content);
+    }
+
     @Override
     public EditNodeBase createEditor(final NodeModel node, Object nodeProperty,
             Object content, final EditNodeBase.IEditControl editControl, final boolean editLong) {
@@ -53,6 +53,11 @@ class LatexNodeHook extends PersistentNodeHook implements INodeViewLifeCycleList
 		modeController.addINodeViewLifeCycleListener(this);
 	}
 
+	@Override
+	protected boolean activatesOnEventDispatchThread() {
+		return true;
+	}
+
 	@Override
 	public void add(final NodeModel node, final IExtension extension) {
 		final LatexExtension latexExtension = (LatexExtension) extension;
@@ -63,7 +63,11 @@ class CompiledScriptCleaner {
     }
 
     private void removeOutdated(File cache, long lastDependencyModificationTime) {
-        File propertyFile = new File(cache, "compiled.properties");
+        if (cache.getName().startsWith(GroovyShell.TEMPORARY_CACHE_PREFIX)) {
+            FileUtils.deleteQuietly(cache);
+            return;
+        }
+        File propertyFile = new File(cache, GroovyShell.COMPILED_PROPERTIES);
         if (propertyFile.exists()) {
             Properties properties = new Properties();
             try (InputStream in = new FileInputStream(propertyFile)) {
@@ -75,10 +79,9 @@ class CompiledScriptCleaner {
             try {
 				long compileTime = Long.parseLong(properties.getProperty("time"));
 				String source = properties.getProperty("source");
-				File sourceFile = new File(source);
-				if(! sourceFile.canRead()
-				        || lastDependencyModificationTime >= compileTime
-				        || sourceFile.lastModified() >= compileTime) {
+				File sourceFile = source != null ? new File(source) : null;
+				if(lastDependencyModificationTime >= compileTime
+				        || sourceFile != null && (! sourceFile.canRead() || sourceFile.lastModified() >= compileTime)) {
 				    FileUtils.deleteDirectory(cache);
 				}
 			}
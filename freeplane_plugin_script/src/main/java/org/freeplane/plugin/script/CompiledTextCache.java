@@ -0,0 +1,148 @@
+/*
+ *  Freeplane - mind map editor
+ *  Copyright (C) 2022 Freeplane team and others
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.plugin.script;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.runtime.EncodingGroovyMethods;
+import org.freeplane.core.util.LogUtils;
+
+/**
+ * Caches classes compiled from script texts like formulas in a directory named by the hash of the text
+ * and a version made of the groovy and freeplane versions and the script classpath,
+ * so that changing any of them compiles the text again.
+ * Cached classes are written to a temporary directory and moved in place only after they are complete.
+ * Only the most recently used texts are kept.
+ */
+class CompiledTextCache {
+    static final int MAXIMUM_TEXT_COUNT = 1000;
+    static final String TEXT_CACHE_PREFIX = "text-";
+
+    interface Compiler {
+        /** @param classes directory the compiled classes are written to or null if they are not written */
+        Class<?> compile(File classes) throws CompilationFailedException;
+    }
+
+    interface Loader {
+        Class<?> load(File classes, String className) throws ClassNotFoundException;
+    }
+
+    static String version(String groovyVersion, String freeplaneVersion, List<String> classpath) {
+        return groovyVersion + '\n' + freeplaneVersion + '\n' + classpath;
+    }
+
+    private final File directory;
+    private final String version;
+    private final int maximumTextCount;
+
+    CompiledTextCache(File directory, String version, int maximumTextCount) {
+        this.directory = directory;
+        this.version = version;
+        this.maximumTextCount = maximumTextCount;
+    }
+
+    File cacheDirectory(String scriptText) {
+        try {
+            return new File(directory, TEXT_CACHE_PREFIX + EncodingGroovyMethods.sha256(version + '\n' + scriptText));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    Class<?> load(String scriptText, Loader loader, Compiler compiler) {
+        final File cache = cacheDirectory(scriptText);
+        final File propertyFile = new File(cache, GroovyShell.COMPILED_PROPERTIES);
+        final File classes = new File(cache, "classes");
+        boolean isCorrupt = false;
+        if (propertyFile.exists() && classes.exists()) {
+            try (InputStream in = new FileInputStream(propertyFile)) {
+                Properties properties = new Properties();
+                properties.load(in);
+                final Class<?> loadedClass = loader.load(classes, properties.getProperty("class"));
+                propertyFile.setLastModified(System.currentTimeMillis());
+                return loadedClass;
+            } catch (IOException | ClassNotFoundException e) {
+                isCorrupt = true;
+            }
+        }
+        final File temporaryCache;
+        try {
+            directory.mkdirs();
+            temporaryCache = Files.createTempDirectory(directory.toPath(), GroovyShell.TEMPORARY_CACHE_PREFIX).toFile();
+        } catch (IOException e) {
+            LogUtils.warn(e);
+            return compiler.compile(null);
+        }
+        Class<?> compiledClass = null;
+        try {
+            File temporaryClasses = new File(temporaryCache, "classes");
+            temporaryClasses.mkdirs();
+            long time = System.currentTimeMillis();
+            compiledClass = compiler.compile(temporaryClasses);
+            try (FileOutputStream out = new FileOutputStream(new File(temporaryCache, GroovyShell.COMPILED_PROPERTIES))){
+                Properties properties = new Properties();
+                properties.setProperty("class", compiledClass.getName());
+                properties.setProperty("time", Long.toString(time));
+                properties.store(out, "");
+            }
+            if (isCorrupt)
+                FileUtils.deleteDirectory(cache);
+            if (! cache.exists()) {
+                Files.move(temporaryCache.toPath(), cache.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                prune();
+            }
+            return compiledClass;
+        } catch (IOException e) {
+            // the same text could have been cached concurrently
+            if (! cache.exists())
+                LogUtils.warn(e);
+            return compiledClass;
+        } finally {
+            if (temporaryCache.exists())
+                FileUtils.deleteQuietly(temporaryCache);
+        }
+    }
+
+    /** removes the least recently used texts exceeding the maximum text count */
+    void prune() {
+        final File[] caches = directory.listFiles(file -> file.getName().startsWith(TEXT_CACHE_PREFIX));
+        if (caches == null || caches.length <= maximumTextCount)
+            return;
+        final long[] lastUsed = new long[caches.length];
+        for (int i = 0; i < caches.length; i++)
+            lastUsed[i] = new File(caches[i], GroovyShell.COMPILED_PROPERTIES).lastModified();
+        final Integer[] order = new Integer[caches.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparingLong(i -> lastUsed[i]));
+        for (int i = 0; i < caches.length - maximumTextCount; i++)
+            FileUtils.deleteQuietly(caches[order[i]]);
+    }
+}
@@ -1,38 +1,112 @@
 package org.freeplane.plugin.script;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.LongSupplier;
 
 import org.freeplane.core.extension.IExtension;
+import org.freeplane.core.resources.ResourceController;
 import org.freeplane.features.map.MapModel;
 import org.freeplane.features.map.NodeModel;
 import org.freeplane.features.mode.Controller;
+import org.freeplane.features.text.TransformedContentCache;
 import org.freeplane.plugin.script.dependencies.RelatedElements;
 
+/**
+ * Formula results of a map keyed by node identity and formula script.
+ *
+ * Results are evicted least recently used first when their estimated size exceeds the memory budget
+ * set by property formula_cache_size in megabytes, and are evaluated again when they are requested next time.
+ * Elements related to the formulas are kept until their nodes change, so that dependencies can still be shown.
+ */
 public class FormulaCache implements IExtension{
-	private final HashMap<String, LinkedHashMap<String, CachedResult>> cache = new HashMap<String, LinkedHashMap<String, CachedResult>>();
-	// don't let caching use too much memory - but currently there are little means to cope with unavailable
-	// dependency data. It has to be tested but it should "only" lead to some missing updates.
 	static final boolean ENABLE_CACHING = !Controller.getCurrentController().getResourceController()
 	    .getBooleanProperty("formula_disable_caching");
+	private static final String CACHE_SIZE_PROPERTY = "formula_cache_size";
+	private static final int DEFAULT_CACHE_SIZE_IN_MEGABYTES = 64;
+	private static final int ENTRY_SIZE = 96;
+	private static final int STRING_SIZE = 40;
+	private static final int OBJECT_SIZE = 16;
+	private static final int REFERENCE_SIZE = 8;
+
+	private static class Key {
+		final NodeModel node;
+		final String script;
+		final int hashCode;
+
+		Key(NodeModel node, String script) {
+			this.node = node;
+			this.script = script;
+			this.hashCode = 31 * System.identityHashCode(node) + script.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			final Key other = (Key) obj;
+			return node == other.node && hashCode == other.hashCode && script.equals(other.script);
+		}
+	}
+
+	private static class CachedValue {
+		final Object value;
+		final long size;
+
+		CachedValue(Object value, long size) {
+			this.value = value;
+			this.size = size;
+		}
+	}
+
+	private final LinkedHashMap<Key, CachedValue> values = new LinkedHashMap<>(16, 0.75f, true);
+	private final IdentityHashMap<NodeModel, Map<String, RelatedElements>> relatedElements = new IdentityHashMap<>();
+	private final WeakHashMap<String, WeakReference<String>> scripts = new WeakHashMap<>();
+	private final LongSupplier cacheSizeInBytes;
+	private long usedBytes;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+	FormulaCache() {
+		this(() -> (long) ResourceController.getResourceController().getIntProperty(CACHE_SIZE_PROPERTY,
+		    DEFAULT_CACHE_SIZE_IN_MEGABYTES) << 20);
+	}
+
+	FormulaCache(LongSupplier cacheSizeInBytes) {
+		this.cacheSizeInBytes = cacheSizeInBytes;
+	}
 
 	static void removeFromCache(final ArrayList<NodeModel> dependencies) {
 			if (ENABLE_CACHING) {
 				for (final NodeModel nodeModel : dependencies) {
 					FormulaCache.of(nodeModel.getMap()).remove(nodeModel);
+					TransformedContentCache.of(nodeModel.getMap()).invalidate(nodeModel);
 				}
 			}
 		}
 
 	Object getOrThrowCachedResult(final NodeScript nodeScript) {
-		final LinkedHashMap<String, CachedResult> cacheEntry = cache.get(nodeScript.node.getID());
-		if (cacheEntry == null)
-			return null;
-		final CachedResult cachedResult = cacheEntry.get(nodeScript.script);
-		if (cachedResult == null)
+		final CachedValue cachedValue = values.get(new Key(nodeScript.node, nodeScript.script));
+		if (cachedValue == null) {
+			missCount++;
 			return null;
-		return getOrThrowCachedResult(cachedResult.returnedValue);
+		}
+		hitCount++;
+		return getOrThrowCachedResult(cachedValue.value);
 	}
 
 	private Object getOrThrowCachedResult(final Object object) {
@@ -42,24 +116,74 @@ public class FormulaCache implements IExtension{
 		return object;
 	}
 
+	/** @return the cached value or exception without throwing it, or null if nothing is cached. */
+	Object getCachedResult(final NodeModel node, final String script) {
+		final CachedValue cachedValue = values.get(new Key(node, script));
+		return cachedValue != null ? cachedValue.value : null;
+	}
+
 	void put(final NodeScript nodeScript, final CachedResult result) {
-		getOrAdd(nodeScript.node).put(nodeScript.script, result);
+		final String script = intern(nodeScript.script);
+		relatedElements.computeIfAbsent(nodeScript.node, node -> new LinkedHashMap<>(8))
+		    .put(script, result.relatedElements);
+		final CachedValue cachedValue = new CachedValue(result.returnedValue, estimateSize(result.returnedValue));
+		removeValue(values.put(new Key(nodeScript.node, script), cachedValue));
+		usedBytes += cachedValue.size;
+		evictLeastRecentlyUsed();
+	}
+
+	private String intern(String script) {
+		final WeakReference<String> reference = scripts.get(script);
+		final String internedScript = reference != null ? reference.get() : null;
+		if (internedScript != null)
+			return internedScript;
+		scripts.put(script, new WeakReference<>(script));
+		return script;
+	}
+
+	private static long estimateSize(Object value) {
+		return ENTRY_SIZE + estimateValueSize(value, true);
 	}
 
-	private LinkedHashMap<String, CachedResult> getOrAdd(final NodeModel node) {
-		LinkedHashMap<String, CachedResult> cacheEntry = cache.get(node.getID());
-		if (cacheEntry == null) {
-			cacheEntry = new LinkedHashMap<String, CachedResult>(8);
-			cache.put(node.getID(), cacheEntry);
+	/** elements of collections and maps are estimated without their own elements,
+	 * other results are small enough to be covered by the entry size. */
+	private static long estimateValueSize(Object value, boolean includesElements) {
+		if (value instanceof CharSequence)
+			return STRING_SIZE + 2 * ((CharSequence) value).length();
+		if (includesElements && value instanceof Collection) {
+			long size = OBJECT_SIZE;
+			for (Object element : (Collection<?>) value)
+				size += REFERENCE_SIZE + estimateValueSize(element, false);
+			return size;
 		}
-		return cacheEntry;
+		if (includesElements && value instanceof Map) {
+			long size = OBJECT_SIZE;
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+				size += OBJECT_SIZE + estimateValueSize(entry.getKey(), false) + estimateValueSize(entry.getValue(), false);
+			return size;
+		}
+		return includesElements ? 0 : OBJECT_SIZE;
+	}
+
+	private void evictLeastRecentlyUsed() {
+		final long cacheSize = cacheSizeInBytes.getAsLong();
+		for (Iterator<CachedValue> iterator = values.values().iterator(); usedBytes > cacheSize && iterator.hasNext();) {
+			removeValue(iterator.next());
+			iterator.remove();
+			evictionCount++;
+		}
+	}
+
+	private void removeValue(CachedValue cachedValue) {
+		if (cachedValue != null)
+			usedBytes -= cachedValue.size;
 	}
 
 	void remove(final NodeModel node) {
-		final LinkedHashMap<String, CachedResult> entry = cache.get(node.getID());
+		final Map<String, RelatedElements> entry = relatedElements.remove(node);
 		if (entry != null) {
-//			System.out.println("clearing cache for " + node);
-			entry.clear();
+			for (String script : entry.keySet())
+				removeValue(values.remove(new Key(node, script)));
 		}
 	}
 
@@ -77,14 +201,32 @@ public class FormulaCache implements IExtension{
 
 	RelatedElements getAccessedValues(final NodeModel node, final String script) {
 		if(ENABLE_CACHING) {
-			final LinkedHashMap<String, CachedResult> cacheEntry = cache.get(node.getID());
-			if (cacheEntry == null) return null;
-			final CachedResult cachedResult = cacheEntry.get(script);
-			if(cachedResult != null)
-				return cachedResult.relatedElements;
+			final Map<String, RelatedElements> entry = relatedElements.get(node);
+			if (entry != null)
+				return entry.get(script);
 		}
 		return null;
 	}
 
+	long getHitCount() {
+		return hitCount;
+	}
 
+	long getMissCount() {
+		return missCount;
+	}
+
+	long getEvictionCount() {
+		return evictionCount;
+	}
+
+	long getUsedBytes() {
+		return usedBytes;
+	}
+
+	@Override
+	public String toString() {
+		return "FormulaCache [values=" + values.size() + ", usedBytes=" + usedBytes + ", hits=" + hitCount
+				+ ", misses=" + missCount + ", evictions=" + evictionCount + "]";
+	}
 }
@@ -8,6 +8,7 @@ import java.util.function.Consumer;
 
 import org.freeplane.features.map.MapModel;
 import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.text.TransformedContentCache;
 import org.freeplane.plugin.script.dependencies.EvaluationDependencies;
 
 public class FormulaDependencies{
@@ -20,6 +21,7 @@ public class FormulaDependencies{
 	public static void clearCache(final MapModel map) {
 		FormulaCache.removeFrom(map);
 		map.removeExtension(EvaluationDependencies.class);
+		TransformedContentCache.of(map).invalidateAll();
 	}
 
 
@@ -0,0 +1,212 @@
+/*
+ *  Freeplane - mind map editor
+ *  Copyright (C) 2022 Freeplane team and others
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.plugin.script;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.freeplane.features.attribute.Attribute;
+import org.freeplane.features.attribute.NodeAttributeTableModel;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.plugin.script.dependencies.EvaluationDependencies;
+
+/**
+ * Evaluates all formulas of a map which are not cached on the calling thread.
+ *
+ * Nodes are evaluated in the order of the dependencies recorded by previous evaluations:
+ * each node is evaluated after the formula nodes it accessed, so that chains of formulas
+ * are not evaluated recursively one inside the other.
+ * Formulas still evaluate uncached formulas they access, so missing or outdated dependencies do no harm.
+ * Nodes taking part in or depending on dependency cycles are evaluated last.
+ * Nodes whose formula results changed are refreshed at the end.
+ *
+ * Scripts of formulas without cached results are compiled in parallel before the evaluation starts.
+ * The formulas themselves are not evaluated in parallel because scripts access model and view state
+ * which is not thread safe.
+ */
+class FormulaEvaluation {
+	private static class FormulaNode {
+		final NodeModel node;
+		final List<String> formulas;
+		final List<Object> oldResults;
+		final List<FormulaNode> dependents;
+		int pendingPrecedentCount;
+
+		FormulaNode(NodeModel node, List<String> formulas, List<Object> oldResults) {
+			this.node = node;
+			this.formulas = formulas;
+			this.oldResults = oldResults;
+			this.dependents = new ArrayList<>(0);
+			this.pendingPrecedentCount = 0;
+		}
+	}
+
+	private final MapModel map;
+	private final Consumer<Collection<String>> compiler;
+	private final BiConsumer<NodeModel, String> evaluator;
+	private final Consumer<NodeModel> refresher;
+	private final List<FormulaNode> formulaNodes;
+
+	/** collects formulas, their cached results and dependencies, so it must be created before the cache is cleared. */
+	FormulaEvaluation(MapModel map) {
+		this(map, FormulaUtils::compileFormulas, FormulaUtils::cacheIfFormula, node -> Controller.getCurrentModeController().getMapController()
+		    .delayedNodeRefresh(node, FormulaCache.class, null, null));
+	}
+
+	FormulaEvaluation(MapModel map, Consumer<Collection<String>> compiler, BiConsumer<NodeModel, String> evaluator,
+	                  Consumer<NodeModel> refresher) {
+		this.map = map;
+		this.compiler = compiler;
+		this.evaluator = evaluator;
+		this.refresher = refresher;
+		this.formulaNodes = new ArrayList<>();
+		addFormulaNodesRecursively(map.getRootNode());
+		if (FormulaCache.ENABLE_CACHING)
+			addDependencies();
+	}
+
+	private void addFormulaNodesRecursively(NodeModel node) {
+		final List<String> formulas = new ArrayList<>(0);
+		addIfFormula(formulas, node.getUserObject());
+		final NodeAttributeTableModel attributeTableModel = node.getExtension(NodeAttributeTableModel.class);
+		if (attributeTableModel != null) {
+			for (Attribute attribute : attributeTableModel.getAttributes())
+				addIfFormula(formulas, attribute.getValue());
+		}
+		if (!formulas.isEmpty())
+			formulaNodes.add(new FormulaNode(node, formulas, cachedResults(node, formulas)));
+		for (NodeModel child : node.getChildren())
+			addFormulaNodesRecursively(child);
+	}
+
+	private void addIfFormula(List<String> formulas, Object value) {
+		if (value instanceof String && FormulaUtils.textContainsFormula((String) value))
+			formulas.add((String) value);
+	}
+
+	private List<Object> cachedResults(NodeModel node, List<String> formulas) {
+		if (!FormulaCache.ENABLE_CACHING)
+			return null;
+		final FormulaCache formulaCache = FormulaCache.of(map);
+		final List<Object> results = new ArrayList<>(formulas.size());
+		for (String formula : formulas)
+			results.add(formulaCache.getCachedResult(node, FormulaUtils.scriptOf(formula)));
+		return results;
+	}
+
+	private void addDependencies() {
+		final Map<NodeModel, FormulaNode> nodes = new IdentityHashMap<>(formulaNodes.size());
+		for (FormulaNode formulaNode : formulaNodes)
+			nodes.put(formulaNode.node, formulaNode);
+		final EvaluationDependencies dependencies = EvaluationDependencies.of(map);
+		final Set<NodeModel> accessingNodes = new LinkedHashSet<>();
+		for (FormulaNode formulaNode : formulaNodes) {
+			accessingNodes.clear();
+			dependencies.getDirectDependencies(accessingNodes, formulaNode.node);
+			for (NodeModel accessingNode : accessingNodes) {
+				final FormulaNode dependent = nodes.get(accessingNode);
+				if (dependent != null && dependent != formulaNode) {
+					formulaNode.dependents.add(dependent);
+					dependent.pendingPrecedentCount++;
+				}
+			}
+		}
+	}
+
+	void run() {
+		compiler.accept(uncachedScripts());
+		for (FormulaNode formulaNode : inDependencyOrder())
+			evaluate(formulaNode);
+		refreshChangedNodes();
+	}
+
+	private Collection<String> uncachedScripts() {
+		final FormulaCache formulaCache = FormulaCache.ENABLE_CACHING ? FormulaCache.of(map) : null;
+		final Set<String> scripts = new LinkedHashSet<>();
+		for (FormulaNode formulaNode : formulaNodes) {
+			for (String formula : formulaNode.formulas) {
+				final String script = FormulaUtils.scriptOf(formula);
+				if (formulaCache == null || formulaCache.getCachedResult(formulaNode.node, script) == null)
+					scripts.add(script);
+			}
+		}
+		return scripts;
+	}
+
+	private List<FormulaNode> inDependencyOrder() {
+		final List<FormulaNode> orderedNodes = new ArrayList<>(formulaNodes.size());
+		final Deque<FormulaNode> evaluableNodes = new ArrayDeque<>();
+		for (FormulaNode formulaNode : formulaNodes) {
+			if (formulaNode.pendingPrecedentCount == 0)
+				evaluableNodes.add(formulaNode);
+		}
+		while (!evaluableNodes.isEmpty()) {
+			final FormulaNode formulaNode = evaluableNodes.poll();
+			orderedNodes.add(formulaNode);
+			for (FormulaNode dependent : formulaNode.dependents) {
+				if (--dependent.pendingPrecedentCount == 0)
+					evaluableNodes.add(dependent);
+			}
+		}
+		for (FormulaNode formulaNode : formulaNodes) {
+			if (formulaNode.pendingPrecedentCount > 0)
+				orderedNodes.add(formulaNode);
+		}
+		return orderedNodes;
+	}
+
+	private void evaluate(FormulaNode formulaNode) {
+		for (String formula : formulaNode.formulas)
+			evaluator.accept(formulaNode.node, formula);
+	}
+
+	private void refreshChangedNodes() {
+		if (!FormulaCache.ENABLE_CACHING)
+			return;
+		final FormulaCache formulaCache = FormulaCache.of(map);
+		for (FormulaNode formulaNode : formulaNodes) {
+			for (int i = 0; i < formulaNode.formulas.size(); i++) {
+				final Object newResult = formulaCache.getCachedResult(formulaNode.node,
+				    FormulaUtils.scriptOf(formulaNode.formulas.get(i)));
+				if (!isSameResult(formulaNode.oldResults.get(i), newResult)) {
+					refresher.accept(formulaNode.node);
+					break;
+				}
+			}
+		}
+	}
+
+	private static boolean isSameResult(Object oldResult, Object newResult) {
+		if (oldResult instanceof ExecuteScriptException && newResult instanceof ExecuteScriptException)
+			return Objects.equals(((ExecuteScriptException) oldResult).getMessage(),
+			    ((ExecuteScriptException) newResult).getMessage());
+		return Objects.equals(oldResult, newResult);
+	}
+}
@@ -1,6 +1,7 @@
 package org.freeplane.plugin.script;
 
 import java.net.URL;
+import java.util.Collection;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -9,7 +10,6 @@ import org.freeplane.core.extension.Configurable;
 import org.freeplane.core.util.HtmlUtils;
 import org.freeplane.core.util.LogUtils;
 import org.freeplane.core.util.TextUtils;
-import org.freeplane.features.attribute.NodeAttributeTableModel;
 import org.freeplane.features.link.LinkController;
 import org.freeplane.features.map.MapModel;
 import org.freeplane.features.map.NodeModel;
@@ -169,25 +169,27 @@ public class FormulaUtils {
 		return object.substring(1);
 	}
 
+	/** @return false if caching is disabled by preference formula_disable_caching. */
+	public static boolean isCacheEnabled() {
+		return FormulaCache.ENABLE_CACHING;
+	}
+
 	public static void clearCache(final MapModel map) {
 		FormulaDependencies.clearCache(map);
 	}
 
 	public static void evaluateAllFormulas(MapModel map) {
+		final FormulaEvaluation evaluation = new FormulaEvaluation(map);
 		clearCache(map);
-		evaluateOutdatedFormulas(map);
+		evaluation.run();
 	}
 
 	public static void evaluateOutdatedFormulas(MapModel map) {
-		cacheAllRecursively(map.getRootNode());
+		new FormulaEvaluation(map).run();
 	}
 
-	static private void cacheAllRecursively(NodeModel node) {
-		cacheIfFormula(node, node.getUserObject());
-		NodeAttributeTableModel attributeTableModel = node.getExtension(NodeAttributeTableModel.class);
-		if(attributeTableModel != null)
-			attributeTableModel.getAttributes().stream().forEach(a -> cacheIfFormula(node, a.getValue()));
-		node.getChildren().stream().forEach(FormulaUtils::cacheAllRecursively);
+	static void compileFormulas(Collection<String> scripts) {
+		ScriptingEngine.compileGroovyScripts(scripts, ScriptingPermissions.getFormulaPermissions());
 	}
 
 	public static void cacheIfFormula(NodeModel node, Object maybeFormula) {
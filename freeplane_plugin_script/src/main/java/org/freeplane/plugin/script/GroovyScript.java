@@ -91,6 +91,14 @@ public class GroovyScript implements IScript {
         return compiledScript;
     }
 
+    /** compiles the script before its first execution, compilation errors are reported when it is executed. */
+    void compile() {
+        try {
+            trustedCompileAndCache(System.out);
+        } catch (final Throwable e) {
+        }
+    }
+
     @Override
     public Object execute(final NodeModel node, PrintStream outStream, IFreeplaneScriptErrorHandler errorHandler, ScriptContext scriptContext) {
         try {
@@ -38,6 +38,7 @@ import org.codehaus.groovy.control.SourceUnit;
 import org.codehaus.groovy.runtime.DefaultGroovyMethods;
 import org.codehaus.groovy.runtime.EncodingGroovyMethods;
 import org.codehaus.groovy.runtime.InvokerHelper;
+import org.freeplane.core.util.FreeplaneVersion;
 import org.freeplane.core.util.LogUtils;
 
 import groovy.lang.Binding;
@@ -45,6 +46,7 @@ import groovy.lang.GroovyClassLoader;
 import groovy.lang.GroovyCodeSource;
 import groovy.lang.GroovyObjectSupport;
 import groovy.lang.GroovyRuntimeException;
+import groovy.lang.GroovySystem;
 import groovy.lang.Script;
 
 /**
@@ -61,6 +63,8 @@ class GroovyShell extends GroovyObjectSupport {
     }
 
     private static final String DEFAULT_CODE_BASE = "/groovy/shell";
+    static final String COMPILED_PROPERTIES = "compiled.properties";
+    static final String TEMPORARY_CACHE_PREFIX = "tmp-";
     private final Binding binding;
     private int counter;
     private final CompilerConfiguration config;
@@ -112,7 +116,10 @@ class GroovyShell extends GroovyObjectSupport {
      */
     private Class loadClass(final GroovyCodeSource codeSource) throws CompilationFailedException {
         if(ClasspathScriptCompiler.compilesOnlyChangedScriptFiles()) {
-            return parseAndCache(codeSource);
+            if(codeSource.getFile() != null)
+                return parseAndCache(codeSource);
+            else
+                return parseAndCacheText(codeSource);
         }
         else
             return parseClass(codeSource);
@@ -134,7 +141,7 @@ class GroovyShell extends GroovyObjectSupport {
             throw new RuntimeException(e);
         }
         File cache = new File(ScriptResources.getCompiledScriptsDir(), md5);
-        File propertyFile = new File(cache, "compiled.properties");
+        File propertyFile = new File(cache, COMPILED_PROPERTIES);
         File classes = new File(cache, "classes");
         if (propertyFile.exists() && classes.exists()) {
             try (InputStream in = new FileInputStream(propertyFile)) {
@@ -181,6 +188,28 @@ class GroovyShell extends GroovyObjectSupport {
             return parseClass(codeSource);
     }
 
+    private Class parseAndCacheText(final GroovyCodeSource codeSource) {
+        final CompiledTextCache cache = new CompiledTextCache(ScriptResources.getCompiledScriptsDir(),
+            CompiledTextCache.version(GroovySystem.getVersion(), FreeplaneVersion.getVersion().toString(),
+                ScriptResources.getClasspath()),
+            CompiledTextCache.MAXIMUM_TEXT_COUNT);
+        return cache.load(codeSource.getScriptText(), this::loadCompiledClass, classes -> compile(codeSource, classes));
+    }
+
+    private Class loadCompiledClass(final File classes, final String className) throws ClassNotFoundException {
+        GroovyClassLoader loader = createClassLoader();
+        loader.addURL(ScriptClassLoader.pathToUrl(classes));
+        return loader.loadClass(className);
+    }
+
+    private Class compile(final GroovyCodeSource codeSource, final File classes) {
+        config.setTargetDirectory(classes);
+        try {
+            return parseClass(codeSource);
+        } finally {
+            config.setTargetDirectory((File)null);
+        }
+    }
 
     private GroovyClassLoader createClassLoader() {
         GroovyClassLoader loader = AccessController.doPrivileged(new PrivilegedAction<GroovyClassLoader>() {
@@ -20,6 +20,9 @@ package org.freeplane.plugin.script;
 
 import java.io.File;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
@@ -108,6 +111,25 @@ public class ScriptingEngine {
 		return createScript(script, "groovy", permissions);
 	}
 
+	/**
+	 * Compiles the scripts on several threads so that their later execution does not need to compile them.
+	 * Compilation does not access any map, so unlike execution it is thread safe.
+	 * Only as many scripts as the compiled script cache keeps are compiled.
+	 */
+	static void compileGroovyScripts(Collection<String> scripts, ScriptingPermissions permissions) {
+		final List<GroovyScript> groovyScripts = new ArrayList<>();
+		final int cacheSize = getCompiledScriptCacheSize();
+		for (String script : scripts) {
+			if (groovyScripts.size() >= cacheSize)
+				break;
+			final IScript groovyScript = createGroovyScript(script, permissions);
+			if (groovyScript instanceof GroovyScript)
+				groovyScripts.add((GroovyScript) groovyScript);
+		}
+		if (groovyScripts.size() > 1)
+			groovyScripts.parallelStream().forEach(GroovyScript::compile);
+	}
+
     public static Object executeScript(NodeModel node, File scriptFile, ScriptingPermissions permissions) {
         final IScript script = ScriptingEngine.createScript(scriptFile, permissions, false);
         return new ScriptRunner(script).execute(node);
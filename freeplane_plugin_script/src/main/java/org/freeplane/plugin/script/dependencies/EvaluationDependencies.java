@@ -1,7 +1,9 @@
 package org.freeplane.plugin.script.dependencies;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -42,29 +44,33 @@ public class EvaluationDependencies implements IExtension{
 	private final WeakHashMap<MapModel, DependentNodeReferences> onMapDependencies = new WeakHashMap<>();
 
 	private final WeakHashMap<NodeModel, DependentNodeReferences> onNodeDependencies = new WeakHashMap<>();
-	// FIXME: organize node and branch dependencies in a tree?
+	// keyed by branch root, so the branches containing a node are found by looking up its ancestors
 	private final WeakHashMap<NodeModel, DependentNodeReferences> onBranchDependencies = new WeakHashMap<>();
 	private final WeakHashMap<NodeModel, Void> onAnyNodeDependencies = new WeakHashMap<>();
 	private final WeakHashMap<NodeModel, Void> onGlobalNodeDependencies = new WeakHashMap<>();
 
 	public void getChangedDependencies(Set<NodeModel> accessingNodes, final NodeModel accessedNode) {
+		final Deque<NodeModel> changedNodes = new ArrayDeque<>();
+		addChangedDependencies(accessingNodes, changedNodes, accessedNode);
+		addDependenciesOfChangedNodes(accessingNodes, changedNodes);
+//		System.out.println("dependencies on(" + node + "): " + accessingNodes);
+	}
+
+	private void addChangedDependencies(Set<NodeModel> accessingNodes, Deque<NodeModel> changedNodes,
+	                                    final NodeModel accessedNode) {
 		final Iterable<NodeModel> onNode = onNodeDependencies.get(accessedNode);
 		if (onNode != null)
-			getRecursively(accessingNodes, onNode);
-		ArrayList<Entry<NodeModel, DependentNodeReferences>> onBranchDependencyList = new ArrayList<>(onBranchDependencies.entrySet());
-		for (Entry<NodeModel, DependentNodeReferences> entry : onBranchDependencyList) {
-			final NodeModel branchNode = entry.getKey();
-			if (accessedNode.isDescendantOf(branchNode)) {
-				onBranchDependencies.get(branchNode);
-				getRecursively(accessingNodes, entry.getValue());
-			}
+			addNew(accessingNodes, changedNodes, onNode);
+		for (NodeModel branchNode = accessedNode.getParentNode(); branchNode != null; branchNode = branchNode.getParentNode()) {
+			final Iterable<NodeModel> onBranch = onBranchDependencies.get(branchNode);
+			if (onBranch != null)
+				addNew(accessingNodes, changedNodes, onBranch);
 		}
 		if(! onAnyNodeDependencies.isEmpty()) {
 		    ArrayList<NodeModel> onAnyNodeDependendingNodes = new ArrayList<>(onAnyNodeDependencies.keySet());
 		    onAnyNodeDependencies.clear();
-		    getRecursively(accessingNodes, onAnyNodeDependendingNodes);
+		    addNew(accessingNodes, changedNodes, onAnyNodeDependendingNodes);
 		}
-//		System.out.println("dependencies on(" + node + "): " + accessingNodes);
 	}
 
 	public void getGlobalDependencies(Set<NodeModel> accessingNodes) {
@@ -77,13 +83,37 @@ public class EvaluationDependencies implements IExtension{
 		if (onMap != null)
 			getRecursively(accessingNodes, onMap);
 	}
+
 	private void getRecursively(Set<NodeModel> accessingNodes, final Iterable<NodeModel> changedAccessedNodes) {
-		for (NodeModel node : changedAccessedNodes) {
+		final Deque<NodeModel> changedNodes = new ArrayDeque<>();
+		addNew(accessingNodes, changedNodes, changedAccessedNodes);
+		addDependenciesOfChangedNodes(accessingNodes, changedNodes);
+	}
+
+	private void addDependenciesOfChangedNodes(Set<NodeModel> accessingNodes, final Deque<NodeModel> changedNodes) {
+		while (! changedNodes.isEmpty())
+			addChangedDependencies(accessingNodes, changedNodes, changedNodes.poll());
+	}
+
+	private void addNew(Set<NodeModel> accessingNodes, Deque<NodeModel> changedNodes, final Iterable<NodeModel> nodes) {
+		for (NodeModel node : nodes) {
 			// avoid loops
-			if (accessingNodes.add(node)) {
-				getChangedDependencies(accessingNodes, node);
-			}
+			if (accessingNodes.add(node))
+				changedNodes.add(node);
+		}
+	}
+
+	/** nodes whose last evaluation accessed accessedNode directly, not the nodes depending on them in turn. */
+	public void getDirectDependencies(Set<NodeModel> accessingNodes, final NodeModel accessedNode) {
+		final Iterable<NodeModel> onNode = onNodeDependencies.get(accessedNode);
+		if (onNode != null)
+			onNode.forEach(accessingNodes::add);
+		for (NodeModel branchNode = accessedNode.getParentNode(); branchNode != null; branchNode = branchNode.getParentNode()) {
+			final Iterable<NodeModel> onBranch = onBranchDependencies.get(branchNode);
+			if (onBranch != null)
+				onBranch.forEach(accessingNodes::add);
 		}
+		accessingNodes.addAll(onAnyNodeDependencies.keySet());
 	}
 
 	/** accessedNode was accessed when accessingNode was evaluated. */
@@ -5,11 +5,15 @@ import org.freeplane.api.NodeChangeListener;
 import org.freeplane.api.NodeCondition;
 import org.freeplane.core.resources.ResourceController;
 import org.freeplane.core.util.ColorUtils;
+import org.freeplane.features.attribute.Attribute;
+import org.freeplane.features.attribute.AttributeIndex;
+import org.freeplane.features.attribute.NodeAttributeTableModel;
 import org.freeplane.features.filter.Filter;
 import org.freeplane.features.filter.FilterController;
 import org.freeplane.features.filter.condition.ICondition;
 import org.freeplane.features.map.MapModel;
 import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeStream;
 import org.freeplane.features.mode.Controller;
 import org.freeplane.features.styles.ConditionalStyleModel;
 import org.freeplane.features.styles.ConditionalStyleModel.Item;
@@ -18,6 +22,7 @@ import org.freeplane.features.styles.LogicalStyleController;
 import org.freeplane.features.styles.MapStyle;
 import org.freeplane.features.styles.MapStyleModel;
 import org.freeplane.features.styles.mindmapmode.MLogicalStyleController;
+import org.freeplane.features.text.TextController;
 import org.freeplane.features.ui.IMapViewManager;
 import org.freeplane.features.url.mindmapmode.MFileManager;
 import org.freeplane.plugin.script.FormulaUtils;
@@ -28,8 +33,12 @@ import org.freeplane.plugin.script.proxy.Proxy.Node;
 
 import java.awt.*;
 import java.io.File;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 public class MapProxy extends AbstractProxy<MapModel> implements MindMap, Map {
 	public MapProxy(final MapModel map, final ScriptContext scriptContext) {
@@ -97,6 +106,61 @@ public class MapProxy extends AbstractProxy<MapModel> implements MindMap, Map {
         return ColorUtils.colorToString(getBackgroundColor());
     }
 
+	// MapRO: R
+	@Override
+	public List<? extends org.freeplane.api.Node> findByAttribute(final String name) {
+		return findByAttribute(name, value -> true, index -> index.getNodesWithAttribute(name));
+	}
+
+	// MapRO: R
+	@Override
+	public List<? extends org.freeplane.api.Node> findByAttribute(final String name, final Object value) {
+		if (value == null)
+			throw new NullPointerException("findByAttribute(): value must not be null");
+		final String text = value.toString();
+		final Predicate<Object> valuePredicate = attributeValue -> value.equals(attributeValue)
+		        || value instanceof Number && attributeValue instanceof Number
+		                && ((Number) value).doubleValue() == ((Number) attributeValue).doubleValue()
+		        || text.equals(attributeValue.toString());
+		return findByAttribute(name, valuePredicate, index -> index.getEqualityCandidates(name, value));
+	}
+
+	// MapRO: R
+	@Override
+	public List<? extends org.freeplane.api.Node> findByAttributeRange(final String name, final Number minimum, final Number maximum) {
+		final double min = minimum.doubleValue();
+		final double max = maximum.doubleValue();
+		final Predicate<Object> valuePredicate = attributeValue -> attributeValue instanceof Number
+		        && ((Number) attributeValue).doubleValue() >= min && ((Number) attributeValue).doubleValue() <= max;
+		return findByAttribute(name, valuePredicate, index -> index.getNumericCandidates(name, min, max));
+	}
+
+	private List<? extends org.freeplane.api.Node> findByAttribute(final String name, final Predicate<Object> valuePredicate,
+	                                             final Function<AttributeIndex, BitSet> indexQuery) {
+		final MapModel map = getDelegate();
+		final ScriptContext scriptContext = getScriptContext();
+		if (scriptContext != null)
+			scriptContext.accessBranch(map.getRootNode());
+		final AttributeIndex index = AttributeIndex.of(map);
+		final List<NodeModel> candidates = index != null ? index.getNodes(indexQuery.apply(index))
+		        : NodeStream.of(map.getRootNode()).collect(Collectors.toList());
+		final List<NodeModel> nodes = candidates.stream()
+		    .filter(node -> hasAttribute(node, name, valuePredicate))
+		    .collect(Collectors.toList());
+		return ProxyUtils.createNodeList(nodes, scriptContext);
+	}
+
+	private static boolean hasAttribute(final NodeModel node, final String name, final Predicate<Object> valuePredicate) {
+		final NodeAttributeTableModel attributes = NodeAttributeTableModel.getModel(node);
+		final TextController textController = TextController.getController();
+		for (final Attribute attribute : attributes.getAttributes()) {
+			if (attribute.getName().equals(name) && valuePredicate
+			    .test(textController.getTransformedObjectNoFormattingNoThrow(node, attributes, attribute.getValue())))
+				return true;
+		}
+		return false;
+	}
+
 	// Map: R/W
 	@Override
 	public boolean close(boolean force, boolean allowInteraction) {
@@ -0,0 +1,123 @@
+package org.freeplane.plugin.script;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.Script;
+
+public class CompiledTextCacheShould {
+	private static final String VERSION = CompiledTextCache.version("groovy", "freeplane", Arrays.asList("lib"));
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+	private final AtomicInteger compilations = new AtomicInteger();
+
+	private CompiledTextCache cache(String version, int maximumTextCount) {
+		return new CompiledTextCache(temporaryFolder.getRoot(), version, maximumTextCount);
+	}
+
+	private Class<?> load(CompiledTextCache cache, String scriptText) {
+		return cache.load(scriptText, this::loadCompiledClass, classes -> compile(scriptText, classes));
+	}
+
+	private Class<?> compile(String scriptText, File classes) {
+		compilations.incrementAndGet();
+		final CompilerConfiguration config = new CompilerConfiguration();
+		config.setTargetDirectory(classes);
+		final GroovyClassLoader loader = new GroovyClassLoader(getClass().getClassLoader(), config);
+		return loader.parseClass(new GroovyCodeSource(scriptText, "Script1.groovy", "/groovy/shell"), false);
+	}
+
+	private Class<?> loadCompiledClass(File classes, String className) throws ClassNotFoundException {
+		final GroovyClassLoader loader = new GroovyClassLoader(getClass().getClassLoader());
+		loader.addURL(ScriptClassLoader.pathToUrl(classes));
+		return loader.loadClass(className);
+	}
+
+	private static Object run(Class<?> scriptClass) throws Exception {
+		return ((Script) scriptClass.getDeclaredConstructor().newInstance()).run();
+	}
+
+	private String[] cachedFileNames() {
+		return temporaryFolder.getRoot().list();
+	}
+
+	@Test
+	public void loadClassesCompiledByOtherShells() throws Exception {
+		final Class<?> compiledClass = load(cache(VERSION, 10), "1 + 2");
+		final Class<?> loadedClass = load(cache(VERSION, 10), "1 + 2");
+
+		assertThat(compilations.get()).isEqualTo(1);
+		assertThat(loadedClass).isNotSameAs(compiledClass);
+		assertThat(run(loadedClass)).isEqualTo(3);
+	}
+
+	@Test
+	public void compileTextAgainAfterClasspathOrVersionChanges() throws Exception {
+		load(cache(VERSION, 10), "1 + 2");
+		load(cache(CompiledTextCache.version("groovy", "freeplane", Arrays.asList("lib", "other lib")), 10), "1 + 2");
+		load(cache(CompiledTextCache.version("groovy", "next freeplane", Arrays.asList("lib")), 10), "1 + 2");
+		load(cache(CompiledTextCache.version("next groovy", "freeplane", Arrays.asList("lib")), 10), "1 + 2");
+
+		assertThat(compilations.get()).isEqualTo(4);
+		assertThat(cachedFileNames()).hasSize(4);
+	}
+
+	@Test
+	public void keepOneCompleteCacheWhenTextIsCompiledConcurrently() throws Exception {
+		final int threadCount = 8;
+		final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		final CountDownLatch start = new CountDownLatch(1);
+		final List<Future<Class<?>>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < threadCount; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					return load(cache(VERSION, 10), "6 * 7");
+				}));
+			}
+			start.countDown();
+			for (Future<Class<?>> result : results)
+				assertThat(run(result.get())).isEqualTo(42);
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		assertThat(cachedFileNames()).containsExactly(cache(VERSION, 10).cacheDirectory("6 * 7").getName());
+		final int compilationCount = compilations.get();
+		assertThat(run(load(cache(VERSION, 10), "6 * 7"))).isEqualTo(42);
+		assertThat(compilations.get()).isEqualTo(compilationCount);
+	}
+
+	@Test
+	public void removeLeastRecentlyUsedTextsExceedingMaximumCount() throws Exception {
+		final CompiledTextCache uut = cache(VERSION, 2);
+		load(uut, "1");
+		load(uut, "2");
+		final long now = System.currentTimeMillis();
+		new File(uut.cacheDirectory("1"), GroovyShell.COMPILED_PROPERTIES).setLastModified(now - 20000);
+		new File(uut.cacheDirectory("2"), GroovyShell.COMPILED_PROPERTIES).setLastModified(now - 10000);
+		load(uut, "1");
+
+		load(uut, "3");
+
+		assertThat(cachedFileNames()).containsExactlyInAnyOrder(uut.cacheDirectory("1").getName(),
+		    uut.cacheDirectory("3").getName());
+	}
+}
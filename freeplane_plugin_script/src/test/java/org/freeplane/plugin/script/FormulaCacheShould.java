@@ -0,0 +1,90 @@
+package org.freeplane.plugin.script;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.plugin.script.dependencies.RelatedElements;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class FormulaCacheShould {
+	private static final int ENTRY_SIZE = 96;
+	private final MapModel map = new MapModel(null, null, null);
+
+	@BeforeClass
+	public static void setupController() {
+		final Controller controller = mock(Controller.class);
+		final ResourceController resourceController = mock(ResourceController.class);
+		when(controller.getResourceController()).thenReturn(resourceController);
+		Controller.setCurrentController(controller);
+	}
+
+	private NodeScript put(FormulaCache uut, NodeModel node, String script, Object value) {
+		final NodeScript nodeScript = new NodeScript(node, script);
+		uut.put(nodeScript, new CachedResult(value, new RelatedElements(node)));
+		return nodeScript;
+	}
+
+	@Test
+	public void cacheResultsByNodeIdentityAndScript() throws Exception {
+		final FormulaCache uut = new FormulaCache(() -> Long.MAX_VALUE);
+		final NodeModel first = new NodeModel("first", map);
+		final NodeModel second = new NodeModel("second", map);
+		put(uut, first, "1 + 1", 2);
+		put(uut, second, "1 + 1", 3);
+
+		assertThat(uut.getOrThrowCachedResult(new NodeScript(first, new String("1 + 1")))).isEqualTo(2);
+		assertThat(uut.getOrThrowCachedResult(new NodeScript(second, "1 + 1"))).isEqualTo(3);
+		assertThat(uut.getOrThrowCachedResult(new NodeScript(first, "2 + 2"))).isNull();
+		assertThat(uut.getHitCount()).isEqualTo(2);
+		assertThat(uut.getMissCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void evictLeastRecentlyUsedResultsKeepingRelatedElements() throws Exception {
+		final FormulaCache uut = new FormulaCache(() -> 2 * ENTRY_SIZE);
+		final NodeModel node = new NodeModel("node", map);
+		final NodeScript first = put(uut, node, "1", 1);
+		final NodeScript second = put(uut, node, "2", 2);
+		uut.getOrThrowCachedResult(first);
+		put(uut, node, "3", 3);
+
+		assertThat(uut.getOrThrowCachedResult(second)).isNull();
+		assertThat(uut.getOrThrowCachedResult(first)).isEqualTo(1);
+		assertThat(uut.getEvictionCount()).isEqualTo(1);
+		assertThat(uut.getUsedBytes()).isEqualTo(2 * ENTRY_SIZE);
+		assertThat(uut.getAccessedValues(node, "2")).isNotNull();
+	}
+
+	@Test
+	public void estimateSizeOfCollectionResultsByTheirElements() throws Exception {
+		final FormulaCache uut = new FormulaCache(() -> Long.MAX_VALUE);
+		final NodeModel node = new NodeModel("node", map);
+		put(uut, node, "small", Arrays.asList(1));
+		final long smallListSize = uut.getUsedBytes();
+		uut.remove(node);
+		put(uut, node, "large", Collections.nCopies(1000, 1));
+
+		assertThat(uut.getUsedBytes()).isGreaterThan(smallListSize + 999 * 16);
+	}
+
+	@Test
+	public void removeResultsAndRelatedElementsOfChangedNodes() throws Exception {
+		final FormulaCache uut = new FormulaCache(() -> Long.MAX_VALUE);
+		final NodeModel node = new NodeModel("node", map);
+		final NodeScript nodeScript = put(uut, node, "1", 1);
+		uut.remove(node);
+
+		assertThat(uut.getOrThrowCachedResult(nodeScript)).isNull();
+		assertThat(uut.getAccessedValues(node, "1")).isNull();
+		assertThat(uut.getUsedBytes()).isZero();
+	}
+}
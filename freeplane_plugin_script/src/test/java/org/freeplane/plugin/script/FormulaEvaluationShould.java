@@ -0,0 +1,131 @@
+package org.freeplane.plugin.script;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.plugin.script.dependencies.EvaluationDependencies;
+import org.freeplane.plugin.script.dependencies.RelatedElements;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class FormulaEvaluationShould {
+	private MapModel map;
+	private NodeModel root;
+	private FormulaCache formulaCache;
+	private final List<NodeModel> evaluatedNodes = new ArrayList<>();
+	private final List<NodeModel> refreshedNodes = new ArrayList<>();
+	private final List<String> compiledScripts = new ArrayList<>();
+
+	@BeforeClass
+	public static void setupController() {
+		final Controller controller = mock(Controller.class);
+		final ResourceController resourceController = mock(ResourceController.class);
+		when(controller.getResourceController()).thenReturn(resourceController);
+		Controller.setCurrentController(controller);
+	}
+
+	@Before
+	public void setup() {
+		map = new MapModel(null, null, null);
+		root = new NodeModel("root", map);
+		map.setRoot(root);
+		formulaCache = new FormulaCache(() -> Long.MAX_VALUE);
+		map.addExtension(formulaCache);
+	}
+
+	private NodeModel formulaNode(String formula) {
+		final NodeModel node = new NodeModel(formula, map);
+		root.insert(node);
+		return node;
+	}
+
+	private void access(NodeModel accessingNode, NodeModel accessedNode) {
+		EvaluationDependencies.of(map).accessNode(accessingNode, accessedNode);
+	}
+
+	private void cache(NodeModel node, Object result) {
+		final String script = FormulaUtils.scriptOf((String) node.getUserObject());
+		formulaCache.put(new NodeScript(node, script), new CachedResult(result, new RelatedElements(node)));
+	}
+
+	private FormulaEvaluation evaluation() {
+		return new FormulaEvaluation(map, compiledScripts::addAll, (node, formula) -> evaluatedNodes.add(node),
+		    refreshedNodes::add);
+	}
+
+	@Test
+	public void evaluateNodesAfterTheNodesTheyAccess() throws Exception {
+		final NodeModel last = formulaNode("=second + 1");
+		final NodeModel second = formulaNode("=first + 1");
+		final NodeModel first = formulaNode("=1");
+		access(last, second);
+		access(second, first);
+
+		evaluation().run();
+
+		assertThat(evaluatedNodes).containsExactly(first, second, last);
+	}
+
+	@Test
+	public void evaluateNodesInAndBehindCyclesLast() throws Exception {
+		final NodeModel cyclic = formulaNode("=other");
+		final NodeModel other = formulaNode("=cyclic");
+		final NodeModel dependent = formulaNode("=cyclic + 1");
+		final NodeModel independent = formulaNode("=1");
+		access(cyclic, other);
+		access(other, cyclic);
+		access(dependent, cyclic);
+
+		evaluation().run();
+
+		assertThat(evaluatedNodes).containsExactly(independent, cyclic, other, dependent);
+	}
+
+	@Test
+	public void refreshOnlyNodesWhoseResultsChanged() throws Exception {
+		final NodeModel unchanged = formulaNode("=1");
+		final NodeModel changed = formulaNode("=2");
+		final NodeModel uncached = formulaNode("=3");
+		cache(unchanged, 1);
+		cache(changed, 2);
+		final FormulaEvaluation evaluation = new FormulaEvaluation(map, compiledScripts::addAll, (node, formula) -> {
+			if (node == unchanged)
+				cache(node, 1);
+			else if (node == changed)
+				cache(node, 20);
+			else
+				cache(node, 3);
+		}, refreshedNodes::add);
+		formulaCache.remove(unchanged);
+		formulaCache.remove(changed);
+
+		evaluation.run();
+
+		assertThat(refreshedNodes).containsExactly(changed, uncached);
+	}
+
+	@Test
+	public void compileScriptsOfUncachedFormulasOnceBeforeEvaluation() throws Exception {
+		final NodeModel cached = formulaNode("=1");
+		final NodeModel uncached = formulaNode("=2");
+		final NodeModel sameScript = formulaNode("=2");
+		cache(cached, 1);
+		final FormulaEvaluation evaluation = new FormulaEvaluation(map, compiledScripts::addAll, (node, formula) -> {
+			assertThat(compiledScripts).containsExactly("2");
+			evaluatedNodes.add(node);
+		}, refreshedNodes::add);
+
+		evaluation.run();
+
+		assertThat(evaluatedNodes).containsExactly(cached, uncached, sameScript);
+	}
+}
@@ -0,0 +1,75 @@
+package org.freeplane.plugin.script.dependencies;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Test;
+
+public class EvaluationDependenciesShould {
+	private final MapModel map = new MapModel(null, null, null);
+	private final EvaluationDependencies uut = new EvaluationDependencies();
+
+	private NodeModel node(String text, NodeModel parent) {
+		final NodeModel node = new NodeModel(text, map);
+		if (parent != null)
+			parent.insert(node);
+		return node;
+	}
+
+	private Set<NodeModel> changedDependencies(NodeModel changedNode) {
+		final Set<NodeModel> dependencies = new LinkedHashSet<>();
+		uut.getChangedDependencies(dependencies, changedNode);
+		return dependencies;
+	}
+
+	@Test
+	public void findFormulasAccessingBranchesContainingChangedNode() throws Exception {
+		final NodeModel root = node("root", null);
+		final NodeModel branch = node("branch", root);
+		final NodeModel child = node("child", branch);
+		final NodeModel grandchild = node("grandchild", child);
+		final NodeModel sibling = node("sibling", root);
+		final NodeModel rootFormula = node("root formula", null);
+		final NodeModel branchFormula = node("branch formula", null);
+		final NodeModel siblingFormula = node("sibling formula", null);
+		uut.accessBranch(rootFormula, root);
+		uut.accessBranch(branchFormula, branch);
+		uut.accessBranch(siblingFormula, sibling);
+
+		assertThat(changedDependencies(grandchild)).containsExactlyInAnyOrder(rootFormula, branchFormula);
+		assertThat(changedDependencies(branch)).containsExactly(rootFormula);
+	}
+
+	@Test
+	public void followBranchDependenciesAfterStructuralChanges() throws Exception {
+		final NodeModel root = node("root", null);
+		final NodeModel first = node("first", root);
+		final NodeModel second = node("second", root);
+		final NodeModel moved = node("moved", first);
+		final NodeModel formula = node("formula", null);
+		uut.accessBranch(formula, second);
+		assertThat(changedDependencies(moved)).isEmpty();
+
+		first.remove(0);
+		second.insert(moved);
+
+		assertThat(changedDependencies(moved)).containsExactly(formula);
+	}
+
+	@Test
+	public void findTransitiveDependenciesOnce() throws Exception {
+		final NodeModel root = node("root", null);
+		final NodeModel value = node("value", root);
+		final NodeModel sum = node("sum", root);
+		final NodeModel total = node("total", null);
+		uut.accessNode(sum, value);
+		uut.accessBranch(total, root);
+		uut.accessNode(sum, total);
+
+		assertThat(changedDependencies(value)).containsExactlyInAnyOrder(sum, total);
+	}
+}